@@ -95,6 +95,9 @@ final class ConfigurationDefaults {
         defaultValues.put(Constants.PREF_KEY_SEARCH_MIN_SEEDS_FOR_TORRENT_RESULT, 20);
         defaultValues.put(Constants.PREF_KEY_SEARCH_MAX_TORRENT_FILES_TO_INDEX, 100); // no ultra big torrents here
         defaultValues.put(Constants.PREF_KEY_SEARCH_FULLTEXT_SEARCH_RESULTS_LIMIT, 256);
+        defaultValues.put(Constants.PREF_KEY_SEARCH_JAVA_TORRENT_DECODER, false);
+        defaultValues.put(Constants.PREF_KEY_SEARCH_METRICS_LOG_INTERVAL, 0); // in seconds, 0 never
+        defaultValues.put(Constants.PREF_KEY_SEARCH_BEST_RESULTS_FIRST, true);
 
         defaultValues.put(Constants.PREF_KEY_SEARCH_USE_VERTOR, true);
         defaultValues.put(Constants.PREF_KEY_SEARCH_USE_ZOOQLE, true);
@@ -64,6 +64,9 @@ public final class Constants {
     public static final String PREF_KEY_SEARCH_MIN_SEEDS_FOR_TORRENT_RESULT = "frostwire.prefs.search.min_seeds_for_torrent_result";
     public static final String PREF_KEY_SEARCH_MAX_TORRENT_FILES_TO_INDEX = "frostwire.prefs.search.max_torrent_files_to_index";
     public static final String PREF_KEY_SEARCH_FULLTEXT_SEARCH_RESULTS_LIMIT = "frostwire.prefs.search.fulltext_search_results_limit";
+    public static final String PREF_KEY_SEARCH_JAVA_TORRENT_DECODER = "frostwire.prefs.search.java_torrent_decoder";
+    public static final String PREF_KEY_SEARCH_METRICS_LOG_INTERVAL = "frostwire.prefs.search.metrics_log_interval";
+    public static final String PREF_KEY_SEARCH_BEST_RESULTS_FIRST = "frostwire.prefs.search.best_results_first";
 
     public static final String PREF_KEY_SEARCH_USE_ZOOQLE = "frostwire.prefs.search.use_zooqle";
     public static final String PREF_KEY_SEARCH_USE_VERTOR = "frostwire.prefs.search.use_vertor";
@@ -16,12 +16,16 @@
 package com.frostwire.android.core;
 
 import com.frostwire.android.R;
+import com.frostwire.util.ExtensionRegistry;
+import com.frostwire.util.ExtensionRegistry.Category;
 
 import java.io.ObjectStreamException;
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
 
@@ -60,52 +64,37 @@ public class MediaType implements Serializable {
     public static final int TORRENTS_STRING_RESOURCE_ID = R.string.media_type_torrents;
 
     /**
-     * Type for 'documents'
+     * Type for 'documents', archives and code too
      */
-    private static final MediaType TYPE_DOCUMENTS = new MediaType(Constants.FILE_TYPE_DOCUMENTS, SCHEMA_DOCUMENTS, DOCUMENTS_STRING_RESOURCE_ID, new String[] { "html", "htm", "xhtml", "mht", "mhtml",
-            "xml", "txt", "ans", "asc", "diz", "eml", "pdf", "ps", "eps", "epsf", "dvi", "rtf", "wri", "doc", "docx", "mcw", "wps", "xls", "wk1", "dif", "csv", "ppt", "tsv", "hlp", "chm", "lit",
-            "tex", "texi", "latex", "info", "man", "wp", "wpd", "wp5", "wk3", "wk4", "shw", "sdd", "sdw", "sdp", "sdc", "sxd", "sxw", "sxp", "sxc", "abw", "kwd", "mobi", "azw", "aeh", "lrf", "lrx",
-            "cbr", "cbz", "cb7", "chm", "dnl", "djvu", "epub", "pdb", "fb2", "xeb", "ceb", "prc", "pkg", "opf", "pdg", "pdb", "tr2", "tr3", "cbr", "cbz", "cb7", "cbt", "cba", "zip", "7z", "rar",
-            "gzip", "tar", "gz", "cab", "msi", "ace", "sit", "dmg", "taz", "sh", "awk", "pl", "java", "py", "rb", "c", "cpp", "h", "hpp" });
+    private static final MediaType TYPE_DOCUMENTS = new MediaType(Constants.FILE_TYPE_DOCUMENTS, SCHEMA_DOCUMENTS, DOCUMENTS_STRING_RESOURCE_ID,
+            extensions(Category.DOCUMENT, Category.ARCHIVE, Category.SCRIPT, Category.SOURCE_CODE));
 
     /**
      * Type for applications.
      */
     private static final MediaType TYPE_APPLICATIONS = new MediaType(
             Constants.FILE_TYPE_APPLICATIONS, SCHEMA_PROGRAMS,
-            APPLICATIONS_STRING_RESOURCE_ID, new String[] {"apk"});
-    /**
-     * desktop world
-     "zip", "jar", "cab", "msi", "msp", "arj", "rar", "ace",
-    "lzh", "lha", "bin", "nrg", "cue", "iso", "jnlp", "bin",
-    "mdb", "sh", "csh", "awk", "pl", "rpm", "deb", "gz",
-    "gzip", "z", "bz2", "zoo", "tar", "tgz", "taz", "shar",
-    "hqx", "sit", "dmg", "7z", "jar", "zip"
-
-     */
+            APPLICATIONS_STRING_RESOURCE_ID, extensions(Category.ANDROID_PACKAGE));
 
     /**
      * Type for 'audio'
      */
-    private static final MediaType TYPE_AUDIO = new MediaType(Constants.FILE_TYPE_AUDIO, SCHEMA_AUDIO, AUDIO_STRING_RESOURCE_ID, new String[] { "mp3", "mpa", "mp1", "mpga", "mp2", "ra", "rm", "ram", "rmj", "wma", "wav", "m4a", "m4p", "lqt", "ogg", "med", "aif", "aiff", "aifc", "au", "snd", "s3m", "aud", "mid", "midi",
-            "rmi", "mod", "kar", "ac3", "shn", "fla", "flac", "cda", "mka, aac" });
+    private static final MediaType TYPE_AUDIO = new MediaType(Constants.FILE_TYPE_AUDIO, SCHEMA_AUDIO, AUDIO_STRING_RESOURCE_ID, extensions(Category.AUDIO));
 
     /**
      * Type for 'video'
      */
-    private static final MediaType TYPE_VIDEO = new MediaType(Constants.FILE_TYPE_VIDEOS, SCHEMA_VIDEO, VIDEO_STRING_RESOURCE_ID, new String[] { "mpg", "mpeg", "mpe", "mng", "mpv", "m1v", "vob", "mp2", "mpv2", "mp2v", "m2p", "m2v", "mpgv", "vcd", "mp4", "dv", "dvd", "div", "divx", "dvx", "smi", "smil", "rm", "ram", "rv",
-            "rmm", "rmvb", "avi", "asf", "asx", "wmv", "qt", "mov", "fli", "flc", "flx", "flv", "wml", "vrml", "swf", "dcr", "jve", "nsv", "mkv", "ogm", "cdg", "srt", "sub", "idx", "webm", "3gp" });
+    private static final MediaType TYPE_VIDEO = new MediaType(Constants.FILE_TYPE_VIDEOS, SCHEMA_VIDEO, VIDEO_STRING_RESOURCE_ID, extensions(Category.VIDEO));
 
     /**
      * Type for 'images'
      */
-    private static final MediaType TYPE_PICTURES = new MediaType(Constants.FILE_TYPE_PICTURES, SCHEMA_IMAGES, IMAGES_STRING_RESOURCE_ID, new String[] { "gif", "png", "jpg", "jpeg", "jpe", "jif", "jiff", "jfif", "tif", "tiff", "iff", "lbm", "ilbm", "eps", "mac", "drw", "pct", "img", "bmp", "dib", "rle", "ico", "ani", "icl",
-            "cur", "emf", "wmf", "pcx", "pcd", "tga", "pic", "fig", "psd", "wpg", "dcx", "cpt", "mic", "pbm", "pnm", "ppm", "xbm", "xpm", "xwd", "sgi", "fax", "rgb", "ras" });
+    private static final MediaType TYPE_PICTURES = new MediaType(Constants.FILE_TYPE_PICTURES, SCHEMA_IMAGES, IMAGES_STRING_RESOURCE_ID, extensions(Category.IMAGE));
 
     /**
      * Type for 'torrents'
      */
-    public static final MediaType TYPE_TORRENTS = new MediaType(Constants.FILE_TYPE_TORRENTS, SCHEMA_TORRENTS, TORRENTS_STRING_RESOURCE_ID, new String[] { "torrent" });
+    public static final MediaType TYPE_TORRENTS = new MediaType(Constants.FILE_TYPE_TORRENTS, SCHEMA_TORRENTS, TORRENTS_STRING_RESOURCE_ID, extensions(Category.TORRENT));
 
     /**
      * All media types.
@@ -243,14 +232,50 @@ public class MediaType implements Serializable {
      * Retrieves the media type for the specified extension.
      */
     public static MediaType getMediaTypeForExtension(String ext) {
-        if (ext == null) {
+        ExtensionRegistry.Entry e = ExtensionRegistry.forExtension(ext);
+        return e != null ? forCategory(e.category()) : null;
+    }
+
+    /**
+     * Retrieves the media type for the extension of the file name, read in
+     * place.
+     */
+    public static MediaType getMediaTypeForFilename(CharSequence filename) {
+        ExtensionRegistry.Entry e = ExtensionRegistry.forFilename(filename);
+        return e != null ? forCategory(e.category()) : null;
+    }
+
+    private static MediaType forCategory(Category category) {
+        if (category == null) {
             return null;
         }
-        
-        for (int i = ALL_MEDIA_TYPES.length; --i >= 0;)
-            if (ALL_MEDIA_TYPES[i].exts.contains(ext))
-                return ALL_MEDIA_TYPES[i];
-        return null;
+        switch (category) {
+            case AUDIO:
+                return TYPE_AUDIO;
+            case VIDEO:
+                return TYPE_VIDEO;
+            case IMAGE:
+                return TYPE_PICTURES;
+            case TORRENT:
+                return TYPE_TORRENTS;
+            case ANDROID_PACKAGE:
+                return TYPE_APPLICATIONS;
+            case DOCUMENT:
+            case ARCHIVE:
+            case SCRIPT:
+            case SOURCE_CODE:
+                return TYPE_DOCUMENTS;
+            default:
+                return null;
+        }
+    }
+
+    private static String[] extensions(Category... categories) {
+        List<String> list = new ArrayList<>();
+        for (Category c : categories) {
+            list.addAll(Arrays.asList(ExtensionRegistry.extensions(c)));
+        }
+        return list.toArray(new String[0]);
     }
 
     /**
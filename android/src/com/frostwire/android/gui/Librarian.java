@@ -436,7 +436,7 @@ public final class Librarian {
     private byte getFileType(String filename, boolean returnTorrentsAsDocument) {
         byte result = Constants.FILE_TYPE_DOCUMENTS;
 
-        MediaType mt = MediaType.getMediaTypeForExtension(FilenameUtils.getExtension(filename));
+        MediaType mt = MediaType.getMediaTypeForFilename(filename);
 
         if (mt != null) {
             result = (byte) mt.getId();
@@ -19,24 +19,29 @@ package com.frostwire.android.gui;
 
 import android.text.Html;
 
+import com.frostwire.android.core.ConfigurationManager;
+import com.frostwire.android.core.Constants;
 import com.frostwire.android.gui.views.AbstractListAdapter;
 import com.frostwire.search.CrawlPagedWebSearchPerformer;
 import com.frostwire.search.CrawledSearchResult;
-import com.frostwire.search.FileSearchResult;
+import com.frostwire.search.KeywordMatcher;
+import com.frostwire.search.NormalizedText;
+import com.frostwire.search.PerformersHelper;
+import com.frostwire.search.SearchBudget;
 import com.frostwire.search.SearchError;
 import com.frostwire.search.SearchListener;
 import com.frostwire.search.SearchManager;
+import com.frostwire.search.SearchMetrics;
 import com.frostwire.search.SearchPerformer;
 import com.frostwire.search.SearchResult;
+import com.frostwire.search.torrent.MergedTorrent;
 import com.frostwire.search.torrent.TorrentSearchResult;
 import com.frostwire.util.StringUtils;
 
-import java.text.Normalizer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
@@ -73,6 +78,13 @@ public final class LocalSearchEngine {
 
     private LocalSearchEngine() {
         this.manager = SearchManager.getInstance();
+        this.manager.setBudget(SearchBudget.DEFAULT);
+        boolean javaDecoder = ConfigurationManager.instance().getBoolean(Constants.PREF_KEY_SEARCH_JAVA_TORRENT_DECODER);
+        PerformersHelper.setTorrentDecoder(javaDecoder ? PerformersHelper.TorrentDecoder.JAVA : PerformersHelper.TorrentDecoder.LIBTORRENT);
+        int metricsLogInterval = ConfigurationManager.instance().getInt(Constants.PREF_KEY_SEARCH_METRICS_LOG_INTERVAL);
+        if (metricsLogInterval > 0) {
+            SearchMetrics.getInstance().startLogDump(metricsLogInterval * 1000L);
+        }
         this.manager.setListener(new SearchListener() {
             @Override
             public void onResults(long token, List<? extends SearchResult> results) {
@@ -132,6 +144,28 @@ public final class LocalSearchEngine {
         searchFinished = true;
     }
 
+    /**
+     * For the listener to signal that it's behind with the results of the
+     * current search, the crawls are held while on.
+     */
+    public void setBackpressure(boolean on) {
+        long token = currentSearchToken;
+        if (token != 0) {
+            manager.setBackpressure(token, on);
+        }
+    }
+
+    /**
+     * The copies of a torrent of the current search found in other engines,
+     * only the first one is delivered.
+     *
+     * @return {@code null} if there is no search or no torrent with this infohash
+     */
+    public MergedTorrent getMergedTorrent(String hash) {
+        long token = currentSearchToken;
+        return token != 0 ? manager.getMergedTorrent(token, hash) : null;
+    }
+
     public boolean isSearchStopped() {
         return currentSearchToken == 0;
     }
@@ -197,9 +231,11 @@ public final class LocalSearchEngine {
         List<SearchResult> list = new LinkedList<>();
 
         try {
+            List<String> tokens = currentSearchTokens;
+            KeywordMatcher matcher = newMatcher(tokens);
             for (SearchResult sr : results) {
                 if (sr instanceof CrawledSearchResult) {
-                    if (filter(new LinkedList<>(currentSearchTokens), sr)) {
+                    if (filter(matcher, tokens, sr)) {
                         list.add(sr);
                     }
                 } else {
@@ -214,30 +250,21 @@ public final class LocalSearchEngine {
         return list;
     }
 
-    private boolean filter(List<String> tokens, SearchResult sr) {
-        StringBuilder sb = new StringBuilder();
-
-        sb.append(sr.getDisplayName());
-        if (sr instanceof CrawledSearchResult) {
-            sb.append(((CrawledSearchResult) sr).getParent().getDisplayName());
+    private boolean filter(KeywordMatcher matcher, List<String> tokens, SearchResult sr) {
+        String str = NormalizedText.nameHaystack(sr);
+        if (matcher != null) {
+            return matcher.containsAll(str);
         }
-
-        if (sr instanceof FileSearchResult) {
-            sb.append(((FileSearchResult) sr).getFilename());
-        }
-
-        String str = sanitize(sb.toString());
-        str = normalize(str);
-
-        Iterator<String> it = tokens.iterator();
-        while (it.hasNext()) {
-            String token = it.next();
-            if (str.contains(token)) {
-                it.remove();
+        for (String token : tokens) {
+            if (!str.contains(token)) {
+                return false;
             }
         }
+        return true;
+    }
 
-        return tokens.isEmpty();
+    private static KeywordMatcher newMatcher(List<String> tokens) {
+        return tokens.size() <= KeywordMatcher.MAX_KEYWORDS ? new KeywordMatcher(tokens) : null;
     }
 
     private String sanitize(String str) {
@@ -250,11 +277,7 @@ public final class LocalSearchEngine {
     }
 
     private String normalize(String token) {
-        String norm = Normalizer.normalize(token, Normalizer.Form.NFKD);
-        norm = norm.replaceAll("\\p{InCombiningDiacriticalMarks}+", "");
-        norm = norm.toLowerCase(Locale.US);
-
-        return norm;
+        return NormalizedText.fold(token);
     }
 
     private Set<String> normalizeTokens(Set<String> tokens) {
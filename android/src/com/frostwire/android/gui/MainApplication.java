@@ -33,8 +33,12 @@ import com.frostwire.bittorrent.BTContext;
 import com.frostwire.bittorrent.BTEngine;
 import com.frostwire.platform.Platforms;
 import com.frostwire.platform.SystemPaths;
+import com.frostwire.search.ContentAddressedCrawlCache;
 import com.frostwire.search.CrawlPagedWebSearchPerformer;
 import com.frostwire.search.LibTorrentMagnetDownloader;
+import com.frostwire.search.PagedWebSearchPerformer;
+import com.frostwire.search.QueryCache;
+import com.frostwire.search.TieredCrawlCache;
 import com.frostwire.util.Logger;
 import com.frostwire.util.Ref;
 
@@ -58,6 +62,10 @@ import static com.frostwire.android.util.RunStrict.runStrict;
 public class MainApplication extends MultiDexApplication {
 
     private static final Logger LOG = Logger.getLogger(MainApplication.class);
+    private static final long CRAWL_CACHE_MEMORY_SIZE = 4 * 1024 * 1024; // 4MB
+    private static final long CRAWL_CACHE_PAYLOAD_SIZE = 40 * 1024 * 1024; // 40MB, under the 50MB of the disk cache
+    private static final long QUERY_CACHE_MEMORY_SIZE = 2 * 1024 * 1024; // 2MB
+    private static final long QUERY_CACHE_DISK_SIZE = 5 * 1024 * 1024; // 5MB, shares the disk cache with the crawls
 
     @Override
     public void onCreate() {
@@ -117,7 +125,9 @@ public class MainApplication extends MultiDexApplication {
     }
 
     private void initializeCrawlPagedWebSearchPerformer(Context context) {
-        CrawlPagedWebSearchPerformer.setCache(new DiskCrawlCache(context));
+        DiskCrawlCache diskCrawlCache = new DiskCrawlCache(context);
+        CrawlPagedWebSearchPerformer.setCache(new TieredCrawlCache(new ContentAddressedCrawlCache(diskCrawlCache, CRAWL_CACHE_PAYLOAD_SIZE), CRAWL_CACHE_MEMORY_SIZE));
+        PagedWebSearchPerformer.setQueryCache(new QueryCache(diskCrawlCache, QUERY_CACHE_MEMORY_SIZE, QUERY_CACHE_DISK_SIZE));
         CrawlPagedWebSearchPerformer.setMagnetDownloader(new LibTorrentMagnetDownloader());
     }
 
@@ -31,7 +31,6 @@ import com.frostwire.platform.FileFilter;
 import com.frostwire.platform.Platforms;
 import com.frostwire.util.Logger;
 
-import org.apache.commons.io.FilenameUtils;
 
 import java.io.File;
 import java.lang.reflect.Constructor;
@@ -114,7 +113,7 @@ final class UniversalScanner {
                 return;
             }
 
-            MediaType mt = MediaType.getMediaTypeForExtension(FilenameUtils.getExtension(path));
+            MediaType mt = MediaType.getMediaTypeForFilename(path);
 
             if (uri != null && !path.contains("/Android/data/" + context.getPackageName())) {
                 if (mt != null && mt.getId() == Constants.FILE_TYPE_DOCUMENTS) {
@@ -46,9 +46,11 @@ import com.frostwire.android.util.ImageLoader;
 import com.frostwire.licenses.Licenses;
 import com.frostwire.search.FileSearchResult;
 import com.frostwire.search.KeywordFilter;
+import com.frostwire.search.SearchRanker;
 import com.frostwire.search.SearchResult;
 import com.frostwire.search.StreamableSearchResult;
 import com.frostwire.search.soundcloud.SoundcloudSearchResult;
+import com.frostwire.search.torrent.MergedTorrent;
 import com.frostwire.search.torrent.TorrentSearchResult;
 import com.frostwire.util.Logger;
 import com.frostwire.util.Ref;
@@ -77,6 +79,8 @@ public abstract class SearchResultListAdapter extends AbstractListAdapter<Search
     private final List<KeywordFilter> keywordFiltersPipeline;
     private final AtomicLong lastFilterCallTimestamp = new AtomicLong();
     private FilteredSearchResults cachedFilteredSearchResults = null;
+    // the most relevant results are shown first, if set
+    private SearchRanker ranker;
 
     protected SearchResultListAdapter(Context context) {
         super(context, R.layout.view_bittorrent_search_result_list_item);
@@ -97,9 +101,20 @@ public abstract class SearchResultListAdapter extends AbstractListAdapter<Search
         filter();
     }
 
+    /**
+     * The most relevant results of the search are shown first, the ranker
+     * must be fed with the results by the caller.
+     */
+    public void setRanker(SearchRanker ranker) {
+        this.ranker = ranker;
+    }
+
     public void addResults(List<? extends SearchResult> completeList, List<? extends SearchResult> filteredList) {
         visualList.addAll(filteredList); // java, java, and type erasure
         list.addAll(completeList);
+        if (ranker != null) {
+            visualList = ranker.bestFirst(visualList);
+        }
         notifyDataSetChanged();
     }
 
@@ -150,7 +165,7 @@ public abstract class SearchResultListAdapter extends AbstractListAdapter<Search
         age.setText("");
         String license = sr.getLicense().equals(Licenses.UNKNOWN) ? "" : " - " + sr.getLicense();
         TextView sourceLink = findView(view, R.id.view_bittorrent_search_result_list_item_text_source);
-        sourceLink.setText(sr.getSource() + license); // TODO: ask for design
+        sourceLink.setText(getSource(sr) + license); // TODO: ask for design
         sourceLink.setTag(sr.getDetailsUrl());
         sourceLink.setPaintFlags(sourceLink.getPaintFlags() | Paint.UNDERLINE_TEXT_FLAG);
         sourceLink.setOnClickListener(linkListener);
@@ -179,8 +194,9 @@ public abstract class SearchResultListAdapter extends AbstractListAdapter<Search
 
     private void populateTorrentPart(View view, TorrentSearchResult sr) {
         TextView seeds = findView(view, R.id.view_bittorrent_search_result_list_item_text_seeds);
-        if (sr.getSeeds() > 0) {
-            seeds.setText(getContext().getResources().getQuantityString(R.plurals.count_seeds_source, sr.getSeeds(), sr.getSeeds()));
+        int n = getSeeds(sr);
+        if (n > 0) {
+            seeds.setText(getContext().getResources().getQuantityString(R.plurals.count_seeds_source, n, n));
         } else {
             seeds.setText("");
         }
@@ -188,6 +204,25 @@ public abstract class SearchResultListAdapter extends AbstractListAdapter<Search
         age.setText(SearchResultListAdapter.formatElapsedTime(view.getResources(), sr.getCreationTime()));
     }
 
+    /**
+     * The highest seeds of all the engines with this torrent, only the
+     * first copy of a torrent is shown.
+     */
+    private static int getSeeds(TorrentSearchResult sr) {
+        MergedTorrent merged = LocalSearchEngine.instance().getMergedTorrent(sr.getHash());
+        return merged != null ? Math.max(merged.getSeeds(), sr.getSeeds()) : sr.getSeeds();
+    }
+
+    /**
+     * The source and, for a torrent, the number of other engines with it,
+     * i.e. "TPB +2".
+     */
+    private static String getSource(SearchResult sr) {
+        MergedTorrent merged = sr instanceof TorrentSearchResult ? LocalSearchEngine.instance().getMergedTorrent(((TorrentSearchResult) sr).getHash()) : null;
+        int others = merged != null ? merged.getSourceCount() - 1 : 0;
+        return others > 0 ? sr.getSource() + " +" + others : sr.getSource();
+    }
+
     /**
      * Human friendly time elapsed, in minutes, hours, days, months and years.
      * If we ever need this elsewhere move it to a new common/.../DateUtils.java file
@@ -255,7 +290,7 @@ public abstract class SearchResultListAdapter extends AbstractListAdapter<Search
         }
         lastFilterCallTimestamp.set(now);
         cachedFilteredSearchResults = filter(list);
-        this.visualList = cachedFilteredSearchResults.filtered;
+        this.visualList = ranker != null ? ranker.bestFirst(cachedFilteredSearchResults.filtered) : cachedFilteredSearchResults.filtered;
         notifyDataSetChanged();
         notifyDataSetInvalidated();
         return cachedFilteredSearchResults;
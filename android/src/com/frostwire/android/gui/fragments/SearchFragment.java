@@ -81,6 +81,7 @@ import com.frostwire.search.KeywordDetector;
 import com.frostwire.search.KeywordFilter;
 import com.frostwire.search.SearchError;
 import com.frostwire.search.SearchListener;
+import com.frostwire.search.SearchRanker;
 import com.frostwire.search.SearchResult;
 import com.frostwire.search.torrent.AbstractTorrentSearchResult;
 import com.frostwire.util.HttpClientFactory;
@@ -97,6 +98,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -111,6 +114,8 @@ public final class SearchFragment extends AbstractFragment implements
         OnDialogClickListener,
         SearchProgressView.CurrentQueryReporter, PromotionDownloader, KeywordFilterDrawerView.KeywordFilterDrawerController, DrawerLayout.DrawerListener {
     private static final Logger LOG = Logger.getLogger(SearchFragment.class);
+    // result batches posted to the main thread and not added yet, over this the search is told to hold on
+    private static final int MAX_PENDING_RESULT_BATCHES = 10;
     private static SearchFragment INSTANCE = null;
     private SearchResultListAdapter adapter;
     private List<Slide> slides;
@@ -123,6 +128,10 @@ public final class SearchFragment extends AbstractFragment implements
     private String currentQuery;
     private final FileTypeCounter fileTypeCounter;
     private final KeywordDetector keywordDetector;
+    // the most relevant results of the current search, fed with all of them
+    private volatile SearchRanker ranker;
+    private final AtomicInteger pendingResultBatches;
+    private final AtomicBoolean backpressure;
     private DrawerLayout drawerLayout;
     private KeywordFilterDrawerView keywordFilterDrawerView;
     private OnClickListener headerClickListener;
@@ -133,6 +142,8 @@ public final class SearchFragment extends AbstractFragment implements
         fileTypeCounter = new FileTypeCounter();
         currentQuery = null;
         keywordDetector = new KeywordDetector();
+        pendingResultBatches = new AtomicInteger();
+        backpressure = new AtomicBoolean();
     }
 
     @Override
@@ -362,6 +373,10 @@ public final class SearchFragment extends AbstractFragment implements
     }
 
     private void onSearchResults(final List<SearchResult> results) {
+        SearchRanker ranker = this.ranker;
+        if (ranker != null) {
+            ranker.add(results);
+        }
         FilteredSearchResults fsr = adapter.filter(results);
         final List<SearchResult> mediaTypeFiltered = fsr.filtered;
         final List<SearchResult> keywordFiltered = fsr.keywordFiltered;
@@ -376,6 +391,9 @@ public final class SearchFragment extends AbstractFragment implements
             updateKeywordDetector(keywordFiltered);
         }
         if (isAdded()) {
+            if (pendingResultBatches.incrementAndGet() >= MAX_PENDING_RESULT_BATCHES && backpressure.compareAndSet(false, true)) {
+                LocalSearchEngine.instance().setBackpressure(true);
+            }
             getActivity().runOnUiThread(() -> {
                 try {
                     adapter.addResults(keywordFiltered, mediaTypeFiltered);
@@ -386,11 +404,19 @@ public final class SearchFragment extends AbstractFragment implements
                         throw t;
                     }
                     LOG.error("onSearchResults() " + t.getMessage(), t);
+                } finally {
+                    onResultBatchAdded();
                 }
             });
         }
     }
 
+    private void onResultBatchAdded() {
+        if (pendingResultBatches.decrementAndGet() == 0 && backpressure.compareAndSet(true, false)) {
+            LocalSearchEngine.instance().setBackpressure(false);
+        }
+    }
+
     private void updateKeywordDetector(final List<? extends SearchResult> results) {
         if (filterButton != null) {
             keywordDetector.setKeywordDetectorListener(filterButton);
@@ -540,6 +566,8 @@ public final class SearchFragment extends AbstractFragment implements
         refreshFileTypeCounters(false);
         resetKeywordDetector();
         currentQuery = query;
+        ranker = ConfigurationManager.instance().getBoolean(Constants.PREF_KEY_SEARCH_BEST_RESULTS_FIRST) ? new SearchRanker(query) : null;
+        adapter.setRanker(ranker);
         keywordDetector.shutdownHistogramUpdateRequestDispatcher();
         LocalSearchEngine.instance().performSearch(query);
         searchProgress.setProgressEnabled(true);
@@ -553,6 +581,8 @@ public final class SearchFragment extends AbstractFragment implements
         refreshFileTypeCounters(false);
         resetKeywordDetector();
         currentQuery = null;
+        ranker = null;
+        adapter.setRanker(null);
         LocalSearchEngine.instance().cancelSearch();
         searchProgress.setProgressEnabled(false);
         showSearchView(getView());
@@ -993,7 +1023,7 @@ public final class SearchFragment extends AbstractFragment implements
             updateVisibility();
             keywordFilterDrawerView.showIndeterminateProgressViews();
             List<SearchResult> results = adapter.getKeywordFiltersPipeline().isEmpty() ? adapter.getList() : filteredSearchResults.keywordFiltered;
-            keywordDetector.reset();
+            // only the results filtered in or out are counted again
             keywordDetector.requestHistogramsUpdateAsync(results);
         }
 
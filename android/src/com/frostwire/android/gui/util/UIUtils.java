@@ -58,12 +58,12 @@ import com.frostwire.android.gui.dialogs.YesNoDialog;
 import com.frostwire.android.gui.services.Engine;
 import com.frostwire.android.gui.views.EditTextDialog;
 import com.frostwire.android.util.SystemUtils;
+import com.frostwire.util.ExtensionRegistry;
 import com.frostwire.util.Logger;
 import com.frostwire.util.MimeDetector;
 import com.frostwire.util.Ref;
 import com.google.android.material.snackbar.Snackbar;
 
-import org.apache.commons.io.FilenameUtils;
 
 import java.io.File;
 import java.io.FileOutputStream;
@@ -449,7 +449,7 @@ public final class UIUtils {
 
     public static String getMimeType(String filePath) {
         try {
-            return MimeDetector.getMimeType(FilenameUtils.getExtension(filePath));
+            return ExtensionRegistry.mimeType(filePath);
         } catch (Throwable e) {
             LOG.error("Failed to read mime type for: " + filePath);
             return MimeDetector.UNKNOWN;
@@ -0,0 +1,254 @@
+/*
+ * Created by Angel Leon (@gubatron), Alden Torres (aldenml)
+ * Copyright (c) 2011-2020, FrostWire(R). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.frostwire.bittorrent;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Forward only reader of bencoded data, walking the buffer in place. The
+ * strings are not copied, {@link #readString()} returns where their bytes
+ * are, to be compared ({@link #equalsAscii(int, String)}) or decoded
+ * ({@link #utf8(int, int)}) only if needed.
+ * <p>
+ * Malformed data (or data that ends too soon) fails with an
+ * {@link IllegalArgumentException}, as {@code TorrentInfo.bdecode} does.
+ *
+ * @author gubatron
+ * @author aldenml
+ */
+public final class BencodeReader {
+
+    public enum Type {
+        INTEGER, STRING, LIST, DICTIONARY, END
+    }
+
+    private final ByteBuffer buf;
+    private final int limit;
+    private int pos;
+    private int stringLength;
+
+    public BencodeReader(byte[] data) {
+        this(ByteBuffer.wrap(data));
+    }
+
+    /**
+     * Reads from the position to the limit of the buffer, which is not
+     * modified (absolute reads).
+     */
+    public BencodeReader(ByteBuffer buf) {
+        this.buf = buf;
+        this.limit = buf.limit();
+        this.pos = buf.position();
+    }
+
+    public ByteBuffer buffer() {
+        return buf;
+    }
+
+    /**
+     * @return the index in the buffer of the next value
+     */
+    public int position() {
+        return pos;
+    }
+
+    public Type peek() {
+        byte b = byteAt(pos);
+        switch (b) {
+            case 'i':
+                return Type.INTEGER;
+            case 'l':
+                return Type.LIST;
+            case 'd':
+                return Type.DICTIONARY;
+            case 'e':
+                return Type.END;
+            default:
+                if (b >= '0' && b <= '9') {
+                    return Type.STRING;
+                }
+                throw error("Unexpected byte " + b);
+        }
+    }
+
+    public void beginList() {
+        expect('l');
+    }
+
+    public void beginDictionary() {
+        expect('d');
+    }
+
+    /**
+     * @return {@code false} at the end of the current list or dictionary
+     */
+    public boolean hasNext() {
+        return byteAt(pos) != 'e';
+    }
+
+    /**
+     * Consumes the end of the current list or dictionary.
+     */
+    public void end() {
+        expect('e');
+    }
+
+    public long readLong() {
+        expect('i');
+        boolean negative = byteAt(pos) == '-';
+        if (negative) {
+            pos++;
+        }
+        int start = pos;
+        long n = 0;
+        byte b;
+        while ((b = byteAt(pos)) != 'e') {
+            if (b < '0' || b > '9' || pos - start >= 18) {
+                throw error("Invalid integer");
+            }
+            n = n * 10 + (b - '0');
+            pos++;
+        }
+        if (pos == start) {
+            throw error("Empty integer");
+        }
+        pos++;
+        return negative ? -n : n;
+    }
+
+    /**
+     * Consumes a string (a dictionary key too).
+     *
+     * @return the index in the buffer of its first byte, the length is
+     * {@link #stringLength()}
+     */
+    public int readString() {
+        int length = 0;
+        byte b;
+        int start = pos;
+        while ((b = byteAt(pos)) != ':') {
+            if (b < '0' || b > '9' || pos - start >= 9) {
+                throw error("Invalid string length");
+            }
+            length = length * 10 + (b - '0');
+            pos++;
+        }
+        if (pos == start) {
+            throw error("Empty string length");
+        }
+        pos++;
+        int offset = pos;
+        if (length > limit - offset) {
+            throw error("String past the end of the data");
+        }
+        pos += length;
+        stringLength = length;
+        return offset;
+    }
+
+    /**
+     * @return the length of the last string read
+     */
+    public int stringLength() {
+        return stringLength;
+    }
+
+    /**
+     * Skips the next value, nested lists and dictionaries included,
+     * without recursion.
+     */
+    public void skip() {
+        int depth = 0;
+        do {
+            switch (peek()) {
+                case INTEGER:
+                    readLong();
+                    break;
+                case STRING:
+                    readString();
+                    break;
+                case LIST:
+                case DICTIONARY:
+                    pos++;
+                    depth++;
+                    break;
+                case END:
+                    if (depth == 0) {
+                        throw error("Unexpected end");
+                    }
+                    pos++;
+                    depth--;
+                    break;
+            }
+        } while (depth > 0);
+    }
+
+    /**
+     * @return {@code true} if the last string read, at the given offset, is
+     * the given ascii string
+     */
+    public boolean equalsAscii(int offset, String s) {
+        return equalsAscii(offset, stringLength, s);
+    }
+
+    public boolean equalsAscii(int offset, int length, String s) {
+        if (length != s.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (buf.get(offset + i) != s.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean startsWithAscii(int offset, int length, String prefix) {
+        return length >= prefix.length() && equalsAscii(offset, prefix.length(), prefix);
+    }
+
+    public String utf8(int offset, int length) {
+        if (buf.hasArray()) {
+            return new String(buf.array(), buf.arrayOffset() + offset, length, StandardCharsets.UTF_8);
+        }
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buf.get(offset + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private byte byteAt(int index) {
+        if (index >= limit) {
+            throw error("Unexpected end of data");
+        }
+        return buf.get(index);
+    }
+
+    private void expect(char c) {
+        if (byteAt(pos) != c) {
+            throw error("Expected '" + c + "'");
+        }
+        pos++;
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at offset " + pos);
+    }
+}
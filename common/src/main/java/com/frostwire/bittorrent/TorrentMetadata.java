@@ -0,0 +1,325 @@
+/*
+ * Created by Angel Leon (@gubatron), Alden Torres (aldenml)
+ * Copyright (c) 2011-2020, FrostWire(R). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.frostwire.bittorrent;
+
+import com.frostwire.util.Hex;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * The info-hash, name and files of a .torrent, read in pure java with a
+ * {@link BencodeReader}, no libtorrent {@code TorrentInfo} is made.
+ * <p>
+ * The data is kept, not copied, and a file costs its size, a flag and the
+ * offset of its path in the data, the path is only decoded when asked for.
+ * The names and path elements are sanitized like libtorrent does (see
+ * {@link #sanitize(String)}, not its windows only rules or length limits),
+ * the path is prefixed by the name of the torrent in a multi file torrent,
+ * and the indexes of the files are those of libtorrent (the pad files are
+ * kept, flagged).
+ *
+ * @author gubatron
+ * @author aldenml
+ */
+public final class TorrentMetadata {
+
+    private static final String PADDING_FILE_PREFIX = "_____padding_file_";
+
+    private final BencodeReader reader;
+    private final byte[] infoHash;
+    private final int nameOffset;
+    private final int nameLength;
+    // offsets of the lists of path elements, null in a single file torrent
+    private final int[] paths;
+    private final long[] sizes;
+    private final boolean[] pads;
+
+    private TorrentMetadata(BencodeReader reader, byte[] infoHash, int nameOffset, int nameLength, int[] paths, long[] sizes, boolean[] pads) {
+        this.reader = reader;
+        this.infoHash = infoHash;
+        this.nameOffset = nameOffset;
+        this.nameLength = nameLength;
+        this.paths = paths;
+        this.sizes = sizes;
+        this.pads = pads;
+    }
+
+    public static TorrentMetadata parse(byte[] data) {
+        return parse(ByteBuffer.wrap(data));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the data is not a valid torrent
+     */
+    public static TorrentMetadata parse(ByteBuffer data) {
+        BencodeReader r = new BencodeReader(data);
+        TorrentMetadata md = null;
+        r.beginDictionary();
+        while (r.hasNext()) {
+            int key = r.readString();
+            if (md == null && r.equalsAscii(key, "info")) {
+                int start = r.position();
+                Builder b = new Builder();
+                b.readInfo(r);
+                md = b.build(r, sha1(data, start, r.position()));
+            } else {
+                r.skip();
+            }
+        }
+        r.end();
+        if (md == null) {
+            throw new IllegalArgumentException("Torrent without info dictionary");
+        }
+        return md;
+    }
+
+    public byte[] infoHashBytes() {
+        return infoHash.clone();
+    }
+
+    /**
+     * @return the hex encoded (lowercase) info-hash
+     */
+    public String infoHash() {
+        return Hex.encode(infoHash);
+    }
+
+    /**
+     * @return the sanitized name, or the info-hash if nothing is left of it
+     */
+    public String name() {
+        String name = sanitize(reader.utf8(nameOffset, nameLength));
+        return name.isEmpty() ? infoHash() : name;
+    }
+
+    public int numFiles() {
+        return sizes.length;
+    }
+
+    public long fileSize(int index) {
+        return sizes[index];
+    }
+
+    public boolean padFileAt(int index) {
+        return pads[index];
+    }
+
+    public long totalSize() {
+        long total = 0;
+        for (long size : sizes) {
+            total += size;
+        }
+        return total;
+    }
+
+    /**
+     * @return the path of the file, the name of the torrent then the path
+     * elements joined by {@code /} (the empty, {@code .} and {@code ..}
+     * ones dropped), or only the name in a single file torrent
+     */
+    public String filePath(int index) {
+        if (paths == null) {
+            return name();
+        }
+        // a duplicate only to start a reader at the path, the data is shared
+        ByteBuffer buf = reader.buffer().duplicate();
+        buf.position(paths[index]);
+        BencodeReader r = new BencodeReader(buf);
+        StringBuilder sb = new StringBuilder(name());
+        r.beginList();
+        while (r.hasNext()) {
+            int offset = r.readString();
+            String element = sanitize(r.utf8(offset, r.stringLength()));
+            if (!element.isEmpty()) {
+                sb.append('/').append(element);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * The path element as libtorrent's {@code sanitize_append_path_element}
+     * leaves it: the separators and control characters replaced by
+     * {@code _} and the bidi controls dropped, and nothing of the empty,
+     * {@code .} and {@code ..} elements.
+     */
+    static String sanitize(String element) {
+        if (element.isEmpty() || element.equals(".") || element.equals("..")) {
+            return "";
+        }
+        StringBuilder sb = null;
+        for (int i = 0; i < element.length(); i++) {
+            char c = element.charAt(i);
+            boolean bidi = c == '\u200E' || c == '\u200F' || (c >= '\u202A' && c <= '\u202E');
+            if (c < 32 || c == '/' || c == '\\' || bidi) {
+                if (sb == null) {
+                    sb = new StringBuilder(element.length()).append(element, 0, i);
+                }
+                if (!bidi) {
+                    sb.append('_');
+                }
+            } else if (sb != null) {
+                sb.append(c);
+            }
+        }
+        if (sb == null) {
+            return element;
+        }
+        String sanitized = sb.toString();
+        return sanitized.equals(".") || sanitized.equals("..") ? "" : sanitized;
+    }
+
+    private static byte[] sha1(ByteBuffer data, int start, int end) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-1");
+            ByteBuffer info = data.duplicate();
+            info.limit(end);
+            info.position(start);
+            md.update(info);
+            return md.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class Builder {
+        private int nameOffset = -1;
+        private int nameLength;
+        private boolean nameUtf8;
+        private long length = -1;
+        private int[] paths;
+        private long[] sizes;
+        private boolean[] pads;
+        private int numFiles;
+
+        void readInfo(BencodeReader r) {
+            r.beginDictionary();
+            while (r.hasNext()) {
+                int key = r.readString();
+                int keyLength = r.stringLength();
+                if (r.equalsAscii(key, keyLength, "name.utf-8")) {
+                    nameOffset = r.readString();
+                    nameLength = r.stringLength();
+                    nameUtf8 = true;
+                } else if (r.equalsAscii(key, keyLength, "name") && !nameUtf8) {
+                    nameOffset = r.readString();
+                    nameLength = r.stringLength();
+                } else if (r.equalsAscii(key, keyLength, "length")) {
+                    length = r.readLong();
+                } else if (r.equalsAscii(key, keyLength, "files")) {
+                    readFiles(r);
+                } else {
+                    r.skip();
+                }
+            }
+            r.end();
+        }
+
+        private void readFiles(BencodeReader r) {
+            paths = new int[16];
+            sizes = new long[16];
+            pads = new boolean[16];
+            r.beginList();
+            while (r.hasNext()) {
+                readFile(r);
+            }
+            r.end();
+        }
+
+        private void readFile(BencodeReader r) {
+            long size = -1;
+            int path = -1;
+            boolean pathUtf8 = false;
+            boolean pad = false;
+            r.beginDictionary();
+            while (r.hasNext()) {
+                int key = r.readString();
+                int keyLength = r.stringLength();
+                if (r.equalsAscii(key, keyLength, "length")) {
+                    size = r.readLong();
+                } else if (r.equalsAscii(key, keyLength, "path.utf-8") || (r.equalsAscii(key, keyLength, "path") && !pathUtf8)) {
+                    pathUtf8 = keyLength > 4;
+                    path = r.position();
+                    pad |= readPath(r);
+                } else if (r.equalsAscii(key, keyLength, "attr")) {
+                    int attr = r.readString();
+                    for (int i = 0; i < r.stringLength(); i++) {
+                        if (r.buffer().get(attr + i) == 'p') {
+                            pad = true;
+                        }
+                    }
+                } else {
+                    r.skip();
+                }
+            }
+            r.end();
+            if (size < 0 || path == -1) {
+                throw new IllegalArgumentException("Invalid file at offset " + r.position());
+            }
+            if (numFiles == sizes.length) {
+                paths = Arrays.copyOf(paths, numFiles * 2);
+                sizes = Arrays.copyOf(sizes, numFiles * 2);
+                pads = Arrays.copyOf(pads, numFiles * 2);
+            }
+            paths[numFiles] = path;
+            sizes[numFiles] = size;
+            pads[numFiles] = pad;
+            numFiles++;
+        }
+
+        /**
+         * @return true if the file is a padding file by its name (older
+         * clients, before the attr key)
+         */
+        private static boolean readPath(BencodeReader r) {
+            boolean padName = false;
+            boolean empty = true;
+            r.beginList();
+            while (r.hasNext()) {
+                int offset = r.readString();
+                padName = r.startsWithAscii(offset, r.stringLength(), PADDING_FILE_PREFIX);
+                empty = false;
+            }
+            r.end();
+            if (empty) {
+                throw new IllegalArgumentException("Empty file path at offset " + r.position());
+            }
+            return padName;
+        }
+
+        TorrentMetadata build(BencodeReader r, byte[] infoHash) {
+            if (nameOffset == -1) {
+                throw new IllegalArgumentException("Torrent without name");
+            }
+            if (sizes != null) {
+                if (numFiles == 0) {
+                    throw new IllegalArgumentException("Torrent without files");
+                }
+                return new TorrentMetadata(r, infoHash, nameOffset, nameLength,
+                        Arrays.copyOf(paths, numFiles), Arrays.copyOf(sizes, numFiles), Arrays.copyOf(pads, numFiles));
+            }
+            if (length < 0) {
+                throw new IllegalArgumentException("Torrent without length or files");
+            }
+            return new TorrentMetadata(r, infoHash, nameOffset, nameLength, null, new long[]{length}, new boolean[1]);
+        }
+    }
+}
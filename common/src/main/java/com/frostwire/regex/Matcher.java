@@ -1,5 +1,6 @@
 package com.frostwire.regex;
 
+import java.nio.CharBuffer;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -7,26 +8,46 @@ import java.util.Map;
 
 /**
  * An engine that performs match operations on a character sequence by
- * interpreting a {@link Pattern}. This is a wrapper for {@link com.google.re2j.Matcher}.
+ * interpreting a {@link Pattern}. This is a wrapper for {@link com.google.re2j.Matcher}
+ * (or {@link java.util.regex.Matcher}, depending on the engine of the pattern).
+ * <p>
+ * The input can be a region of a larger sequence, matched through a view
+ * without copying it. All the indexes are indexes in the larger sequence.
+ * <p>
+ * With the {@link Pattern.Engine#JDK} engine the work on an input is
+ * bounded, after {@link #JDK_STEPS_PER_CHAR} reads of every character
+ * (far more than a page that matches needs) the matcher assumes it is
+ * backtracking without end and goes on with re2j, from the end of the
+ * last match.
  *
  * @since 0.1.9
  */
 public class Matcher {
+    static final int JDK_STEPS_PER_CHAR = 16;
+    private static final int JDK_MIN_STEPS = 64 * 1024;
+
     private com.google.re2j.Matcher matcher;
+    private java.util.regex.Matcher jdkMatcher;
     private Pattern parentPattern;
+    private CharSequence input;
+    private CharSequence region;
+    // the start of the region in the whole input
+    private int offset;
+    // where re2j goes on if the jdk matcher runs out of steps
+    private int searchFrom;
 
-    Matcher(Pattern parentPattern, CharSequence input) {
+    Matcher(Pattern parentPattern, CharSequence input, int start, int end) {
         this.parentPattern = parentPattern;
-        this.matcher = parentPattern.pattern().matcher(input);
+        init(input, start, end);
     }
 
     /**
      * Returns the pattern that is interpreted by this matcher.
      *
-     * @return the pattern
+     * @return the pattern, or {@code null} if the engine is {@link Pattern.Engine#JDK}
      */
     public com.google.re2j.Pattern standardPattern() {
-        return matcher.pattern();
+        return matcher != null ? matcher.pattern() : null;
     }
 
     /**
@@ -44,7 +65,7 @@ public class Matcher {
      * @return this Matcher
      */
     public Matcher reset() {
-        matcher.reset();
+        init(input, offset, offset + region.length());
         return this;
     }
 
@@ -61,7 +82,20 @@ public class Matcher {
      * @return this Matcher
      */
     public Matcher reset(CharSequence input) {
-        matcher.reset(input);
+        return reset(input, 0, input.length());
+    }
+
+    /**
+     * Resets this matcher with the region {@code [start, end)} of a new
+     * input sequence, without copying it.
+     *
+     * @param input The new input character sequence
+     * @param start the start of the region, inclusive
+     * @param end   the end of the region, exclusive
+     * @return this Matcher
+     */
+    public Matcher reset(CharSequence input, int start, int end) {
+        init(input, start, end);
         return this;
     }
 
@@ -75,7 +109,15 @@ public class Matcher {
      * matches this matcher's pattern
      */
     public boolean matches() {
-        return matcher.matches();
+        if (matcher != null) {
+            return matcher.matches();
+        }
+        try {
+            return jdkMatcher.matches();
+        } catch (StepsExceededException e) {
+            fallback();
+            return matcher.matches();
+        }
     }
 
     /**
@@ -93,7 +135,19 @@ public class Matcher {
      * @return
      */
     public boolean find() {
-        return matcher.find();
+        if (matcher != null) {
+            return matcher.find();
+        }
+        try {
+            boolean found = jdkMatcher.find();
+            if (found) {
+                searchFrom = jdkMatcher.end();
+            }
+            return found;
+        } catch (StepsExceededException e) {
+            fallback();
+            return matcher.find(searchFrom);
+        }
     }
 
     /**
@@ -112,7 +166,20 @@ public class Matcher {
      *                                   is greater than the length of the input sequence.
      */
     public boolean find(int start) {
-        return matcher.find(start);
+        if (matcher != null) {
+            return matcher.find(start - offset);
+        }
+        searchFrom = start - offset;
+        try {
+            boolean found = jdkMatcher.find(searchFrom);
+            if (found) {
+                searchFrom = jdkMatcher.end();
+            }
+            return found;
+        } catch (StepsExceededException e) {
+            fallback();
+            return matcher.find(searchFrom);
+        }
     }
 
     /**
@@ -130,7 +197,15 @@ public class Matcher {
      * matches this matcher's pattern
      */
     public boolean lookingAt() {
-        return matcher.lookingAt();
+        if (matcher != null) {
+            return matcher.lookingAt();
+        }
+        try {
+            return jdkMatcher.lookingAt();
+        } catch (StepsExceededException e) {
+            fallback();
+            return matcher.lookingAt();
+        }
     }
 
     /**
@@ -140,7 +215,7 @@ public class Matcher {
      * @return The target string buffer
      */
     public StringBuffer appendTail(StringBuffer sb) {
-        return matcher.appendTail(sb);
+        return matcher != null ? matcher.appendTail(sb) : jdkMatcher.appendTail(sb);
     }
 
     /**
@@ -150,7 +225,7 @@ public class Matcher {
      * in string form
      */
     public String group() {
-        return matcher.group();
+        return matcher != null ? matcher.group() : jdkMatcher.group();
     }
 
     /**
@@ -163,7 +238,7 @@ public class Matcher {
      *                               if the previous match operation failed
      */
     public String group(int group) {
-        return matcher.group(group);
+        return matcher != null ? matcher.group(group) : jdkMatcher.group(group);
     }
 
     /**
@@ -172,7 +247,7 @@ public class Matcher {
      * @return The number of capturing groups in this matcher's pattern
      */
     public int groupCount() {
-        return matcher.groupCount();
+        return matcher != null ? matcher.groupCount() : jdkMatcher.groupCount();
     }
 
     /**
@@ -216,9 +291,9 @@ public class Matcher {
      */
     public Map<String, String> namedGroups() {
         Map<String, String> result = new LinkedHashMap<String, String>();
-        if (matcher.find(0)) {
+        if (find(offset)) {
             for (String groupName : parentPattern.groupNames()) {
-                String groupValue = matcher.group(groupIndex(groupName));
+                String groupValue = group(groupIndex(groupName));
                 result.put(groupName, groupValue);
             }
         }
@@ -226,17 +301,13 @@ public class Matcher {
     }
 
     /**
-     * Gets the index of a named capture group
+     * Gets the index of a named capture group, see {@link Pattern#groupIndex(String)}
      *
      * @param groupName name of capture group
-     * @return the group index
+     * @return the group index, for {@link #group(int)}, or -1 if not found
      */
-    private int groupIndex(String groupName) {
-        // idx+1 because capture groups start 1 in the matcher
-        // while the pattern returns a 0-based index of the
-        // group name within the list of names
-        int idx = parentPattern.indexOf(groupName);
-        return idx > -1 ? idx + 1 : -1;
+    public int groupIndex(String groupName) {
+        return parentPattern.groupIndex(groupName);
     }
 
     public boolean hasGroup(String groupName) {
@@ -249,7 +320,7 @@ public class Matcher {
      * @return the start index
      */
     public int start() {
-        return matcher.start();
+        return absolute(matcher != null ? matcher.start() : jdkMatcher.start());
     }
 
     /**
@@ -260,7 +331,7 @@ public class Matcher {
      * @return the index
      */
     public int start(int group) {
-        return matcher.start(group);
+        return absolute(matcher != null ? matcher.start(group) : jdkMatcher.start(group));
     }
 
     /**
@@ -280,7 +351,7 @@ public class Matcher {
      * @return the offset
      */
     public int end() {
-        return matcher.end();
+        return absolute(matcher != null ? matcher.end() : jdkMatcher.end());
     }
 
     /**
@@ -291,7 +362,7 @@ public class Matcher {
      * @return the offset
      */
     public int end(int group) {
-        return matcher.end(group);
+        return absolute(matcher != null ? matcher.end(group) : jdkMatcher.end(group));
     }
 
     /**
@@ -314,7 +385,7 @@ public class Matcher {
      * the replacement string, substituting captured subsequences as needed
      */
     public String replaceAll(String replacement) {
-        return matcher.replaceAll(replacement);
+        return matcher != null ? matcher.replaceAll(replacement) : jdkMatcher.replaceAll(replacement);
     }
 
     /**
@@ -326,7 +397,7 @@ public class Matcher {
      * by the replacement string, substituting captured subsequences as needed
      */
     public String replaceFirst(String replacement) {
-        return matcher.replaceFirst(replacement);
+        return matcher != null ? matcher.replaceFirst(replacement) : jdkMatcher.replaceFirst(replacement);
     }
 
     /*
@@ -348,7 +419,7 @@ public class Matcher {
         if (!parentPattern.equals(other.parentPattern)) {
             return false;
         }
-        return matcher.equals(other.matcher);
+        return matcher != null ? matcher.equals(other.matcher) : jdkMatcher.equals(other.jdkMatcher);
     }
 
     /*
@@ -357,7 +428,7 @@ public class Matcher {
      */
     @Override
     public int hashCode() {
-        return parentPattern.hashCode() ^ matcher.hashCode();
+        return parentPattern.hashCode() ^ (matcher != null ? matcher.hashCode() : jdkMatcher.hashCode());
     }
 
     /*
@@ -365,6 +436,89 @@ public class Matcher {
      * @see java.lang.Object#toString()
      */
     public String toString() {
-        return matcher.toString();
+        return matcher != null ? matcher.toString() : jdkMatcher.toString();
+    }
+
+    private void init(CharSequence input, int start, int end) {
+        this.input = input;
+        this.region = region(input, start, end);
+        this.offset = start;
+        this.searchFrom = 0;
+        if (parentPattern.engine() == Pattern.Engine.RE2J) {
+            matcher = matcher != null ? matcher.reset(region) : parentPattern.pattern().matcher(region);
+        } else {
+            matcher = null;
+            CharSequence seq = region;
+            if (parentPattern.fallbackPattern() != null) {
+                seq = new BoundedSequence(region, Math.max(JDK_MIN_STEPS, (long) JDK_STEPS_PER_CHAR * region.length()));
+            }
+            jdkMatcher = jdkMatcher != null ? jdkMatcher.reset(seq) : parentPattern.jdkPattern().matcher(seq);
+        }
+    }
+
+    private void fallback() {
+        jdkMatcher = null;
+        matcher = parentPattern.fallbackPattern().matcher(region);
+    }
+
+    private int absolute(int index) {
+        // -1 is a group that didn't participate in the match
+        return index >= 0 ? index + offset : index;
+    }
+
+    private static CharSequence region(CharSequence input, int start, int end) {
+        if (start == 0 && end == input.length()) {
+            return input;
+        }
+        // a view, the characters are not copied
+        return CharBuffer.wrap(input, start, end);
+    }
+
+    /**
+     * Counts the reads of the characters, the steps of the jdk matcher, and
+     * fails when they run out.
+     */
+    private static final class BoundedSequence implements CharSequence {
+        private final CharSequence s;
+        private long steps;
+
+        BoundedSequence(CharSequence s, long steps) {
+            this.s = s;
+            this.steps = steps;
+        }
+
+        @Override
+        public int length() {
+            return s.length();
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (--steps < 0) {
+                throw StepsExceededException.INSTANCE;
+            }
+            return s.charAt(index);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return s.subSequence(start, end);
+        }
+
+        @Override
+        public String toString() {
+            return s.toString();
+        }
+    }
+
+    private static final class StepsExceededException extends RuntimeException {
+        private static final long serialVersionUID = -6390573224802925337L;
+
+        static final StepsExceededException INSTANCE = new StepsExceededException();
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this; // thrown often, no stack trace needed
+        }
     }
 }
@@ -8,13 +8,30 @@ import java.util.regex.PatternSyntaxException;
 
 /**
  * A compiled representation of a regular expression. This is a wrapper
- * for the java.util.regex.Pattern with support for named capturing
- * groups. The named groups are specified with "(?&lt;name>exp)", which
- * is identical to Java 7 named groups.
+ * for the re2j Pattern (or, if asked for, java.util.regex.Pattern) with
+ * support for named capturing groups. The named groups are specified with
+ * "(?&lt;name>exp)", which is identical to Java 7 named groups.
+ * <p>
+ * re2j runs in linear time, a bad page can't make it backtrack forever,
+ * and it's the default. java.util.regex can be faster on some patterns,
+ * see {@link Engine}.
  *
  * @since 0.1.9
  */
 public class Pattern {
+
+    /**
+     * The regular expression engine of a pattern, the same expression can
+     * perform very differently in each one. Use {@link #JDK} for a pattern
+     * measured to be faster with it. java.util.regex backtracks, on an input
+     * that almost matches it can take forever, the matchers fall back to
+     * re2j when it does (see {@link Matcher}).
+     */
+    public enum Engine {
+        RE2J,
+        JDK
+    }
+
     /**
      * Pattern to match group names
      */
@@ -27,10 +44,19 @@ public class Pattern {
      * index of group within patterns above where group name is captured
      */
     private static final int INDEX_GROUP_NAME = 1;
+    private final Engine engine;
+    private final int flags;
     private com.google.re2j.Pattern pattern;
+    private java.util.regex.Pattern jdkPattern;
+    // with the jdk engine, what the matchers go on with if backtracking too much
+    private com.google.re2j.Pattern fallbackPattern;
     private String namedPattern;
     private List<String> groupNames;
     private Map<String, List<GroupInfo>> groupInfo;
+    // the first group of each name and its index in the matcher, the names
+    // are interned, looked up by reference first
+    private String[] names;
+    private int[] indexes;
 
     /**
      * Constructs a named pattern with the given regular expression and flags
@@ -49,12 +75,37 @@ public class Pattern {
      *              </ul>
      */
     protected Pattern(String regex, int flags) {
+        this(regex, flags, Engine.RE2J);
+    }
+
+    /**
+     * Constructs a named pattern with the given regular expression, flags
+     * and engine
+     *
+     * @param regex  the expression to be compiled
+     * @param flags  Match flags, a bit mask of the re2j flags
+     * @param engine the engine that runs the expression
+     */
+    protected Pattern(String regex, int flags, Engine engine) {
+        this.engine = engine;
+        this.flags = flags;
         namedPattern = regex;
         // group info must be parsed before building the standard pattern
         // because the pattern relies on group info to determine the indexes
         // of named back-references
         groupInfo = extractGroupInfo(regex);
-        pattern = buildStandardPattern(regex, flags);
+        buildGroupIndexes();
+        String standardPattern = buildStandardPattern(regex);
+        if (engine == Engine.JDK) {
+            jdkPattern = java.util.regex.Pattern.compile(standardPattern, jdkFlags(flags));
+            try {
+                fallbackPattern = com.google.re2j.Pattern.compile(standardPattern, flags);
+            } catch (com.google.re2j.PatternSyntaxException e) {
+                // not supported by re2j (back-references, look-arounds), no fallback
+            }
+        } else {
+            pattern = com.google.re2j.Pattern.compile(standardPattern, flags);
+        }
     }
 
     /**
@@ -88,6 +139,18 @@ public class Pattern {
         return new Pattern(regex, flags);
     }
 
+    /**
+     * Compiles the given regular expression into a pattern run by the
+     * given engine
+     *
+     * @param regex  the expression to be compiled
+     * @param engine the engine that runs the expression
+     * @return the pattern
+     */
+    public static Pattern compile(String regex, Engine engine) {
+        return new Pattern(regex, 0, engine);
+    }
+
     /**
      * Determines if the character at the specified position
      * of a string is escaped
@@ -317,21 +380,58 @@ public class Pattern {
      * @throws IndexOutOfBoundsException if instance index is out of bounds
      */
     public int indexOf(String groupName, int index) {
+        if (index == 0) {
+            int idx = groupIndex(groupName);
+            return idx > 0 ? idx - 1 : -1;
+        }
         int idx = -1;
-        if (groupInfo.containsKey(groupName)) {
-            List<GroupInfo> list = groupInfo.get(groupName);
+        List<GroupInfo> list = groupInfo.get(groupName);
+        if (list != null) {
             idx = list.get(index).groupIndex();
         }
         return idx;
     }
 
+    /**
+     * Gets the index in the matcher of a named capture group, what
+     * {@link Matcher#group(int)} takes. No map lookups, names are compared
+     * by reference first, literals are fast. Resolve it once and use
+     * the index to get the group of every match.
+     *
+     * @param groupName name of capture group
+     * @return the index in the matcher (1-based) or -1 if not found
+     */
+    public int groupIndex(String groupName) {
+        String[] names = this.names;
+        for (int i = 0; i < names.length; i++) {
+            if (names[i] == groupName) {
+                return indexes[i];
+            }
+        }
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(groupName)) {
+                return indexes[i];
+            }
+        }
+        return -1;
+    }
+
     /**
      * Returns this pattern's match flags
      *
      * @return The match flags specified when this pattern was compiled
      */
     public int flags() {
-        return pattern.flags();
+        return flags;
+    }
+
+    /**
+     * Returns the engine that runs this pattern
+     *
+     * @return the engine
+     */
+    public Engine engine() {
+        return engine;
     }
 
     /**
@@ -341,25 +441,52 @@ public class Pattern {
      * @return A new matcher for this pattern
      */
     public Matcher matcher(CharSequence input) {
-        return new Matcher(this, input);
+        return new Matcher(this, input, 0, input.length());
     }
 
     /**
-     * Returns the wrapped {@link java.util.regex.Pattern}
+     * Creates a matcher that will match the region {@code [start, end)} of
+     * the given input, without copying it. The indexes reported by the
+     * matcher are indexes in the whole input.
      *
-     * @return the pattern
+     * @param input The character sequence to be matched
+     * @param start the start of the region, inclusive
+     * @param end   the end of the region, exclusive
+     * @return A new matcher for this pattern
+     */
+    public Matcher matcher(CharSequence input, int start, int end) {
+        return new Matcher(this, input, start, end);
+    }
+
+    /**
+     * Returns the wrapped {@link com.google.re2j.Pattern}
+     *
+     * @return the pattern, or {@code null} if the engine is {@link Engine#JDK}
      */
     public com.google.re2j.Pattern pattern() {
         return pattern;
     }
 
+    /**
+     * Returns the wrapped {@link java.util.regex.Pattern}
+     *
+     * @return the pattern, or {@code null} if the engine is {@link Engine#RE2J}
+     */
+    public java.util.regex.Pattern jdkPattern() {
+        return jdkPattern;
+    }
+
+    com.google.re2j.Pattern fallbackPattern() {
+        return fallbackPattern;
+    }
+
     /**
      * Returns the regular expression from which this pattern was compiled.
      *
      * @return The source of this pattern
      */
     public String standardPattern() {
-        return pattern.pattern();
+        return pattern != null ? pattern.pattern() : jdkPattern.pattern();
     }
 
     /**
@@ -421,7 +548,7 @@ public class Pattern {
      * matches of this pattern
      */
     public String[] split(String input, int limit) {
-        return pattern.split(input, limit);
+        return pattern != null ? pattern.split(input, limit) : jdkPattern.split(input, limit);
     }
 
     /**
@@ -432,7 +559,7 @@ public class Pattern {
      * matches of this pattern
      */
     public String[] split(String input) {
-        return pattern.split(input);
+        return pattern != null ? pattern.split(input) : jdkPattern.split(input);
     }
 
     /**
@@ -478,29 +605,44 @@ public class Pattern {
     }
 
     /**
-     * Builds a {@code java.util.regex.Pattern} from a given regular expression
-     * pattern (which may contain named groups) and flags
+     * Builds the standard regular expression from a given regular expression
+     * pattern (which may contain named groups)
      *
      * @param namedPattern the expression to be compiled
-     * @param flags        Match flags, a bit mask that may include:
-     *                     <ul>
-     *                       <li>{@link java.util.regex.Pattern#CASE_INSENSITIVE}</li>
-     *                       <li>{@link java.util.regex.Pattern#MULTILINE}</li>
-     *                       <li>{@link java.util.regex.Pattern#DOTALL}</li>
-     *                       <li>{@link java.util.regex.Pattern#UNICODE_CASE}</li>
-     *                       <li>{@link java.util.regex.Pattern#CANON_EQ}</li>
-     *                       <li>{@link java.util.regex.Pattern#UNIX_LINES}</li>
-     *                       <li>{@link java.util.regex.Pattern#LITERAL}</li>
-     *                       <li>{@link java.util.regex.Pattern#COMMENTS}</li>
-     *                     </ul>
-     * @return the standard {@code java.util.regex.Pattern}
-     */
-    private com.google.re2j.Pattern buildStandardPattern(String namedPattern, Integer flags) {
+     * @return the expression without group names
+     */
+    private static String buildStandardPattern(String namedPattern) {
         // replace the named-group construct with left-paren but
         // make sure we're actually looking at the construct (ignore escapes)
         StringBuilder s = new StringBuilder(namedPattern);
         s = replace(s, NAMED_GROUP_PATTERN, "(");
-        return com.google.re2j.Pattern.compile(s.toString(), flags);
+        return s.toString();
+    }
+
+    private void buildGroupIndexes() {
+        names = new String[groupInfo.size()];
+        indexes = new int[names.length];
+        int i = 0;
+        for (Map.Entry<String, List<GroupInfo>> e : groupInfo.entrySet()) {
+            names[i] = e.getKey().intern();
+            // capture groups start at 1 in the matcher
+            indexes[i] = e.getValue().get(0).groupIndex() + 1;
+            i++;
+        }
+    }
+
+    private static int jdkFlags(int flags) {
+        int r = 0;
+        if ((flags & com.google.re2j.Pattern.CASE_INSENSITIVE) != 0) {
+            r |= java.util.regex.Pattern.CASE_INSENSITIVE | java.util.regex.Pattern.UNICODE_CASE;
+        }
+        if ((flags & com.google.re2j.Pattern.DOTALL) != 0) {
+            r |= java.util.regex.Pattern.DOTALL;
+        }
+        if ((flags & com.google.re2j.Pattern.MULTILINE) != 0) {
+            r |= java.util.regex.Pattern.MULTILINE;
+        }
+        return r;
     }
 
     /*
@@ -519,7 +661,7 @@ public class Pattern {
             return false;
         }
         Pattern other = (Pattern) obj;
-        return namedPattern.equals(other.namedPattern) && pattern.flags() == other.pattern.flags();
+        return namedPattern.equals(other.namedPattern) && flags == other.flags && engine == other.engine;
     }
 
     /*
@@ -528,7 +670,7 @@ public class Pattern {
      */
     @Override
     public int hashCode() {
-        return namedPattern.hashCode() ^ pattern.flags();
+        return namedPattern.hashCode() ^ flags;
     }
 }
 
@@ -19,12 +19,28 @@ package com.frostwire.search;
 
 import com.frostwire.licenses.License;
 import com.frostwire.licenses.Licenses;
+import com.frostwire.util.StringPool;
 
 /**
  * @author gubatron
  * @author aldenml
  */
 public abstract class AbstractSearchResult implements SearchResult {
+
+    // the values repeated by many results (a source, an user), one instance for all
+    private static final StringPool POOL = new StringPool(4096);
+
+    // cached by NormalizedText, computed on first use
+    volatile String keywordHaystack;
+    volatile String nameHaystack;
+
+    /**
+     * @return the shared instance of a value repeated by many results
+     */
+    protected static String intern(String s) {
+        return POOL.intern(s);
+    }
+
     @Override
     public License getLicense() {
         return Licenses.UNKNOWN;
@@ -19,10 +19,13 @@ package com.frostwire.search;
 
 import com.frostwire.search.torrent.TorrentCrawlableSearchResult;
 import com.frostwire.search.torrent.TorrentCrawledAlbumSearchResult;
+import com.frostwire.search.torrent.TorrentCrawledFiles;
 import com.frostwire.search.torrent.TorrentItemSearchResult;
-import com.frostwire.util.MimeDetector;
+import com.frostwire.util.ExtensionRegistry;
 import org.apache.commons.io.FilenameUtils;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -83,33 +86,57 @@ public class AlbumCluster {
 
         return ImmutablePair.of(album, artist);
     }*/
-    public LinkedList<TorrentCrawledAlbumSearchResult> detect(TorrentCrawlableSearchResult parent, List<? extends TorrentItemSearchResult> results) {
+    /**
+     * Works on the positions of the files in the list, only their paths are
+     * read, the views of the files are made for the ones of an album.
+     */
+    public LinkedList<TorrentCrawledAlbumSearchResult> detect(TorrentCrawlableSearchResult parent, TorrentCrawledFiles files) {
         LinkedList<TorrentCrawledAlbumSearchResult> albums = new LinkedList<TorrentCrawledAlbumSearchResult>();
-        Map<String, LinkedList<TorrentItemSearchResult>> dirs = new HashMap<String, LinkedList<TorrentItemSearchResult>>();
-        for (TorrentItemSearchResult sr : results) {
-            String path = sr.getFilePath();
+        Map<String, Positions> dirs = new HashMap<String, Positions>();
+        for (int i = 0; i < files.size(); i++) {
+            String path = files.getFilePath(i);
             String dir = FilenameUtils.getPathNoEndSeparator(path);
-            if (!dirs.containsKey(dir)) {
-                dirs.put(dir, new LinkedList<TorrentItemSearchResult>());
+            Positions items = dirs.get(dir);
+            if (items == null) {
+                items = new Positions();
+                dirs.put(dir, items);
             }
-            LinkedList<TorrentItemSearchResult> items = dirs.get(dir);
-            items.add(sr);
+            items.add(i, ExtensionRegistry.mimeType(path).startsWith("audio"));
         }
-        for (Map.Entry<String, LinkedList<TorrentItemSearchResult>> kv : dirs.entrySet()) {
-            int numAudio = 0;
-            for (TorrentItemSearchResult sr : kv.getValue()) {
-                String mime = MimeDetector.getMimeType(sr.getFilePath());
-                if (mime.startsWith("audio")) {
-                    numAudio++;
-                }
-            }
+        for (Map.Entry<String, Positions> kv : dirs.entrySet()) {
+            int numAudio = kv.getValue().numAudio;
 //            if (numAudio >= ALBUM_SIZE_THRESHOLD) {
 //                Pair<String, String> p = albumArtistFromPath(kv.getKey(), "", "");
-//                TorrentCrawledAlbumSearchResult sr = new TorrentCrawledAlbumSearchResult(parent, p.getRight(), p.getLeft(), kv.getValue());
+//                TorrentCrawledAlbumSearchResult sr = new TorrentCrawledAlbumSearchResult(parent, p.getRight(), p.getLeft(), kv.getValue().views(files));
 //                System.out.println(sr);
 //                albums.add(sr);
 //            }
         }
         return albums;
     }
+
+    // the positions in the list of the files of a directory
+    private static final class Positions {
+        private int[] positions = new int[4];
+        private int size;
+        private int numAudio;
+
+        void add(int position, boolean audio) {
+            if (size == positions.length) {
+                positions = Arrays.copyOf(positions, size * 2);
+            }
+            positions[size++] = position;
+            if (audio) {
+                numAudio++;
+            }
+        }
+
+        List<TorrentItemSearchResult> views(TorrentCrawledFiles files) {
+            List<TorrentItemSearchResult> items = new ArrayList<TorrentItemSearchResult>(size);
+            for (int i = 0; i < size; i++) {
+                items.add(files.get(positions[i]));
+            }
+            return items;
+        }
+    }
 }
@@ -0,0 +1,406 @@
+/*
+ * Created by Angel Leon (@gubatron), Alden Torres (aldenml)
+ * Copyright (c) 2011-2020, FrostWire(R). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.frostwire.search;
+
+import com.frostwire.util.Logger;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A {@link CrawlCache} that stores every payload once, under the hash of its
+ * content, and maps the keys it's asked for (urls, infohashes) to it with
+ * small alias entries. The same .torrent found by url and by infohash, or
+ * by the url of different engines, takes the space of one.
+ * <p>
+ * The payloads are evicted in least recently used order when their total
+ * size goes over the budget, with their aliases. The index used for that
+ * (the payloads, their sizes and their aliases) is kept in memory and
+ * saved in the backing cache every few changes, and in the background a
+ * little after the last one (see {@link #saveIndex()}). A payload or an
+ * alias stored after the last save, if the process ends before the next
+ * one, is added back to the index when it's read, an alias of a payload
+ * that is gone is removed when it's read.
+ * <p>
+ * The backing cache can be shared with other caches (as the
+ * {@link QueryCache}), only the entries of the index are removed by
+ * {@link #clear()} and counted by {@link #sizeInBytes()}.
+ *
+ * @author gubatron
+ * @author aldenml
+ */
+public final class ContentAddressedCrawlCache implements CrawlCache {
+    private static final Logger LOG = Logger.getLogger(ContentAddressedCrawlCache.class);
+    private static final String CONTENT_PREFIX = "content:";
+    private static final String ALIAS_PREFIX = "alias:";
+    private static final String INDEX_KEY = "content-index";
+    private static final int INDEX_VERSION = 2;
+    private static final int INDEX_SAVE_INTERVAL = 32; // changes
+    private static final long INDEX_SAVE_DELAY_MILLIS = 30000; // 30 seconds.
+    private static final int CONTENT_KEY_LENGTH = 40; // hex of a SHA-1
+
+    private final CrawlCache store;
+    private final long maxPayloadBytes;
+    private final LinkedHashMap<String, Payload> index;
+    private final AtomicBoolean saveScheduled;
+    private long payloadBytes;
+    private long aliasBytes;
+    private int unsavedChanges;
+
+    public ContentAddressedCrawlCache(CrawlCache store, long maxPayloadBytes) {
+        this.store = store;
+        this.maxPayloadBytes = maxPayloadBytes;
+        this.index = new LinkedHashMap<>(16, 0.75f, true);
+        this.saveScheduled = new AtomicBoolean();
+        loadIndex();
+    }
+
+    @Override
+    public byte[] get(String key) {
+        String contentKey = resolve(key);
+        if (contentKey == null) {
+            return null;
+        }
+        byte[] data = store.get(CONTENT_PREFIX + contentKey);
+        if (data == null) {
+            // evicted, or lost by the backing cache
+            store.remove(ALIAS_PREFIX + key);
+            Payload payload;
+            synchronized (index) {
+                payload = index.remove(contentKey);
+                if (payload != null) {
+                    dropped(payload);
+                }
+            }
+            if (payload != null) {
+                removeAliases(payload);
+                changed(1);
+            }
+            return null;
+        }
+        boolean added = false;
+        synchronized (index) {
+            Payload payload = index.get(contentKey); // touch
+            if (payload == null) {
+                // stored after the last save of the index
+                payload = new Payload(data.length);
+                index.put(contentKey, payload);
+                payloadBytes += data.length;
+                added = true;
+            }
+            added |= addAlias(payload, key);
+        }
+        if (added) {
+            changed(1);
+        }
+        return data;
+    }
+
+    @Override
+    public void put(String key, byte[] data) {
+        if (data == null) {
+            return;
+        }
+        String contentKey = contentKey(data);
+        String previous = resolve(key);
+        boolean stored;
+        synchronized (index) {
+            stored = index.get(contentKey) != null;
+        }
+        if (!stored) {
+            store.put(CONTENT_PREFIX + contentKey, data);
+        }
+        if (!contentKey.equals(previous)) {
+            store.put(ALIAS_PREFIX + key, contentKey.getBytes(StandardCharsets.UTF_8));
+        }
+        List<Payload> evicted = new ArrayList<>();
+        List<String> evictedKeys = new ArrayList<>();
+        boolean added;
+        synchronized (index) {
+            if (previous != null && !previous.equals(contentKey)) {
+                // the key had another payload
+                Payload old = index.get(previous);
+                if (old != null && old.aliases.remove(key)) {
+                    aliasBytes -= aliasSize(key);
+                }
+            }
+            Payload payload = index.get(contentKey);
+            added = payload == null;
+            if (added) {
+                payload = new Payload(data.length);
+                index.put(contentKey, payload);
+                payloadBytes += data.length;
+            }
+            added |= addAlias(payload, key);
+            Iterator<Map.Entry<String, Payload>> it = index.entrySet().iterator();
+            while (payloadBytes > maxPayloadBytes && it.hasNext()) {
+                Map.Entry<String, Payload> e = it.next();
+                if (!e.getKey().equals(contentKey)) {
+                    dropped(e.getValue());
+                    evicted.add(e.getValue());
+                    evictedKeys.add(e.getKey());
+                    it.remove();
+                }
+            }
+        }
+        for (int i = 0; i < evicted.size(); i++) {
+            store.remove(CONTENT_PREFIX + evictedKeys.get(i));
+            removeAliases(evicted.get(i));
+        }
+        if (added || !evicted.isEmpty()) {
+            changed(1 + evicted.size());
+        }
+    }
+
+    /**
+     * Removes the payload behind the key, the crawl found it invalid, so it
+     * goes for all its aliases.
+     */
+    @Override
+    public void remove(String key) {
+        String contentKey = resolve(key);
+        store.remove(ALIAS_PREFIX + key);
+        if (contentKey != null) {
+            store.remove(CONTENT_PREFIX + contentKey);
+            Payload payload;
+            synchronized (index) {
+                payload = index.remove(contentKey);
+                if (payload != null) {
+                    dropped(payload);
+                }
+            }
+            if (payload != null) {
+                removeAliases(payload);
+            }
+            changed(1);
+        }
+    }
+
+    /**
+     * Removes the payloads in the index and their aliases, and the index,
+     * the other entries of the backing cache are left alone.
+     */
+    @Override
+    public void clear() {
+        List<String> keys = new ArrayList<>();
+        synchronized (index) {
+            for (Map.Entry<String, Payload> e : index.entrySet()) {
+                keys.add(CONTENT_PREFIX + e.getKey());
+                for (String alias : e.getValue().aliases) {
+                    keys.add(ALIAS_PREFIX + alias);
+                }
+            }
+            index.clear();
+            payloadBytes = 0;
+            aliasBytes = 0;
+            unsavedChanges = 0;
+        }
+        for (String k : keys) {
+            store.remove(k);
+        }
+        store.remove(INDEX_KEY);
+    }
+
+    /**
+     * The number of distinct payloads.
+     */
+    @Override
+    public long numEntries() {
+        synchronized (index) {
+            return index.size();
+        }
+    }
+
+    /**
+     * The size of the payloads and of their aliases in the index, not of
+     * the whole backing cache.
+     */
+    @Override
+    public long sizeInBytes() {
+        synchronized (index) {
+            return payloadBytes + aliasBytes;
+        }
+    }
+
+    public long payloadSizeInBytes() {
+        synchronized (index) {
+            return payloadBytes;
+        }
+    }
+
+    /**
+     * Writes the index to the backing cache if it changed since the last
+     * time. Normally not needed, changes are saved in the background.
+     */
+    public void saveIndex() {
+        saveScheduled.set(false);
+        byte[] snapshot;
+        synchronized (index) {
+            if (unsavedChanges == 0) {
+                return;
+            }
+            unsavedChanges = 0;
+            snapshot = writeIndex();
+        }
+        store.put(INDEX_KEY, snapshot);
+    }
+
+    private String resolve(String key) {
+        byte[] alias = store.get(ALIAS_PREFIX + key);
+        return alias != null ? new String(alias, StandardCharsets.UTF_8) : null;
+    }
+
+    // must be called holding the index lock
+    private boolean addAlias(Payload payload, String key) {
+        if (payload.aliases.contains(key)) {
+            return false;
+        }
+        payload.aliases.add(key);
+        aliasBytes += aliasSize(key);
+        return true;
+    }
+
+    // must be called holding the index lock, for a payload out of the index
+    private void dropped(Payload payload) {
+        payloadBytes -= payload.size;
+        for (String alias : payload.aliases) {
+            aliasBytes -= aliasSize(alias);
+        }
+    }
+
+    private void removeAliases(Payload payload) {
+        for (String alias : payload.aliases) {
+            store.remove(ALIAS_PREFIX + alias);
+        }
+    }
+
+    private void changed(int n) {
+        byte[] snapshot = null;
+        synchronized (index) {
+            unsavedChanges += n;
+            if (unsavedChanges >= INDEX_SAVE_INTERVAL) {
+                unsavedChanges = 0;
+                snapshot = writeIndex();
+            }
+        }
+        if (snapshot != null) {
+            store.put(INDEX_KEY, snapshot);
+        } else if (saveScheduled.compareAndSet(false, true)) {
+            Saver.EXECUTOR.schedule(this::saveIndex, INDEX_SAVE_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // must be called holding the index lock
+    private byte[] writeIndex() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream((int) Math.min(Integer.MAX_VALUE, index.size() * 56 + aliasBytes + 8));
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(INDEX_VERSION);
+            out.writeInt(index.size());
+            for (Map.Entry<String, Payload> e : index.entrySet()) {
+                Payload payload = e.getValue();
+                out.writeUTF(e.getKey());
+                out.writeLong(payload.size);
+                out.writeInt(payload.aliases.size());
+                for (String alias : payload.aliases) {
+                    out.writeUTF(alias);
+                }
+            }
+        } catch (IOException e) {
+            // not possible in memory
+        }
+        return bytes.toByteArray();
+    }
+
+    private void loadIndex() {
+        byte[] data = store.get(INDEX_KEY);
+        if (data == null) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            int version = in.readInt();
+            if (version != 1 && version != INDEX_VERSION) {
+                return;
+            }
+            int n = in.readInt();
+            for (int i = 0; i < n; i++) {
+                String contentKey = in.readUTF();
+                Payload payload = new Payload(in.readLong());
+                index.put(contentKey, payload);
+                payloadBytes += payload.size;
+                // the first version had no aliases, they are added as read
+                int aliases = version == 1 ? 0 : in.readInt();
+                for (int j = 0; j < aliases; j++) {
+                    addAlias(payload, in.readUTF());
+                }
+            }
+        } catch (IOException e) {
+            LOG.warn("Error loading crawl cache index, e=" + e.getMessage());
+        }
+    }
+
+    private static long aliasSize(String key) {
+        return ALIAS_PREFIX.length() + key.length() + CONTENT_KEY_LENGTH;
+    }
+
+    private static String contentKey(byte[] data) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(data);
+            StringBuilder sb = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                sb.append(Character.forDigit((b >> 4) & 0xf, 16));
+                sb.append(Character.forDigit(b & 0xf, 16));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 not supported", e);
+        }
+    }
+
+    private static final class Payload {
+        final long size;
+        // the keys that resolve to this payload, usually one or two
+        final List<String> aliases;
+
+        Payload(long size) {
+            this.size = size;
+            this.aliases = new ArrayList<>(2);
+        }
+    }
+
+    private static final class Saver {
+        static final ScheduledExecutorService EXECUTOR = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "ContentAddressedCrawlCache-saver");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+}
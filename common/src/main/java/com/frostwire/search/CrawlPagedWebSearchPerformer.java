@@ -25,6 +25,9 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author gubatron
@@ -34,9 +37,15 @@ public abstract class CrawlPagedWebSearchPerformer<T extends CrawlableSearchResu
     protected static final Map<String, Integer> UNIT_TO_BYTES;
     private static final Logger LOG = Logger.getLogger(CrawlPagedWebSearchPerformer.class);
     private static final int DEFAULT_CRAWL_TIMEOUT = 10000; // 10 seconds.
-    private static final int FAILED_CRAWL_URL_CACHE_LIFETIME = 600000; // 10 minutes.
     private static final int DEFAULT_MAGNET_DOWNLOAD_TIMEOUT_SECS = 20; // 20 seconds.
-    private static CrawlCache cache = null;
+    private static final int IN_FLIGHT_WAIT_TIMEOUT = DEFAULT_MAGNET_DOWNLOAD_TIMEOUT_SECS * 1000 + DEFAULT_CRAWL_TIMEOUT;
+    /**
+     * Downloads in progress by url and by infohash, shared by all engines so
+     * the same torrent is not downloaded twice at the same time.
+     */
+    private static final ConcurrentHashMap<String, InFlightDownload> inFlight = new ConcurrentHashMap<>();
+    private static volatile CrawlCache cache = null;
+    private static volatile FailedCrawlCache failedCache = new FailedCrawlCache(null);
     private static MagnetDownloader magnetDownloader = null;
 
     static {
@@ -55,10 +64,22 @@ public abstract class CrawlPagedWebSearchPerformer<T extends CrawlableSearchResu
         this.numCrawls = numCrawls;
     }
 
+    /**
+     * The cache is used by all crawls at the same time without any external
+     * synchronization, it must be thread safe (see {@link TieredCrawlCache}).
+     */
     public static void setCache(CrawlCache cache) {
         CrawlPagedWebSearchPerformer.cache = cache;
     }
 
+    /**
+     * Where the urls that failed to crawl are remembered, by default in
+     * memory only.
+     */
+    public static void setFailedCache(FailedCrawlCache failedCache) {
+        CrawlPagedWebSearchPerformer.failedCache = failedCache;
+    }
+
     public static MagnetDownloader getMagnetDownloader() {
         return magnetDownloader;
     }
@@ -67,77 +88,20 @@ public abstract class CrawlPagedWebSearchPerformer<T extends CrawlableSearchResu
         CrawlPagedWebSearchPerformer.magnetDownloader = magnetDownloader;
     }
 
-    private static byte[] long2array(long l) {
-        byte[] arr = new byte[Long.SIZE / Byte.SIZE];
-        longToByteArray(l, 0, arr, 0, arr.length);
-        return arr;
-    }
-
-    private static long array2long(byte[] arr) {
-        return byteArrayToLong(arr, 0, 0, 0, Long.SIZE / Byte.SIZE);
-    }
-
     public static void clearCache() {
         if (cache != null) {
-            synchronized (cache) {
-                cache.clear();
-            }
+            cache.clear();
         }
+        failedCache.clear();
+        clearQueryCache();
     }
 
     public static long getCacheNumEntries() {
-        long result = 0;
-        if (cache != null) {
-            synchronized (cache) {
-                result = cache.numEntries();
-            }
-        }
-        return result;
+        return cache != null ? cache.numEntries() : 0;
     }
 
     public static long getCacheSize() {
-        long result = 0;
-        if (cache != null) {
-            synchronized (cache) {
-                result = cache.sizeInBytes();
-            }
-        }
-        return result;
-    }
-
-    private static long byteArrayToLong(final byte[] src, final int srcPos, final long dstInit, final int dstPos,
-                                        final int nBytes) {
-        if ((src.length == 0 && srcPos == 0) || 0 == nBytes) {
-            return dstInit;
-        }
-        if ((nBytes - 1) * 8 + dstPos >= 64) {
-            throw new IllegalArgumentException("(nBytes-1)*8+dstPos is greater or equal to than 64");
-        }
-        long out = dstInit;
-        int shift;
-        for (int i = 0; i < nBytes; i++) {
-            shift = i * 8 + dstPos;
-            final long bits = (0xffL & src[i + srcPos]) << shift;
-            final long mask = 0xffL << shift;
-            out = (out & ~mask) | bits;
-        }
-        return out;
-    }
-
-    private static byte[] longToByteArray(final long src, final int srcPos, final byte[] dst, final int dstPos,
-                                          final int nBytes) {
-        if (0 == nBytes) {
-            return dst;
-        }
-        if ((nBytes - 1) * 8 + srcPos >= 64) {
-            throw new IllegalArgumentException("(nBytes-1)*8+srcPos is greater or equal to than 64");
-        }
-        int shift;
-        for (int i = 0; i < nBytes; i++) {
-            shift = i * 8 + srcPos;
-            dst[dstPos + i] = (byte) (0xff & (src >> shift));
-        }
-        return dst;
+        return cache != null ? cache.sizeInBytes() : 0;
     }
 
     @Override
@@ -148,22 +112,18 @@ public abstract class CrawlPagedWebSearchPerformer<T extends CrawlableSearchResu
             if (obj != null) {
                 String url = getCrawlUrl(obj);
                 if (url != null) {
-                    // this block is an early check for failed in cache, quick return
-                    byte[] failed = cacheGet("failed:" + url);
-                    if (failed != null) {
-                        long failedWhen = array2long(failed);
-                        if ((System.currentTimeMillis() - failedWhen) < FAILED_CRAWL_URL_CACHE_LIFETIME) {
-                            //if the failed request is still fresh we stop
-                            //LOG.info("CrawlPagedWebSearchPerformer::crawl() - hit failed cache url");
-                            onResults(Collections.emptyList());
-                            return;
-                        } else {
-                            cacheRemove("failed:" + url);
-                        }
+                    // this block is an early check for a recent failure, quick return
+                    if (failedCache.isFailed(url)) {
+                        //LOG.info("CrawlPagedWebSearchPerformer::crawl() - hit failed cache url");
+                        onResults(Collections.emptyList());
+                        return;
                     }
                     byte[] data = cacheGet(url);
-                    if (sr instanceof TorrentSearchResult) {
-                        String infohash = ((TorrentSearchResult) sr).getHash();
+                    String infohash = sr instanceof TorrentSearchResult ? ((TorrentSearchResult) sr).getHash() : null;
+                    if (infohash != null && infohash.isEmpty()) {
+                        infohash = null;
+                    }
+                    if (infohash != null) {
                         if (data == null) {
                             // maybe we've already cached it by infohash (happens quite a bit)
                             data = cacheGet(infohash);
@@ -171,29 +131,11 @@ public abstract class CrawlPagedWebSearchPerformer<T extends CrawlableSearchResu
                             cachePut(infohash, data);
                         }
                     }
-                    if (data == null) { // not a big deal about synchronization here
-                        //LOG.debug("Downloading data for: " + url);
-                        if (url.startsWith("magnet")) {
-                            data = fetchMagnet(url);
-                        } else {
-                            data = fetchBytes(url, sr.getDetailsUrl(), DEFAULT_CRAWL_TIMEOUT);
-                        }
-                        //we put this here optimistically hoping this is actually
-                        //valid data. if no data can be crawled from this we remove it
-                        //from the cache. we do this because this same data may come
-                        //from another search engine and this way we avoid the
-                        //expense of performing another download.
-                        if (data != null) {
-                            cachePut(url, data);
-                            if (sr instanceof TorrentSearchResult) {
-                                // if the search result has an infohash we can use...
-                                String infohash = ((TorrentSearchResult) sr).getHash();
-                                cachePut(infohash, data);
-                            }
-                        } else {
-                            //LOG.warn("Failed to download data: " + url);
-                            cachePut("failed:" + url, long2array(System.currentTimeMillis()));
-                        }
+                    if (data == null) {
+                        metrics().crawlMiss();
+                        data = download(url, infohash, sr.getDetailsUrl());
+                    } else {
+                        metrics().crawlHit();
                     }
                     try {
                         if (data != null) {
@@ -202,11 +144,12 @@ public abstract class CrawlPagedWebSearchPerformer<T extends CrawlableSearchResu
                                 if (!results.isEmpty()) {
                                     onResults(results);
                                 } else {
-                                    cachePut("failed:" + url, long2array(System.currentTimeMillis()));
+                                    failedCache.add(url);
                                 }
                             }
                         }
                     } catch (Throwable e) {
+                        metrics().error();
                         LOG.warn("Error creating crawled results from downloaded data: " + "url=" + url + ", e=" + e.getMessage());
                         cacheRemove(url); // invalidating cache data
                     }
@@ -217,6 +160,7 @@ public abstract class CrawlPagedWebSearchPerformer<T extends CrawlableSearchResu
                             onResults(results);
                         }
                     } catch (Throwable e) {
+                        metrics().error();
                         LOG.warn("Error creating crawled results from search result alone: " + obj.getDetailsUrl() + ", e=" + e.getMessage());//,e);
                     }
                 }
@@ -224,6 +168,61 @@ public abstract class CrawlPagedWebSearchPerformer<T extends CrawlableSearchResu
         }
     }
 
+    /**
+     * Downloads the data of a crawl, or waits for the same download if it's
+     * already in progress for another search result (from any engine) with
+     * the same url or infohash.
+     */
+    private byte[] download(String url, String infohash, String referrer) {
+        InFlightDownload mine = new InFlightDownload();
+        InFlightDownload other = inFlight.putIfAbsent(url, mine);
+        if (other == null && infohash != null) {
+            other = inFlight.putIfAbsent(infohash, mine);
+            if (other != null) {
+                // same torrent from another url, whoever joined us by url gets the same bytes
+                inFlight.remove(url, mine);
+                byte[] data = other.await(url);
+                mine.complete(data);
+                return data;
+            }
+        }
+        if (other != null) {
+            return other.await(url);
+        }
+
+        byte[] data = null;
+        try {
+            //LOG.debug("Downloading data for: " + url);
+            if (url.startsWith("magnet")) {
+                data = fetchMagnet(url);
+            } else {
+                data = fetchBytes(url, referrer, DEFAULT_CRAWL_TIMEOUT);
+            }
+            //we put this here optimistically hoping this is actually
+            //valid data. if no data can be crawled from this we remove it
+            //from the cache. we do this because this same data may come
+            //from another search engine and this way we avoid the
+            //expense of performing another download.
+            if (data != null) {
+                cachePut(url, data);
+                if (infohash != null) {
+                    cachePut(infohash, data);
+                }
+            } else {
+                //LOG.warn("Failed to download data: " + url);
+                failedCache.add(url);
+            }
+        } finally {
+            // cache is updated before leaving the table, late comers find it there
+            inFlight.remove(url, mine);
+            if (infohash != null) {
+                inFlight.remove(infohash, mine);
+            }
+            mine.complete(data);
+        }
+        return data;
+    }
+
     protected abstract String getCrawlUrl(T sr);
 
     protected abstract List<? extends SearchResult> crawlResult(T sr, byte[] data) throws Exception;
@@ -238,32 +237,18 @@ public abstract class CrawlPagedWebSearchPerformer<T extends CrawlableSearchResu
     }
 
     private byte[] cacheGet(String key) {
-//        //UNCOMMENT TO TEST/DEBUG SEARCHES THAT KEEP FAILING
-//        if (key.startsWith("failed:")) {
-//            return null;
-//        }
-        if (cache != null) {
-            synchronized (cache) {
-                return cache.get(key);
-            }
-        } else {
-            return null;
-        }
+        return cache != null ? cache.get(key) : null;
     }
 
     private void cachePut(String key, byte[] data) {
         if (cache != null) {
-            synchronized (cache) {
-                cache.put(key, data);
-            }
+            cache.put(key, data);
         }
     }
 
     private void cacheRemove(String key) {
         if (cache != null) {
-            synchronized (cache) {
-                cache.remove(key);
-            }
+            cache.remove(key);
         }
     }
 
@@ -276,4 +261,26 @@ public abstract class CrawlPagedWebSearchPerformer<T extends CrawlableSearchResu
         }
         return null;
     }
+
+    private static final class InFlightDownload {
+        private final CountDownLatch done = new CountDownLatch(1);
+        private volatile byte[] data;
+
+        void complete(byte[] data) {
+            this.data = data;
+            done.countDown();
+        }
+
+        byte[] await(String url) {
+            try {
+                if (done.await(IN_FLIGHT_WAIT_TIMEOUT, TimeUnit.MILLISECONDS)) {
+                    return data;
+                }
+                LOG.warn("Timeout waiting for in flight download of: " + url);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }
+    }
 }
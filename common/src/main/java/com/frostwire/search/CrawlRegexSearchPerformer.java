@@ -39,8 +39,7 @@ public abstract class CrawlRegexSearchPerformer<T extends CrawlableSearchResult>
         }
         int prefixOffset = preliminaryHtmlPrefixOffset(page);
         int suffixOffset = preliminaryHtmlSuffixOffset(page);
-        String reducedPage = PerformersHelper.reduceHtml(page, prefixOffset, suffixOffset);
-        return PerformersHelper.searchPageHelper(this, reducedPage, regexMaxResults);
+        return PerformersHelper.searchPageHelper(this, page, prefixOffset, suffixOffset, regexMaxResults);
     }
 
     /**
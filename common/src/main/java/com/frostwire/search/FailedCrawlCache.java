@@ -0,0 +1,234 @@
+/*
+ * Created by Angel Leon (@gubatron), Alden Torres (aldenml)
+ * Copyright (c) 2011-2020, FrostWire(R). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.frostwire.search;
+
+import com.frostwire.util.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * In memory record of crawl urls that recently failed, so they are not
+ * tried again until the entry expires.
+ * <p>
+ * The number of entries is bounded, when full the expired entries are
+ * purged first and then the ones closer to expire. If a file is given,
+ * the entries are loaded from it on creation and saved back (debounced)
+ * after changes, so the failures survive a restart.
+ *
+ * @author gubatron
+ * @author aldenml
+ */
+public final class FailedCrawlCache {
+    public static final long DEFAULT_TTL = 600000; // 10 minutes.
+    public static final int DEFAULT_MAX_ENTRIES = 10000;
+
+    private static final Logger LOG = Logger.getLogger(FailedCrawlCache.class);
+    private static final int FILE_VERSION = 1;
+    private static final int MAX_URL_LENGTH = 4096;
+    private static final long SAVE_DELAY_MILLIS = 30000; // 30 seconds.
+
+    private final File file;
+    private final long ttl;
+    private final int maxEntries;
+    private final ConcurrentHashMap<String, Long> expirations;
+    private final AtomicBoolean saveScheduled;
+
+    public FailedCrawlCache(File file) {
+        this(file, DEFAULT_TTL, DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * @param file       where to persist the entries, or {@code null} for memory only
+     * @param ttl        how long an url is considered failed, in milliseconds
+     * @param maxEntries the maximum number of urls to remember
+     */
+    public FailedCrawlCache(File file, long ttl, int maxEntries) {
+        this.file = file;
+        this.ttl = ttl;
+        this.maxEntries = maxEntries;
+        this.expirations = new ConcurrentHashMap<>();
+        this.saveScheduled = new AtomicBoolean();
+        if (file != null) {
+            load();
+        }
+    }
+
+    public boolean isFailed(String url) {
+        Long expiration = expirations.get(url);
+        if (expiration == null) {
+            return false;
+        }
+        if (expiration > System.currentTimeMillis()) {
+            return true;
+        }
+        expirations.remove(url, expiration);
+        return false;
+    }
+
+    public void add(String url) {
+        if (url.length() > MAX_URL_LENGTH) {
+            return;
+        }
+        expirations.put(url, System.currentTimeMillis() + ttl);
+        if (expirations.size() > maxEntries) {
+            evict();
+        }
+        scheduleSave();
+    }
+
+    public void remove(String url) {
+        if (expirations.remove(url) != null) {
+            scheduleSave();
+        }
+    }
+
+    public void clear() {
+        expirations.clear();
+        scheduleSave();
+    }
+
+    public int size() {
+        return expirations.size();
+    }
+
+    /**
+     * Writes the unexpired entries to the file, if any. Normally not
+     * needed, changes are saved in the background.
+     */
+    public void save() {
+        if (file == null) {
+            return;
+        }
+        saveScheduled.set(false);
+        long now = System.currentTimeMillis();
+        List<Map.Entry<String, Long>> entries = new ArrayList<>();
+        for (Map.Entry<String, Long> e : expirations.entrySet()) {
+            if (e.getValue() > now) {
+                entries.add(e);
+            }
+        }
+        File temp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            out.writeInt(FILE_VERSION);
+            out.writeInt(entries.size());
+            for (Map.Entry<String, Long> e : entries) {
+                out.writeUTF(e.getKey());
+                out.writeLong(e.getValue());
+            }
+        } catch (IOException e) {
+            LOG.warn("Error saving failed crawls to: " + file + ", e=" + e.getMessage());
+            return;
+        }
+        if (!temp.renameTo(file)) {
+            file.delete();
+            if (!temp.renameTo(file)) {
+                LOG.warn("Error saving failed crawls to: " + file);
+            }
+        }
+    }
+
+    private void load() {
+        if (!file.exists() || file.length() == 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != FILE_VERSION) {
+                return;
+            }
+            int n = in.readInt();
+            for (int i = 0; i < n && expirations.size() < maxEntries; i++) {
+                String url = in.readUTF();
+                long expiration = in.readLong();
+                if (expiration > now) {
+                    expirations.put(url, expiration);
+                }
+            }
+        } catch (IOException e) {
+            LOG.warn("Error loading failed crawls from: " + file + ", e=" + e.getMessage());
+        }
+    }
+
+    /**
+     * Purges the expired entries and, if still over the limit, the ones
+     * closer to expire, leaving some room so this is not done on every add.
+     */
+    private synchronized void evict() {
+        if (expirations.size() <= maxEntries) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        Iterator<Long> expired = expirations.values().iterator();
+        while (expired.hasNext()) {
+            if (expired.next() <= now) {
+                expired.remove();
+            }
+        }
+        int target = maxEntries - maxEntries / 10;
+        int excess = expirations.size() - target;
+        if (excess <= 0) {
+            return;
+        }
+        List<Map.Entry<String, Long>> entries = new ArrayList<>(expirations.entrySet());
+        Collections.sort(entries, new Comparator<Map.Entry<String, Long>>() {
+            @Override
+            public int compare(Map.Entry<String, Long> o1, Map.Entry<String, Long> o2) {
+                return Long.compare(o1.getValue(), o2.getValue());
+            }
+        });
+        Iterator<Map.Entry<String, Long>> it = entries.iterator();
+        while (excess > 0 && it.hasNext()) {
+            Map.Entry<String, Long> e = it.next();
+            if (expirations.remove(e.getKey(), e.getValue())) {
+                excess--;
+            }
+        }
+    }
+
+    private void scheduleSave() {
+        if (file != null && saveScheduled.compareAndSet(false, true)) {
+            Saver.EXECUTOR.schedule(this::save, SAVE_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static final class Saver {
+        static final ScheduledExecutorService EXECUTOR = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "FailedCrawlCache-saver");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+}
@@ -0,0 +1,254 @@
+/*
+ * Created by Angel Leon (@gubatron), Alden Torres (aldenml)
+ * Copyright (c) 2011-2020, FrostWire(R). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.frostwire.search;
+
+import com.frostwire.util.Logger;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sits in front of the search executor and makes sure a single host can't
+ * take over the worker threads. Every host has a limit of in flight tasks and
+ * a token bucket rate, tasks over the limits wait in a per host queue (by
+ * ordinal) while the free workers serve the other hosts.
+ * <p>
+ * Tasks without a host, or already cancelled, go straight to the executor.
+ * <p>
+ * A task can also run in an executor of its own and still count against
+ * the limits of its host, i.e. the search pages a perform task waits for
+ * can't take the workers of the search executor.
+ *
+ * @author gubatron
+ * @author aldenml
+ */
+final class HostScheduler {
+    private static final Logger LOG = Logger.getLogger(HostScheduler.class);
+
+    static final int DEFAULT_MAX_IN_FLIGHT = 3;
+    static final double DEFAULT_REQUESTS_PER_SECOND = 5;
+
+    private final Executor executor;
+    private final ConcurrentHashMap<String, Host> hosts;
+    private final ScheduledExecutorService timer;
+
+    HostScheduler(Executor executor) {
+        this.executor = executor;
+        this.hosts = new ConcurrentHashMap<>();
+        this.timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "SearchManager-HostScheduler");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    void setLimits(String host, int maxInFlight, double requestsPerSecond) {
+        if (maxInFlight <= 0 || requestsPerSecond <= 0) {
+            throw new IllegalArgumentException("Host limits must be > 0");
+        }
+        Host h = host(host);
+        synchronized (h) {
+            h.maxInFlight = maxInFlight;
+            h.requestsPerSecond = requestsPerSecond;
+            h.tokens = Math.min(h.tokens, h.burst());
+        }
+        dispatch(h);
+    }
+
+    void execute(Task task) {
+        execute(task, executor);
+    }
+
+    /**
+     * Runs the task in the given executor when its host is under the limits.
+     */
+    void execute(Task task, Executor executor) {
+        String host = task.host();
+        if (host == null || task.cancelled()) {
+            executor.execute(task);
+            return;
+        }
+        Host h = host(host);
+        synchronized (h) {
+            h.queue.add(task);
+            if (executor != this.executor) {
+                h.executors.put(task, executor);
+            }
+        }
+        dispatch(h);
+    }
+
+    /**
+     * Must be called once the task is done (or will never run), it's a no-op
+     * for tasks that didn't take a slot of its host.
+     */
+    void release(Task task) {
+        String host = task.host();
+        if (host == null) {
+            return;
+        }
+        Host h = hosts.get(host);
+        if (h == null) {
+            return;
+        }
+        synchronized (h) {
+            if (!h.running.remove(task)) {
+                return;
+            }
+        }
+        dispatch(h);
+    }
+
+    /**
+     * Runs the action in the timer thread after the delay, it must be short.
+     */
+    void schedule(Runnable action, long delayMillis) {
+        timer.schedule(action, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    int queued(String host) {
+        Host h = hosts.get(host);
+        if (h == null) {
+            return 0;
+        }
+        synchronized (h) {
+            return h.queue.size();
+        }
+    }
+
+    private Host host(String name) {
+        Host h = hosts.get(name);
+        if (h == null) {
+            Host newHost = new Host(name);
+            h = hosts.putIfAbsent(name, newHost);
+            if (h == null) {
+                h = newHost;
+            }
+        }
+        return h;
+    }
+
+    private void dispatch(Host h) {
+        while (true) {
+            Task task;
+            Executor target;
+            synchronized (h) {
+                task = h.queue.peek();
+                if (task == null) {
+                    return;
+                }
+                if (task.cancelled()) {
+                    // nothing will hit the network, don't waste a slot
+                    h.queue.poll();
+                } else {
+                    if (h.running.size() >= h.maxInFlight) {
+                        return;
+                    }
+                    long now = System.nanoTime();
+                    h.refill(now);
+                    if (h.tokens < 1) {
+                        if (!h.wakeupScheduled) {
+                            h.wakeupScheduled = true;
+                            long delayNanos = (long) ((1 - h.tokens) / h.requestsPerSecond * 1e9);
+                            timer.schedule(() -> wakeup(h), delayNanos, TimeUnit.NANOSECONDS);
+                        }
+                        return;
+                    }
+                    h.tokens -= 1;
+                    h.queue.poll();
+                    h.running.add(task);
+                }
+                target = h.executors.remove(task);
+            }
+            try {
+                (target != null ? target : executor).execute(task);
+            } catch (Throwable e) {
+                LOG.warn("Unable to execute search task for host " + h.name + ", e=" + e.getMessage());
+                synchronized (h) {
+                    h.running.remove(task);
+                }
+            }
+        }
+    }
+
+    private void wakeup(Host h) {
+        synchronized (h) {
+            h.wakeupScheduled = false;
+        }
+        dispatch(h);
+    }
+
+    interface Task extends Runnable {
+        /**
+         * @return the host this task talks to, or {@code null} if not applicable
+         */
+        String host();
+
+        boolean cancelled();
+
+        int ordinal();
+    }
+
+    private static final class Host {
+        final String name;
+        final PriorityQueue<Task> queue;
+        final Set<Task> running;
+        // of the queued tasks that don't run in the search executor
+        final Map<Task, Executor> executors;
+        int maxInFlight;
+        double requestsPerSecond;
+        double tokens;
+        long lastRefill;
+        boolean wakeupScheduled;
+
+        Host(String name) {
+            this.name = name;
+            this.queue = new PriorityQueue<>(11, new Comparator<Task>() {
+                @Override
+                public int compare(Task o1, Task o2) {
+                    return Integer.compare(o1.ordinal(), o2.ordinal());
+                }
+            });
+            this.running = Collections.newSetFromMap(new IdentityHashMap<>());
+            this.executors = new IdentityHashMap<>();
+            this.maxInFlight = DEFAULT_MAX_IN_FLIGHT;
+            this.requestsPerSecond = DEFAULT_REQUESTS_PER_SECOND;
+            this.tokens = burst();
+            this.lastRefill = System.nanoTime();
+        }
+
+        double burst() {
+            return Math.max(1, requestsPerSecond);
+        }
+
+        void refill(long now) {
+            double elapsedSecs = (now - lastRefill) / 1e9;
+            tokens = Math.min(burst(), tokens + elapsedSecs * requestsPerSecond);
+            lastRefill = now;
+        }
+    }
+}
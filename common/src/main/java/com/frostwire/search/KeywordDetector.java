@@ -17,7 +17,6 @@
 
 package com.frostwire.search;
 
-import com.frostwire.regex.Pattern;
 import com.frostwire.util.HistoHashMap;
 import com.frostwire.util.Logger;
 import com.frostwire.util.TaskThrottle;
@@ -27,12 +26,16 @@ import org.apache.commons.io.FilenameUtils;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -49,7 +52,13 @@ import java.util.concurrent.locks.ReentrantLock;
 public final class KeywordDetector {
     private static final Logger LOG = Logger.getLogger(KeywordDetector.class);
     private static final Set<String> stopWords = new HashSet<>();
-    private static final Pattern REPLACE_ALL_PATTERN = Pattern.compile("[^\\p{L}0-9 .]|\\.{2,}");
+    private static final ThreadLocal<KeywordTokenizer> TOKENIZER = new ThreadLocal<KeywordTokenizer>() {
+        @Override
+        protected KeywordTokenizer initialValue() {
+            return new KeywordTokenizer(stopWords);
+        }
+    };
+    private static final int MAX_HISTOGRAM_ENTRIES = 100;
 
     static {
         // english
@@ -72,36 +81,42 @@ public final class KeywordDetector {
         // TODO: Add more here as we start testing and getting noise
     }
 
-    private final Map<Feature, HistoHashMap<String>> histoHashMaps;
     private final HistogramUpdateRequestDispatcher histogramUpdateRequestsDispatcher;
+    /**
+     * Replaced on every {@link #reset()}, updates still in progress from
+     * before the reset end up in the discarded instance.
+     */
+    private volatile Histograms histograms;
     private KeywordDetectorListener keywordDetectorListener;
     private ExecutorService threadPool;
-    private int totalHistogramKeysCount = -1;
+    private volatile int totalHistogramKeysCount = -1;
 
     public KeywordDetector() {
-        histoHashMaps = new HashMap<>();
         histogramUpdateRequestsDispatcher = new HistogramUpdateRequestDispatcher();
-        histoHashMaps.put(Feature.SEARCH_SOURCE, new HistoHashMap<>());
-        histoHashMaps.put(Feature.FILE_EXTENSION, new HistoHashMap<>());
-        histoHashMaps.put(Feature.FILE_NAME, new HistoHashMap<>());
+        histograms = new Histograms();
     }
 
-    private static List<Map.Entry<String, Integer>> highPassFilter(List<Map.Entry<String, Integer>> histogram, float threshold) {
-        int high = 0;
-        int totalCount = 0;
-        for (Map.Entry<String, Integer> entry : histogram) {
-            int count = entry.getValue();
-            totalCount += count;
-            if (count > high) {
-                high = count;
-            }
+    /**
+     * The histogram entries with a rate over the threshold, only the top
+     * entries are looked at since an entry over the threshold has at least
+     * {@code threshold} of the total count, there can't be more than
+     * {@code 1 / threshold} of them.
+     */
+    private static List<Map.Entry<String, Integer>> highPassFilter(HistoHashMap<String> histoHashMap, float threshold) {
+        int size = threshold > 0 ? Math.min((int) Math.ceil(1 / threshold), MAX_HISTOGRAM_ENTRIES) : MAX_HISTOGRAM_ENTRIES;
+        List<Map.Entry<String, Integer>> histogram = histoHashMap.top(size);
+        if (histogram.isEmpty()) {
+            return Collections.emptyList();
         }
-        List<Map.Entry<String, Integer>> filteredValues = new LinkedList<>();
+        int high = histogram.get(0).getValue();
+        long totalCount = histoHashMap.total();
+        List<Map.Entry<String, Integer>> filteredValues = new ArrayList<>(histogram.size());
         for (Map.Entry<String, Integer> entry : histogram) {
             float rate = (float) entry.getValue() / (high + totalCount);
-            if (entry.getValue() > 1 && rate >= threshold) {
-                filteredValues.add(entry);
+            if (entry.getValue() <= 1 || rate < threshold) {
+                break; // sorted by count, the rest are below too
             }
+            filteredValues.add(entry);
         }
         return filteredValues;
     }
@@ -127,52 +142,67 @@ public final class KeywordDetector {
         this.keywordDetectorListener = listener;
     }
 
-    private void addSearchTerms(Feature feature, String terms) {
-        // tokenize
-        String[] pre_tokens = REPLACE_ALL_PATTERN.matcher(terms).replaceAll("").toLowerCase().split("\\s");
-        if (pre_tokens.length == 0) {
+    private static void addSearchTerms(Histograms h, Feature feature, String terms, int delta) {
+        HistoHashMap<String> histogram = h.maps.get(feature);
+        if (histogram == null || terms == null) {
             return;
         }
         // count consequential terms only
-        for (String token : pre_tokens) {
-            token = token.trim();
-            if (feature.minimumTokenLength <= token.length() && token.length() <= feature.maximumTokenLength && !stopWords.contains(token)) {
-                updateHistogramTokenCount(feature, token);
+        KeywordTokenizer tokenizer = TOKENIZER.get();
+        tokenizer.reset(terms, feature.minimumTokenLength, feature.maximumTokenLength);
+        while (tokenizer.next()) {
+            // the token string is only created the first time it's found
+            if (!histogram.addIfPresent(tokenizer, delta)) {
+                histogram.add(tokenizer.toString(), delta);
             }
         }
     }
 
-    public void feedSearchResults(final List<? extends SearchResult> copiedResults) {
-        for (SearchResult sr : copiedResults) {
-            addSearchTerms(KeywordDetector.Feature.SEARCH_SOURCE, sr.getSource());
-            if (sr instanceof FileSearchResult) {
-                String fileName = ((FileSearchResult) sr).getFilename();
-                if (fileName == null || fileName.isEmpty()) {
-                    continue;
-                }
-                addSearchTerms(KeywordDetector.Feature.FILE_NAME, fileName);
-                // Check file extensions for YouTubeSearch results.
-                // If we find files with extensions other than ".youtube", we make their mt = null and don't include them
-                // in the keyword detector. IDEA: Make FileSearchResults have a .getMediaType() method and put this logic there.
-                String extension = FilenameUtils.getExtension(fileName);
-                if ("youtube".equals(extension)) {
-                    continue;
-                }
-                KeywordMediaType mt = KeywordMediaType.getMediaTypeForExtension(extension);
-                if (extension != null && !extension.isEmpty() && mt != null) {
-                    addSearchTerms(KeywordDetector.Feature.FILE_EXTENSION, extension);
-                }
+    private static void addSearchResult(Histograms h, SearchResult sr, int delta) {
+        addSearchTerms(h, KeywordDetector.Feature.SEARCH_SOURCE, sr.getSource(), delta);
+        if (sr instanceof FileSearchResult) {
+            String fileName = ((FileSearchResult) sr).getFilename();
+            if (fileName == null || fileName.isEmpty()) {
+                return;
+            }
+            addSearchTerms(h, KeywordDetector.Feature.FILE_NAME, fileName, delta);
+            // Check file extensions for YouTubeSearch results.
+            // If we find files with extensions other than ".youtube", we make their mt = null and don't include them
+            // in the keyword detector. IDEA: Make FileSearchResults have a .getMediaType() method and put this logic there.
+            String extension = FilenameUtils.getExtension(fileName);
+            if ("youtube".equals(extension)) {
+                return;
+            }
+            KeywordMediaType mt = KeywordMediaType.getMediaTypeForExtension(extension);
+            if (extension != null && !extension.isEmpty() && mt != null) {
+                addSearchTerms(h, KeywordDetector.Feature.FILE_EXTENSION, extension, delta);
             }
         }
     }
 
     /**
-     * Cheap
+     * Adds the terms of the results to the histograms, results already
+     * counted are skipped.
      */
-    private void updateHistogramTokenCount(Feature feature, String token) {
-        HistoHashMap<String> histogram = histoHashMaps.get(feature);
-        if (histogram != null && token != null) {
-            histogram.update(token);
+    public void feedSearchResults(final List<? extends SearchResult> results) {
+        Histograms h = histograms;
+        for (SearchResult sr : results) {
+            if (h.add(sr)) {
+                addSearchResult(h, sr, 1);
+            }
+        }
+    }
+
+    /**
+     * Removes the terms of the results from the histograms, for instance
+     * when the results are filtered out.
+     */
+    public void retractSearchResults(final List<? extends SearchResult> results) {
+        Histograms h = histograms;
+        for (SearchResult sr : results) {
+            if (h.remove(sr)) {
+                addSearchResult(h, sr, -1);
+            }
         }
     }
 
@@ -186,49 +216,67 @@ public final class KeywordDetector {
 
     private Map<Feature, List<Map.Entry<String, Integer>>> getFilteredHistograms() {
         HashMap<Feature, List<Map.Entry<String, Integer>>> filteredHistograms = new HashMap<>();
-        totalHistogramKeysCount = 0;
-        for (Feature feature : histoHashMaps.keySet()) {
-            HistoHashMap<String> histoHashMap = histoHashMaps.get(feature);
-            if (histoHashMap != null && histoHashMap.getKeyCount() > 0) {
-                List<Map.Entry<String, Integer>> histogram = histoHashMap.histogram();
-                List<Map.Entry<String, Integer>> filteredHistogram = highPassFilter(histogram, feature.filterThreshold);
+        int keysCount = 0;
+        for (Map.Entry<Feature, HistoHashMap<String>> e : histograms.maps.entrySet()) {
+            Feature feature = e.getKey();
+            HistoHashMap<String> histoHashMap = e.getValue();
+            if (histoHashMap.getKeyCount() > 0) {
+                List<Map.Entry<String, Integer>> filteredHistogram = highPassFilter(histoHashMap, feature.filterThreshold);
                 if (filteredHistogram.size() > 0) {
                     filteredHistograms.put(feature, filteredHistogram);
-                    totalHistogramKeysCount += filteredHistogram.size();
+                    keysCount += filteredHistogram.size();
                 }
             }
         }
+        totalHistogramKeysCount = keysCount;
         return filteredHistograms;
     }
 
     /**
-     * Expensive
+     * Requests the listener to be notified with the updated histograms.
+     * <p>
+     * If {@code filtered} is not {@code null}, the histograms are made to
+     * count exactly those results: only the results that were not counted
+     * yet are added and the ones not in the list anymore are retracted, the
+     * terms of the difference are counted in the background.
      */
-    public void requestHistogramsUpdateAsync(List<SearchResult> filtered, boolean force) {
-        if (force || TaskThrottle.isReadyToSubmitTask("requestHistogramsUpdateAsync",
+    public void requestHistogramsUpdateAsync(List<? extends SearchResult> filtered, boolean force) {
+        boolean changed = filtered != null && histograms.sync(filtered);
+        if (changed || force || TaskThrottle.isReadyToSubmitTask("requestHistogramsUpdateAsync",
                 10000)) {
             if (!histogramUpdateRequestsDispatcher.running.get()) {
                 histogramUpdateRequestsDispatcher.start();
             }
-            HistogramUpdateRequestTask histogramUpdateRequestTask = new HistogramUpdateRequestTask(this, filtered);
+            HistogramUpdateRequestTask histogramUpdateRequestTask = new HistogramUpdateRequestTask(this);
             histogramUpdateRequestsDispatcher.enqueue(histogramUpdateRequestTask);
         }
     }
 
-    public void requestHistogramsUpdateAsync(List<SearchResult> filtered) {
+    public void requestHistogramsUpdateAsync(List<? extends SearchResult> filtered) {
         requestHistogramsUpdateAsync(filtered, false);
     }
 
     public void reset() {
         histogramUpdateRequestsDispatcher.clear();
-        if (histoHashMaps != null && !histoHashMaps.isEmpty()) {
-            for (HistoHashMap<String> stringHistoHashMap : histoHashMaps.values()) {
-                stringHistoHashMap.reset();
-            }
-        }
+        histograms = new Histograms();
         notifyKeywordDetectorListener();
     }
 
+    /**
+     * Counts the terms of the results added or removed by the last
+     * {@link #requestHistogramsUpdateAsync(List, boolean)} calls.
+     */
+    private void updatePendingSearchResults() {
+        Histograms h = histograms;
+        SearchResult sr;
+        while ((sr = h.pendingRetractions.poll()) != null) {
+            addSearchResult(h, sr, -1);
+        }
+        while ((sr = h.pendingAdditions.poll()) != null) {
+            addSearchResult(h, sr, 1);
+        }
+    }
+
     public enum Feature {
         SEARCH_SOURCE(0.015f, 4, 20),
         FILE_EXTENSION(0f, 3, 8),
@@ -251,25 +299,81 @@ public final class KeywordDetector {
         void onKeywordDetectorFinished();
     }
 
+    /**
+     * The histograms of the features and the results counted in them.
+     */
+    private static final class Histograms {
+        private final Map<Feature, HistoHashMap<String>> maps;
+        // guarded by itself, compared by identity as results are not required to implement equals
+        private final Set<SearchResult> counted;
+        private final ConcurrentLinkedQueue<SearchResult> pendingAdditions;
+        private final ConcurrentLinkedQueue<SearchResult> pendingRetractions;
+
+        Histograms() {
+            maps = new EnumMap<>(Feature.class);
+            maps.put(Feature.SEARCH_SOURCE, new HistoHashMap<>());
+            maps.put(Feature.FILE_EXTENSION, new HistoHashMap<>());
+            maps.put(Feature.FILE_NAME, new HistoHashMap<>());
+            counted = Collections.newSetFromMap(new IdentityHashMap<SearchResult, Boolean>());
+            pendingAdditions = new ConcurrentLinkedQueue<>();
+            pendingRetractions = new ConcurrentLinkedQueue<>();
+        }
+
+        boolean add(SearchResult sr) {
+            synchronized (counted) {
+                return counted.add(sr);
+            }
+        }
+
+        boolean remove(SearchResult sr) {
+            synchronized (counted) {
+                return counted.remove(sr);
+            }
+        }
+
+        /**
+         * Makes the counted results the same as {@code results}, the terms of
+         * the results added and removed are left pending.
+         *
+         * @return {@code true} if there is any difference
+         */
+        boolean sync(List<? extends SearchResult> results) {
+            Set<SearchResult> current = Collections.newSetFromMap(new IdentityHashMap<SearchResult, Boolean>(results.size()));
+            current.addAll(results);
+            boolean changed = false;
+            synchronized (counted) {
+                Iterator<SearchResult> it = counted.iterator();
+                while (it.hasNext()) {
+                    SearchResult sr = it.next();
+                    if (!current.contains(sr)) {
+                        it.remove();
+                        pendingRetractions.add(sr);
+                        changed = true;
+                    }
+                }
+                for (SearchResult sr : current) {
+                    if (counted.add(sr)) {
+                        pendingAdditions.add(sr);
+                        changed = true;
+                    }
+                }
+            }
+            return changed;
+        }
+    }
+
     private static class HistogramUpdateRequestTask implements Runnable {
         private final KeywordDetector keywordDetector;
-        private final List<SearchResult> filtered;
 
-        HistogramUpdateRequestTask(KeywordDetector keywordDetector, List<SearchResult> filtered) {
+        HistogramUpdateRequestTask(KeywordDetector keywordDetector) {
             this.keywordDetector = keywordDetector;
-            // TODO: this is necessary to due the amount of concurrency, but not
-            // good for memory, need to refactor this
-            this.filtered = filtered != null ? new ArrayList<>(filtered) : null;
         }
 
         @Override
         public void run() {
             if (keywordDetector != null) {
                 try {
-                    if (filtered != null) {
-                        keywordDetector.reset();
-                        keywordDetector.feedSearchResults(filtered);
-                    }
+                    keywordDetector.updatePendingSearchResults();
                     keywordDetector.notifyKeywordDetectorListener();
                     keywordDetector.histogramUpdateRequestsDispatcher.onLastHistogramRequestFinished();
                 } catch (Throwable t) {
@@ -358,9 +462,15 @@ public final class KeywordDetector {
                         releaseLoopLock();
                     }
                     if (running.get()) {
-                        // acquire loop lock
+                        // acquire loop lock, if there are requests waiting for the delay
+                        // wake up when it's over instead of waiting for the next request
+                        long timeToNextRequest = HISTOGRAM_REQUEST_TASK_DELAY_IN_MS - (System.currentTimeMillis() - lastHistogramUpdateRequestFinished.get());
                         lock.lock();
-                        loopLock.await(1, TimeUnit.MINUTES);
+                        if (requestQueue.size() > 0 && timeToNextRequest > 0) {
+                            loopLock.await(timeToNextRequest + 1, TimeUnit.MILLISECONDS);
+                        } else {
+                            loopLock.await(1, TimeUnit.MINUTES);
+                        }
                         lock.unlock();
                     }
                 } catch (InterruptedException e) {
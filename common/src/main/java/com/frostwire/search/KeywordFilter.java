@@ -17,8 +17,8 @@
 
 package com.frostwire.search;
 
-import com.frostwire.licenses.Licenses;
-
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 
 /**
@@ -26,6 +26,9 @@ import java.util.List;
  * @author aldenml
  */
 public final class KeywordFilter {
+    // the pipelines change only when the user touches the filters
+    private static volatile Pipeline lastPipeline;
+
     private final boolean inclusive;
     private final String keyword;
     private KeywordDetector.Feature feature;
@@ -37,38 +40,19 @@ public final class KeywordFilter {
     }
 
     static String getSearchResultHaystack(SearchResult sr) {
-        StringBuilder queryString = new StringBuilder();
-        if (sr.getSource() == null) {
-            System.err.println("WARNING: " + sr.getClass().getSimpleName() + " has no source!");
-        } else {
-            queryString.append(sr.getSource());
-            queryString.append(" ");
-        }
-        queryString.append(sr.getDisplayName());
-        queryString.append(" ");
-        if (sr instanceof FileSearchResult) {
-            queryString.append(" ");
-            queryString.append(((FileSearchResult) sr).getFilename());
-        }
-        queryString.append(" ");
-        queryString.append(sr.getDetailsUrl());
-        if (sr.getLicense() != Licenses.UNKNOWN) {
-            queryString.append(sr.getLicense().getName());
-        }
-        return queryString.toString().toLowerCase();
+        return NormalizedText.keywordHaystack(sr);
     }
 
     public static boolean passesFilterPipeline(final SearchResult sr, final List<KeywordFilter> filterPipeline) {
         if (filterPipeline == null || filterPipeline.size() == 0) {
             return true;
         }
-        String haystack = getSearchResultHaystack(sr);
-        for (KeywordFilter filter : filterPipeline) {
-            if (!filter.accept(haystack)) {
-                return false;
-            }
+        Pipeline p = lastPipeline;
+        if (p == null || !p.filters.equals(filterPipeline)) {
+            p = new Pipeline(filterPipeline);
+            lastPipeline = p;
         }
-        return true;
+        return p.accept(sr);
     }
 
     @Override
@@ -105,4 +89,70 @@ public final class KeywordFilter {
         boolean found = lowercaseHaystack.contains(keyword);
         return ((inclusive && found) || (!inclusive && !found));
     }
+
+    /**
+     * The filters of a pipeline checked together in a single pass over the
+     * haystack of the result.
+     */
+    private static final class Pipeline {
+        private final List<KeywordFilter> filters;
+        private final List<String> keywords;
+        private final KeywordMatcher matcher;
+        private final long inclusive;
+        private final long exclusive;
+        // an exclusive empty keyword, found in every haystack
+        private final boolean rejectAll;
+
+        Pipeline(List<KeywordFilter> filters) {
+            this.filters = new ArrayList<>(filters);
+            this.keywords = new ArrayList<>(this.filters.size());
+            for (KeywordFilter f : this.filters) {
+                keywords.add(NormalizedText.fold(f.keyword));
+            }
+            KeywordMatcher m = null;
+            long in = 0;
+            long out = 0;
+            boolean none = false;
+            if (new HashSet<>(keywords).size() <= KeywordMatcher.MAX_KEYWORDS) {
+                m = new KeywordMatcher(keywords);
+                for (int i = 0; i < this.filters.size(); i++) {
+                    int index = m.indexOf(keywords.get(i));
+                    if (index < 0) {
+                        // empty keyword, always found
+                        if (!this.filters.get(i).inclusive) {
+                            none = true;
+                        }
+                        continue;
+                    }
+                    if (this.filters.get(i).inclusive) {
+                        in |= 1L << index;
+                    } else {
+                        out |= 1L << index;
+                    }
+                }
+            }
+            this.matcher = m;
+            this.inclusive = in;
+            this.exclusive = out;
+            this.rejectAll = none;
+        }
+
+        boolean accept(SearchResult sr) {
+            if (rejectAll) {
+                return false;
+            }
+            String haystack = NormalizedText.keywordHaystack(sr);
+            if (matcher == null) {
+                for (int i = 0; i < filters.size(); i++) {
+                    boolean found = haystack.contains(keywords.get(i));
+                    if (found != filters.get(i).inclusive) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+            long found = matcher.match(haystack);
+            return (found & inclusive) == inclusive && (found & exclusive) == 0;
+        }
+    }
 }
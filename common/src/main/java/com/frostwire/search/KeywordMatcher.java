@@ -0,0 +1,201 @@
+/*
+ * Created by Angel Leon (@gubatron), Alden Torres (aldenml)
+ * Copyright (c) 2011-2020, FrostWire(R). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.frostwire.search;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+
+/**
+ * Finds which of a set of keywords occur in a text in a single pass
+ * (Aho-Corasick), instead of one {@link String#contains} per keyword.
+ * <p>
+ * Up to {@link #MAX_KEYWORDS} keywords, the matches are returned as a
+ * bitmask where bit {@code i} is the keyword {@code i}. The matcher is
+ * immutable and can be shared between threads.
+ *
+ * @author gubatron
+ * @author aldenml
+ */
+public final class KeywordMatcher {
+    public static final int MAX_KEYWORDS = 64;
+
+    private final String[] keywords;
+    private final long all;
+
+    // transitions as an open addressing table of (state << 16 | char) -> state
+    private long[] keys;
+    private int[] targets;
+    private int mask;
+
+    private int[] fail;
+    private long[] outputs;
+    private int numStates;
+
+    public KeywordMatcher(Collection<String> keywords) {
+        LinkedHashSet<String> distinct = new LinkedHashSet<>();
+        for (String k : keywords) {
+            if (k != null && !k.isEmpty()) {
+                distinct.add(k);
+            }
+        }
+        if (distinct.size() > MAX_KEYWORDS) {
+            throw new IllegalArgumentException("Too many keywords: " + distinct.size() + ", max: " + MAX_KEYWORDS);
+        }
+        this.keywords = distinct.toArray(new String[0]);
+        this.all = this.keywords.length == MAX_KEYWORDS ? -1L : (1L << this.keywords.length) - 1;
+        build();
+    }
+
+    public int size() {
+        return keywords.length;
+    }
+
+    public String keyword(int i) {
+        return keywords[i];
+    }
+
+    /**
+     * @return the index of the keyword, or -1 if not in this matcher
+     */
+    public int indexOf(String keyword) {
+        for (int i = 0; i < keywords.length; i++) {
+            if (keywords[i].equals(keyword)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the bitmask of the keywords found in the text
+     */
+    public long match(CharSequence text) {
+        long found = 0;
+        int state = 0;
+        int n = text.length();
+        for (int i = 0; i < n && found != all; i++) {
+            char c = text.charAt(i);
+            int next = next(state, c);
+            while (next < 0 && state != 0) {
+                state = fail[state];
+                next = next(state, c);
+            }
+            state = next < 0 ? 0 : next;
+            found |= outputs[state];
+        }
+        return found;
+    }
+
+    public boolean containsAll(CharSequence text) {
+        return match(text) == all;
+    }
+
+    public boolean containsAny(CharSequence text) {
+        return match(text) != 0;
+    }
+
+    private void build() {
+        int maxStates = 1;
+        for (String k : keywords) {
+            maxStates += k.length();
+        }
+        fail = new int[maxStates];
+        outputs = new long[maxStates];
+        // children of every state as a linked list, only used while building
+        int[] firstChild = new int[maxStates];
+        int[] sibling = new int[maxStates];
+        char[] label = new char[maxStates];
+        numStates = 1;
+        int capacity = Integer.highestOneBit(Math.max(maxStates * 2, 16) - 1) << 1;
+        keys = new long[capacity];
+        targets = new int[capacity];
+        Arrays.fill(keys, -1L);
+        mask = capacity - 1;
+
+        for (int i = 0; i < keywords.length; i++) {
+            String k = keywords[i];
+            int state = 0;
+            for (int j = 0; j < k.length(); j++) {
+                int next = next(state, k.charAt(j));
+                if (next < 0) {
+                    next = numStates++;
+                    put(state, k.charAt(j), next);
+                    label[next] = k.charAt(j);
+                    sibling[next] = firstChild[state];
+                    firstChild[state] = next;
+                }
+                state = next;
+            }
+            outputs[state] |= 1L << i;
+        }
+
+        // failure links, breadth first over the trie
+        int[] queue = new int[numStates];
+        int tail = 0;
+        for (int child = firstChild[0]; child != 0; child = sibling[child]) {
+            fail[child] = 0;
+            queue[tail++] = child;
+        }
+        for (int head = 0; head < tail; head++) {
+            int state = queue[head];
+            for (int child = firstChild[state]; child != 0; child = sibling[child]) {
+                char c = label[child];
+                int f = fail[state];
+                int next = next(f, c);
+                while (next < 0 && f != 0) {
+                    f = fail[f];
+                    next = next(f, c);
+                }
+                fail[child] = next < 0 ? 0 : next;
+                outputs[child] |= outputs[fail[child]];
+                queue[tail++] = child;
+            }
+        }
+    }
+
+    private int next(int state, char c) {
+        long key = ((long) state << 16) | c;
+        int i = hash(key) & mask;
+        while (true) {
+            long k = keys[i];
+            if (k == key) {
+                return targets[i];
+            }
+            if (k == -1L) {
+                return -1;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    private void put(int state, char c, int target) {
+        long key = ((long) state << 16) | c;
+        int i = hash(key) & mask;
+        while (keys[i] != -1L) {
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        targets[i] = target;
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -15,6 +15,9 @@
 
 package com.frostwire.search;
 
+import com.frostwire.util.ExtensionRegistry;
+import com.frostwire.util.ExtensionRegistry.Category;
+
 import java.io.ObjectStreamException;
 import java.io.Serializable;
 import java.util.*;
@@ -44,36 +47,30 @@ final class KeywordMediaType implements Serializable {
     /**
      * Type for 'torrents'
      */
-    public static final KeywordMediaType TYPE_TORRENTS = new KeywordMediaType(6, SCHEMA_TORRENTS, new String[]{"torrent"});
+    public static final KeywordMediaType TYPE_TORRENTS = new KeywordMediaType(6, SCHEMA_TORRENTS, extensions(Category.TORRENT));
     private static final long serialVersionUID = 3999062781289258389L;
     /**
-     * Type for 'documents'
+     * Type for 'documents', archives and code too
      */
-    private static final KeywordMediaType TYPE_DOCUMENTS = new KeywordMediaType(1, SCHEMA_DOCUMENTS, new String[]{"html", "htm", "xhtml", "mht", "mhtml",
-            "xml", "txt", "ans", "asc", "diz", "eml", "pdf", "ps", "eps", "epsf", "dvi", "rtf", "wri", "doc", "docx", "mcw", "wps", "xls", "wk1", "dif", "csv", "ppt", "tsv", "hlp", "chm", "lit",
-            "tex", "texi", "latex", "info", "man", "wp", "wpd", "wp5", "wk3", "wk4", "shw", "sdd", "sdw", "sdp", "sdc", "sxd", "sxw", "sxp", "sxc", "abw", "kwd", "mobi", "azw", "aeh", "lrf", "lrx",
-            "cbr", "cbz", "cb7", "chm", "dnl", "djvu", "epub", "pdb", "fb2", "xeb", "ceb", "prc", "pkg", "opf", "pdg", "pdb", "tr2", "tr3", "cbr", "cbz", "cb7", "cbt", "cba", "zip", "7z", "rar",
-            "gzip", "tar", "gz", "cab", "msi", "ace", "sit", "dmg", "taz", "sh", "awk", "pl", "java", "py", "rb", "c", "cpp", "h", "hpp"});
+    private static final KeywordMediaType TYPE_DOCUMENTS = new KeywordMediaType(1, SCHEMA_DOCUMENTS,
+            extensions(Category.DOCUMENT, Category.ARCHIVE, Category.SCRIPT, Category.SOURCE_CODE));
     /**
      * Type for applications.
      */
     private static final KeywordMediaType TYPE_APPLICATIONS = new KeywordMediaType(
-            2, SCHEMA_PROGRAMS, new String[]{"apk"});
+            2, SCHEMA_PROGRAMS, extensions(Category.ANDROID_PACKAGE));
     /**
      * Type for 'audio'
      */
-    private static final KeywordMediaType TYPE_AUDIO = new KeywordMediaType(3, SCHEMA_AUDIO, new String[]{"mp3", "mpa", "mp1", "mpga", "mp2", "ra", "rm", "ram", "rmj", "wma", "wav", "m4a", "m4p", "lqt", "ogg", "med", "aif", "aiff", "aifc", "au", "snd", "s3m", "aud", "mid", "midi",
-            "rmi", "mod", "kar", "ac3", "shn", "fla", "flac", "cda", "mka, aac"});
+    private static final KeywordMediaType TYPE_AUDIO = new KeywordMediaType(3, SCHEMA_AUDIO, extensions(Category.AUDIO));
     /**
      * Type for 'video'
      */
-    private static final KeywordMediaType TYPE_VIDEO = new KeywordMediaType(4, SCHEMA_VIDEO, new String[]{"mpg", "mpeg", "mpe", "mng", "mpv", "m1v", "vob", "mp2", "mpv2", "mp2v", "m2p", "m2v", "mpgv", "vcd", "mp4", "dv", "dvd", "div", "divx", "dvx", "smi", "smil", "rm", "ram", "rv",
-            "rmm", "rmvb", "avi", "asf", "asx", "wmv", "qt", "mov", "fli", "flc", "flx", "flv", "wml", "vrml", "swf", "dcr", "jve", "nsv", "mkv", "ogm", "cdg", "srt", "sub", "idx", "webm", "3gp"});
+    private static final KeywordMediaType TYPE_VIDEO = new KeywordMediaType(4, SCHEMA_VIDEO, extensions(Category.VIDEO));
     /**
      * Type for 'images'
      */
-    private static final KeywordMediaType TYPE_PICTURES = new KeywordMediaType(5, SCHEMA_IMAGES, new String[]{"gif", "png", "jpg", "jpeg", "jpe", "jif", "jiff", "jfif", "tif", "tiff", "iff", "lbm", "ilbm", "eps", "mac", "drw", "pct", "img", "bmp", "dib", "rle", "ico", "ani", "icl",
-            "cur", "emf", "wmf", "pcx", "pcd", "tga", "pic", "fig", "psd", "wpg", "dcx", "cpt", "mic", "pbm", "pnm", "ppm", "xbm", "xpm", "xwd", "sgi", "fax", "rgb", "ras"});
+    private static final KeywordMediaType TYPE_PICTURES = new KeywordMediaType(5, SCHEMA_IMAGES, extensions(Category.IMAGE));
     /**
      * All media types.
      */
@@ -140,13 +137,50 @@ final class KeywordMediaType implements Serializable {
      * Retrieves the media type for the specified extension.
      */
     public static KeywordMediaType getMediaTypeForExtension(String ext) {
-        if (ext == null) {
+        ExtensionRegistry.Entry e = ExtensionRegistry.forExtension(ext);
+        return e != null ? forCategory(e.category()) : null;
+    }
+
+    /**
+     * Retrieves the media type for the extension of the file name, read in
+     * place.
+     */
+    public static KeywordMediaType getMediaTypeForFilename(CharSequence filename) {
+        ExtensionRegistry.Entry e = ExtensionRegistry.forFilename(filename);
+        return e != null ? forCategory(e.category()) : null;
+    }
+
+    private static KeywordMediaType forCategory(Category category) {
+        if (category == null) {
             return null;
         }
-        for (int i = ALL_MEDIA_TYPES.length; --i >= 0; )
-            if (ALL_MEDIA_TYPES[i].exts.contains(ext))
-                return ALL_MEDIA_TYPES[i];
-        return null;
+        switch (category) {
+            case AUDIO:
+                return TYPE_AUDIO;
+            case VIDEO:
+                return TYPE_VIDEO;
+            case IMAGE:
+                return TYPE_PICTURES;
+            case TORRENT:
+                return TYPE_TORRENTS;
+            case ANDROID_PACKAGE:
+                return TYPE_APPLICATIONS;
+            case DOCUMENT:
+            case ARCHIVE:
+            case SCRIPT:
+            case SOURCE_CODE:
+                return TYPE_DOCUMENTS;
+            default:
+                return null;
+        }
+    }
+
+    private static String[] extensions(Category... categories) {
+        List<String> list = new ArrayList<>();
+        for (Category c : categories) {
+            list.addAll(Arrays.asList(ExtensionRegistry.extensions(c)));
+        }
+        return list.toArray(new String[0]);
     }
 
     /**
@@ -0,0 +1,191 @@
+/*
+ * Created by Angel Leon (@gubatron), Alden Torres (aldenml)
+ * Copyright (c) 2011-2020, FrostWire(R). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.frostwire.search;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Splits a text into the lower case keywords counted by the
+ * {@link KeywordDetector} in a single pass over its code points, without
+ * creating any string.
+ * <p>
+ * Only letters, digits 0-9 and single dots are kept, everything else is
+ * dropped (so "AC-DC" is "acdc"), and the tokens are separated by spaces.
+ * Tokens outside the length bounds and stop words are skipped.
+ * <p>
+ * The tokenizer is the current token: it's a {@link CharSequence} view of
+ * an internal buffer that is reused for the next token. Its
+ * {@link #hashCode()} is the same as the one of the equivalent
+ * {@link String}, and it's {@link #equals(Object)} to any char sequence
+ * with the same content, so it can be used to look up string keys in hash
+ * maps without creating them. Not thread safe.
+ *
+ * @author gubatron
+ * @author aldenml
+ */
+public final class KeywordTokenizer implements CharSequence {
+
+    private final Set<String> stopWords;
+
+    private CharSequence text;
+    private int pos;
+    private int end;
+    private int minLength;
+    private int maxLength;
+
+    private char[] buffer;
+    private int length;
+    private int hash;
+
+    public KeywordTokenizer(Set<String> stopWords) {
+        this.stopWords = stopWords != null ? stopWords : Collections.<String>emptySet();
+        this.buffer = new char[32];
+    }
+
+    public KeywordTokenizer reset(CharSequence text, int minLength, int maxLength) {
+        return reset(text, 0, text != null ? text.length() : 0, minLength, maxLength);
+    }
+
+    /**
+     * Starts tokenizing the region {@code [start, end)} of the text.
+     */
+    public KeywordTokenizer reset(CharSequence text, int start, int end, int minLength, int maxLength) {
+        this.text = text;
+        this.pos = start;
+        this.end = end;
+        this.minLength = minLength;
+        this.maxLength = maxLength;
+        if (buffer.length < maxLength + 2) {
+            buffer = new char[maxLength + 2];
+        }
+        this.length = 0;
+        this.hash = 0;
+        return this;
+    }
+
+    /**
+     * Moves to the next token within the length bounds that is not a stop
+     * word.
+     *
+     * @return {@code false} if there are no more tokens
+     */
+    public boolean next() {
+        while (pos < end) {
+            length = 0;
+            hash = 0;
+            boolean tooLong = false;
+            // one token, up to the next space
+            while (pos < end) {
+                int cp = Character.codePointAt(text, pos);
+                int n = Character.charCount(cp);
+                if (cp == ' ') {
+                    pos += n;
+                    break;
+                }
+                if (cp == '.') {
+                    int run = 1;
+                    while (pos + run < end && text.charAt(pos + run) == '.') {
+                        run++;
+                    }
+                    pos += run;
+                    if (run == 1) {
+                        tooLong |= !append('.');
+                    }
+                    continue;
+                }
+                pos += n;
+                if (('0' <= cp && cp <= '9') || Character.isLetter(cp)) {
+                    cp = Character.toLowerCase(cp);
+                    if (Character.isBmpCodePoint(cp)) {
+                        tooLong |= !append((char) cp);
+                    } else {
+                        tooLong |= !append(Character.highSurrogate(cp));
+                        tooLong |= !append(Character.lowSurrogate(cp));
+                    }
+                }
+            }
+            if (!tooLong && minLength <= length && length <= maxLength && !stopWords.contains(this)) {
+                return true;
+            }
+        }
+        length = 0;
+        hash = 0;
+        return false;
+    }
+
+    private boolean append(char c) {
+        if (length > maxLength) {
+            return false;
+        }
+        buffer[length++] = c;
+        hash = 31 * hash + c;
+        return true;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("index: " + index + ", length: " + length);
+        }
+        return buffer[index];
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return toString().subSequence(start, end);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (!(obj instanceof CharSequence)) {
+            return false;
+        }
+        CharSequence s = (CharSequence) obj;
+        if (s.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (s.charAt(i) != buffer[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return a copy of the current token
+     */
+    @Override
+    public String toString() {
+        return new String(buffer, 0, length);
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * Created by Angel Leon (@gubatron), Alden Torres (aldenml)
+ * Copyright (c) 2011-2020, FrostWire(R). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.frostwire.search;
+
+import com.frostwire.licenses.Licenses;
+
+import java.text.Normalizer;
+import java.util.Locale;
+
+/**
+ * Folded (lower case, without diacritics) text of the search results used
+ * for keyword matching. The text of a result is computed once and cached
+ * in the result if it extends {@link AbstractSearchResult}.
+ *
+ * @author gubatron
+ * @author aldenml
+ */
+public final class NormalizedText {
+
+    private NormalizedText() {
+    }
+
+    /**
+     * Lower case and without diacritics, "Caf&eacute; &Ntilde;and&uacute;" becomes "cafe nandu".
+     */
+    public static String fold(String s) {
+        if (s == null || s.isEmpty()) {
+            return "";
+        }
+        if (isAscii(s)) {
+            return s.toLowerCase(Locale.US);
+        }
+        String norm = Normalizer.normalize(s, Normalizer.Form.NFKD);
+        StringBuilder sb = new StringBuilder(norm.length());
+        for (int i = 0; i < norm.length(); i++) {
+            char c = norm.charAt(i);
+            if (Character.getType(c) != Character.NON_SPACING_MARK) {
+                sb.append(c);
+            }
+        }
+        return sb.toString().toLowerCase(Locale.US);
+    }
+
+    /**
+     * The folded source, names, details url and license of the result, what
+     * the {@link KeywordFilter}s look at.
+     */
+    public static String keywordHaystack(SearchResult sr) {
+        AbstractSearchResult asr = sr instanceof AbstractSearchResult ? (AbstractSearchResult) sr : null;
+        String haystack = asr != null ? asr.keywordHaystack : null;
+        if (haystack == null) {
+            haystack = fold(buildKeywordHaystack(sr));
+            if (asr != null) {
+                asr.keywordHaystack = haystack;
+            }
+        }
+        return haystack;
+    }
+
+    /**
+     * The folded names of the result (display name, parent name and file
+     * name) without markup and with punctuation replaced by single spaces,
+     * what the search tokens are checked against.
+     */
+    public static String nameHaystack(SearchResult sr) {
+        AbstractSearchResult asr = sr instanceof AbstractSearchResult ? (AbstractSearchResult) sr : null;
+        String haystack = asr != null ? asr.nameHaystack : null;
+        if (haystack == null) {
+            haystack = buildNameHaystack(sr);
+            if (asr != null) {
+                asr.nameHaystack = haystack;
+            }
+        }
+        return haystack;
+    }
+
+    private static String buildKeywordHaystack(SearchResult sr) {
+        StringBuilder sb = new StringBuilder();
+        if (sr.getSource() == null) {
+            System.err.println("WARNING: " + sr.getClass().getSimpleName() + " has no source!");
+        } else {
+            sb.append(sr.getSource());
+            sb.append(" ");
+        }
+        sb.append(sr.getDisplayName());
+        sb.append(" ");
+        if (sr instanceof FileSearchResult) {
+            sb.append(" ");
+            sb.append(((FileSearchResult) sr).getFilename());
+        }
+        sb.append(" ");
+        sb.append(sr.getDetailsUrl());
+        if (sr.getLicense() != Licenses.UNKNOWN) {
+            sb.append(" ");
+            sb.append(sr.getLicense().getName());
+        }
+        return sb.toString();
+    }
+
+    private static String buildNameHaystack(SearchResult sr) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(sr.getDisplayName());
+        if (sr instanceof CrawledSearchResult) {
+            sb.append(" ");
+            sb.append(((CrawledSearchResult) sr).getParent().getDisplayName());
+        }
+        if (sr instanceof FileSearchResult) {
+            sb.append(" ");
+            sb.append(((FileSearchResult) sr).getFilename());
+        }
+        return foldWords(sb.toString());
+    }
+
+    /**
+     * The folded text without markup and with punctuation replaced by
+     * single spaces, "The_Movie (2020)" becomes "the movie 2020".
+     */
+    public static String foldWords(String s) {
+        String folded = fold(s);
+
+        // drop tags and collapse punctuation into single spaces
+        StringBuilder out = new StringBuilder(folded.length());
+        boolean space = true;
+        int n = folded.length();
+        for (int i = 0; i < n; i++) {
+            char c = folded.charAt(i);
+            if (c == '<') {
+                int end = folded.indexOf('>', i + 1);
+                if (end > 0) {
+                    i = end;
+                    c = ' ';
+                }
+            }
+            if (isSeparator(c)) {
+                if (!space) {
+                    out.append(' ');
+                    space = true;
+                }
+            } else {
+                out.append(c);
+                space = false;
+            }
+        }
+        int len = out.length();
+        if (len > 0 && out.charAt(len - 1) == ' ') {
+            out.setLength(len - 1);
+        }
+        return out.toString();
+    }
+
+    private static boolean isSeparator(char c) {
+        switch (c) {
+            case ' ':
+            case '\t':
+            case '\n':
+            case '\r':
+            case '\\':
+            case '/':
+            case '%':
+            case '_':
+            case ';':
+            case '-':
+            case '.':
+            case '(':
+            case ')':
+            case '[':
+            case ']':
+            case '&':
+            case '~':
+            case '{':
+            case '}':
+            case '*':
+            case '@':
+            case '^':
+            case '\'':
+            case '=':
+            case '!':
+            case ',':
+            case '\u00A1':
+            case '|':
+            case '#':
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean isAscii(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Created by Angel Leon (@gubatron), Alden Torres (aldenml)
+ * Copyright (c) 2011-2020, FrostWire(R). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.frostwire.search;
+
+/**
+ * A literal piece of html that delimits the interesting region of a page,
+ * like the start of the results table, searched with Boyer-Moore-Horspool.
+ * The skip table is built once, so the markers are meant to be constants of
+ * the performers, and a search reads a fraction of the characters of the
+ * page, the markers are long and the pages mostly unrelated text.
+ *
+ * @author gubatron
+ * @author aldenml
+ */
+public final class PageMarker {
+
+    // indexed by the low byte of the char, the smallest skip of them all
+    private static final int TABLE_SIZE = 256;
+
+    private final String marker;
+    private final int[] skips;
+
+    public PageMarker(String marker) {
+        if (marker == null || marker.isEmpty()) {
+            throw new IllegalArgumentException("marker can't be empty");
+        }
+        this.marker = marker;
+        int n = marker.length();
+        this.skips = new int[TABLE_SIZE];
+        for (int i = 0; i < TABLE_SIZE; i++) {
+            skips[i] = n;
+        }
+        for (int i = 0; i < n - 1; i++) {
+            skips[marker.charAt(i) & (TABLE_SIZE - 1)] = n - 1 - i;
+        }
+    }
+
+    public String marker() {
+        return marker;
+    }
+
+    /**
+     * @return the index of the first occurrence in the page, or -1
+     */
+    public int indexIn(CharSequence page) {
+        return indexIn(page, 0, page.length());
+    }
+
+    /**
+     * @return the index of the first occurrence in the region
+     * {@code [from, to)} of the page, or -1
+     */
+    public int indexIn(CharSequence page, int from, int to) {
+        int n = marker.length();
+        char last = marker.charAt(n - 1);
+        int i = Math.max(from, 0) + n - 1;
+        to = Math.min(to, page.length());
+        while (i < to) {
+            char c = page.charAt(i);
+            if (c == last && matchesAt(page, i - n + 1)) {
+                return i - n + 1;
+            }
+            i += skips[c & (TABLE_SIZE - 1)];
+        }
+        return -1;
+    }
+
+    @Override
+    public String toString() {
+        return marker;
+    }
+
+    private boolean matchesAt(CharSequence page, int start) {
+        for (int j = marker.length() - 2; j >= 0; j--) {
+            if (page.charAt(start + j) != marker.charAt(j)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -19,10 +19,23 @@
 package com.frostwire.search;
 
 import com.frostwire.util.Logger;
+import com.frostwire.util.ThreadPool;
+import com.frostwire.util.VirtualThreads;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
 
 import javax.net.ssl.SSLPeerUnverifiedException;
 
@@ -32,17 +45,158 @@ import javax.net.ssl.SSLPeerUnverifiedException;
  */
 public abstract class PagedWebSearchPerformer extends WebSearchPerformer {
     private static final Logger LOG = Logger.getLogger(PagedWebSearchPerformer.class);
+    private static final int DEFAULT_MAX_CONCURRENT_PAGES = 3;
+
+    private static volatile QueryCache queryCache = null;
+    private static volatile ExecutorService fetchExecutor = null;
+
     private final int pages;
+    // refreshes of the stale pages served from the query cache
+    private final ConcurrentLinkedQueue<Future<List<? extends SearchResult>>> refreshes;
+    private volatile boolean pagingStopped;
 
     public PagedWebSearchPerformer(String domainName, long token, String keywords, int timeout, int pages) {
         super(domainName, token, keywords, timeout);
         this.pages = pages;
+        this.refreshes = new ConcurrentLinkedQueue<>();
+    }
+
+    /**
+     * Where the search pages are cached, by default they are not.
+     */
+    public static void setQueryCache(QueryCache queryCache) {
+        PagedWebSearchPerformer.queryCache = queryCache;
+    }
+
+    /**
+     * Where the pages are fetched, by default a pool of 16 threads or, with
+     * {@link VirtualThreads} enabled, a virtual thread per page. Pass
+     * {@code null} to go back to the default.
+     */
+    public static void setFetchExecutor(ExecutorService executor) {
+        PagedWebSearchPerformer.fetchExecutor = executor;
     }
 
+    public static void clearQueryCache() {
+        QueryCache cache = queryCache;
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    /**
+     * No more pages are requested after this, the ones already requested
+     * (and the first one, always) are still sent. Unlike {@link #stop()}
+     * the crawls of the results go on.
+     */
+    public void stopPaging() {
+        pagingStopped = true;
+    }
+
+    public boolean isPagingStopped() {
+        return pagingStopped;
+    }
+
+    /**
+     * Pages are fetched concurrently (up to {@link #getMaxConcurrentPages()})
+     * but the results are always sent in page order. No more pages are
+     * requested once a page comes back empty.
+     * <p>
+     * Every page (and refresh) is fetched in a task of its own within the
+     * host limits of the {@link SearchManager}, this method only waits for
+     * them.
+     * <p>
+     * Pages found stale in the query cache are sent right away and fetched
+     * again in the background, the results that were not in the cached
+     * version are sent at the end.
+     */
     @Override
     public void perform() {
-        for (int i = 1; !isStopped() && i <= pages; i++) {
-            onResults(searchPage(i));
+        try {
+            performPages();
+        } finally {
+            awaitRefreshes();
+        }
+    }
+
+    private void performPages() {
+        int window = Math.min(pages, getMaxConcurrentPages());
+        if (window <= 1) {
+            for (int i = 1; !isStopped() && i <= pages && (i == 1 || !pagingStopped); i++) {
+                List<? extends SearchResult> results = awaitPage(submitPage(i));
+                onResults(results);
+                if (results.isEmpty()) {
+                    break;
+                }
+            }
+            return;
+        }
+
+        ArrayDeque<Future<List<? extends SearchResult>>> inFlight = new ArrayDeque<>(window);
+        int next = 1;
+        try {
+            inFlight.add(submitPage(next++));
+            while (next <= window && !pagingStopped) {
+                inFlight.add(submitPage(next++));
+            }
+            while (!inFlight.isEmpty() && !isStopped()) {
+                List<? extends SearchResult> results = awaitPage(inFlight.poll());
+                onResults(results);
+                if (results.isEmpty()) {
+                    break;
+                }
+                if (next <= pages && !pagingStopped) {
+                    inFlight.add(submitPage(next++));
+                }
+            }
+        } finally {
+            for (Future<?> f : inFlight) {
+                f.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Max number of pages of this search fetched at the same time, override
+     * with 1 if the pages must be requested one after another.
+     */
+    protected int getMaxConcurrentPages() {
+        return DEFAULT_MAX_CONCURRENT_PAGES;
+    }
+
+    private Future<List<? extends SearchResult>> submitPage(final int page) {
+        return schedule(page, () -> isStopped() ? Collections.emptyList() : searchPage(page));
+    }
+
+    private Future<List<? extends SearchResult>> schedule(int page, Callable<List<? extends SearchResult>> fetch) {
+        PageTask task = new PageTask(page, fetch);
+        ExecutorService executor = fetchExecutor;
+        SearchManager.getInstance().hostScheduler().execute(task, executor != null ? executor : Fetcher.EXECUTOR);
+        return task;
+    }
+
+    private List<? extends SearchResult> awaitPage(Future<List<? extends SearchResult>> f) {
+        try {
+            return f.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            LOG.error("Error fetching search page: " + e.getCause());
+        }
+        return Collections.emptyList();
+    }
+
+    private void awaitRefreshes() {
+        Future<List<? extends SearchResult>> f;
+        while ((f = refreshes.poll()) != null) {
+            if (isStopped()) {
+                f.cancel(true);
+                continue;
+            }
+            List<? extends SearchResult> results = awaitPage(f);
+            if (!results.isEmpty() && !isStopped()) {
+                onResults(results);
+            }
         }
     }
 
@@ -51,9 +205,24 @@ public abstract class PagedWebSearchPerformer extends WebSearchPerformer {
         String url = null;
         try {
             url = getUrl(page, getEncodedKeywords());
+            QueryCache cache = queryCache;
+            QueryCache.Page cached = cache != null ? cache.get(getDomainName(), getKeywords(), page) : null;
+            if (cached != null) {
+                result = parsePage(cached.text);
+                if (!result.isEmpty()) {
+                    if (cached.stale) {
+                        refreshes.add(submitRefresh(cache, page, url, result));
+                    }
+                    return result;
+                }
+            }
             String text = fetchSearchPage(url);
             if (text != null) {
-                result = searchPage(text);
+                result = parsePage(text);
+                // empty pages are not cached, could be an error or a captcha
+                if (cache != null && !result.isEmpty()) {
+                    cache.put(getDomainName(), getKeywords(), page, text);
+                }
             }
         } catch (Throwable e) {
             if (url == null) {
@@ -62,11 +231,52 @@ public abstract class PagedWebSearchPerformer extends WebSearchPerformer {
             if (e instanceof SSLPeerUnverifiedException) {
                 LOG.error("Make sure to add " + getDomainName() + " to Ssl.FWHostnameVerifier valid host name list");
             }
+            if (!(e instanceof IOException)) {
+                // failed requests are counted by the fetch
+                metrics().error();
+            }
             LOG.error("Error searching page [" + url + "]: " + e.getMessage());
         }
         return result;
     }
 
+    /**
+     * {@link #searchPage(String)} timed, and its results counted, in the
+     * metrics of the engine.
+     */
+    private List<? extends SearchResult> parsePage(String text) {
+        long start = System.nanoTime();
+        List<? extends SearchResult> results = searchPage(text);
+        metrics().parsed(System.nanoTime() - start, results.size());
+        return results;
+    }
+
+    private Future<List<? extends SearchResult>> submitRefresh(final QueryCache cache, final int page, final String url, List<? extends SearchResult> served) {
+        final Set<String> servedUrls = new HashSet<>();
+        for (SearchResult sr : served) {
+            servedUrls.add(sr.getDetailsUrl());
+        }
+        Callable<List<? extends SearchResult>> refresh = () -> {
+            if (isStopped()) {
+                return Collections.emptyList();
+            }
+            String text = fetchSearchPage(url);
+            List<? extends SearchResult> results = text != null ? parsePage(text) : Collections.<SearchResult>emptyList();
+            if (results.isEmpty()) {
+                return Collections.emptyList();
+            }
+            cache.put(getDomainName(), getKeywords(), page, text);
+            List<SearchResult> added = new ArrayList<>();
+            for (SearchResult sr : results) {
+                if (!servedUrls.contains(sr.getDetailsUrl())) {
+                    added.add(sr);
+                }
+            }
+            return added;
+        };
+        return schedule(page, refresh);
+    }
+
     protected String fetchSearchPage(String url) throws IOException {
         return fetch(url);
     }
@@ -77,4 +287,51 @@ public abstract class PagedWebSearchPerformer extends WebSearchPerformer {
     protected abstract String getUrl(int page, String encodedKeywords);
 
     protected abstract List<? extends SearchResult> searchPage(String page);
+
+    private final class PageTask extends FutureTask<List<? extends SearchResult>> implements HostScheduler.Task {
+        private final int page;
+
+        PageTask(int page, Callable<List<? extends SearchResult>> fetch) {
+            super(fetch);
+            this.page = page;
+        }
+
+        @Override
+        public void run() {
+            try {
+                super.run();
+            } finally {
+                SearchManager.getInstance().hostScheduler().release(this);
+            }
+        }
+
+        @Override
+        public String host() {
+            return getDomainName();
+        }
+
+        @Override
+        public boolean cancelled() {
+            return isCancelled() || isStopped();
+        }
+
+        @Override
+        public int ordinal() {
+            return page;
+        }
+    }
+
+    private static final class Fetcher {
+        static final ExecutorService EXECUTOR = newExecutor();
+
+        private static ExecutorService newExecutor() {
+            ExecutorService executor = VirtualThreads.isEnabled() ? VirtualThreads.newExecutor() : null;
+            if (executor == null) {
+                ThreadPool pool = new ThreadPool("PagedWebSearchPerformer", 16, 16, 10L, new LinkedBlockingQueue<>(), true);
+                pool.allowCoreThreadTimeOut(true);
+                executor = pool;
+            }
+            return executor;
+        }
+    }
 }
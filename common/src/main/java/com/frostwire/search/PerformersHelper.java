@@ -17,13 +17,14 @@
 
 package com.frostwire.search;
 
-import com.frostwire.jlibtorrent.FileStorage;
 import com.frostwire.jlibtorrent.TorrentInfo;
 import com.frostwire.regex.Pattern;
 import com.frostwire.search.torrent.TorrentCrawlableSearchResult;
-import com.frostwire.search.torrent.TorrentCrawledSearchResult;
+import com.frostwire.search.torrent.TorrentCrawledAlbumSearchResult;
+import com.frostwire.search.torrent.TorrentCrawledFiles;
 import com.frostwire.util.Logger;
 
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -35,16 +36,53 @@ public final class PerformersHelper {
     private static final Logger LOG = Logger.getLogger(PerformersHelper.class);
     private static final Pattern MAGNET_HASH_PATTERN = Pattern.compile("magnet\\:\\?xt\\=urn\\:btih\\:([a-fA-F0-9]{40})");
 
+    /**
+     * How {@link #crawlTorrent} reads the .torrent of a result.
+     */
+    public enum TorrentDecoder {
+        /**
+         * libtorrent's {@link TorrentInfo}, needs the native library.
+         */
+        LIBTORRENT,
+        /**
+         * The pure java {@link com.frostwire.bittorrent.TorrentMetadata}, no
+         * native object is made until a file is downloaded.
+         */
+        JAVA
+    }
+
+    private static volatile TorrentDecoder torrentDecoder = TorrentDecoder.LIBTORRENT;
+
     private PerformersHelper() {
     }
 
+    public static TorrentDecoder getTorrentDecoder() {
+        return torrentDecoder;
+    }
+
+    public static void setTorrentDecoder(TorrentDecoder decoder) {
+        if (decoder == null) {
+            throw new IllegalArgumentException("Torrent decoder can't be null");
+        }
+        torrentDecoder = decoder;
+    }
+
     public static List<? extends SearchResult> searchPageHelper(RegexSearchPerformer<?> performer, String page, int regexMaxResults) {
+        return searchPageHelper(performer, page, 0, page != null ? page.length() : 0, regexMaxResults);
+    }
+
+    /**
+     * Matches the pattern of the performer only in the region
+     * {@code [prefixOffset, suffixOffset)} of the page, in place, the page is
+     * not copied.
+     */
+    public static List<? extends SearchResult> searchPageHelper(RegexSearchPerformer<?> performer, String page, int prefixOffset, int suffixOffset, int regexMaxResults) {
         List<SearchResult> result = new LinkedList<>();
-        if (page == null) {
+        if (page == null || !isValidRegion(page, prefixOffset, suffixOffset)) {
             LOG.warn(performer.getClass().getSimpleName() + " returning null page. Issue fetching page or issue getting page prefix/suffix offsets. Notify developers at contact@frostwire.com");
             return result;
         }
-        SearchMatcher matcher = SearchMatcher.from(performer.getPattern().matcher(page));
+        SearchMatcher matcher = SearchMatcher.from(performer.getPattern().matcher(page, prefixOffset, suffixOffset));
         int i = 0;
         boolean matcherFound;
         do {
@@ -69,34 +107,28 @@ public final class PerformersHelper {
      * This method is only public allow reuse inside the package search, consider it a private API
      */
     public static List<? extends SearchResult> crawlTorrent(SearchPerformer performer, TorrentCrawlableSearchResult sr, byte[] data, boolean detectAlbums) {
-        List<TorrentCrawledSearchResult> list = new LinkedList<>();
-        if (data == null) {
-            return list;
-        }
-        TorrentInfo ti;
-        try {
-            ti = TorrentInfo.bdecode(data);
-        } catch (Throwable t) {
-            //LOG.error("Can't bdecode:\n" + new String(data) + "\n\n");
-            throw t;
-        }
-        int numFiles = ti.numFiles();
-        FileStorage fs = ti.files();
-        for (int i = 0; !performer.isStopped() && i < numFiles; i++) {
-            // TODO: Check for the hidden attribute
-            if (fs.padFileAt(i)) {
-                continue;
-            }
-            list.add(new TorrentCrawledSearchResult(sr, ti, i, fs.filePath(i), fs.fileSize(i)));
+        return crawlTorrent(performer, sr, data, detectAlbums, torrentDecoder);
+    }
+
+    public static List<? extends SearchResult> crawlTorrent(SearchPerformer performer, TorrentCrawlableSearchResult sr, byte[] data, boolean detectAlbums, TorrentDecoder decoder) {
+        if (data == null || performer.isStopped()) {
+            return Collections.emptyList();
         }
+        // the results of the files are made as they are read
+        TorrentCrawledFiles files = decoder == TorrentDecoder.JAVA ?
+                TorrentCrawledFiles.of(sr, data) :
+                TorrentCrawledFiles.of(sr, TorrentInfo.bdecode(data));
         if (detectAlbums) {
-            List<SearchResult> temp = new LinkedList<>();
-            temp.addAll(list);
-            temp.addAll(new AlbumCluster().detect(sr, list));
-            return temp;
-        } else {
-            return list;
+            // on the paths only, the list stays lazy if there are no albums
+            List<TorrentCrawledAlbumSearchResult> albums = new AlbumCluster().detect(sr, files);
+            if (!albums.isEmpty()) {
+                List<SearchResult> temp = new LinkedList<>();
+                temp.addAll(files);
+                temp.addAll(albums);
+                return temp;
+            }
         }
+        return files;
     }
 
     public static List<? extends SearchResult> crawlTorrent(SearchPerformer performer, TorrentCrawlableSearchResult sr, byte[] data) {
@@ -116,17 +148,19 @@ public final class PerformersHelper {
         return result;
     }
 
-    public static String reduceHtml(String html, int prefixOffset, int suffixOffset) {
+    /**
+     * If the offsets returned by a performer delimit a region of the html,
+     * {@code -1} is used by the performers for a marker not found.
+     */
+    public static boolean isValidRegion(String html, int prefixOffset, int suffixOffset) {
         if (prefixOffset == -1 || suffixOffset == -1) {
-            html = null;
-        } else if ((prefixOffset > 0 || suffixOffset < html.length())) {
-            if (prefixOffset > suffixOffset) {
-                LOG.warn("PerformersHelper.reduceHtml() Check your logic: prefixOffset:" + prefixOffset + " > suffixOffset:" + suffixOffset);
-                LOG.info(html);
-                return null;
-            }
-            html = new String(html.substring(prefixOffset, suffixOffset).toCharArray());
+            return false;
+        }
+        if (prefixOffset > suffixOffset) {
+            LOG.warn("PerformersHelper.isValidRegion() Check your logic: prefixOffset:" + prefixOffset + " > suffixOffset:" + suffixOffset);
+            LOG.info(html);
+            return false;
         }
-        return html;
+        return true;
     }
 }
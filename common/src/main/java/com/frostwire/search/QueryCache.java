@@ -0,0 +1,412 @@
+/*
+ * Created by Angel Leon (@gubatron), Alden Torres (aldenml)
+ * Copyright (c) 2011-2020, FrostWire(R). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.frostwire.search;
+
+import com.frostwire.util.Logger;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache of the search pages returned by the engines, keyed by engine,
+ * normalized query and page number, so a repeated search (the same query
+ * again, or a new tab with it) is answered without going to the network.
+ * <p>
+ * A page younger than {@code refreshAfter} is fresh and used as is, an
+ * older one is still used but reported as stale, so the caller can fetch
+ * it again in the background and put the new version. Pages older than
+ * {@code ttl} are discarded.
+ * <p>
+ * The pages are kept in memory, in least recently used order up to the
+ * memory budget, and, if a {@link CrawlCache} is given, in it too, up to
+ * the disk budget. The keys of the pages in the backing cache are tracked
+ * in an index saved in it every few changes, the backing cache can be
+ * shared with other uses. Pages missing from an outdated index are added
+ * back when read.
+ *
+ * @author gubatron
+ * @author aldenml
+ */
+public final class QueryCache {
+    public static final long DEFAULT_REFRESH_AFTER = 60000; // 1 minute.
+    public static final long DEFAULT_TTL = 1800000; // 30 minutes.
+
+    private static final Logger LOG = Logger.getLogger(QueryCache.class);
+    private static final String KEY_PREFIX = "query:";
+    private static final String INDEX_KEY = "query-index";
+    private static final int PAGE_VERSION = 1;
+    private static final int INDEX_VERSION = 1;
+    private static final int INDEX_SAVE_INTERVAL = 16; // changes
+    // bigger pages are not cached, likely not a search page at all
+    private static final int MAX_PAGE_LENGTH = 2 * 1024 * 1024;
+
+    private final CrawlCache store;
+    private final long maxMemoryBytes;
+    private final long maxDiskBytes;
+    private final long refreshAfter;
+    private final long ttl;
+
+    // guarded by memory
+    private final LinkedHashMap<String, Page> memory;
+    private long memoryBytes;
+
+    // guarded by index
+    private final LinkedHashMap<String, Long> index;
+    private long diskBytes;
+    private int unsavedChanges;
+
+    private final AtomicLong hits;
+    private final AtomicLong staleHits;
+    private final AtomicLong misses;
+
+    /**
+     * @param store          where to persist the pages, or {@code null} for memory only
+     * @param maxMemoryBytes the memory budget
+     * @param maxDiskBytes   the budget in the backing cache
+     * @param refreshAfter   the age, in milliseconds, after which a page is stale
+     * @param ttl            the age, in milliseconds, after which a page is not used
+     */
+    public QueryCache(CrawlCache store, long maxMemoryBytes, long maxDiskBytes, long refreshAfter, long ttl) {
+        this.store = store;
+        this.maxMemoryBytes = maxMemoryBytes;
+        this.maxDiskBytes = maxDiskBytes;
+        this.refreshAfter = refreshAfter;
+        this.ttl = ttl;
+        this.memory = new LinkedHashMap<>(16, 0.75f, true);
+        this.index = new LinkedHashMap<>(16, 0.75f, true);
+        this.hits = new AtomicLong();
+        this.staleHits = new AtomicLong();
+        this.misses = new AtomicLong();
+        if (store != null) {
+            loadIndex();
+        }
+    }
+
+    public QueryCache(CrawlCache store, long maxMemoryBytes, long maxDiskBytes) {
+        this(store, maxMemoryBytes, maxDiskBytes, DEFAULT_REFRESH_AFTER, DEFAULT_TTL);
+    }
+
+    /**
+     * @return the cached page, or {@code null} if it's not cached or expired
+     */
+    public Page get(String engine, String query, int page) {
+        String key = key(engine, query, page);
+        long now = System.currentTimeMillis();
+        Page p;
+        synchronized (memory) {
+            p = memory.get(key);
+        }
+        if (p == null && store != null) {
+            byte[] data = store.get(KEY_PREFIX + key);
+            p = readPage(data);
+            if (p == null) {
+                unindex(key); // lost by the backing cache
+            } else if (now - p.time < ttl) {
+                remember(key, p);
+                // the index may be older than the page
+                index(key, data.length);
+            }
+        }
+        if (p == null || now - p.time >= ttl) {
+            if (p != null) {
+                remove(key);
+            }
+            misses.incrementAndGet();
+            return null;
+        }
+        if (now - p.time >= refreshAfter) {
+            staleHits.incrementAndGet();
+            return new Page(p.text, p.time, true);
+        }
+        hits.incrementAndGet();
+        return p;
+    }
+
+    public void put(String engine, String query, int page, String text) {
+        if (text == null || text.length() > MAX_PAGE_LENGTH) {
+            return;
+        }
+        String key = key(engine, query, page);
+        Page p = new Page(text, System.currentTimeMillis(), false);
+        remember(key, p);
+        if (store != null) {
+            byte[] data = writePage(p);
+            store.put(KEY_PREFIX + key, data);
+            index(key, data.length);
+        }
+    }
+
+    /**
+     * Removes all the pages, from the backing cache too, and only those
+     * (the ones in the index).
+     */
+    public void clear() {
+        synchronized (memory) {
+            memory.clear();
+            memoryBytes = 0;
+        }
+        if (store != null) {
+            List<String> keys;
+            synchronized (index) {
+                keys = new ArrayList<>(index.keySet());
+                index.clear();
+                diskBytes = 0;
+                unsavedChanges = 0;
+            }
+            for (String k : keys) {
+                store.remove(KEY_PREFIX + k);
+            }
+            store.remove(INDEX_KEY);
+        }
+    }
+
+    public long memorySizeInBytes() {
+        synchronized (memory) {
+            return memoryBytes;
+        }
+    }
+
+    public long diskSizeInBytes() {
+        synchronized (index) {
+            return diskBytes;
+        }
+    }
+
+    public long hits() {
+        return hits.get();
+    }
+
+    public long staleHits() {
+        return staleHits.get();
+    }
+
+    public long misses() {
+        return misses.get();
+    }
+
+    @Override
+    public String toString() {
+        return "QueryCache(hits: " + hits() + ", stale: " + staleHits() + ", misses: " + misses() +
+                ", memory: " + memorySizeInBytes() + ", disk: " + diskSizeInBytes() + ")";
+    }
+
+    /**
+     * Lower case and single spaces, the same search typed differently is
+     * the same search for the engines.
+     */
+    static String normalize(String query) {
+        if (query == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(query.length());
+        boolean space = true;
+        for (int i = 0; i < query.length(); i++) {
+            char c = query.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = true;
+            } else {
+                if (space && sb.length() > 0) {
+                    sb.append(' ');
+                }
+                space = false;
+                sb.append(c);
+            }
+        }
+        return sb.toString().toLowerCase(Locale.US);
+    }
+
+    private static String key(String engine, String query, int page) {
+        return engine + ":" + page + ":" + normalize(query);
+    }
+
+    private void remember(String key, Page p) {
+        long size = pageSize(p);
+        if (size > maxMemoryBytes) {
+            return;
+        }
+        synchronized (memory) {
+            Page old = memory.put(key, p);
+            memoryBytes += size - (old != null ? pageSize(old) : 0);
+            Iterator<Page> it = memory.values().iterator();
+            while (memoryBytes > maxMemoryBytes && it.hasNext()) {
+                memoryBytes -= pageSize(it.next());
+                it.remove();
+            }
+        }
+    }
+
+    private void remove(String key) {
+        synchronized (memory) {
+            Page old = memory.remove(key);
+            if (old != null) {
+                memoryBytes -= pageSize(old);
+            }
+        }
+        if (store != null && unindex(key)) {
+            store.remove(KEY_PREFIX + key);
+        }
+    }
+
+    private void index(String key, long size) {
+        List<String> evicted = new ArrayList<>();
+        synchronized (index) {
+            Long old = index.put(key, size);
+            if (old != null && old == size) {
+                return; // just touched
+            }
+            diskBytes += size - (old != null ? old : 0);
+            Iterator<Map.Entry<String, Long>> it = index.entrySet().iterator();
+            while (diskBytes > maxDiskBytes && it.hasNext()) {
+                Map.Entry<String, Long> e = it.next();
+                if (!e.getKey().equals(key)) {
+                    diskBytes -= e.getValue();
+                    evicted.add(e.getKey());
+                    it.remove();
+                }
+            }
+        }
+        for (String k : evicted) {
+            store.remove(KEY_PREFIX + k);
+        }
+        changed(1 + evicted.size());
+    }
+
+    private boolean unindex(String key) {
+        synchronized (index) {
+            Long size = index.remove(key);
+            if (size == null) {
+                return false;
+            }
+            diskBytes -= size;
+        }
+        changed(1);
+        return true;
+    }
+
+    private static long pageSize(Page p) {
+        return 2L * p.text.length();
+    }
+
+    private static byte[] writePage(Page p) {
+        byte[] text = p.text.getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(text.length + 12);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(PAGE_VERSION);
+            out.writeLong(p.time);
+            out.write(text);
+        } catch (IOException e) {
+            // not possible in memory
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Page readPage(byte[] data) {
+        if (data == null || data.length < 12) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            if (in.readInt() != PAGE_VERSION) {
+                return null;
+            }
+            long time = in.readLong();
+            return new Page(new String(data, 12, data.length - 12, StandardCharsets.UTF_8), time, false);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private void changed(int n) {
+        byte[] snapshot = null;
+        synchronized (index) {
+            unsavedChanges += n;
+            if (unsavedChanges >= INDEX_SAVE_INTERVAL) {
+                unsavedChanges = 0;
+                snapshot = writeIndex();
+            }
+        }
+        if (snapshot != null) {
+            store.put(INDEX_KEY, snapshot);
+        }
+    }
+
+    // must be called holding the index lock
+    private byte[] writeIndex() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(index.size() * 64 + 8);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(INDEX_VERSION);
+            out.writeInt(index.size());
+            for (Map.Entry<String, Long> e : index.entrySet()) {
+                out.writeUTF(e.getKey());
+                out.writeLong(e.getValue());
+            }
+        } catch (IOException e) {
+            // not possible in memory
+        }
+        return bytes.toByteArray();
+    }
+
+    private void loadIndex() {
+        byte[] data = store.get(INDEX_KEY);
+        if (data == null) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            if (in.readInt() != INDEX_VERSION) {
+                return;
+            }
+            int n = in.readInt();
+            for (int i = 0; i < n; i++) {
+                String key = in.readUTF();
+                long size = in.readLong();
+                index.put(key, size);
+                diskBytes += size;
+            }
+        } catch (IOException e) {
+            LOG.warn("Error loading query cache index, e=" + e.getMessage());
+        }
+    }
+
+    public static final class Page {
+        public final String text;
+        /**
+         * When the page was fetched, in milliseconds since the epoch.
+         */
+        public final long time;
+        /**
+         * If the page should be fetched again, in the background.
+         */
+        public final boolean stale;
+
+        Page(String text, long time, boolean stale) {
+            this.text = text;
+            this.time = time;
+            this.stale = stale;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Created by Angel Leon (@gubatron), Alden Torres (aldenml)
+ * Copyright (c) 2011-2020, FrostWire(R). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.frostwire.search;
+
+/**
+ * How much a single search (token) can do, enforced by
+ * {@link SearchManager}: once the results sent to the listener or the
+ * bytes downloaded by its performers reach the budget the search is
+ * stopped, crawls over the budget are not scheduled.
+ *
+ * @author gubatron
+ * @author aldenml
+ */
+public final class SearchBudget {
+
+    public static final SearchBudget UNLIMITED = new SearchBudget(Integer.MAX_VALUE, Integer.MAX_VALUE, Long.MAX_VALUE);
+
+    /**
+     * The budget of the searches of the apps, far more results than anyone
+     * scrolls through, a few hundred crawls and the bytes of them.
+     */
+    public static final SearchBudget DEFAULT = new SearchBudget(5000, 500, 64L * 1024 * 1024);
+
+    private final int maxResults;
+    private final int maxCrawls;
+    private final long maxBytes;
+
+    /**
+     * @param maxResults max number of results sent to the listener
+     * @param maxCrawls  max number of crawls scheduled
+     * @param maxBytes   max bytes downloaded by the performers, search pages
+     *                   and crawls
+     */
+    public SearchBudget(int maxResults, int maxCrawls, long maxBytes) {
+        if (maxResults <= 0 || maxCrawls < 0 || maxBytes <= 0) {
+            throw new IllegalArgumentException("Search budget must be > 0 (crawls >= 0)");
+        }
+        this.maxResults = maxResults;
+        this.maxCrawls = maxCrawls;
+        this.maxBytes = maxBytes;
+    }
+
+    public int maxResults() {
+        return maxResults;
+    }
+
+    public int maxCrawls() {
+        return maxCrawls;
+    }
+
+    public long maxBytes() {
+        return maxBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "SearchBudget(results=" + maxResults + ", crawls=" + maxCrawls + ", bytes=" + maxBytes + ")";
+    }
+}
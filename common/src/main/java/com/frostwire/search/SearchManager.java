@@ -18,17 +18,29 @@
 package com.frostwire.search;
 
 import com.frostwire.search.filter.SearchTable;
+import com.frostwire.search.torrent.MergedTorrent;
+import com.frostwire.search.torrent.TorrentCrawledFiles;
+import com.frostwire.search.torrent.TorrentSearchResult;
 import com.frostwire.util.Logger;
 import com.frostwire.util.Ref;
 import com.frostwire.util.ThreadPool;
+import com.frostwire.util.VirtualThreads;
 
 import java.lang.ref.WeakReference;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @author gubatron
@@ -36,21 +48,50 @@ import java.util.concurrent.PriorityBlockingQueue;
  */
 public final class SearchManager {
     private static final Logger LOG = Logger.getLogger(SearchManager.class);
+    private static final int MAX_MERGED_SEARCHES = 32;
+    private static final long DEFAULT_BACKPRESSURE_TIMEOUT = 30000;
     private final ExecutorService executor;
-    private final List<SearchTask> tasks;
+    private final HostScheduler scheduler;
+    private final ConcurrentHashMap<Long, TokenState> states;
     private final List<WeakReference<SearchTable>> tables;
+    private final Map<Long, ConcurrentHashMap<String, MergedTorrent>> merged;
     private SearchListener listener;
+    private volatile SearchBudget budget;
+    private volatile long backpressureTimeout;
 
     private SearchManager(int nThreads) {
-        this.executor = new ThreadPool("SearchManager", 2, nThreads, 10000L, new PriorityBlockingQueue<>(), true);
-        this.tasks = Collections.synchronizedList(new LinkedList<>());
+        this.executor = newExecutor(nThreads);
+        this.scheduler = new HostScheduler(executor);
+        this.states = new ConcurrentHashMap<>();
         this.tables = Collections.synchronizedList(new LinkedList<>());
+        this.merged = new LinkedHashMap<Long, ConcurrentHashMap<String, MergedTorrent>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, ConcurrentHashMap<String, MergedTorrent>> eldest) {
+                return size() > MAX_MERGED_SEARCHES;
+            }
+        };
+        this.budget = SearchBudget.UNLIMITED;
+        this.backpressureTimeout = DEFAULT_BACKPRESSURE_TIMEOUT;
     }
 
     public static SearchManager getInstance() {
         return Loader.INSTANCE;
     }
 
+    /**
+     * With {@link VirtualThreads} enabled every task runs in its own virtual
+     * thread, since they are blocked on network most of the time there is no
+     * point in capping them, the per host limits still apply.
+     */
+    private static ExecutorService newExecutor(int nThreads) {
+        ExecutorService executor = VirtualThreads.isEnabled() ? VirtualThreads.newExecutor() : null;
+        if (executor != null) {
+            LOG.info("Using virtual threads for search tasks");
+            return executor;
+        }
+        return new ThreadPool("SearchManager", 2, nThreads, 10000L, new PriorityBlockingQueue<>(), true);
+    }
+
     public void perform(final SearchPerformer performer) {
         if (performer != null) {
             if (performer.getToken() < 0) {
@@ -68,6 +109,7 @@ public final class SearchManager {
 
                 @Override
                 public void onError(long token, SearchError error) {
+                    metrics(performer).error();
                     SearchManager.this.onError(token, error);
                 }
 
@@ -76,8 +118,7 @@ public final class SearchManager {
                     // nothing since this is calculated in aggregation
                 }
             });
-            SearchTask task = new PerformTask(this, performer, nextOrdinal(performer.getToken()));
-            submit(task);
+            submit(performer, null);
         } else {
             LOG.warn("Search performer is null, review your logic");
         }
@@ -99,29 +140,293 @@ public final class SearchManager {
         this.listener = listener;
     }
 
-    private void submit(SearchTask task) {
-        tasks.add(task);
-        executor.execute(task);
+    public SearchBudget getBudget() {
+        return budget;
+    }
+
+    /**
+     * The budget of the searches started (first performer of the token)
+     * after this call, {@link SearchBudget#UNLIMITED} by default.
+     */
+    public void setBudget(SearchBudget budget) {
+        if (budget == null) {
+            throw new IllegalArgumentException("Search budget can't be null");
+        }
+        this.budget = budget;
+    }
+
+    /**
+     * For the listener to signal that it can't keep up with the results of
+     * the search with the given token. While on, the crawls are held (not
+     * dropped) until it's turned off, the search is stopped or the
+     * backpressure timeout passes, and the paged performers request no
+     * more pages, not even after it's turned off.
+     */
+    public void setBackpressure(long token, boolean on) {
+        TokenState state = states.get(token);
+        if (state == null) {
+            return;
+        }
+        if (on) {
+            int pause = state.pause();
+            scheduler.schedule(() -> {
+                List<SearchTask> tasks = state.expire(pause);
+                if (!tasks.isEmpty()) {
+                    LOG.info("Search backpressure timed out, releasing " + tasks.size() + " crawls: " + token);
+                    execute(tasks);
+                }
+            }, backpressureTimeout);
+        } else {
+            execute(state.resume());
+        }
+    }
+
+    /**
+     * How long the crawls can be held by {@link #setBackpressure(long, boolean)},
+     * 30 seconds by default.
+     */
+    void setBackpressureTimeout(long millis) {
+        if (millis <= 0) {
+            throw new IllegalArgumentException("Backpressure timeout must be > 0");
+        }
+        this.backpressureTimeout = millis;
+    }
+
+    /**
+     * Limits how hard the searches can hit a given host, tasks over these
+     * limits wait without holding a worker thread.
+     *
+     * @param domainName        the {@link WebSearchPerformer#getDomainName()} of the engine
+     * @param maxInFlight       max number of tasks running at the same time for this host
+     * @param requestsPerSecond sustained rate of tasks started for this host
+     */
+    public void setHostLimits(String domainName, int maxInFlight, double requestsPerSecond) {
+        scheduler.setLimits(domainName, maxInFlight, requestsPerSecond);
+    }
+
+    /**
+     * Where the search pages of the paged performers are scheduled, within
+     * the same host limits as the search tasks.
+     */
+    HostScheduler hostScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Number of tasks (perform and crawl) submitted for the given token
+     * that are still queued or running.
+     */
+    public int pendingTasks(long token) {
+        TokenState state = states.get(token);
+        return state != null ? Math.max(state.pending.get(), 0) : 0;
+    }
+
+    /**
+     * Creates a table that receives the results of the search with the
+     * given token. It's held weakly, the caller must keep a reference.
+     */
+    public SearchTable newTable(long token) {
+        SearchTable table = new SearchTable(token);
+        tables.add(Ref.weak(table));
+        return table;
+    }
+
+    /**
+     * The results of the search with the given infohash, only the first one
+     * is delivered and crawled, the UI reads the highest seeds and all the
+     * sources of the torrent here. Kept for the last few searches.
+     *
+     * @return {@code null} if no result of the search has this infohash
+     */
+    public MergedTorrent getMergedTorrent(long token, String hash) {
+        ConcurrentHashMap<String, MergedTorrent> torrents;
+        synchronized (merged) {
+            torrents = merged.get(token);
+        }
+        return torrents != null && hash != null ? torrents.get(normalizeHash(hash)) : null;
+    }
+
+    /**
+     * Registers and schedules a perform task if {@code sr} is {@code null},
+     * or a crawl task for {@code sr} otherwise.
+     */
+    private void submit(SearchPerformer performer, CrawlableSearchResult sr) {
+        long token = performer.getToken();
+        TokenState state;
+        int ordinal;
+        do {
+            state = states.get(token);
+            if (state == null) {
+                TokenState newState = new TokenState(token, budget);
+                state = states.putIfAbsent(token, newState);
+                if (state == null) {
+                    state = newState;
+                }
+            }
+            ordinal = state.acquire();
+            if (ordinal < 0) {
+                // lost the race against the last task of a finished search
+                states.remove(token, state);
+            }
+        } while (ordinal < 0);
+
+        SearchTask task;
+        if (sr == null) {
+            state.performers.add(performer);
+            state.firstResultPending.put(performer, System.nanoTime());
+            metrics(performer).searchStarted();
+            if (state.stopped) {
+                // the search was stopped while this performer was registered
+                performer.stop();
+            }
+            if (state.paused) {
+                stopPaging(performer);
+            }
+            task = new PerformTask(this, performer, state, ordinal);
+        } else {
+            task = new CrawlTask(this, performer, state, sr, ordinal);
+            if (state.hold(task)) {
+                return;
+            }
+        }
+
+        try {
+            scheduler.execute(task);
+        } catch (Throwable e) {
+            // the task will never run, keep the counters in sync
+            finished(task);
+            throw e;
+        }
     }
 
     private void onResults(SearchPerformer performer, List<? extends SearchResult> results) {
+        TokenState state = states.get(performer.getToken());
+        if (state != null && checkBudget(state)) {
+            return;
+        }
+        if (results instanceof TorrentCrawledFiles) {
+            // only files of a crawled torrent, nothing to merge or crawl,
+            // passed as they are to not make the view of every file here
+            deliver(state, performer, results);
+            return;
+        }
         List<SearchResult> list = new LinkedList<>();
+        ConcurrentHashMap<String, MergedTorrent> torrents = null;
         for (SearchResult sr : results) {
+            if (sr instanceof TorrentSearchResult && !(sr instanceof CrawledSearchResult)) {
+                String hash = ((TorrentSearchResult) sr).getHash();
+                if (hash != null && !hash.isEmpty()) {
+                    if (torrents == null) {
+                        torrents = mergedTorrents(performer.getToken());
+                    }
+                    String key = normalizeHash(hash);
+                    MergedTorrent m = torrents.get(key);
+                    if (m == null) {
+                        MergedTorrent newTorrent = new MergedTorrent(key);
+                        m = torrents.putIfAbsent(key, newTorrent);
+                        if (m == null) {
+                            m = newTorrent;
+                        }
+                    }
+                    if (!m.add((TorrentSearchResult) sr)) {
+                        // already delivered from another source, only its seeds and source count
+                        continue;
+                    }
+                }
+            }
             if (sr instanceof CrawlableSearchResult) {
                 CrawlableSearchResult csr = (CrawlableSearchResult) sr;
                 if (csr.isComplete()) {
                     list.add(sr);
                 }
-                crawl(performer, csr);
+                crawl(state, performer, csr);
             } else {
                 list.add(sr);
             }
         }
+        deliver(state, performer, list);
+    }
+
+    /**
+     * Sends the results to the listener, cut to what is left of the budget
+     * of the search.
+     */
+    private void deliver(TokenState state, SearchPerformer performer, List<? extends SearchResult> list) {
+        if (!list.isEmpty() && state != null) {
+            int n = state.reserveResults(list.size());
+            if (n < list.size()) {
+                list = list.subList(0, n);
+                LOG.info("Search results budget reached, stopping search: " + state.token);
+                stopTasks(state.token);
+            }
+        }
         if (!list.isEmpty()) {
+            Long start = state != null ? state.firstResultPending.remove(performer) : null;
+            if (start != null) {
+                metrics(performer).firstResult(System.nanoTime() - start);
+            }
             onResults(performer.getToken(), list);
         }
     }
 
+    /**
+     * Stops the search if the bytes downloaded by its performers reached
+     * the budget.
+     *
+     * @return {@code true} if the search is (now) stopped
+     */
+    private boolean checkBudget(TokenState state) {
+        if (state.stopped) {
+            return true;
+        }
+        long maxBytes = state.budget.maxBytes();
+        if (maxBytes == Long.MAX_VALUE) {
+            return false;
+        }
+        long bytes = 0;
+        for (SearchPerformer performer : state.performers) {
+            if (performer instanceof WebSearchPerformer) {
+                bytes += ((WebSearchPerformer) performer).getBytesDownloaded();
+            }
+        }
+        if (bytes < maxBytes) {
+            return false;
+        }
+        LOG.info("Search bytes budget reached, stopping search: " + state.token);
+        stopTasks(state.token);
+        return true;
+    }
+
+    private static void stopPaging(SearchPerformer performer) {
+        if (performer instanceof PagedWebSearchPerformer) {
+            ((PagedWebSearchPerformer) performer).stopPaging();
+        }
+    }
+
+    private static String domainName(SearchPerformer performer) {
+        return performer instanceof WebSearchPerformer ? ((WebSearchPerformer) performer).getDomainName() : null;
+    }
+
+    private static SearchMetrics.Engine metrics(SearchPerformer performer) {
+        String name = performer instanceof WebSearchPerformer ? ((WebSearchPerformer) performer).getDomainName() : performer.getClass().getSimpleName();
+        return SearchMetrics.getInstance().engine(name);
+    }
+
+    private ConcurrentHashMap<String, MergedTorrent> mergedTorrents(long token) {
+        synchronized (merged) {
+            ConcurrentHashMap<String, MergedTorrent> torrents = merged.get(token);
+            if (torrents == null) {
+                torrents = new ConcurrentHashMap<>();
+                merged.put(token, torrents);
+            }
+            return torrents;
+        }
+    }
+
+    private static String normalizeHash(String hash) {
+        return hash.trim().toLowerCase(Locale.US);
+    }
+
     private void onResults(long token, List<? extends SearchResult> results) {
         try {
             if (results != null && listener != null) {
@@ -130,10 +435,11 @@ public final class SearchManager {
             synchronized (tables) {
                 Iterator<WeakReference<SearchTable>> it = tables.iterator();
                 while (it.hasNext()) {
-                    WeakReference<SearchTable> t = it.next();
-                    if (Ref.alive(t)) {
-                        //noinspection ConstantConditions
-                        t.get().add(results);
+                    SearchTable t = it.next().get();
+                    if (t != null) {
+                        if (t.token() == token) {
+                            t.add(results);
+                        }
                     } else {
                         it.remove();
                     }
@@ -164,11 +470,14 @@ public final class SearchManager {
         }
     }
 
-    private void crawl(SearchPerformer performer, CrawlableSearchResult sr) {
+    private void crawl(TokenState state, SearchPerformer performer, CrawlableSearchResult sr) {
         if (performer != null && !performer.isStopped()) {
+            if (state != null && !state.reserveCrawl()) {
+                // over the crawls budget
+                return;
+            }
             try {
-                SearchTask task = new CrawlTask(this, performer, sr, nextOrdinal(performer.getToken()));
-                submit(task);
+                submit(performer, sr);
             } catch (Throwable e) {
                 LOG.warn("Error scheduling crawling of search result: " + sr);
             }
@@ -178,62 +487,227 @@ public final class SearchManager {
     }
 
     private void stopTasks(long token) {
-        synchronized (tasks) {
-            for (SearchTask task : tasks) {
-                if (token == -1L || task.token() == token) {
-                    task.stopSearch();
-                }
+        if (token == -1L) {
+            for (TokenState state : states.values()) {
+                state.stop();
+                // they finish right away, releasing the search
+                execute(state.resume());
+            }
+        } else {
+            TokenState state = states.get(token);
+            if (state != null) {
+                state.stop();
+                execute(state.resume());
+            }
+        }
+    }
+
+    private void execute(List<SearchTask> tasks) {
+        for (SearchTask task : tasks) {
+            try {
+                scheduler.execute(task);
+            } catch (Throwable e) {
+                LOG.warn("Error scheduling held search task: " + e.getMessage());
+                finished(task);
             }
         }
     }
 
-    private void checkIfFinished(long token) {
-        SearchTask pendingTask = null;
-        synchronized (tasks) {
-            Iterator<SearchTask> it = tasks.iterator();
-            while (it.hasNext() && pendingTask == null) {
-                SearchTask task = it.next();
-                if (task.token() == token && !task.stopped()) {
-                    pendingTask = task;
+    private void finished(SearchTask task) {
+        scheduler.release(task);
+        TokenState state = task.state;
+        checkBudget(state);
+        boolean done = state.release();
+        if (done) {
+            states.remove(state.token, state);
+        }
+        if (done || (state.stopped && state.notified.compareAndSet(false, true))) {
+            onStopped(state.token);
+        }
+    }
+
+    private static class Loader {
+        static final SearchManager INSTANCE = new SearchManager(8);
+    }
+
+    /**
+     * Book keeping of a single search (token). Submitting and finishing a
+     * task are O(1), {@link #stop()} is linear in the number of performers
+     * of the search, not in the number of tasks.
+     * <p>
+     * The crawls held by backpressure count as pending, the search is not
+     * over until they are released (turned off, stopped or timed out) and
+     * run or see the search stopped.
+     * <p>
+     * A negative {@code pending} marks a retired state, the last task
+     * finished and the state is (or is about to be) out of the registry.
+     */
+    private static final class TokenState {
+        final long token;
+        final SearchBudget budget;
+        final AtomicInteger pending;
+        final Set<SearchPerformer> performers;
+        // start time of the performers without results yet
+        final ConcurrentHashMap<SearchPerformer, Long> firstResultPending;
+        final AtomicBoolean notified;
+        final AtomicInteger results;
+        final AtomicInteger crawls;
+        // guarded by itself, the same as pauses
+        private final List<SearchTask> held;
+        private int pauses;
+        volatile boolean stopped;
+        volatile boolean paused;
+
+        TokenState(long token, SearchBudget budget) {
+            this.token = token;
+            this.budget = budget;
+            this.pending = new AtomicInteger();
+            this.performers = Collections.newSetFromMap(new ConcurrentHashMap<SearchPerformer, Boolean>());
+            this.firstResultPending = new ConcurrentHashMap<>();
+            this.notified = new AtomicBoolean();
+            this.results = new AtomicInteger();
+            this.crawls = new AtomicInteger();
+            this.held = new ArrayList<>();
+        }
+
+        /**
+         * @return the ordinal of the new task, or -1 if this state is retired
+         */
+        int acquire() {
+            while (true) {
+                int n = pending.get();
+                if (n < 0) {
+                    return -1;
                 }
-                if (task.stopped()) {
-                    it.remove();
+                if (pending.compareAndSet(n, n + 1)) {
+                    return n;
                 }
             }
         }
-        if (pendingTask == null) {
-            onStopped(token);
+
+        /**
+         * @return {@code true} if this was the last pending task and the state
+         * is now retired
+         */
+        boolean release() {
+            return pending.decrementAndGet() == 0 && pending.compareAndSet(0, -1);
+        }
+
+        void stop() {
+            stopped = true;
+            for (SearchPerformer performer : performers) {
+                performer.stop();
+            }
+        }
+
+        /**
+         * @return how many of {@code n} new results fit in the budget
+         */
+        int reserveResults(int n) {
+            while (true) {
+                int r = results.get();
+                int allowed = Math.min(n, budget.maxResults() - r);
+                if (allowed <= 0) {
+                    return 0;
+                }
+                if (results.compareAndSet(r, r + allowed)) {
+                    return allowed;
+                }
+            }
         }
-    }
 
-    private int nextOrdinal(long token) {
-        int ordinal = 0;
-        synchronized (tasks) {
-            for (SearchTask task : tasks) {
-                if (task.token() == token) {
-                    ordinal = ordinal + 1;
+        boolean reserveCrawl() {
+            return crawls.incrementAndGet() <= budget.maxCrawls();
+        }
+
+        /**
+         * @return the number of this pause, for {@link #expire(int)}
+         */
+        int pause() {
+            int pause;
+            synchronized (held) {
+                paused = true;
+                pause = ++pauses;
+            }
+            for (SearchPerformer performer : performers) {
+                stopPaging(performer);
+            }
+            return pause;
+        }
+
+        /**
+         * @return {@code true} if the task is held until {@link #resume()}
+         */
+        boolean hold(SearchTask task) {
+            synchronized (held) {
+                if (!paused) {
+                    return false;
                 }
+                held.add(task);
+                return true;
             }
         }
-        return ordinal;
-    }
 
-    private static class Loader {
-        static final SearchManager INSTANCE = new SearchManager(8);
+        /**
+         * @return the tasks held while paused, to be executed
+         */
+        List<SearchTask> resume() {
+            synchronized (held) {
+                paused = false;
+                if (held.isEmpty()) {
+                    return Collections.emptyList();
+                }
+                List<SearchTask> tasks = new ArrayList<>(held);
+                held.clear();
+                return tasks;
+            }
+        }
+
+        /**
+         * @return the tasks held, to be executed, if the given pause is the
+         * last one and still on
+         */
+        List<SearchTask> expire(int pause) {
+            synchronized (held) {
+                if (!paused || pause != pauses) {
+                    return Collections.emptyList();
+                }
+                return resume();
+            }
+        }
     }
 
-    private static abstract class SearchTask extends Thread implements Comparable<SearchTask> {
+    private static abstract class SearchTask extends Thread implements Comparable<SearchTask>, HostScheduler.Task {
         protected final SearchManager manager;
         final SearchPerformer performer;
+        final TokenState state;
         private final int ordinal;
+        private final String host;
 
-        SearchTask(SearchManager manager, SearchPerformer performer, int ordinal) {
+        SearchTask(SearchManager manager, SearchPerformer performer, TokenState state, int ordinal, String host) {
             this.manager = manager;
             this.performer = performer;
+            this.state = state;
             this.ordinal = ordinal;
+            this.host = host;
             this.setName(performer.getClass().getName() + "-SearchTask");
         }
 
+        @Override
+        public String host() {
+            return host;
+        }
+
+        @Override
+        public boolean cancelled() {
+            return stopped();
+        }
+
+        @Override
+        public int ordinal() {
+            return ordinal;
+        }
+
         public long token() {
             return performer.getToken();
         }
@@ -242,10 +716,6 @@ public final class SearchManager {
             return performer.isStopped();
         }
 
-        void stopSearch() {
-            performer.stop();
-        }
-
         @Override
         public int compareTo(SearchTask o) {
             return Integer.compare(ordinal, o.ordinal);
@@ -253,8 +723,9 @@ public final class SearchManager {
     }
 
     private static final class PerformTask extends SearchTask {
-        PerformTask(SearchManager manager, SearchPerformer performer, int order) {
-            super(manager, performer, order);
+        PerformTask(SearchManager manager, SearchPerformer performer, TokenState state, int order) {
+            // the paged performers schedule their pages (in the host limits) and wait for them
+            super(manager, performer, state, order, performer instanceof PagedWebSearchPerformer ? null : domainName(performer));
         }
 
         @Override
@@ -264,11 +735,10 @@ public final class SearchManager {
                     performer.perform();
                 }
             } catch (Throwable e) {
+                metrics(performer).error();
                 LOG.warn("Error performing search: " + performer + ", e=" + e.getMessage());
             } finally {
-                if (manager.tasks.remove(this)) {
-                    manager.checkIfFinished(performer.getToken());
-                }
+                manager.finished(this);
             }
         }
     }
@@ -276,8 +746,8 @@ public final class SearchManager {
     private static final class CrawlTask extends SearchTask {
         private final CrawlableSearchResult sr;
 
-        CrawlTask(SearchManager manager, SearchPerformer performer, CrawlableSearchResult sr, int order) {
-            super(manager, performer, order);
+        CrawlTask(SearchManager manager, SearchPerformer performer, TokenState state, CrawlableSearchResult sr, int order) {
+            super(manager, performer, state, order, domainName(performer));
             this.sr = sr;
         }
 
@@ -288,11 +758,10 @@ public final class SearchManager {
                     performer.crawl(sr);
                 }
             } catch (Throwable e) {
+                metrics(performer).error();
                 LOG.warn("Error performing crawling of: " + sr + ", e=" + e.getMessage());
             } finally {
-                if (manager.tasks.remove(this)) {
-                    manager.checkIfFinished(performer.getToken());
-                }
+                manager.finished(this);
             }
         }
     }
@@ -48,10 +48,16 @@ public final class SearchMatcher {
     }
 
     public String group(String group) {
-        if (matcher.hasGroup(group)) {
-            return copy(matcher.group(group));
-        }
-        return null;
+        int index = matcher.groupIndex(group);
+        return index != -1 ? copy(matcher.group(index)) : null;
+    }
+
+    /**
+     * The index of a named group, to use with {@link #group(int)} instead
+     * of the name for every match.
+     */
+    public int groupIndex(String group) {
+        return matcher.groupIndex(group);
     }
 
     private String copy(String str) {
@@ -0,0 +1,426 @@
+/*
+ * Created by Angel Leon (@gubatron), Alden Torres (aldenml)
+ * Copyright (c) 2011-2020, FrostWire(R). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.frostwire.search;
+
+import com.frostwire.util.Logger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counters of the searches of every engine (by domain name), to tell which
+ * one makes a search slow and which ones don't pay for themselves: the
+ * time to the first result, the latency of the page fetches, the bytes
+ * downloaded, the time spent parsing, the results per page, the crawls
+ * answered by the crawl cache and the errors.
+ * <p>
+ * They are updated by {@link SearchManager} and {@link WebSearchPerformer}
+ * as the searches go, with atomic counters and fixed bucket histograms,
+ * recording is cheap and never blocks. Read them here, or have them
+ * written to the log every so often with {@link #startLogDump(long)}, as
+ * the apps do when their search metrics log interval setting is set.
+ *
+ * @author gubatron
+ * @author aldenml
+ */
+public final class SearchMetrics {
+    private static final Logger LOG = Logger.getLogger(SearchMetrics.class);
+    // upper bounds of the buckets of the latency histograms, one more for the slower ones
+    private static final long[] LATENCY_BOUNDS_MILLIS = {50, 100, 250, 500, 1000, 2500, 5000, 10000, 30000};
+
+    private final ConcurrentHashMap<String, Engine> engines;
+    // guarded by this
+    private ScheduledFuture<?> logDump;
+
+    private SearchMetrics() {
+        this.engines = new ConcurrentHashMap<>();
+    }
+
+    public static SearchMetrics getInstance() {
+        return Loader.INSTANCE;
+    }
+
+    /**
+     * The counters of the given engine, created on first use. They are
+     * never removed, performers can keep the reference.
+     */
+    public Engine engine(String name) {
+        Engine e = engines.get(name);
+        if (e == null) {
+            Engine newEngine = new Engine(name);
+            e = engines.putIfAbsent(name, newEngine);
+            if (e == null) {
+                e = newEngine;
+            }
+        }
+        return e;
+    }
+
+    /**
+     * @return the engines with any counter, sorted by name
+     */
+    public List<Engine> engines() {
+        List<Engine> list = new ArrayList<>(engines.values());
+        Collections.sort(list, new Comparator<Engine>() {
+            @Override
+            public int compare(Engine o1, Engine o2) {
+                return o1.name.compareTo(o2.name);
+            }
+        });
+        return list;
+    }
+
+    /**
+     * Sets all the counters back to zero.
+     */
+    public void reset() {
+        for (Engine e : engines.values()) {
+            e.reset();
+        }
+    }
+
+    /**
+     * @return one line per engine that did anything, as written to the log
+     */
+    public String report() {
+        StringBuilder sb = new StringBuilder();
+        for (Engine e : engines()) {
+            if (e.searches() > 0 || e.pages() > 0 || e.fetchLatency().count() > 0) {
+                sb.append(e).append('\n');
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Writes the {@link #report()} to the log every {@code periodMillis},
+     * replacing any previous dump.
+     */
+    public synchronized void startLogDump(long periodMillis) {
+        if (periodMillis <= 0) {
+            throw new IllegalArgumentException("Log dump period must be > 0");
+        }
+        stopLogDump();
+        logDump = Dumper.EXECUTOR.scheduleAtFixedRate(this::dump, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stopLogDump() {
+        if (logDump != null) {
+            logDump.cancel(false);
+            logDump = null;
+        }
+    }
+
+    private void dump() {
+        try {
+            String report = report();
+            if (!report.isEmpty()) {
+                LOG.info("Search metrics:\n" + report);
+            }
+        } catch (Throwable e) {
+            LOG.warn("Error writing search metrics: " + e.getMessage());
+        }
+    }
+
+    /**
+     * The counters of a single engine.
+     */
+    public static final class Engine {
+        private final String name;
+        private final Histogram firstResult;
+        private final Histogram fetchLatency;
+        private final AtomicLong searches;
+        private final AtomicLong bytes;
+        private final AtomicLong pages;
+        private final AtomicLong emptyPages;
+        private final AtomicLong results;
+        private final AtomicLong parseNanos;
+        private final AtomicLong crawlHits;
+        private final AtomicLong crawlMisses;
+        private final AtomicLong errors;
+
+        Engine(String name) {
+            this.name = name;
+            this.firstResult = new Histogram(LATENCY_BOUNDS_MILLIS);
+            this.fetchLatency = new Histogram(LATENCY_BOUNDS_MILLIS);
+            this.searches = new AtomicLong();
+            this.bytes = new AtomicLong();
+            this.pages = new AtomicLong();
+            this.emptyPages = new AtomicLong();
+            this.results = new AtomicLong();
+            this.parseNanos = new AtomicLong();
+            this.crawlHits = new AtomicLong();
+            this.crawlMisses = new AtomicLong();
+            this.errors = new AtomicLong();
+        }
+
+        public String name() {
+            return name;
+        }
+
+        /**
+         * Time from the start of a search to the first result of this engine
+         * sent to the listener, searches without results are not counted.
+         */
+        public Histogram firstResult() {
+            return firstResult;
+        }
+
+        /**
+         * Time of every http request, the failed ones included.
+         */
+        public Histogram fetchLatency() {
+            return fetchLatency;
+        }
+
+        public long searches() {
+            return searches.get();
+        }
+
+        /**
+         * Bytes downloaded, counted as characters for the text pages, close
+         * enough for the mostly ascii html and json.
+         */
+        public long bytes() {
+            return bytes.get();
+        }
+
+        /**
+         * Search pages parsed, fetched or from the query cache.
+         */
+        public long pages() {
+            return pages.get();
+        }
+
+        public long emptyPages() {
+            return emptyPages.get();
+        }
+
+        public long results() {
+            return results.get();
+        }
+
+        public long parseNanos() {
+            return parseNanos.get();
+        }
+
+        public long crawlHits() {
+            return crawlHits.get();
+        }
+
+        public long crawlMisses() {
+            return crawlMisses.get();
+        }
+
+        /**
+         * Failed requests, pages that couldn't be parsed and tasks that
+         * ended with an exception.
+         */
+        public long errors() {
+            return errors.get();
+        }
+
+        public double resultsPerPage() {
+            long n = pages.get();
+            return n > 0 ? (double) results.get() / n : 0;
+        }
+
+        void searchStarted() {
+            searches.incrementAndGet();
+        }
+
+        void firstResult(long nanos) {
+            firstResult.record(nanos);
+        }
+
+        void fetched(long nanos, long length) {
+            fetchLatency.record(nanos);
+            bytes.addAndGet(length);
+        }
+
+        void fetchFailed(long nanos) {
+            fetchLatency.record(nanos);
+            errors.incrementAndGet();
+        }
+
+        void parsed(long nanos, int count) {
+            parseNanos.addAndGet(nanos);
+            pages.incrementAndGet();
+            results.addAndGet(count);
+            if (count == 0) {
+                emptyPages.incrementAndGet();
+            }
+        }
+
+        void crawlHit() {
+            crawlHits.incrementAndGet();
+        }
+
+        void crawlMiss() {
+            crawlMisses.incrementAndGet();
+        }
+
+        void error() {
+            errors.incrementAndGet();
+        }
+
+        void reset() {
+            firstResult.reset();
+            fetchLatency.reset();
+            searches.set(0);
+            bytes.set(0);
+            pages.set(0);
+            emptyPages.set(0);
+            results.set(0);
+            parseNanos.set(0);
+            crawlHits.set(0);
+            crawlMisses.set(0);
+            errors.set(0);
+        }
+
+        @Override
+        public String toString() {
+            long n = pages.get();
+            return String.format(Locale.US, "%s: searches=%d, first result %s, fetches %s, %dKB, pages=%d (%d empty), %.1f results/page, parse %.2fms/page, crawl hits=%d misses=%d, errors=%d",
+                    name, searches.get(), firstResult, fetchLatency, bytes.get() / 1024, n, emptyPages.get(), resultsPerPage(),
+                    n > 0 ? parseNanos.get() / 1e6 / n : 0.0, crawlHits.get(), crawlMisses.get(), errors.get());
+        }
+    }
+
+    /**
+     * Latency histogram with fixed buckets, in milliseconds.
+     */
+    public static final class Histogram {
+        private final long[] bounds;
+        // one more for the values over the last bound
+        private final AtomicLongArray counts;
+        private final AtomicLong sumNanos;
+        private final AtomicLong maxNanos;
+
+        Histogram(long[] bounds) {
+            this.bounds = bounds;
+            this.counts = new AtomicLongArray(bounds.length + 1);
+            this.sumNanos = new AtomicLong();
+            this.maxNanos = new AtomicLong();
+        }
+
+        /**
+         * @return the upper bounds of the buckets in milliseconds, the last
+         * bucket has no bound
+         */
+        public long[] bounds() {
+            return bounds.clone();
+        }
+
+        public long[] counts() {
+            long[] arr = new long[counts.length()];
+            for (int i = 0; i < arr.length; i++) {
+                arr[i] = counts.get(i);
+            }
+            return arr;
+        }
+
+        public long count() {
+            long n = 0;
+            for (int i = 0; i < counts.length(); i++) {
+                n += counts.get(i);
+            }
+            return n;
+        }
+
+        public long meanMillis() {
+            long n = count();
+            return n > 0 ? sumNanos.get() / n / 1000000 : 0;
+        }
+
+        public long maxMillis() {
+            return maxNanos.get() / 1000000;
+        }
+
+        /**
+         * @param p between 0 and 1
+         * @return the upper bound of the bucket of the given percentile, the
+         * max if it's in the last one
+         */
+        public long percentileMillis(double p) {
+            long n = count();
+            if (n == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(p * n));
+            long max = maxMillis();
+            long seen = 0;
+            for (int i = 0; i < bounds.length; i++) {
+                seen += counts.get(i);
+                if (seen >= rank) {
+                    return Math.min(bounds[i], max);
+                }
+            }
+            return max;
+        }
+
+        void record(long nanos) {
+            long millis = nanos / 1000000;
+            int i = 0;
+            while (i < bounds.length && millis > bounds[i]) {
+                i++;
+            }
+            counts.incrementAndGet(i);
+            sumNanos.addAndGet(nanos);
+            long max;
+            while (nanos > (max = maxNanos.get()) && !maxNanos.compareAndSet(max, nanos)) {
+                // retry
+            }
+        }
+
+        void reset() {
+            for (int i = 0; i < counts.length(); i++) {
+                counts.set(i, 0);
+            }
+            sumNanos.set(0);
+            maxNanos.set(0);
+        }
+
+        @Override
+        public String toString() {
+            return "n=" + count() + " p50=" + percentileMillis(0.5) + "ms p90=" + percentileMillis(0.9) + "ms max=" + maxMillis() + "ms";
+        }
+    }
+
+    private static class Loader {
+        static final SearchMetrics INSTANCE = new SearchMetrics();
+    }
+
+    private static final class Dumper {
+        static final ScheduledExecutorService EXECUTOR = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "SearchMetrics-dump");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+}
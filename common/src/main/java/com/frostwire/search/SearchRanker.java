@@ -0,0 +1,340 @@
+/*
+ * Created by Angel Leon (@gubatron), Alden Torres (aldenml)
+ * Copyright (c) 2011-2020, FrostWire(R). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.frostwire.search;
+
+import com.frostwire.search.torrent.TorrentSearchResult;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Scores the results of a search by how well they match the query and
+ * keeps the best ones as they arrive.
+ * <p>
+ * The score, between 0 and 1, combines:
+ * <ul>
+ * <li>the text: how many of the query tokens are in the names of the
+ * result, how many times, and how close to each other</li>
+ * <li>the seeds of torrents, in a logarithmic scale</li>
+ * <li>the reputation of the source (engine), 0.5 unless set</li>
+ * <li>the file type, if it's a known media type or the one searched</li>
+ * </ul>
+ * The top results are kept in a bounded heap, adding a result is
+ * {@code O(log k)} and the sorted list of the top {@code k} is only built
+ * when asked for after a change. Thread safe, results can be added from the
+ * search threads while the UI reads the top.
+ *
+ * @author gubatron
+ * @author aldenml
+ */
+public final class SearchRanker {
+
+    public static final int DEFAULT_TOP_SIZE = 100;
+
+    private static final float TEXT_WEIGHT = 0.55f;
+    private static final float SEEDS_WEIGHT = 0.25f;
+    private static final float SOURCE_WEIGHT = 0.1f;
+    private static final float TYPE_WEIGHT = 0.1f;
+
+    private static final float NEUTRAL = 0.5f;
+    // more seeds than this are not better
+    private static final double MAX_SEEDS_LOG = Math.log1p(10000);
+
+    private static final Comparator<Ranked> WORST_FIRST = new Comparator<Ranked>() {
+        @Override
+        public int compare(Ranked o1, Ranked o2) {
+            int r = Float.compare(o1.score, o2.score);
+            // same score, the last one to arrive is worse
+            return r != 0 ? r : Long.compare(o2.order, o1.order);
+        }
+    };
+
+    private final String[] tokens;
+    private final KeywordMediaType mediaType;
+    private final int topSize;
+    private final ConcurrentHashMap<String, Float> reputations;
+
+    // guarded by this
+    private final PriorityQueue<Ranked> heap;
+    private long count;
+    private List<SearchResult> top;
+    // the position in the top of each result, built with it
+    private Map<SearchResult, Integer> ranks;
+
+    /**
+     * @param query     the query of the search
+     * @param mediaType the media type searched for, or {@code null} if any
+     * @param topSize   the number of results to keep
+     */
+    public SearchRanker(String query, KeywordMediaType mediaType, int topSize) {
+        this.tokens = tokenize(query);
+        this.mediaType = mediaType;
+        this.topSize = Math.max(1, topSize);
+        this.reputations = new ConcurrentHashMap<>();
+        this.heap = new PriorityQueue<>(this.topSize + 1, WORST_FIRST);
+        this.top = Collections.emptyList();
+        this.ranks = Collections.emptyMap();
+    }
+
+    public SearchRanker(String query) {
+        this(query, null, DEFAULT_TOP_SIZE);
+    }
+
+    /**
+     * @param source     the source of the results, as in {@link SearchResult#getSource()}
+     * @param reputation from 0 (never good results) to 1 (always good results)
+     */
+    public void setSourceReputation(String source, float reputation) {
+        reputations.put(source, Math.max(0, Math.min(1, reputation)));
+    }
+
+    public void add(SearchResult sr) {
+        float score = score(sr);
+        synchronized (this) {
+            offer(sr, score);
+        }
+    }
+
+    public void add(List<? extends SearchResult> results) {
+        float[] scores = new float[results.size()];
+        for (int i = 0; i < scores.length; i++) {
+            scores[i] = score(results.get(i));
+        }
+        synchronized (this) {
+            for (int i = 0; i < scores.length; i++) {
+                offer(results.get(i), scores[i]);
+            }
+        }
+    }
+
+    /**
+     * @return the best results so far, best first
+     */
+    public synchronized List<SearchResult> top() {
+        if (top == null) {
+            Ranked[] ranked = heap.toArray(new Ranked[0]);
+            Arrays.sort(ranked, Collections.reverseOrder(WORST_FIRST));
+            List<SearchResult> list = new ArrayList<>(ranked.length);
+            Map<SearchResult, Integer> positions = new IdentityHashMap<>(ranked.length);
+            for (Ranked r : ranked) {
+                list.add(r.sr);
+                positions.put(r.sr, list.size());
+            }
+            top = Collections.unmodifiableList(list);
+            ranks = positions;
+        }
+        return top;
+    }
+
+    /**
+     * @return the position of the result in the {@link #top()}, from 1 (the
+     * best), or 0 if it is not in it
+     */
+    public synchronized int rank(SearchResult sr) {
+        top();
+        Integer rank = ranks.get(sr);
+        return rank != null ? rank : 0;
+    }
+
+    /**
+     * The results in the {@link #top()} first, best first, and then the
+     * others in their order. Only the top is sorted, not the results.
+     */
+    public synchronized List<SearchResult> bestFirst(List<? extends SearchResult> results) {
+        List<SearchResult> top = top();
+        Map<SearchResult, Boolean> present = new IdentityHashMap<>(top.size());
+        for (SearchResult sr : results) {
+            if (ranks.containsKey(sr)) {
+                present.put(sr, Boolean.TRUE);
+            }
+        }
+        List<SearchResult> list = new ArrayList<>(results.size());
+        for (SearchResult sr : top) {
+            if (present.containsKey(sr)) {
+                list.add(sr);
+            }
+        }
+        for (SearchResult sr : results) {
+            if (!present.containsKey(sr)) {
+                list.add(sr);
+            }
+        }
+        return list;
+    }
+
+    /**
+     * @return the number of results ranked so far
+     */
+    public synchronized long count() {
+        return count;
+    }
+
+    public synchronized void clear() {
+        heap.clear();
+        count = 0;
+        top = Collections.emptyList();
+        ranks = Collections.emptyMap();
+    }
+
+    /**
+     * The score of the result for this search, from 0 to 1.
+     */
+    public float score(SearchResult sr) {
+        return TEXT_WEIGHT * textScore(sr) +
+                SEEDS_WEIGHT * seedsScore(sr) +
+                SOURCE_WEIGHT * sourceScore(sr) +
+                TYPE_WEIGHT * typeScore(sr);
+    }
+
+    private void offer(SearchResult sr, float score) {
+        Ranked r = new Ranked(sr, score, count++);
+        if (heap.size() < topSize) {
+            heap.add(r);
+            top = null;
+        } else if (WORST_FIRST.compare(r, heap.peek()) > 0) {
+            heap.poll();
+            heap.add(r);
+            top = null;
+        }
+    }
+
+    /**
+     * The coverage of the query tokens (60%), the frequency of the tokens
+     * (15%) and the size of the smallest window of words with all of them
+     * (25%), a word matches a token if it starts with it.
+     */
+    float textScore(SearchResult sr) {
+        int n = tokens.length;
+        if (n == 0) {
+            return NEUTRAL;
+        }
+        String haystack = NormalizedText.nameHaystack(sr);
+        int[] tf = new int[n];
+        int[] last = new int[n];
+        Arrays.fill(last, -1);
+        int matched = 0;
+        int window = Integer.MAX_VALUE;
+        int word = 0;
+        int len = haystack.length();
+        int start = 0;
+        while (start < len) {
+            int end = haystack.indexOf(' ', start);
+            if (end < 0) {
+                end = len;
+            }
+            boolean any = false;
+            for (int i = 0; i < n; i++) {
+                String t = tokens[i];
+                if (t.length() <= end - start && haystack.startsWith(t, start)) {
+                    if (tf[i]++ == 0) {
+                        matched++;
+                    }
+                    last[i] = word;
+                    any = true;
+                }
+            }
+            if (any && matched == n) {
+                int first = word;
+                for (int i = 0; i < n; i++) {
+                    first = Math.min(first, last[i]);
+                }
+                window = Math.min(window, word - first + 1);
+            }
+            word++;
+            start = end + 1;
+        }
+        if (matched == 0) {
+            return 0;
+        }
+        float coverage = (float) matched / n;
+        float frequency = 0;
+        for (int i = 0; i < n; i++) {
+            // saturates, one occurrence is 0.5, two 0.67, ...
+            frequency += tf[i] / (tf[i] + 1f);
+        }
+        frequency /= n;
+        float proximity = matched == n ? Math.min(1f, (float) n / window) : 0;
+        return 0.6f * coverage + 0.15f * frequency + 0.25f * proximity;
+    }
+
+    private static float seedsScore(SearchResult sr) {
+        if (!(sr instanceof TorrentSearchResult)) {
+            return NEUTRAL; // not a torrent, the availability is not known
+        }
+        int seeds = ((TorrentSearchResult) sr).getSeeds();
+        if (seeds <= 0) {
+            return 0;
+        }
+        return (float) Math.min(1.0, Math.log1p(seeds) / MAX_SEEDS_LOG);
+    }
+
+    private float sourceScore(SearchResult sr) {
+        String source = sr.getSource();
+        Float reputation = source != null ? reputations.get(source) : null;
+        return reputation != null ? reputation : NEUTRAL;
+    }
+
+    private float typeScore(SearchResult sr) {
+        if (!(sr instanceof FileSearchResult)) {
+            return NEUTRAL;
+        }
+        String filename = ((FileSearchResult) sr).getFilename();
+        KeywordMediaType mt = KeywordMediaType.getMediaTypeForFilename(filename);
+        if (mediaType == null) {
+            return mt != null ? 1 : NEUTRAL;
+        }
+        if (mediaType.equals(mt)) {
+            return 1;
+        }
+        return mt != null ? 0.25f : 0;
+    }
+
+    private static String[] tokenize(String query) {
+        if (query == null) {
+            return new String[0];
+        }
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String t : NormalizedText.foldWords(query).split(" ")) {
+            if (!t.isEmpty()) {
+                tokens.add(t);
+            }
+        }
+        return tokens.toArray(new String[0]);
+    }
+
+    private static final class Ranked {
+        final SearchResult sr;
+        final float score;
+        final long order;
+
+        Ranked(SearchResult sr, float score, long order) {
+            this.sr = sr;
+            this.score = score;
+            this.order = order;
+        }
+    }
+}
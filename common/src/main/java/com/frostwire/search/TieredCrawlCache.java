@@ -0,0 +1,267 @@
+/*
+ * Created by Angel Leon (@gubatron), Alden Torres (aldenml)
+ * Copyright (c) 2011-2020, FrostWire(R). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.frostwire.search;
+
+import com.frostwire.util.Logger;
+import com.frostwire.util.ThreadPool;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded in memory LRU in front of a persistent {@link CrawlCache}.
+ * <p>
+ * The memory tier is split in lock striped segments, so crawls of different
+ * keys don't contend. Writes to the persistent tier are done in the
+ * background by a single writer, in order; while a write is pending its value
+ * (or removal) is served from memory. Reads that miss memory go straight to
+ * the persistent tier, which must then support concurrent reads; what they
+ * read is kept in memory only if no write or removal was done in the
+ * segment of the key meanwhile, it could be older than that write.
+ *
+ * @author gubatron
+ * @author aldenml
+ */
+public final class TieredCrawlCache implements CrawlCache {
+    private static final Logger LOG = Logger.getLogger(TieredCrawlCache.class);
+    private static final int NUM_SEGMENTS = 16;
+    private static final byte[] REMOVED = new byte[0];
+
+    private final CrawlCache persistent;
+    private final Segment[] segments;
+    private final ConcurrentHashMap<String, byte[]> pending;
+    private final ExecutorService writer;
+
+    private final AtomicLong memoryHits;
+    private final AtomicLong persistentHits;
+    private final AtomicLong misses;
+
+    public TieredCrawlCache(CrawlCache persistent, long maxMemoryBytes) {
+        this.persistent = persistent;
+        this.segments = new Segment[NUM_SEGMENTS];
+        for (int i = 0; i < NUM_SEGMENTS; i++) {
+            segments[i] = new Segment(maxMemoryBytes / NUM_SEGMENTS);
+        }
+        this.pending = new ConcurrentHashMap<>();
+        this.writer = ThreadPool.newThreadPool("TieredCrawlCache-writer", 1, true);
+        this.memoryHits = new AtomicLong();
+        this.persistentHits = new AtomicLong();
+        this.misses = new AtomicLong();
+    }
+
+    @Override
+    public byte[] get(String key) {
+        Segment s = segment(key);
+        long version = s.version();
+        byte[] data = s.get(key);
+        if (data != null) {
+            memoryHits.incrementAndGet();
+            return data;
+        }
+        data = pending.get(key);
+        if (data != null) {
+            if (data == REMOVED) {
+                misses.incrementAndGet();
+                return null;
+            }
+            memoryHits.incrementAndGet();
+            return data;
+        }
+        try {
+            data = persistent.get(key);
+        } catch (Throwable e) {
+            LOG.warn("Error reading crawl cache key: " + key + ", e=" + e.getMessage());
+            data = null;
+        }
+        if (data != null) {
+            persistentHits.incrementAndGet();
+            s.fill(key, data, version);
+        } else {
+            misses.incrementAndGet();
+        }
+        return data;
+    }
+
+    @Override
+    public void put(String key, byte[] data) {
+        if (data == null) {
+            return;
+        }
+        segment(key).put(key, data);
+        pending.put(key, data);
+        writer.execute(() -> {
+            try {
+                persistent.put(key, data);
+            } catch (Throwable e) {
+                LOG.warn("Error writing crawl cache key: " + key + ", e=" + e.getMessage());
+            } finally {
+                pending.remove(key, data);
+            }
+        });
+    }
+
+    @Override
+    public void remove(String key) {
+        segment(key).remove(key);
+        pending.put(key, REMOVED);
+        writer.execute(() -> {
+            try {
+                persistent.remove(key);
+            } catch (Throwable e) {
+                LOG.warn("Error removing crawl cache key: " + key + ", e=" + e.getMessage());
+            } finally {
+                pending.remove(key, REMOVED);
+            }
+        });
+    }
+
+    @Override
+    public void clear() {
+        for (Segment s : segments) {
+            s.clear();
+        }
+        pending.clear();
+        writer.execute(() -> {
+            try {
+                persistent.clear();
+            } catch (Throwable e) {
+                LOG.warn("Error clearing crawl cache: " + e.getMessage());
+            }
+        });
+    }
+
+    @Override
+    public long numEntries() {
+        return persistent.numEntries();
+    }
+
+    @Override
+    public long sizeInBytes() {
+        return persistent.sizeInBytes();
+    }
+
+    public long memoryHits() {
+        return memoryHits.get();
+    }
+
+    public long persistentHits() {
+        return persistentHits.get();
+    }
+
+    public long misses() {
+        return misses.get();
+    }
+
+    public long memorySizeInBytes() {
+        long size = 0;
+        for (Segment s : segments) {
+            size += s.size();
+        }
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        return "TieredCrawlCache(memoryHits=" + memoryHits() + ", persistentHits=" + persistentHits() + ", misses=" + misses() + ", memoryBytes=" + memorySizeInBytes() + ")";
+    }
+
+    private Segment segment(String key) {
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        return segments[h & (NUM_SEGMENTS - 1)];
+    }
+
+    private static final class Segment {
+        private final long maxBytes;
+        private final LinkedHashMap<String, byte[]> map;
+        private long bytes;
+        // changed by every write, removal and clear, not by the reads
+        private long version;
+
+        Segment(long maxBytes) {
+            this.maxBytes = maxBytes;
+            this.map = new LinkedHashMap<>(16, 0.75f, true);
+        }
+
+        synchronized byte[] get(String key) {
+            return map.get(key);
+        }
+
+        synchronized long version() {
+            return version;
+        }
+
+        synchronized void put(String key, byte[] data) {
+            version++;
+            store(key, data);
+        }
+
+        /**
+         * Caches a value read from the persistent tier, unless the segment
+         * changed since the given version.
+         */
+        synchronized void fill(String key, byte[] data, long readVersion) {
+            if (version == readVersion) {
+                store(key, data);
+            }
+        }
+
+        private void store(String key, byte[] data) {
+            if (data.length > maxBytes) {
+                drop(key);
+                return;
+            }
+            byte[] old = map.put(key, data);
+            if (old != null) {
+                bytes -= old.length;
+            }
+            bytes += data.length;
+            Iterator<Map.Entry<String, byte[]>> it = map.entrySet().iterator();
+            while (bytes > maxBytes && it.hasNext()) {
+                bytes -= it.next().getValue().length;
+                it.remove();
+            }
+        }
+
+        synchronized void remove(String key) {
+            version++;
+            drop(key);
+        }
+
+        private void drop(String key) {
+            byte[] old = map.remove(key);
+            if (old != null) {
+                bytes -= old.length;
+            }
+        }
+
+        synchronized void clear() {
+            version++;
+            map.clear();
+            bytes = 0;
+        }
+
+        synchronized long size() {
+            return bytes;
+        }
+    }
+}
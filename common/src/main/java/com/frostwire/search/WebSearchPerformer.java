@@ -17,15 +17,16 @@
 
 package com.frostwire.search;
 
+import com.frostwire.util.ExtensionRegistry;
 import com.frostwire.util.HttpClientFactory;
 import com.frostwire.util.Logger;
 import com.frostwire.util.UrlUtils;
 import com.frostwire.util.UserAgentGenerator;
 import com.frostwire.util.http.HttpClient;
-import org.apache.commons.io.FilenameUtils;
 
 import java.io.IOException;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * @author gubatron
@@ -34,12 +35,13 @@ import java.util.Map;
 public abstract class WebSearchPerformer extends AbstractSearchPerformer {
     private static final Logger LOG = Logger.getLogger(WebSearchPerformer.class);
     private static final String DEFAULT_USER_AGENT = UserAgentGenerator.getUserAgent();
-    private static final String[] STREAMABLE_EXTENSIONS = new String[]{"mp3", "ogg", "wma", "wmv", "m4a", "aac", "flac", "mp4", "flv", "mov", "mpg", "mpeg", "3gp", "m4v", "webm"};
     private final String domainName;
     private final String keywords;
     private final String encodedKeywords;
     private final int timeout;
     private final HttpClient client;
+    private final SearchMetrics.Engine metrics;
+    private final AtomicLong bytesDownloaded;
 
     WebSearchPerformer(String domainName, long token, String keywords, int timeout) {
         super(token);
@@ -51,16 +53,12 @@ public abstract class WebSearchPerformer extends AbstractSearchPerformer {
         this.encodedKeywords = UrlUtils.encode(keywords);
         this.timeout = timeout;
         this.client = HttpClientFactory.getInstance(HttpClientFactory.HttpContext.SEARCH);
+        this.metrics = SearchMetrics.getInstance().engine(domainName);
+        this.bytesDownloaded = new AtomicLong();
     }
 
     public static boolean isStreamable(String filename) {
-        String ext = FilenameUtils.getExtension(filename);
-        for (String s : STREAMABLE_EXTENSIONS) {
-            if (s.equals(ext)) {
-                return true; // fast return
-            }
-        }
-        return false;
+        return ExtensionRegistry.isStreamable(filename);
     }
 
     public final String getKeywords() {
@@ -87,14 +85,26 @@ public abstract class WebSearchPerformer extends AbstractSearchPerformer {
     }
 
     public String fetch(String url, String cookie, Map<String, String> customHeaders) throws IOException {
-        return client.get(url, timeout, DEFAULT_USER_AGENT, null, cookie, customHeaders);
+        long start = System.nanoTime();
+        String text = null;
+        try {
+            text = client.get(url, timeout, DEFAULT_USER_AGENT, null, cookie, customHeaders);
+            return text;
+        } finally {
+            fetched(start, text != null ? text.length() : -1);
+        }
     }
 
     public String post(String url, Map<String, String> formData) {
+        long start = System.nanoTime();
+        String text = null;
         try {
-            return client.post(url, timeout, DEFAULT_USER_AGENT, formData);
+            text = client.post(url, timeout, DEFAULT_USER_AGENT, formData);
+            return text;
         } catch (IOException throwable) {
             return null;
+        } finally {
+            fetched(start, text != null ? text.length() : -1);
         }
     }
 
@@ -110,7 +120,10 @@ public abstract class WebSearchPerformer extends AbstractSearchPerformer {
 
     protected final byte[] fetchBytes(String url, String referrer, int timeout) {
         if (url.startsWith("htt")) { // http(s)
-            return client.getBytes(url, timeout, DEFAULT_USER_AGENT, referrer);
+            long start = System.nanoTime();
+            byte[] data = client.getBytes(url, timeout, DEFAULT_USER_AGENT, referrer);
+            fetched(start, data != null ? data.length : -1);
+            return data;
         } else {
             return null;
         }
@@ -119,4 +132,32 @@ public abstract class WebSearchPerformer extends AbstractSearchPerformer {
     public String getDomainName() {
         return domainName;
     }
+
+    /**
+     * Bytes downloaded so far by this performer, counted as characters for
+     * the text pages (see {@link SearchMetrics.Engine#bytes()}).
+     */
+    public long getBytesDownloaded() {
+        return bytesDownloaded.get();
+    }
+
+    /**
+     * The counters of this engine, see {@link SearchMetrics}.
+     */
+    SearchMetrics.Engine metrics() {
+        return metrics;
+    }
+
+    /**
+     * @param length the length of the response, -1 if the request failed
+     */
+    private void fetched(long start, long length) {
+        long nanos = System.nanoTime() - start;
+        if (length >= 0) {
+            bytesDownloaded.addAndGet(length);
+            metrics.fetched(nanos, length);
+        } else {
+            metrics.fetchFailed(nanos);
+        }
+    }
 }
@@ -29,18 +29,18 @@ import java.util.Locale;
  * @author gubatron
  * @author aldenml
  */
-public class ArchiveorgCrawledSearchResult extends AbstractCrawledSearchResult implements HttpSearchResult {
+public class ArchiveorgCrawledSearchResult extends AbstractCrawledSearchResult<ArchiveorgSearchResult> implements HttpSearchResult {
     private static final String DOWNLOAD_URL = "https://%s/download/%s/%s";
+    private final String path;
     private final String filename;
     private final String displayName;
-    private final String downloadUrl;
     private final double size;
 
     public ArchiveorgCrawledSearchResult(ArchiveorgSearchResult sr, ArchiveorgFile file) {
         super(sr);
-        this.filename = FilenameUtils.getName(file.filename);
+        this.path = file.filename;
+        this.filename = FilenameUtils.getName(path);
         this.displayName = FilenameUtils.getBaseName(filename) + " (" + sr.getDisplayName() + ")";
-        this.downloadUrl = String.format(Locale.US, DOWNLOAD_URL, sr.getDomainName(), sr.getIdentifier(), UrlUtils.encode(file.filename));
         this.size = calcSize(file);
     }
 
@@ -61,7 +61,8 @@ public class ArchiveorgCrawledSearchResult extends AbstractCrawledSearchResult i
 
     @Override
     public String getDownloadUrl() {
-        return downloadUrl;
+        // derived from the item, only the file path is kept
+        return String.format(Locale.US, DOWNLOAD_URL, parent.getDomainName(), parent.getIdentifier(), UrlUtils.encode(path));
     }
 
     private long calcSize(ArchiveorgFile file) {
@@ -20,21 +20,20 @@ package com.frostwire.search.archiveorg;
 import com.frostwire.search.CrawlPagedWebSearchPerformer;
 import com.frostwire.search.SearchResult;
 import com.frostwire.util.JsonUtils;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
+import com.frostwire.util.Logger;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 
-import java.nio.charset.StandardCharsets;
-import java.util.Iterator;
+import java.io.IOException;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
 
 /**
  * @author gubatron
  * @author aldenml
  */
 public class ArchiveorgSearchPerformer extends CrawlPagedWebSearchPerformer<ArchiveorgSearchResult> {
+    private static final Logger LOG = Logger.getLogger(ArchiveorgSearchPerformer.class);
     private static final int MAX_RESULTS = 12;
 
     public ArchiveorgSearchPerformer(String domainName, long token, String keywords, int timeout) {
@@ -55,12 +54,21 @@ public class ArchiveorgSearchPerformer extends CrawlPagedWebSearchPerformer<Arch
     @Override
     protected List<? extends SearchResult> searchPage(String page) {
         List<SearchResult> result = new LinkedList<>();
-        ArchiveorgResponse response = JsonUtils.toObject(page, ArchiveorgResponse.class);
-        for (ArchiveorgItem item : response.response.docs) {
-            if (!isStopped() && filter(item)) {
-                ArchiveorgSearchResult sr = new ArchiveorgSearchResult(getDomainName(), item);
-                result.add(sr);
+        // the docs are read one at a time, the rest of the response is skipped
+        JsonReader reader = JsonUtils.newReader(page);
+        try {
+            if (JsonUtils.findProperty(reader, "response") && JsonUtils.findProperty(reader, "docs") && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                reader.beginArray();
+                while (reader.hasNext() && !isStopped()) {
+                    ArchiveorgItem item = JsonUtils.toObject(reader, ArchiveorgItem.class);
+                    if (item != null && filter(item)) {
+                        result.add(new ArchiveorgSearchResult(getDomainName(), item));
+                    }
+                }
             }
+        } catch (IOException | RuntimeException e) {
+            // malformed or truncated (a JsonParseException), keep what was read
+            LOG.warn("Error reading search page: " + e.getMessage());
         }
         return result;
     }
@@ -73,8 +81,7 @@ public class ArchiveorgSearchPerformer extends CrawlPagedWebSearchPerformer<Arch
     @Override
     protected List<? extends SearchResult> crawlResult(ArchiveorgSearchResult sr, byte[] data) throws Exception {
         List<ArchiveorgCrawledSearchResult> list = new LinkedList<>();
-        String json = new String(data, StandardCharsets.UTF_8);
-        List<ArchiveorgFile> files = readFiles(json);
+        List<ArchiveorgFile> files = readFiles(data);
         long totalSize = calcTotalSize(files);
         for (ArchiveorgFile file : files) {
             if (isStreamable(file.filename)) {
@@ -88,18 +95,21 @@ public class ArchiveorgSearchPerformer extends CrawlPagedWebSearchPerformer<Arch
         return list;
     }
 
-    private List<ArchiveorgFile> readFiles(String json) {
+    /**
+     * Reads the files of the details json straight from the bytes, one at a
+     * time, the rest of it (the metadata, the reviews) is skipped.
+     */
+    private List<ArchiveorgFile> readFiles(byte[] data) throws IOException {
         List<ArchiveorgFile> result = new LinkedList<>();
-        JsonElement element = JsonParser.parseString(json);
-        JsonObject obj = element.getAsJsonObject();
-        JsonObject files = obj.getAsJsonObject("files");
-        Iterator<Map.Entry<String, JsonElement>> it = files.entrySet().iterator();
-        while (it.hasNext() && !isStopped()) {
-            Map.Entry<String, JsonElement> e = it.next();
-            String name = e.getKey();
-            String value = e.getValue().toString();
-            ArchiveorgFile file = JsonUtils.toObject(value, ArchiveorgFile.class);
-            if (filter(file)) {
+        JsonReader reader = JsonUtils.newReader(data);
+        if (!JsonUtils.findProperty(reader, "files")) {
+            throw new IOException("No files in item details");
+        }
+        reader.beginObject();
+        while (reader.hasNext() && !isStopped()) {
+            String name = reader.nextName();
+            ArchiveorgFile file = JsonUtils.toObject(reader, ArchiveorgFile.class);
+            if (file != null && filter(file)) {
                 file.filename = cleanName(name);
                 result.add(file);
             }
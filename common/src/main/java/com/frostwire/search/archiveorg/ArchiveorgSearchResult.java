@@ -34,7 +34,6 @@ import java.util.Locale;
 public final class ArchiveorgSearchResult extends AbstractSearchResult implements CrawlableSearchResult {
     private final String identifier;
     private final String title;
-    private final String detailsUrl;
     private final String domainName;
     private final License licence;
     private final long creationTime;
@@ -42,7 +41,6 @@ public final class ArchiveorgSearchResult extends AbstractSearchResult implement
     public ArchiveorgSearchResult(String domainName, ArchiveorgItem item) {
         this.identifier = item.identifier;
         this.domainName = domainName;
-        this.detailsUrl = "http://" + domainName + "/details/" + item.identifier;
         this.title = buildTitle(item.title);
         this.licence = Licenses.creativeCommonsByUrl(item.licenseurl);
         this.creationTime = parsePublicDate(item.publicdate);
@@ -76,7 +74,7 @@ public final class ArchiveorgSearchResult extends AbstractSearchResult implement
 
     @Override
     public String getDetailsUrl() {
-        return detailsUrl;
+        return "http://" + domainName + "/details/" + identifier;
     }
 
     @Override
@@ -18,6 +18,7 @@
 package com.frostwire.search.eztv;
 
 import com.frostwire.search.CrawlableSearchResult;
+import com.frostwire.search.PageMarker;
 import com.frostwire.search.SearchMatcher;
 import com.frostwire.search.torrent.TorrentRegexSearchPerformer;
 import org.apache.commons.lang3.StringUtils;
@@ -45,6 +46,7 @@ public class EztvSearchPerformer extends TorrentRegexSearchPerformer<EztvSearchR
                     "<b>Filesize:</b>\\s+(?<filesize>.*?)<br.*?" +
                     "<b>Released:</b>\\s+(?<creationtime>.*?)<br";
     private static final int MAX_RESULTS = 20;
+    private static final PageMarker DETAILS_START = new PageMarker("id=\"searchsearch_submit\"");
 
     public EztvSearchPerformer(String domainName, long token, String keywords, int timeout) {
         super(domainName, token, keywords, timeout, 1, 2 * MAX_RESULTS, MAX_RESULTS, SEARCH_RESULTS_REGEX, TORRENT_DETAILS_PAGE_REGEX);
@@ -78,7 +80,7 @@ public class EztvSearchPerformer extends TorrentRegexSearchPerformer<EztvSearchR
 
     @Override
     protected int htmlPrefixOffset(String html) {
-        int offset = html.indexOf("id=\"searchsearch_submit\"");
+        int offset = DETAILS_START.indexIn(html);
         return offset > 0 ? offset : 0;
     }
 
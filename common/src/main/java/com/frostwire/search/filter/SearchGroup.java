@@ -19,30 +19,64 @@ package com.frostwire.search.filter;
 
 import com.frostwire.search.SearchResult;
 
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
-import java.util.SortedSet;
-import java.util.TreeSet;
+import java.util.Comparator;
+import java.util.List;
 
 /**
+ * The rows of a view with the same filter key, as a bitset of row ids of
+ * the table. The sorted list of results is built when asked for and kept
+ * until the group changes.
+ *
  * @author gubatron
  * @author aldenml
  */
 public final class SearchGroup {
-    private final SortedSet<SearchResult> data;
+    private final SearchTable table;
+    private final Comparator<SearchResult> comparator;
+    private final BitSet rows;
+    private List<SearchResult> data;
+
+    SearchGroup(SearchTable table, SearchFilter filter) {
+        this.table = table;
+        this.comparator = filter.comparator();
+        this.rows = new BitSet();
+    }
+
+    /**
+     * The results of the group sorted by the filter comparator, results
+     * that compare equal are in the order they were added.
+     */
+    public synchronized List<SearchResult> data() {
+        if (data == null) {
+            List<SearchResult> list = new ArrayList<>(rows.cardinality());
+            int size = table.size(); // less if the table was cleared
+            for (int i = rows.nextSetBit(0); i >= 0 && i < size; i = rows.nextSetBit(i + 1)) {
+                list.add(table.get(i));
+            }
+            Collections.sort(list, comparator); // stable
+            data = Collections.unmodifiableList(list);
+        }
+        return data;
+    }
 
-    SearchGroup(SearchFilter filter) {
-        this.data = new TreeSet<>(filter.comparator());
+    public synchronized int size() {
+        return rows.cardinality();
     }
 
-    public SortedSet<SearchResult> data() {
-        return Collections.unmodifiableSortedSet(data);
+    public synchronized BitSet rows() {
+        return (BitSet) rows.clone();
     }
 
-    void add(SearchResult sr) {
-        data.add(sr);
+    synchronized void add(int row) {
+        rows.set(row);
+        data = null;
     }
 
-    void clear() {
-        data.clear();
+    synchronized void clear() {
+        rows.clear();
+        data = null;
     }
 }
@@ -24,46 +24,87 @@ import java.lang.ref.WeakReference;
 import java.util.*;
 
 /**
+ * Append only store of the results of a search. Every result gets a row
+ * id, its index, that doesn't change until the table is cleared; views
+ * refer to the results by row id.
+ * <p>
+ * Rows are never modified once written, readers take a snapshot of the
+ * array and its size and don't need the lock.
+ *
  * @author gubatron
  * @author aldenml
  */
 public final class SearchTable {
+    private static final int INITIAL_CAPACITY = 256;
+
     private final long token;
-    private final LinkedList<SearchResult> data;
     private final LinkedList<WeakReference<SearchView>> views;
     private final Object lock;
+    private volatile Rows rows;
 
     public SearchTable(long token) {
         this.token = token;
-        this.data = new LinkedList<>();
         this.views = new LinkedList<>();
         this.lock = new Object();
+        this.rows = new Rows(new SearchResult[INITIAL_CAPACITY], 0);
     }
 
     public long token() {
         return token;
     }
 
+    /**
+     * A snapshot of the results, not affected by later additions.
+     */
     public List<SearchResult> data() {
-        return Collections.unmodifiableList(data);
+        Rows r = rows;
+        return Collections.unmodifiableList(Arrays.asList(r.data).subList(0, r.size));
+    }
+
+    public int size() {
+        return rows.size;
+    }
+
+    public SearchResult get(int row) {
+        Rows r = rows;
+        if (row < 0 || row >= r.size) {
+            throw new IndexOutOfBoundsException("row: " + row + ", size: " + r.size);
+        }
+        return r.data[row];
     }
 
     public SearchView view(SearchFilter filter) {
-        SearchView v = new SearchView(this, filter);
         synchronized (lock) {
+            // under the lock, the view doesn't miss rows added meanwhile
+            SearchView v = new SearchView(this, filter);
             views.add(Ref.weak(v));
+            return v;
         }
-        return v;
     }
 
     public void add(List<? extends SearchResult> results) {
-        data.addAll(results);
+        if (results.isEmpty()) {
+            return;
+        }
         synchronized (lock) {
+            Rows r = rows;
+            int from = r.size;
+            int to = from + results.size();
+            SearchResult[] data = r.data;
+            if (to > data.length) {
+                data = Arrays.copyOf(data, Math.max(to, data.length * 2));
+            }
+            int i = from;
+            for (SearchResult sr : results) {
+                data[i++] = sr;
+            }
+            rows = new Rows(data, to);
+
             Iterator<WeakReference<SearchView>> it = views.iterator();
             while (it.hasNext()) {
-                WeakReference<SearchView> r = it.next();
-                if (Ref.alive(r)) {
-                    r.get().add(results);
+                WeakReference<SearchView> ref = it.next();
+                if (Ref.alive(ref)) {
+                    ref.get().added(from, to);
                 } else {
                     it.remove();
                 }
@@ -72,8 +113,8 @@ public final class SearchTable {
     }
 
     public void clear() {
-        data.clear();
         synchronized (lock) {
+            rows = new Rows(new SearchResult[INITIAL_CAPACITY], 0);
             Iterator<WeakReference<SearchView>> it = views.iterator();
             while (it.hasNext()) {
                 WeakReference<SearchView> r = it.next();
@@ -95,4 +136,15 @@ public final class SearchTable {
     public void add(SearchResult sr) {
         add(Arrays.asList(sr));
     }
+
+    // the array is shared between snapshots, only the slots after size are written
+    private static final class Rows {
+        final SearchResult[] data;
+        final int size;
+
+        Rows(SearchResult[] data, int size) {
+            this.data = data;
+            this.size = size;
+        }
+    }
 }
@@ -22,52 +22,83 @@ import com.frostwire.search.SearchResult;
 import java.util.*;
 
 /**
+ * A grouping of the rows of a {@link SearchTable} by a filter.
+ * <p>
+ * The groups are updated incrementally as rows are added to the table.
+ * The indexes of the last few filters are kept, switching back to one of
+ * them only indexes the rows added since it was last used.
+ *
  * @author gubatron
  * @author aldenml
  */
 public final class SearchView {
+    private static final int MAX_INDEXES = 8;
+
     private final SearchTable table;
-    private final SearchFilter filter;
-    private final SortedMap<FilterKey, SearchGroup> groups;
+    private final Map<SearchFilter, Index> indexes;
+    private Index index;
     private SearchViewListener listener;
 
-    public SearchView(SearchTable table, SearchFilter filter) {
+    SearchView(SearchTable table, SearchFilter filter) {
         this.table = table;
-        this.filter = filter;
-        this.groups = new TreeMap<>();
-        add(table.data());
-    }
-
-    public SearchFilter filter() {
-        return filter;
+        this.indexes = new LinkedHashMap<SearchFilter, Index>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<SearchFilter, Index> eldest) {
+                return size() > MAX_INDEXES;
+            }
+        };
+        this.index = new Index(table, filter);
+        this.indexes.put(filter, index);
+        index.update(table.size(), null);
     }
 
-    public SortedMap<FilterKey, SearchGroup> groups() {
-        return Collections.unmodifiableSortedMap(groups);
+    public synchronized SearchFilter filter() {
+        return index.filter;
     }
 
-    public void add(List<? extends SearchResult> results) {
-        LinkedList<SearchResult> added = new LinkedList<>();
-        for (SearchResult sr : results) {
-            if (filter.accept(sr)) {
-                FilterKey key = filter.key(sr);
-                SearchGroup group = groups.get(key);
-                if (group == null) {
-                    group = new SearchGroup(filter);
-                    groups.put(key, group);
-                }
-                group.add(sr);
-                added.add(sr);
+    /**
+     * Changes the filter of the view, the groups are updated with the rows
+     * not yet seen by that filter.
+     */
+    public void filter(SearchFilter filter) {
+        synchronized (this) {
+            Index idx = indexes.get(filter);
+            if (idx == null) {
+                idx = new Index(table, filter);
+                indexes.put(filter, idx);
             }
+            index = idx;
+            index.update(table.size(), null);
         }
-        if (listener != null && added.size() > 0) {
-            listener.viewAdded(this, added);
-        }
+        fireChanged();
     }
 
+    /**
+     * A snapshot of the current groups.
+     */
+    public synchronized SortedMap<FilterKey, SearchGroup> groups() {
+        return Collections.unmodifiableSortedMap(new TreeMap<>(index.groups));
+    }
+
+    /**
+     * The number of rows accepted by the current filter.
+     */
+    public synchronized int size() {
+        return index.accepted.cardinality();
+    }
+
+    /**
+     * Rebuilds the groups of the current filter from all the rows, needed
+     * only if the filter changed its criteria in place.
+     */
     public void refresh() {
-        clear();
-        add(table.data());
+        synchronized (this) {
+            indexes.clear();
+            index = new Index(table, index.filter);
+            indexes.put(index.filter, index);
+            index.update(table.size(), null);
+        }
+        fireChanged();
     }
 
     public SearchViewListener getListener() {
@@ -78,13 +109,70 @@ public final class SearchView {
         this.listener = listener;
     }
 
-    public void clear() {
-        for (SearchGroup g : groups.values()) {
-            g.clear();
+    void added(int from, int to) {
+        List<SearchResult> added = new ArrayList<>(to - from);
+        synchronized (this) {
+            index.update(to, added);
+        }
+        SearchViewListener l = listener;
+        if (l != null && added.size() > 0) {
+            l.viewAdded(this, added);
+        }
+    }
+
+    void clear() {
+        synchronized (this) {
+            SearchFilter filter = index.filter;
+            indexes.clear();
+            index = new Index(table, filter);
+            indexes.put(filter, index);
         }
-        groups.clear();
-        if (listener != null) {
-            listener.viewChanged(this);
+        fireChanged();
+    }
+
+    private void fireChanged() {
+        SearchViewListener l = listener;
+        if (l != null) {
+            l.viewChanged(this);
+        }
+    }
+
+    private static final class Index {
+        final SearchTable table;
+        final SearchFilter filter;
+        final TreeMap<FilterKey, SearchGroup> groups;
+        final BitSet accepted;
+        int indexed;
+
+        Index(SearchTable table, SearchFilter filter) {
+            this.table = table;
+            this.filter = filter;
+            this.groups = new TreeMap<>();
+            this.accepted = new BitSet();
+        }
+
+        /**
+         * Indexes the rows from the last indexed up to {@code to}, adding
+         * the accepted ones to {@code added} if not null.
+         */
+        void update(int to, List<SearchResult> added) {
+            for (int row = indexed; row < to; row++) {
+                SearchResult sr = table.get(row);
+                if (filter.accept(sr)) {
+                    FilterKey key = filter.key(sr);
+                    SearchGroup group = groups.get(key);
+                    if (group == null) {
+                        group = new SearchGroup(table, filter);
+                        groups.put(key, group);
+                    }
+                    group.add(row);
+                    accepted.set(row);
+                    if (added != null) {
+                        added.add(sr);
+                    }
+                }
+            }
+            indexed = Math.max(indexed, to);
         }
     }
 }
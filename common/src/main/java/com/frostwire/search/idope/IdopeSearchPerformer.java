@@ -18,6 +18,7 @@
 package com.frostwire.search.idope;
 
 import com.frostwire.regex.Pattern;
+import com.frostwire.search.PageMarker;
 import com.frostwire.search.SearchMatcher;
 import com.frostwire.search.torrent.TorrentSearchPerformer;
 import com.frostwire.util.Logger;
@@ -28,17 +29,27 @@ import java.util.Collections;
 import java.util.List;
 
 public class IdopeSearchPerformer extends TorrentSearchPerformer {
+    private static final String SEARCH_RESULTS_REGEX = "(?is)<img class=\"resultdivtopimg\".*?" +
+            "<a href=\"/torrent/(?<keyword>.*?)/(?<infohash>.*?)/\".*?" +
+            "<div  class=\"resultdivtopname\" >[\n][\\s|\t]+(?<filename>.*?)</div>.*?" +
+            "<div class=\"resultdivbottontime\">(?<age>.*?)</div>.*?" +
+            "<div class=\"resultdivbottonlength\">(?<filesize>.*?)\\p{Z}(?<unit>.*?)</div>.*?" +
+            "<div class=\"resultdivbottonseed\">(?<seeds>.*?)</div>";
     private static final Logger LOG = Logger.getLogger(IdopeSearchPerformer.class);
+    private static final PageMarker HTML_PREFIX_MARKER = new PageMarker("<div id=\"div2child\">");
+    private static final PageMarker HTML_SUFFIX_MARKER = new PageMarker("<div id=\"rightdiv\">");
     private final Pattern pattern;
 
     public IdopeSearchPerformer(long token, String keywords, int timeout) {
+        this(token, keywords, timeout, Pattern.Engine.JDK);
+    }
+
+    /**
+     * @param engine the engine to compile the results pattern with
+     */
+    public IdopeSearchPerformer(long token, String keywords, int timeout, Pattern.Engine engine) {
         super("idope.se", token, keywords, timeout, 1, 1);
-        pattern = Pattern.compile("(?is)<img class=\"resultdivtopimg\".*?" +
-                "<a href=\"/torrent/(?<keyword>.*?)/(?<infohash>.*?)/\".*?" +
-                "<div  class=\"resultdivtopname\" >[\n][\\s|\t]+(?<filename>.*?)</div>.*?" +
-                "<div class=\"resultdivbottontime\">(?<age>.*?)</div>.*?" +
-                "<div class=\"resultdivbottonlength\">(?<filesize>.*?)\\p{Z}(?<unit>.*?)</div>.*?" +
-                "<div class=\"resultdivbottonseed\">(?<seeds>.*?)</div>");
+        pattern = Pattern.compile(SEARCH_RESULTS_REGEX, engine);
     }
 
     @Override
@@ -63,15 +74,13 @@ public class IdopeSearchPerformer extends TorrentSearchPerformer {
             return Collections.emptyList();
         }
 
-        final String HTML_PREFIX_MARKER = "<div id=\"div2child\">";
-        int htmlPrefixIndex = page.indexOf(HTML_PREFIX_MARKER) + HTML_PREFIX_MARKER.length();
-        final String HTML_SUFFIX_MARKER = "<div id=\"rightdiv\">";
-        int htmlSuffixIndex = page.indexOf(HTML_SUFFIX_MARKER);
+        int htmlPrefixIndex = HTML_PREFIX_MARKER.indexIn(page) + HTML_PREFIX_MARKER.marker().length();
+        int htmlSuffixIndex = HTML_SUFFIX_MARKER.indexIn(page);
 
-        String reducedHtml = page.substring(htmlPrefixIndex, htmlSuffixIndex > 0 ? htmlSuffixIndex : page.length() - htmlPrefixIndex);
+        int htmlEndIndex = htmlSuffixIndex > 0 ? htmlSuffixIndex : page.length() - htmlPrefixIndex;
 
         ArrayList<IdopeSearchResult> results = new ArrayList<>(0);
-        SearchMatcher matcher = new SearchMatcher((pattern.matcher(reducedHtml)));
+        SearchMatcher matcher = new SearchMatcher(pattern.matcher(page, htmlPrefixIndex, htmlEndIndex));
         boolean matcherFound;
         int MAX_RESULTS = 10;
         do {
@@ -20,12 +20,13 @@ package com.frostwire.search.idope;
 import com.frostwire.search.torrent.AbstractTorrentSearchResult;
 import com.frostwire.util.HtmlManipulator;
 import com.frostwire.util.UrlUtils;
+import org.apache.commons.io.FilenameUtils;
 
 public final class IdopeSearchResult extends AbstractTorrentSearchResult {
     private final String filename;
     private final String displayName;
     private final String detailsUrl;
-    private final String torrentUrl;
+    private final String trackers;
     private final String infoHash;
     private final double size;
     private final long creationTime;
@@ -46,7 +47,7 @@ public final class IdopeSearchResult extends AbstractTorrentSearchResult {
         this.size = parseSize(fileSizeMagnitude + " " + fileSizeUnit);
         this.creationTime = parseCreationTime(ageString);
         this.seeds = seeds;
-        this.torrentUrl = UrlUtils.buildMagnetUrl(infoHash, filename, trackers);
+        this.trackers = trackers;
     }
 
     @Override
@@ -91,7 +92,8 @@ public final class IdopeSearchResult extends AbstractTorrentSearchResult {
 
     @Override
     public String getTorrentUrl() {
-        return torrentUrl;
+        // derived, not to keep a copy of the trackers in every result
+        return UrlUtils.buildMagnetUrl(infoHash, FilenameUtils.removeExtension(filename), trackers);
     }
 
     private long parseCreationTime(String dateString) {
@@ -18,6 +18,7 @@
 package com.frostwire.search.limetorrents;
 
 import com.frostwire.regex.Pattern;
+import com.frostwire.search.PageMarker;
 import com.frostwire.search.SearchMatcher;
 import com.frostwire.search.torrent.TorrentSearchPerformer;
 import com.frostwire.util.Logger;
@@ -30,6 +31,8 @@ import java.util.List;
  */
 public class LimeTorrentsSearchPerformer extends TorrentSearchPerformer {
     private static Logger LOG = Logger.getLogger(LimeTorrentsSearchPerformer.class);
+    private static final PageMarker HTML_PREFIX_MARKER = new PageMarker("Health</th>");
+    private static final PageMarker HTML_SUFFIX_MARKER = new PageMarker("Next page");
     private final Pattern pattern;
     private static final String SEARCH_RESULT_PAGE_REGEX =
             "(?is)<div class=\"tt-name\"><a href=\"http://itorrents.org/torrent/(?<infohash>.*?)\\.torrent\\?title=(?<filename>.*?)\" rel=\"nofollow\" class=\"csprite_dl14\"></a>" +
@@ -39,8 +42,12 @@ public class LimeTorrentsSearchPerformer extends TorrentSearchPerformer {
                     "<td class=\"tdseed\">(?<seeds>.*?)</td>.*?";
 
     public LimeTorrentsSearchPerformer(String domainName, long token, String keywords, int timeout) {
+        this(domainName, token, keywords, timeout, Pattern.Engine.JDK);
+    }
+
+    public LimeTorrentsSearchPerformer(String domainName, long token, String keywords, int timeout, Pattern.Engine engine) {
         super(domainName, token, keywords, timeout, 1, 1);
-        pattern = Pattern.compile(SEARCH_RESULT_PAGE_REGEX);
+        pattern = Pattern.compile(SEARCH_RESULT_PAGE_REGEX, engine);
     }
 
     @Override
@@ -51,14 +58,12 @@ public class LimeTorrentsSearchPerformer extends TorrentSearchPerformer {
 
     @Override
     protected List<LimeTorrentsSearchResult> searchPage(String page) {
-        final String HTML_PREFIX_MARKER = "Health</th>";
-        int htmlPrefixIndex = page.indexOf(HTML_PREFIX_MARKER) + HTML_PREFIX_MARKER.length();
-        final String HTML_SUFFIX_MARKER = "Next page";
-        int htmlSuffixIndex = page.indexOf(HTML_SUFFIX_MARKER);
-        String reducedHtml = page.substring(htmlPrefixIndex, htmlSuffixIndex > 0 ? htmlSuffixIndex : page.length() - htmlPrefixIndex);
+        int htmlPrefixIndex = HTML_PREFIX_MARKER.indexIn(page) + HTML_PREFIX_MARKER.marker().length();
+        int htmlSuffixIndex = HTML_SUFFIX_MARKER.indexIn(page);
+        int htmlEndIndex = htmlSuffixIndex > 0 ? htmlSuffixIndex : page.length() - htmlPrefixIndex;
 
         ArrayList<LimeTorrentsSearchResult> results = new ArrayList<>(0);
-        SearchMatcher matcher = new SearchMatcher((pattern.matcher(reducedHtml)));
+        SearchMatcher matcher = new SearchMatcher(pattern.matcher(page, htmlPrefixIndex, htmlEndIndex));
         boolean matcherFound;
         int MAX_RESULTS = 50;
         do {
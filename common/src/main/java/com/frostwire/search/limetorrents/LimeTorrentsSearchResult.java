@@ -20,6 +20,7 @@ package com.frostwire.search.limetorrents;
 import com.frostwire.search.torrent.AbstractTorrentSearchResult;
 import com.frostwire.util.HtmlManipulator;
 import com.frostwire.util.UrlUtils;
+import org.apache.commons.io.FilenameUtils;
 
 import java.text.SimpleDateFormat;
 import java.util.Locale;
@@ -32,7 +33,6 @@ public final class LimeTorrentsSearchResult extends AbstractTorrentSearchResult
     private final String filename;
     private final String displayName;
     private final String detailsUrl;
-    private final String torrentUrl;
     private final String infoHash;
     private final double size;
     private final long creationTime;
@@ -52,7 +52,6 @@ public final class LimeTorrentsSearchResult extends AbstractTorrentSearchResult
         this.size = parseSize(fileSize + " " + unit);
         this.creationTime = parseAgeString(age);
         this.seeds = parseSeeds(seeds);
-        this.torrentUrl = UrlUtils.buildMagnetUrl(infoHash, filename, UrlUtils.USUAL_TORRENT_TRACKERS_MAGNET_URL_PARAMETERS);
         this.displayName = title;
     }
 
@@ -98,7 +97,8 @@ public final class LimeTorrentsSearchResult extends AbstractTorrentSearchResult
 
     @Override
     public String getTorrentUrl() {
-        return torrentUrl;
+        // derived, not to keep a copy of the trackers in every result
+        return UrlUtils.buildMagnetUrl(infoHash, FilenameUtils.removeExtension(filename), UrlUtils.USUAL_TORRENT_TRACKERS_MAGNET_URL_PARAMETERS);
     }
 
     private String parseFileName(String decodedFileName) {
@@ -18,6 +18,7 @@
 package com.frostwire.search.magnetdl;
 
 import com.frostwire.regex.Pattern;
+import com.frostwire.search.PageMarker;
 import com.frostwire.search.SearchMatcher;
 import com.frostwire.search.limetorrents.LimeTorrentsSearchResult;
 import com.frostwire.search.torrent.TorrentSearchPerformer;
@@ -31,6 +32,8 @@ import java.util.List;
  */
 public class MagnetDLSearchPerformer extends TorrentSearchPerformer {
     private static Logger LOG = Logger.getLogger(MagnetDLSearchPerformer.class);
+    private static final PageMarker HTML_PREFIX_MARKER = new PageMarker("<tbody>");
+    private static final PageMarker HTML_SUFFIX_MARKER = new PageMarker("<td id=\"pages\"");
     private final Pattern pattern;
     private static final String SEARCH_RESULT_PAGE_REGEX =
             "(?is)<td class=\"m\"><a href=\"(?<magnet>.*?)\" title=.*?<img.*?</td>" +
@@ -40,8 +43,12 @@ public class MagnetDLSearchPerformer extends TorrentSearchPerformer {
                     "<td class=\"s\">(?<seeds>.*?)</td>";//.*</td><tr><td class=\"d\" colspan=\"8\"></td></tr>";
 
     public MagnetDLSearchPerformer(long token, String keywords, int timeout) {
+        this(token, keywords, timeout, Pattern.Engine.JDK);
+    }
+
+    public MagnetDLSearchPerformer(long token, String keywords, int timeout, Pattern.Engine engine) {
         super("www.magnetdl.com", token, keywords, timeout, 1, 1);
-        pattern = Pattern.compile(SEARCH_RESULT_PAGE_REGEX);
+        pattern = Pattern.compile(SEARCH_RESULT_PAGE_REGEX, engine);
     }
 
     @Override
@@ -52,15 +59,13 @@ public class MagnetDLSearchPerformer extends TorrentSearchPerformer {
 
     @Override
     protected List<MagnetDLSearchResult> searchPage(String page) {
-        final String HTML_PREFIX_MARKER = "<tbody>";
-        int htmlPrefixIndex = page.indexOf(HTML_PREFIX_MARKER) + HTML_PREFIX_MARKER.length();
-        final String HTML_SUFFIX_MARKER = "<td id=\"pages\"";
-        int htmlSuffixIndex = page.indexOf(HTML_SUFFIX_MARKER);
+        int htmlPrefixIndex = HTML_PREFIX_MARKER.indexIn(page) + HTML_PREFIX_MARKER.marker().length();
+        int htmlSuffixIndex = HTML_SUFFIX_MARKER.indexIn(page);
 
-        String reducedHtml = page.substring(htmlPrefixIndex, htmlSuffixIndex > 0 ? htmlSuffixIndex : page.length() - htmlPrefixIndex);
+        int htmlEndIndex = htmlSuffixIndex > 0 ? htmlSuffixIndex : page.length() - htmlPrefixIndex;
 
         ArrayList<MagnetDLSearchResult> results = new ArrayList<>(0);
-        SearchMatcher matcher = new SearchMatcher((pattern.matcher(reducedHtml)));
+        SearchMatcher matcher = new SearchMatcher(pattern.matcher(page, htmlPrefixIndex, htmlEndIndex));
         boolean matcherFound;
         int MAX_RESULTS = 50;
         do {
@@ -79,7 +84,7 @@ public class MagnetDLSearchPerformer extends TorrentSearchPerformer {
             } else {
                 LOG.warn("LimeTorrentsSearchPerformer::searchPage(String page): search matcher broken. Please notify at https://github.com/frostwire/frostwire/issues/new");
                 LOG.warn("========");
-                LOG.warn(reducedHtml);
+                LOG.warn(page.substring(htmlPrefixIndex, htmlEndIndex));
                 LOG.warn("========");
             }
         } while (matcherFound && !isStopped() && results.size() <= MAX_RESULTS);
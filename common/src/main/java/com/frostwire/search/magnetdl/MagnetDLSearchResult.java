@@ -31,7 +31,7 @@ public final class MagnetDLSearchResult extends AbstractTorrentSearchResult {
     private final String filename;
     private final String displayName;
     private final String detailsUrl;
-    private final String torrentUrl;
+    private final String magnet;
     private final String infoHash;
     private final double size;
     private final long creationTime;
@@ -45,7 +45,7 @@ public final class MagnetDLSearchResult extends AbstractTorrentSearchResult {
                              String seeds,
                              String title) {
         this.detailsUrl = detailsUrl;
-        this.torrentUrl = magnet + "&" + UrlUtils.USUAL_TORRENT_TRACKERS_MAGNET_URL_PARAMETERS;
+        this.magnet = magnet;
         this.infoHash = magnet.substring(20,60);
         this.filename = parseFileName(title);
         this.size = parseSize(fileSize + " " + unit);
@@ -96,7 +96,8 @@ public final class MagnetDLSearchResult extends AbstractTorrentSearchResult {
 
     @Override
     public String getTorrentUrl() {
-        return torrentUrl;
+        // derived, not to keep a copy of the trackers in every result
+        return magnet + "&" + UrlUtils.USUAL_TORRENT_TRACKERS_MAGNET_URL_PARAMETERS;
     }
 
     private String parseFileName(String decodedFileName) {
@@ -18,6 +18,7 @@
 package com.frostwire.search.nyaa;
 
 import com.frostwire.regex.Pattern;
+import com.frostwire.search.PageMarker;
 import com.frostwire.search.SearchMatcher;
 import com.frostwire.search.torrent.TorrentSearchPerformer;
 import com.frostwire.util.Logger;
@@ -27,21 +28,31 @@ import java.util.Collections;
 import java.util.List;
 
 public class NyaaSearchPerformer extends TorrentSearchPerformer {
+    private static final String SEARCH_RESULTS_REGEX =
+            "(?is)<tr class=\"default\">.*?" +
+                    "<img src=\"(?<thumbnailurl>.*?)\" alt=.*?" +
+                    "<a href=\".*?\" class=\"comments\" title=\".*?\">.*?<i class=\"fa fa-comments-o\"></i>.*?" +
+                    "<a href=\"(?<detailsurl>.*?)\" title=\"(?<displayname>.*?)\">.*?<td class=\"text-center\">.*?" +
+                    "<a href=\"(?<torrenturl>.*?)\"><i class=\"fa fa-fw fa-download\"></i></a>.*?" +
+                    "<a href=\"(?<magneturl>.*?)\"><i class=\"fa fa-fw fa-magnet\"></i></a>.*?" +
+                    "<td class=\"text-center\">(?<filesize>.*?)</td>.*?" +
+                    "<td class=\"text-center\" data-timestamp=\"(?<timestamp>.*?)\">.*?" +
+                    "<td class=\"text-center\">(?<seeds>.*?)</td>";
     private static Logger LOG = Logger.getLogger(NyaaSearchPerformer.class);
+    private static final PageMarker RESULTS_START = new PageMarker("</thead>");
     private final Pattern pattern;
 
     public NyaaSearchPerformer(String domainName, long token, String keywords, int timeout) {
+        this(domainName, token, keywords, timeout, Pattern.Engine.JDK);
+    }
+
+    /**
+     * @param engine the engine of the results pattern, {@link Pattern.Engine#JDK}
+     *               in the searches
+     */
+    public NyaaSearchPerformer(String domainName, long token, String keywords, int timeout, Pattern.Engine engine) {
         super(domainName, token, keywords, timeout, 1, 1);
-        pattern = Pattern.compile(
-                "(?is)<tr class=\"default\">.*?" +
-                        "<img src=\"(?<thumbnailurl>.*?)\" alt=.*?" +
-                        "<a href=\".*?\" class=\"comments\" title=\".*?\">.*?<i class=\"fa fa-comments-o\"></i>.*?" +
-                        "<a href=\"(?<detailsurl>.*?)\" title=\"(?<displayname>.*?)\">.*?<td class=\"text-center\">.*?" +
-                        "<a href=\"(?<torrenturl>.*?)\"><i class=\"fa fa-fw fa-download\"></i></a>.*?" +
-                        "<a href=\"(?<magneturl>.*?)\"><i class=\"fa fa-fw fa-magnet\"></i></a>.*?" +
-                        "<td class=\"text-center\">(?<filesize>.*?)</td>.*?" +
-                        "<td class=\"text-center\" data-timestamp=\"(?<timestamp>.*?)\">.*?" +
-                        "<td class=\"text-center\">(?<seeds>.*?)</td>");
+        pattern = Pattern.compile(SEARCH_RESULTS_REGEX, engine);
     }
 
     @Override
@@ -54,12 +65,12 @@ public class NyaaSearchPerformer extends TorrentSearchPerformer {
         if (null == page || page.isEmpty()) {
             return Collections.emptyList();
         }
-        int offset = page.indexOf("</thead>");
+        int offset = RESULTS_START.indexIn(page);
         if (offset == -1) {
             offset = 0;
         }
         ArrayList<NyaaSearchResult> results = new ArrayList<>(0);
-        SearchMatcher matcher = new SearchMatcher((pattern.matcher(page.substring(offset))));
+        SearchMatcher matcher = new SearchMatcher(pattern.matcher(page, offset, page.length()));
         boolean matcherFound;
         int MAX_RESULTS = 75;
         do {
@@ -18,6 +18,7 @@
 package com.frostwire.search.one337x;
 
 import com.frostwire.search.CrawlableSearchResult;
+import com.frostwire.search.PageMarker;
 import com.frostwire.search.SearchMatcher;
 import com.frostwire.search.torrent.TorrentRegexSearchPerformer;
 
@@ -38,6 +39,8 @@ public final class One337xSearchPerformer extends TorrentRegexSearchPerformer<On
 
 
     private static final int MAX_RESULTS = 20;
+    private static final PageMarker DETAILS_START = new PageMarker("<div class=\"col-9 page-content\">");
+    private static final PageMarker DETAILS_END = new PageMarker("<div class=\"torrent-detail-info\"");
 
     public One337xSearchPerformer(String domainName, long token, String keywords, int timeout) {
         super(domainName, token, keywords, timeout, 1, 2 * MAX_RESULTS, MAX_RESULTS, SEARCH_RESULTS_REGEX, TORRENT_DETAILS_PAGE_REGEX);
@@ -68,13 +71,13 @@ public final class One337xSearchPerformer extends TorrentRegexSearchPerformer<On
 
     @Override
     protected int htmlPrefixOffset(String html) {
-        int offset = html.indexOf("<div class=\"col-9 page-content\">");
+        int offset = DETAILS_START.indexIn(html);
         return offset > 0 ? offset : 0;
     }
 
     @Override
     protected int htmlSuffixOffset(String html) {
-        int offset = html.indexOf("<div class=\"torrent-detail-info\"");
+        int offset = DETAILS_END.indexIn(html);
         return offset > 0 ? offset : html.length();
     }
 
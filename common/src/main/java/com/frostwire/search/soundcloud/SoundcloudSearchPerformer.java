@@ -18,9 +18,14 @@
 package com.frostwire.search.soundcloud;
 
 import com.frostwire.search.PagedWebSearchPerformer;
+import com.frostwire.search.SearchPerformer;
 import com.frostwire.search.SearchResult;
 import com.frostwire.util.JsonUtils;
+import com.frostwire.util.Logger;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 
+import java.io.IOException;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -29,6 +34,7 @@ import java.util.List;
  * @author aldenml
  */
 public final class SoundcloudSearchPerformer extends PagedWebSearchPerformer {
+    private static final Logger LOG = Logger.getLogger(SoundcloudSearchPerformer.class);
     private static final String SOUNDCLOUD_CLIENTID = "2jUTjsICrENhnUCdVvlwCRuI6bAEGqAJ";
     private static final String SOUNDCLOUD_APP_VERSION = "1598011448";
 
@@ -43,32 +49,9 @@ public final class SoundcloudSearchPerformer extends PagedWebSearchPerformer {
     public static LinkedList<SoundcloudSearchResult> fromJson(String json, boolean fromPastedUrl) {
         LinkedList<SoundcloudSearchResult> r = new LinkedList<>();
         if (json.contains("\"collection\":")) {
-            SoundcloudResponse obj = JsonUtils.toObject(json, SoundcloudResponse.class);
-            if (obj != null && obj.collection != null) {
-                for (SoundcloudItem item : obj.collection) {
-                    if (item != null && item.isValidSearchResult(fromPastedUrl)) {
-                        try {
-                            SoundcloudSearchResult sr = new SoundcloudSearchResult(item, SOUNDCLOUD_CLIENTID, SOUNDCLOUD_APP_VERSION);
-                            r.add(sr);
-                        } catch (Throwable ignored) {
-                        }
-                    }
-                }
-            }
+            readItems(JsonUtils.newReader(json), "collection", fromPastedUrl, null, r);
         } else if (json.contains("\"tracks\":")) {
-            SoundcloudPlaylist obj = JsonUtils.toObject(json, SoundcloudPlaylist.class);
-            if (obj != null && obj.tracks != null) {
-                for (SoundcloudItem item : obj.tracks) {
-                    if (item != null && item.isValidSearchResult(fromPastedUrl)) {
-                        try {
-                            SoundcloudSearchResult sr = new SoundcloudSearchResult(item, SOUNDCLOUD_CLIENTID, SOUNDCLOUD_APP_VERSION);
-                            r.add(sr);
-                        } catch (Throwable ignored) {
-                            ignored.printStackTrace();
-                        }
-                    }
-                }
-            }
+            readItems(JsonUtils.newReader(json), "tracks", fromPastedUrl, null, r);
         } else { // assume it's a single item
             SoundcloudItem item = JsonUtils.toObject(json, SoundcloudItem.class);
             if (item != null && item.isValidSearchResult(fromPastedUrl)) {
@@ -79,6 +62,34 @@ public final class SoundcloudSearchPerformer extends PagedWebSearchPerformer {
         return r;
     }
 
+    /**
+     * Reads the items of the array property of the response one at a time,
+     * the rest of the response is skipped, not bound. A malformed response
+     * ends the reading, the items read so far are kept.
+     *
+     * @param performer if not {@code null}, the reading ends when it's stopped
+     */
+    private static void readItems(JsonReader reader, String arrayName, boolean fromPastedUrl, SearchPerformer performer, List<? super SoundcloudSearchResult> out) {
+        try {
+            if (!JsonUtils.findProperty(reader, arrayName) || reader.peek() != JsonToken.BEGIN_ARRAY) {
+                return;
+            }
+            reader.beginArray();
+            while (reader.hasNext() && (performer == null || !performer.isStopped())) {
+                SoundcloudItem item = JsonUtils.toObject(reader, SoundcloudItem.class);
+                if (item != null && item.isValidSearchResult(fromPastedUrl)) {
+                    try {
+                        out.add(new SoundcloudSearchResult(item, SOUNDCLOUD_CLIENTID, SOUNDCLOUD_APP_VERSION));
+                    } catch (Throwable e) {
+                        LOG.warn("Error creating search result from item: " + e.getMessage());
+                    }
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            LOG.warn("Error reading soundcloud response: " + e.getMessage());
+        }
+    }
+
     @Override
     protected String getUrl(int page, String encodedKeywords) {
         return "https://api-v2.soundcloud.com/search/tracks?q=" + encodedKeywords + "&limit=50&offset=0&client_id=" + SOUNDCLOUD_CLIENTID;
@@ -87,16 +98,7 @@ public final class SoundcloudSearchPerformer extends PagedWebSearchPerformer {
     @Override
     protected List<? extends SearchResult> searchPage(String page) {
         List<SearchResult> result = new LinkedList<>();
-        SoundcloudResponse obj = JsonUtils.toObject(page, SoundcloudResponse.class);
-        // can't use fromJson here due to the isStopped call
-        if (obj != null && obj.collection != null) {
-            for (SoundcloudItem item : obj.collection) {
-                if (!isStopped() && item != null && item.isValidSearchResult()) {
-                    SoundcloudSearchResult sr = new SoundcloudSearchResult(item, SOUNDCLOUD_CLIENTID, SOUNDCLOUD_APP_VERSION);
-                    result.add(sr);
-                }
-            }
-        }
+        readItems(JsonUtils.newReader(page), "collection", false, this, result);
         return result;
     }
 }
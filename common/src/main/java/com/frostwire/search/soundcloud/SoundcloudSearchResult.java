@@ -44,6 +44,8 @@ public final class SoundcloudSearchResult extends AbstractFileSearchResult imple
     private final long date;
     private String downloadUrl;
     private final String progressiveFormatJSONFetcherURL;
+    private final String clientId;
+    private final String appVersion;
     private final double size;
     private String hash;
 
@@ -60,11 +62,10 @@ public final class SoundcloudSearchResult extends AbstractFileSearchResult imple
         }
         this.thumbnailUrl = buildThumbnailUrl(item.artwork_url != null ? item.artwork_url : userAvatarUrl);
         this.date = buildDate(item.created_at);
-        if (null != item.getProgressiveFormatJSONFetcherURL()) {
-            this.progressiveFormatJSONFetcherURL = item.getProgressiveFormatJSONFetcherURL() + "?client_id=" + clientId + "&app_version=" + appVersion;
-        } else {
-            this.progressiveFormatJSONFetcherURL = null;
-        }
+        // the query is added when fetched, the client id and version are the same for all
+        this.progressiveFormatJSONFetcherURL = item.getProgressiveFormatJSONFetcherURL();
+        this.clientId = clientId;
+        this.appVersion = appVersion;
         this.hash = Integer.toHexString(item.id * 953 * 631);
         this.downloadUrl = null;
     }
@@ -138,7 +139,7 @@ public final class SoundcloudSearchResult extends AbstractFileSearchResult imple
 
         HttpClient client = HttpClientFactory.getInstance(HttpClientFactory.HttpContext.DOWNLOAD);
         try {
-            String json = client.get(progressiveFormatJSONFetcherURL);
+            String json = client.get(progressiveFormatJSONFetcherURL + "?client_id=" + clientId + "&app_version=" + appVersion);
             SoundcloudTrackURL soundcloudTrackURL = JsonUtils.toObject(json, SoundcloudTrackURL.class);
             if (soundcloudTrackURL != null && soundcloudTrackURL.url != null) {
                 return soundcloudTrackURL.url;
@@ -152,7 +153,7 @@ public final class SoundcloudSearchResult extends AbstractFileSearchResult imple
 
     private String buildUsername(SoundcloudItem item) {
         if (item.user != null && item.user.username != null) {
-            return item.user.username;
+            return intern(item.user.username);
         } else {
             return "";
         }
@@ -167,7 +168,7 @@ public final class SoundcloudSearchResult extends AbstractFileSearchResult imple
 
     private String buildSource(SoundcloudItem item) {
         if (item.user != null && item.user.username != null) {
-            return "Soundcloud - " + item.user.username;
+            return intern("Soundcloud - " + item.user.username);
         } else {
             return "Soundcloud";
         }
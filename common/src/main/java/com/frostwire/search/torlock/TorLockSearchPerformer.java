@@ -18,6 +18,7 @@
 package com.frostwire.search.torlock;
 
 import com.frostwire.search.CrawlableSearchResult;
+import com.frostwire.search.PageMarker;
 import com.frostwire.search.SearchMatcher;
 import com.frostwire.search.torrent.TorrentRegexSearchPerformer;
 
@@ -27,6 +28,8 @@ import com.frostwire.search.torrent.TorrentRegexSearchPerformer;
  */
 public final class TorLockSearchPerformer extends TorrentRegexSearchPerformer<TorLockSearchResult> {
     private static final int MAX_RESULTS = 15;
+    private static final PageMarker DETAILS_START = new PageMarker("SIGN UP</a>");
+    private static final PageMarker DETAILS_END = new PageMarker(">Description</a></li>");
     private static final String REGEX = "(?is)<a href=/torrent/([0-9]*?/.*?\\.html)>";
     private static final String HTML_REGEX = "(?is)<a href=\"/tor/(?<torrentid>.*?).torrent\".*?" +
             "<dt>NAME</dt>.?<dd>(?<filename>.*?).torrent</dd>.*?" +
@@ -53,13 +56,13 @@ public final class TorLockSearchPerformer extends TorrentRegexSearchPerformer<To
 
     @Override
     protected int htmlPrefixOffset(String html) {
-        int offset = html.indexOf("SIGN UP</a>");
+        int offset = DETAILS_START.indexIn(html);
         return offset > 0 ? offset : 0;
     }
 
     @Override
     protected int htmlSuffixOffset(String html) {
-        int offset = html.indexOf(">Description</a></li>");
+        int offset = DETAILS_END.indexIn(html);
         return offset > 0 ? offset : 0;
     }
 
@@ -39,7 +39,6 @@ public final class TorLockSearchResult extends AbstractTorrentSearchResult {
     private final String filename;
     private final String displayName;
     private final String detailsUrl;
-    private final String torrentUrl;
     private final String infoHash;
     private final double size;
     private final long creationTime;
@@ -52,7 +51,6 @@ public final class TorLockSearchResult extends AbstractTorrentSearchResult {
         this.size = parseSize(matcher.group("filesize"));
         this.creationTime = parseCreationTime(matcher.group("time"));
         this.seeds = parseSeeds(matcher.group("seeds"));
-        this.torrentUrl = UrlUtils.buildMagnetUrl(infoHash, filename, UrlUtils.USUAL_TORRENT_TRACKERS_MAGNET_URL_PARAMETERS);
         this.displayName = HtmlManipulator.replaceHtmlEntities(FilenameUtils.getBaseName(filename));
     }
 
@@ -98,7 +96,8 @@ public final class TorLockSearchResult extends AbstractTorrentSearchResult {
 
     @Override
     public String getTorrentUrl() {
-        return torrentUrl;
+        // derived, not to keep a copy of the trackers in every result
+        return UrlUtils.buildMagnetUrl(infoHash, filename, UrlUtils.USUAL_TORRENT_TRACKERS_MAGNET_URL_PARAMETERS);
     }
 
     private String parseFileName(String urlEncodedFileName, String fallbackName) {
@@ -0,0 +1,89 @@
+/*
+ * Created by Angel Leon (@gubatron), Alden Torres (aldenml)
+ * Copyright (c) 2011-2020, FrostWire(R). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.frostwire.search.torrent;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The results of a search with the same infohash, usually the same torrent
+ * returned by several engines. Only the first one is delivered to the
+ * listeners and crawled, the others are only counted here, for the highest
+ * seeds and all the sources the UI shows with it. No result is kept.
+ *
+ * @author gubatron
+ * @author aldenml
+ */
+public final class MergedTorrent {
+
+    private final String hash;
+    private final Set<String> sources;
+    private int count;
+    private int seeds;
+
+    public MergedTorrent(String hash) {
+        this.hash = hash;
+        this.sources = new LinkedHashSet<>(2);
+        this.seeds = -1;
+    }
+
+    public String getHash() {
+        return hash;
+    }
+
+    /**
+     * The highest number of seeds reported by any of the sources.
+     */
+    public synchronized int getSeeds() {
+        return seeds;
+    }
+
+    public synchronized List<String> getSources() {
+        return new ArrayList<>(sources);
+    }
+
+    public synchronized int getSourceCount() {
+        return sources.size();
+    }
+
+    /**
+     * The number of results found for this torrent, the delivered one and
+     * the duplicates.
+     */
+    public synchronized int size() {
+        return count;
+    }
+
+    /**
+     * @return {@code true} if this is the first result of the torrent, the
+     * one to deliver
+     */
+    public synchronized boolean add(TorrentSearchResult sr) {
+        count++;
+        sources.add(sr.getSource());
+        seeds = Math.max(seeds, sr.getSeeds());
+        return count == 1;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "MergedTorrent(hash=" + hash + ", seeds=" + seeds + ", sources=" + sources + ")";
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Created by Angel Leon (@gubatron), Alden Torres (aldenml)
+ * Copyright (c) 2011-2020, FrostWire(R). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.frostwire.search.torrent;
+
+import com.frostwire.bittorrent.TorrentMetadata;
+import com.frostwire.jlibtorrent.FileStorage;
+import com.frostwire.jlibtorrent.TorrentInfo;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * The files of a crawled torrent (but the pad files) as a list of
+ * {@link TorrentCrawledSearchResult}, all of them sharing this index.
+ * <p>
+ * A result is a small view, the torrent and the index of the file, made
+ * when the list is read, and its path, name and size are read from the
+ * torrent the first time they are asked for. A torrent with thousands of
+ * files costs an {@code int} per file until the results are used, and
+ * the ones dropped by the filters never read their strings.
+ *
+ * @author gubatron
+ * @author aldenml
+ */
+public abstract class TorrentCrawledFiles extends AbstractList<TorrentCrawledSearchResult> implements RandomAccess {
+    private final TorrentCrawlableSearchResult parent;
+    // indexes in the torrent of the files in this list
+    private final int[] indexes;
+
+    TorrentCrawledFiles(TorrentCrawlableSearchResult parent, int[] indexes) {
+        this.parent = parent;
+        this.indexes = indexes;
+    }
+
+    /**
+     * The files of the torrent, read from the {@link FileStorage} as
+     * they are needed.
+     */
+    public static TorrentCrawledFiles of(TorrentCrawlableSearchResult parent, TorrentInfo ti) {
+        FileStorage fs = ti.files();
+        int numFiles = fs.numFiles();
+        int[] indexes = new int[numFiles];
+        int n = 0;
+        for (int i = 0; i < numFiles; i++) {
+            // TODO: Check for the hidden attribute
+            if (!fs.padFileAt(i)) {
+                indexes[n++] = i;
+            }
+        }
+        return new Native(parent, n < numFiles ? Arrays.copyOf(indexes, n) : indexes, ti, fs);
+    }
+
+    /**
+     * The files of the torrent, read in pure java by {@link TorrentMetadata},
+     * the libtorrent {@link TorrentInfo} is only decoded when asked for (to
+     * download a file).
+     *
+     * @throws IllegalArgumentException if the data is not a valid torrent
+     */
+    public static TorrentCrawledFiles of(TorrentCrawlableSearchResult parent, byte[] data) {
+        TorrentMetadata md = TorrentMetadata.parse(data);
+        int numFiles = md.numFiles();
+        int[] indexes = new int[numFiles];
+        int n = 0;
+        for (int i = 0; i < numFiles; i++) {
+            if (!md.padFileAt(i)) {
+                indexes[n++] = i;
+            }
+        }
+        return new Java(parent, n < numFiles ? Arrays.copyOf(indexes, n) : indexes, data, md);
+    }
+
+    public TorrentCrawlableSearchResult getParent() {
+        return parent;
+    }
+
+    /**
+     * A new view of the file at the given position of this list, not of
+     * the torrent (the pad files are not in the list).
+     */
+    @Override
+    public TorrentCrawledSearchResult get(int index) {
+        return new TorrentCrawledSearchResult(this, indexes[index]);
+    }
+
+    /**
+     * The path of the file at the given position of this list, read
+     * without making its view.
+     */
+    public String getFilePath(int index) {
+        return filePath(indexes[index]);
+    }
+
+    @Override
+    public int size() {
+        return indexes.length;
+    }
+
+    public abstract TorrentInfo getTorrentInfo();
+
+    abstract String filePath(int fileIndex);
+
+    abstract long fileSize(int fileIndex);
+
+    private static final class Native extends TorrentCrawledFiles {
+        private final TorrentInfo ti;
+        private final FileStorage fs;
+
+        Native(TorrentCrawlableSearchResult parent, int[] indexes, TorrentInfo ti, FileStorage fs) {
+            super(parent, indexes);
+            this.ti = ti;
+            this.fs = fs;
+        }
+
+        @Override
+        public TorrentInfo getTorrentInfo() {
+            return ti;
+        }
+
+        @Override
+        String filePath(int fileIndex) {
+            return fs.filePath(fileIndex);
+        }
+
+        @Override
+        long fileSize(int fileIndex) {
+            return fs.fileSize(fileIndex);
+        }
+    }
+
+    private static final class Java extends TorrentCrawledFiles {
+        private final byte[] data;
+        private final TorrentMetadata md;
+        private volatile TorrentInfo ti;
+
+        Java(TorrentCrawlableSearchResult parent, int[] indexes, byte[] data, TorrentMetadata md) {
+            super(parent, indexes);
+            this.data = data;
+            this.md = md;
+        }
+
+        @Override
+        public TorrentInfo getTorrentInfo() {
+            TorrentInfo info = ti;
+            if (info == null) {
+                info = TorrentInfo.bdecode(data);
+                ti = info;
+            }
+            return info;
+        }
+
+        @Override
+        String filePath(int fileIndex) {
+            return md.filePath(fileIndex);
+        }
+
+        @Override
+        long fileSize(int fileIndex) {
+            return md.fileSize(fileIndex);
+        }
+    }
+}
@@ -23,19 +23,26 @@ import com.frostwire.search.AbstractCrawledSearchResult;
 import org.apache.commons.io.FilenameUtils;
 
 /**
+ * A file of a crawled torrent. Made by {@link TorrentCrawledFiles} it's a
+ * view of the shared index of the files, the path, names and size are read
+ * on first use (a race there only reads them twice).
+ *
  * @author gubatron
  * @author aldenml
  */
 public final class TorrentCrawledSearchResult extends AbstractCrawledSearchResult<TorrentCrawlableSearchResult> implements TorrentItemSearchResult {
+    // null if made with the path and size
+    private final TorrentCrawledFiles files;
     private final TorrentInfo ti;
     private final int fileIndex;
-    private final String filePath;
-    private final String displayName;
-    private final String filename;
-    private final double size;
+    private String filePath;
+    private String displayName;
+    private String filename;
+    private volatile long size;
 
     public TorrentCrawledSearchResult(TorrentCrawlableSearchResult sr, TorrentInfo ti, int fileIndex, String filePath, long fileSize) {
         super(sr);
+        this.files = null;
         this.ti = ti;
         this.fileIndex = fileIndex;
         this.filePath = filePath;
@@ -44,8 +51,16 @@ public final class TorrentCrawledSearchResult extends AbstractCrawledSearchResul
         this.displayName = FilenameUtils.getBaseName(this.filename);
     }
 
+    TorrentCrawledSearchResult(TorrentCrawledFiles files, int fileIndex) {
+        super(files.getParent());
+        this.files = files;
+        this.ti = null;
+        this.fileIndex = fileIndex;
+        this.size = -1;
+    }
+
     public TorrentInfo getTorrentInfo() {
-        return ti;
+        return files != null ? files.getTorrentInfo() : ti;
     }
 
     public int getFileIndex() {
@@ -54,22 +69,42 @@ public final class TorrentCrawledSearchResult extends AbstractCrawledSearchResul
 
     @Override
     public String getFilePath() {
-        return filePath;
+        String path = filePath;
+        if (path == null) {
+            path = files.filePath(fileIndex);
+            filePath = path;
+        }
+        return path;
     }
 
     @Override
     public String getDisplayName() {
-        return displayName;
+        String name = displayName;
+        if (name == null) {
+            name = FilenameUtils.getBaseName(getFilename());
+            displayName = name;
+        }
+        return name;
     }
 
     @Override
     public String getFilename() {
-        return filename;
+        String name = filename;
+        if (name == null) {
+            name = FilenameUtils.getName(getFilePath());
+            filename = name;
+        }
+        return name;
     }
 
     @Override
     public double getSize() {
-        return size;
+        long s = size;
+        if (s < 0) {
+            s = files.fileSize(fileIndex);
+            size = s;
+        }
+        return s;
     }
 
     @Override
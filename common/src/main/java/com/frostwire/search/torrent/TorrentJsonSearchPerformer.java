@@ -19,16 +19,28 @@
 package com.frostwire.search.torrent;
 
 import com.frostwire.search.SearchResult;
+import com.frostwire.util.JsonUtils;
+import com.frostwire.util.Logger;
+import com.google.gson.stream.JsonReader;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.LinkedList;
 import java.util.List;
 
 /**
+ * The page is read with a streaming {@link JsonReader}, the items are
+ * bound one at a time and the rest of the response is skipped, the whole
+ * tree is never built. The items are sent sorted by seeds, all the page
+ * is read before the results are created.
+ *
  * @author gubatron
  * @author aldenml
  */
 public abstract class TorrentJsonSearchPerformer<T extends ComparableTorrentJsonItem, R extends TorrentSearchResult> extends TorrentSearchPerformer {
+    private static final Logger LOG = Logger.getLogger(TorrentJsonSearchPerformer.class);
     private static final int DEFAULT_NUM_CRAWLS = 10;
     private final Comparator<T> itemComparator;
 
@@ -43,21 +55,47 @@ public abstract class TorrentJsonSearchPerformer<T extends ComparableTorrentJson
 
     @Override
     protected final List<? extends SearchResult> searchPage(String page) {
-        List<SearchResult> result = new LinkedList<>();
-        List<T> items = parseJson(page);
-        if (items != null) {
-            items.sort(itemComparator);
-            for (T item : items) {
-                if (!isStopped()) {
-                    SearchResult sr = fromItem(item);
-                    result.add(sr);
+        List<T> items = new ArrayList<>();
+        JsonReader reader = JsonUtils.newReader(page);
+        try {
+            if (beginItems(reader)) {
+                while (reader.hasNext() && !isStopped()) {
+                    T item = readItem(reader);
+                    if (item != null) {
+                        items.add(item);
+                    }
                 }
             }
+        } catch (IOException | RuntimeException e) {
+            // malformed or truncated (a JsonParseException), keep what was read
+            LOG.warn("Error reading search page: " + e.getMessage());
+        }
+        Collections.sort(items, itemComparator);
+        List<SearchResult> result = new LinkedList<>();
+        for (T item : items) {
+            if (!isStopped()) {
+                result.add(fromItem(item));
+            }
         }
         return result;
     }
 
-    abstract List<T> parseJson(String json);
+    /**
+     * Moves the reader into the array of the items of the response, with
+     * {@link JsonUtils#findProperty(JsonReader, String)} and
+     * {@link JsonReader#beginArray()}.
+     *
+     * @return {@code false} if the response has no items
+     */
+    abstract boolean beginItems(JsonReader reader) throws IOException;
+
+    /**
+     * Reads the next item of the array, with
+     * {@link JsonUtils#toObject(JsonReader, Class)}.
+     *
+     * @return {@code null} to skip it
+     */
+    abstract T readItem(JsonReader reader) throws IOException;
 
     abstract R fromItem(T item);
 }
\ No newline at end of file
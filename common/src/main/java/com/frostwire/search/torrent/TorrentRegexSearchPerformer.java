@@ -78,14 +78,16 @@ public abstract class TorrentRegexSearchPerformer<T extends CrawlableSearchResul
             //in case we fetched a torrent's info (magnet, or the .torrent itself) to obtain 
             list.addAll(PerformersHelper.crawlTorrent(this, (TorrentCrawlableSearchResult) sr, data, detectAlbums));
         } else {
-            String unreducedHtml = new String(data, StandardCharsets.UTF_8);
-            if (!isValidHtml(unreducedHtml)) {
+            String html = new String(data, StandardCharsets.UTF_8);
+            if (!isValidHtml(html)) {
                 LOG.warn("invalid html from " + sr.getClass().getSimpleName());
                 return list;
             }
-            String html = PerformersHelper.reduceHtml(unreducedHtml, htmlPrefixOffset(unreducedHtml), htmlSuffixOffset(unreducedHtml));
-            if (html != null) {
-                Matcher matcher = htmlDetailPagePattern.matcher(html);
+            int prefixOffset = htmlPrefixOffset(html);
+            int suffixOffset = htmlSuffixOffset(html);
+            if (PerformersHelper.isValidRegion(html, prefixOffset, suffixOffset)) {
+                // only the region is matched, in place
+                Matcher matcher = htmlDetailPagePattern.matcher(html, prefixOffset, suffixOffset);
                 try {
                     // BOOKMARK: this is a good spot to put a break point in-order to test your search performer's regex
                     if (matcher.find()) {
@@ -114,7 +116,8 @@ public abstract class TorrentRegexSearchPerformer<T extends CrawlableSearchResul
      * Sometimes the TORRENT_DETAILS_PAGE_REGEX has to work on too big of an HTML file.
      * In order to minimize the chance for long backtracking times we can
      * override this methods to specify what offsets of the HTML file our
-     * SEARCH_RESULTS_REGEX should be focusing on.
+     * SEARCH_RESULTS_REGEX should be focusing on. The region is matched in
+     * place, and the offsets are best found with {@link PageMarker} constants.
      */
     protected int htmlPrefixOffset(String html) {
         return 0;
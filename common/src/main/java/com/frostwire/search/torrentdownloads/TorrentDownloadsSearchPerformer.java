@@ -19,6 +19,7 @@
 package com.frostwire.search.torrentdownloads;
 
 import com.frostwire.search.CrawlableSearchResult;
+import com.frostwire.search.PageMarker;
 import com.frostwire.search.SearchMatcher;
 import com.frostwire.search.torrent.TorrentRegexSearchPerformer;
 
@@ -27,6 +28,8 @@ import com.frostwire.search.torrent.TorrentRegexSearchPerformer;
  */
 public class TorrentDownloadsSearchPerformer extends TorrentRegexSearchPerformer<TorrentDownloadsSearchResult> {
     private static final int MAX_RESULTS = 20;
+    private static final PageMarker DETAILS_START = new PageMarker("Torrent Search Results<span>");
+    private static final PageMarker DETAILS_END = new PageMarker("<h1>RECENT SEARCHES");
     private static final String REGEX = "(?is)<a href=\"/torrent/([0-9]*?/.*?)\">*?";
     private static final String HTML_REGEX = "(?is).*?<li><a rel=\"nofollow\" href=\"http://itorrents.org/torrent/(?<torrentid>.*?).torrent?(.*?)\">.*?" +
             "<span>Name:.?</span>(?<filename>.*?)(<a.*>)?</a></p></div>.*?" +
@@ -53,13 +56,13 @@ public class TorrentDownloadsSearchPerformer extends TorrentRegexSearchPerformer
 
     @Override
     protected int htmlPrefixOffset(String html) {
-        int offset = html.indexOf("Torrent Search Results<span>");
+        int offset = DETAILS_START.indexIn(html);
         return offset > 0 ? offset : 0;
     }
 
     @Override
     protected int htmlSuffixOffset(String html) {
-        int offset = html.indexOf("<h1>RECENT SEARCHES");
+        int offset = DETAILS_END.indexIn(html);
         return offset > 0 ? offset : 0;
     }
 
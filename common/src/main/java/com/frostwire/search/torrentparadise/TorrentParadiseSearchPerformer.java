@@ -20,19 +20,21 @@ package com.frostwire.search.torrentparadise;
 import com.frostwire.search.CrawlableSearchResult;
 import com.frostwire.search.PagedWebSearchPerformer;
 import com.frostwire.search.SearchResult;
-import com.google.gson.Gson;
+import com.frostwire.util.JsonUtils;
+import com.frostwire.util.Logger;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 
+import java.io.IOException;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 
 public class TorrentParadiseSearchPerformer extends PagedWebSearchPerformer {
-    //private static final Logger LOG = Logger.getLogger(TorrentParadiseSearchPerformer.class);
-    private final Gson gson;
+    private static final Logger LOG = Logger.getLogger(TorrentParadiseSearchPerformer.class);
 
     public TorrentParadiseSearchPerformer(long token, String keywords, int timeout) {
         super("torrent-paradise.ml", token, keywords, timeout, 1);
-        gson = new Gson();
     }
 
     @Override
@@ -48,15 +50,27 @@ public class TorrentParadiseSearchPerformer extends PagedWebSearchPerformer {
             return Collections.EMPTY_LIST;
         }
 
-        TPSearchResult[] tpResults = gson.fromJson(page, TPSearchResult[].class);
-
         List<TorrentParadiseSearchResult> results = new LinkedList<>();
-        for (TPSearchResult r : tpResults) {
-            TPSearchResult r_torrent = new TPSearchResult(r);
-            r_torrent.text += ".torrent";
+        JsonReader reader = JsonUtils.newReader(page);
+        try {
+            if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+                return results;
+            }
+            reader.beginArray();
+            while (reader.hasNext() && !isStopped()) {
+                TPSearchResult r = JsonUtils.toObject(reader, TPSearchResult.class);
+                if (r == null) {
+                    continue;
+                }
+                TPSearchResult r_torrent = new TPSearchResult(r);
+                r_torrent.text += ".torrent";
 
-            results.add(new TorrentParadiseSearchResult(r));
-            results.add(new TorrentParadiseSearchResult(r_torrent));
+                results.add(new TorrentParadiseSearchResult(r));
+                results.add(new TorrentParadiseSearchResult(r_torrent));
+            }
+        } catch (IOException | RuntimeException e) {
+            // malformed or truncated (a JsonParseException), keep what was read
+            LOG.warn("Error reading search page: " + e.getMessage());
         }
         return results;
     }
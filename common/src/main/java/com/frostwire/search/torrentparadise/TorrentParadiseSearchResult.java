@@ -24,16 +24,15 @@ public class TorrentParadiseSearchResult extends AbstractTorrentSearchResult {
 
     // no need to copy each property here to each search result, reuse object reference
     private final TorrentParadiseSearchPerformer.TPSearchResult tpSearchResult;
-    private final String magnetUrl;
 
     public TorrentParadiseSearchResult(TorrentParadiseSearchPerformer.TPSearchResult paramTPSearchResult) {
         tpSearchResult = paramTPSearchResult;
-        magnetUrl = UrlUtils.buildMagnetUrl(tpSearchResult.id, tpSearchResult.text, UrlUtils.USUAL_TORRENT_TRACKERS_MAGNET_URL_PARAMETERS);
     }
 
     @Override
     public String getTorrentUrl() {
-        return magnetUrl;
+        // same for the magnet, built when asked for
+        return UrlUtils.buildMagnetUrl(tpSearchResult.id, tpSearchResult.text, UrlUtils.USUAL_TORRENT_TRACKERS_MAGNET_URL_PARAMETERS);
     }
 
     @Override
@@ -31,14 +31,23 @@ import java.util.List;
  * the search result page in a single HTTP request.
  */
 public class Torrentz2SearchPerformer extends TorrentSearchPerformer {
+    private static final String SEARCH_RESULTS_REGEX = "(?is)<dl><dt><a href='(?<infohash>[a-f0-9]{40})'>(?<filename>.*?)</a>.*?<span class='a'><span title='.*?'>(?<age>.*?)</span>.*?<span class='s'>(?<filesize>.*?) (?<unit>[BKMGTPEZY]+)</span> <span class='u'>(?<seeds>\\d+)</span><span class='d'>.*?";
     private static final Logger LOG = Logger.getLogger(Torrentz2SearchPerformer.class);
     private final Pattern pattern;
 
     public Torrentz2SearchPerformer(long token, String keywords, int timeout) {
+        this(token, keywords, timeout, Pattern.Engine.JDK);
+    }
+
+    /**
+     * @param engine the engine to compile the results pattern with, to
+     *               compare them on the same pages
+     */
+    public Torrentz2SearchPerformer(long token, String keywords, int timeout, Pattern.Engine engine) {
         //https://torrentz2.eu
         //https://torrentz2.unblockninja.com/
         super("torrentz2.unblockninja.com/", token, keywords, timeout, 1, 0);
-        pattern = Pattern.compile("(?is)<dl><dt><a href='(?<infohash>[a-f0-9]{40})'>(?<filename>.*?)</a>.*?<span class='a'><span title='.*?'>(?<age>.*?)</span>.*?<span class='s'>(?<filesize>.*?) (?<unit>[BKMGTPEZY]+)</span> <span class='u'>(?<seeds>\\d+)</span><span class='d'>.*?");
+        pattern = Pattern.compile(SEARCH_RESULTS_REGEX, engine);
     }
 
     @Override
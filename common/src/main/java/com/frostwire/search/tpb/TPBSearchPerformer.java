@@ -32,15 +32,25 @@ import java.util.List;
 public class TPBSearchPerformer extends CrawlRegexSearchPerformer<TPBSearchResult> {
     private static final int MAX_RESULTS = 20;
     private static final String REGEX = "(?is)<td class=\"vertTh\">.*?<a href=\"[^\"]*?\" title=\"More from this category\">(.*?)</a>.*?</td>.*?<a href=\"([^\"]*?)\" class=\"detLink\" title=\"Details for ([^\"]*?)\">.*?</a>.*?<a href=\\\"(magnet:\\?xt=urn:btih:.*?)\\\" title=\\\"Download this torrent using magnet\\\">.*?</a>.*?<font class=\"detDesc\">Uploaded ([^,]*?), Size (.*?), ULed.*?<td align=\"right\">(.*?)</td>\\s*<td align=\"right\">(.*?)</td>";
-    private static final Pattern PATTERN = Pattern.compile(REGEX);
+    private static final Pattern PATTERN = Pattern.compile(REGEX, Pattern.Engine.JDK);
+    private final Pattern pattern;
 
     public TPBSearchPerformer(String domainName, long token, String keywords, int timeout) {
+        this(domainName, token, keywords, timeout, PATTERN.engine());
+    }
+
+    /**
+     * The pattern is shared by the performers of the engine used in the
+     * searches, the other one compiles its own, as in the benchmarks.
+     */
+    public TPBSearchPerformer(String domainName, long token, String keywords, int timeout, Pattern.Engine engine) {
         super(domainName, token, keywords, timeout, 1, MAX_RESULTS, MAX_RESULTS);
+        pattern = engine == PATTERN.engine() ? PATTERN : Pattern.compile(REGEX, engine);
     }
 
     @Override
     public Pattern getPattern() {
-        return PATTERN;
+        return pattern;
     }
 
     @Override
@@ -18,6 +18,7 @@
 package com.frostwire.search.yify;
 
 import com.frostwire.search.CrawlableSearchResult;
+import com.frostwire.search.PageMarker;
 import com.frostwire.search.SearchMatcher;
 import com.frostwire.search.torrent.TorrentRegexSearchPerformer;
 
@@ -36,6 +37,8 @@ public final class YifySearchPerformer extends TorrentRegexSearchPerformer<YifyS
             "<dt>Seeds:</dt> <dd>(?<seeds>[0-9]+)</dd>.*?" +
             "<a href=\"(?<magnet>.*?)\" id=\"dm\" class=\"button button-default\".*?>Download Magnet</a>.*?";
     private static final int MAX_RESULTS = 21;
+    private static final PageMarker DETAILS_START = new PageMarker("<div id=\"content\"");
+    private static final PageMarker DETAILS_END = new PageMarker("<section id=\"movie_bottom\">");
 
     public YifySearchPerformer(String domainName, long token, String keywords, int timeout) {
         super(domainName, token, keywords, timeout, 1, 2 * MAX_RESULTS, MAX_RESULTS, SEARCH_RESULTS_REGEX, TORRENT_DETAILS_PAGE_REGEX);
@@ -65,13 +68,13 @@ public final class YifySearchPerformer extends TorrentRegexSearchPerformer<YifyS
 
     @Override
     protected int htmlPrefixOffset(String html) {
-        int offset = html.indexOf("<div id=\"content\"");
+        int offset = DETAILS_START.indexIn(html);
         return offset > 0 ? offset : 0;
     }
 
     @Override
     protected int htmlSuffixOffset(String html) {
-        int offset = html.indexOf("<section id=\"movie_bottom\">");
+        int offset = DETAILS_END.indexIn(html);
         return offset > 0 ? offset : html.length();
     }
     // Tests? See YifiSearchPerformerTest in tests folder for non-ui search test
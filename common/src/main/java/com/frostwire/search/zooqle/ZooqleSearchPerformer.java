@@ -18,6 +18,7 @@
 package com.frostwire.search.zooqle;
 
 import com.frostwire.search.CrawlableSearchResult;
+import com.frostwire.search.PageMarker;
 import com.frostwire.search.SearchMatcher;
 import com.frostwire.search.torrent.TorrentRegexSearchPerformer;
 
@@ -28,6 +29,10 @@ import com.frostwire.search.torrent.TorrentRegexSearchPerformer;
 public final class ZooqleSearchPerformer extends TorrentRegexSearchPerformer<ZooqleSearchResult> {
     //private static final Logger LOG = Logger.getLogger(ZooqleSearchPerformer.class);
     private static final int MAX_RESULTS = 30;
+    private static final PageMarker RESULTS_START = new PageMarker("<i class=\"spr feed\"></i>");
+    private static final PageMarker RESULTS_END = new PageMarker("Time:");
+    private static final PageMarker DETAILS_START = new PageMarker("<h4 id=\"torname\">");
+    private static final PageMarker DETAILS_END = new PageMarker("Language:");
     private static final String PRELIMINARY_RESULTS_REGEX =
             "(?is)<i class=\".*?text-muted2 zqf-small pad-r2\"></i><a class=\".*?small\" href=\"/(?<detailPath>.*?).html\">.*?</a>";
     private static final String HTML_DETAIL_REGEX =
@@ -59,12 +64,12 @@ public final class ZooqleSearchPerformer extends TorrentRegexSearchPerformer<Zoo
 
     @Override
     protected int preliminaryHtmlPrefixOffset(String page) {
-        return page.indexOf("<i class=\"spr feed\"></i>");
+        return RESULTS_START.indexIn(page);
     }
 
     @Override
     protected int preliminaryHtmlSuffixOffset(String page) {
-        int offset = page.indexOf("Time:");
+        int offset = RESULTS_END.indexIn(page);
         if (offset == -1) {
             return super.preliminaryHtmlSuffixOffset(page);
         }
@@ -73,7 +78,7 @@ public final class ZooqleSearchPerformer extends TorrentRegexSearchPerformer<Zoo
 
     @Override
     protected int htmlPrefixOffset(String html) {
-        int offset = html.indexOf("<h4 id=\"torname\">");
+        int offset = DETAILS_START.indexIn(html);
         if (offset == -1) {
             return super.htmlPrefixOffset(html);
         }
@@ -82,7 +87,7 @@ public final class ZooqleSearchPerformer extends TorrentRegexSearchPerformer<Zoo
 
     @Override
     protected int htmlSuffixOffset(String html) {
-        int offset = html.indexOf("Language:");
+        int offset = DETAILS_END.indexIn(html);
         if (offset == -1) {
             return super.htmlSuffixOffset(html);
         }
@@ -36,7 +36,6 @@ public final class ZooqleSearchResult extends AbstractTorrentSearchResult {
     private final String filename;
     private final String displayName;
     private final String detailsUrl;
-    private final String torrentUrl;
     private final String infoHash;
     private final double size;
     private final long creationTime;
@@ -47,13 +46,10 @@ public final class ZooqleSearchResult extends AbstractTorrentSearchResult {
         this.filename = matcher.group("filename") + ".torrent";
         this.displayName = matcher.group("filename");
         this.seeds = Integer.parseInt(matcher.group("seeds").trim());
-        String magnetUrl = "magnet:?xt=urn:btih:" + matcher.group("magnet");
         //if (matcher.group("torrent") != null) {
         //    this.torrentUrl = urlPrefix + "/download/" + matcher.group("torrent") + ".torrent";
-        //} else {
-        this.torrentUrl = magnetUrl;
         //}
-        this.infoHash = PerformersHelper.parseInfoHash(magnetUrl); //already comes in lowercase
+        this.infoHash = PerformersHelper.parseInfoHash("magnet:?xt=urn:btih:" + matcher.group("magnet")); //already comes in lowercase
         this.size = calculateSize(matcher.group("sizedata"));
         this.creationTime = parseCreationTime(matcher.group("year") + " " + matcher.group("month") + " " + matcher.group("day"));
     }
@@ -97,7 +93,7 @@ public final class ZooqleSearchResult extends AbstractTorrentSearchResult {
 
     @Override
     public String getTorrentUrl() {
-        return torrentUrl;
+        return "magnet:?xt=urn:btih:" + infoHash;
     }
 
     @Override
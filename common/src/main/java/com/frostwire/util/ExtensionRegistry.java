@@ -0,0 +1,273 @@
+/*
+ * Created by Angel Leon (@gubatron), Alden Torres (aldenml)
+ * Copyright (c) 2011-2020, FrostWire(R). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.frostwire.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The one table of the known file extensions, with their mime type, their
+ * {@link Category} and if they can be streamed, shared by
+ * {@link MimeDetector}, the media types of common, desktop and android and
+ * the search performers.
+ * <p>
+ * It's built once (class initialization, no race) and never changes. The
+ * lookups read the extension in place from the name, case insensitive,
+ * without making a substring, a miss or a hit allocate nothing.
+ *
+ * @author gubatron
+ * @author aldenml
+ */
+public final class ExtensionRegistry {
+
+    /**
+     * What a file is. The media types group the categories in their own
+     * way, i.e. archives are programs in desktop and documents in android.
+     */
+    public enum Category {
+        AUDIO, VIDEO, IMAGE, DOCUMENT, TORRENT,
+        /**
+         * android installable, {@code apk}
+         */
+        ANDROID_PACKAGE,
+        ARCHIVE,
+        SCRIPT,
+        /**
+         * executables, installers and disc images
+         */
+        PROGRAM,
+        SOURCE_CODE
+    }
+
+    // an extension in two lists is in the extensions of both, but the lookups
+    // give the category of the later one
+    private static final Object[][] CATEGORIES = {
+            {Category.AUDIO, new String[]{"mp3", "mpa", "mp1", "mpga", "mp2", "ra", "rm", "ram", "rmj", "wma", "wav", "m4a", "m4p", "lqt", "ogg", "med",
+                    "aif", "aiff", "aifc", "au", "snd", "s3m", "aud", "mid", "midi", "rmi", "mod", "kar", "ac3", "shn", "fla", "flac", "cda", "mka", "aac"}},
+            {Category.DOCUMENT, new String[]{"html", "htm", "xhtml", "mht", "mhtml", "xml", "txt", "ans", "asc", "diz", "eml", "pdf", "ps", "eps", "epsf", "dvi",
+                    "rtf", "wri", "doc", "docx", "mcw", "wps", "xls", "wk1", "dif", "csv", "ppt", "tsv", "hlp", "chm", "lit", "tex", "texi", "latex", "info", "man",
+                    "wp", "wpd", "wp5", "wk3", "wk4", "shw", "sdd", "sdw", "sdp", "sdc", "sxd", "sxw", "sxp", "sxc", "abw", "kwd", "mobi", "azw", "aeh", "lrf", "lrx",
+                    "cbr", "cbz", "cb7", "dnl", "djvu", "epub", "pdb", "fb2", "xeb", "ceb", "prc", "pkg", "opf", "pdg", "tr2", "tr3", "cbt", "cba"}},
+            {Category.ANDROID_PACKAGE, new String[]{"apk"}},
+            {Category.ARCHIVE, new String[]{"zip", "7z", "rar", "gzip", "tar", "gz", "cab", "msi", "ace", "sit", "dmg", "taz"}},
+            {Category.SCRIPT, new String[]{"sh", "awk", "pl"}},
+            {Category.PROGRAM, new String[]{"exe", "bin", "mdb", "csh", "rpm", "deb", "z", "bz2", "zoo", "tgz", "shar", "hqx", "jar", "nrg", "cue", "iso",
+                    "jnlp", "msp", "arj", "lzh", "lha"}},
+            {Category.SOURCE_CODE, new String[]{"java", "py", "rb", "c", "cpp", "h", "hpp"}},
+            {Category.IMAGE, new String[]{"gif", "png", "jpg", "jpeg", "jpe", "jif", "jiff", "jfif", "tif", "tiff", "iff", "lbm", "ilbm", "eps", "mac", "drw",
+                    "pct", "img", "bmp", "dib", "rle", "ico", "ani", "icl", "cur", "emf", "wmf", "pcx", "pcd", "tga", "pic", "fig", "psd", "wpg", "dcx", "cpt",
+                    "mic", "pbm", "pnm", "ppm", "xbm", "xpm", "xwd", "sgi", "fax", "rgb", "ras"}},
+            {Category.TORRENT, new String[]{"torrent"}},
+            {Category.VIDEO, new String[]{"mpg", "mpeg", "mpe", "mng", "mpv", "m1v", "vob", "mp2", "mpv2", "mp2v", "m2p", "m2v", "mpgv", "vcd", "mp4", "dv",
+                    "dvd", "div", "divx", "dvx", "smi", "smil", "rm", "ram", "rv", "rmm", "rmvb", "avi", "asf", "asx", "wmv", "qt", "mov", "fli", "flc", "flx",
+                    "flv", "wml", "vrml", "swf", "dcr", "jve", "nsv", "mkv", "ogm", "cdg", "srt", "sub", "idx", "webm", "3gp", "m4v"}}
+    };
+
+    private static final String[] STREAMABLE = {"mp3", "ogg", "wma", "wmv", "m4a", "aac", "flac", "mp4", "flv", "mov", "mpg", "mpeg", "3gp", "m4v", "webm"};
+
+    // open addressing, the keys are lowercase
+    private static final String[] KEYS;
+    private static final Entry[] ENTRIES;
+    private static final int MASK;
+    private static final int MAX_LENGTH;
+    private static final String[][] EXTENSIONS_BY_CATEGORY;
+
+    static {
+        Map<String, Entry> entries = new HashMap<>();
+        for (Map.Entry<String, String> e : MimeDetector.mimeTypes().entrySet()) {
+            entries.put(e.getKey(), new Entry(e.getKey(), e.getValue(), null, false));
+        }
+        for (Object[] c : CATEGORIES) {
+            Category category = (Category) c[0];
+            for (String ext : (String[]) c[1]) {
+                Entry old = entries.get(ext);
+                entries.put(ext, new Entry(ext, old != null ? old.mimeType : null, category, false));
+            }
+        }
+        for (String ext : STREAMABLE) {
+            Entry old = entries.get(ext);
+            entries.put(ext, new Entry(ext, old.mimeType, old.category, true));
+        }
+
+        int capacity = Integer.highestOneBit(entries.size() * 2 - 1) << 1;
+        String[] keys = new String[capacity];
+        Entry[] values = new Entry[capacity];
+        int maxLength = 0;
+        for (Entry e : entries.values()) {
+            int i = hash(e.extension, 0, e.extension.length()) & (capacity - 1);
+            while (keys[i] != null) {
+                i = (i + 1) & (capacity - 1);
+            }
+            keys[i] = e.extension;
+            values[i] = e;
+            maxLength = Math.max(maxLength, e.extension.length());
+        }
+        KEYS = keys;
+        ENTRIES = values;
+        MASK = capacity - 1;
+        MAX_LENGTH = maxLength;
+        EXTENSIONS_BY_CATEGORY = new String[Category.values().length][0];
+        for (Object[] c : CATEGORIES) {
+            EXTENSIONS_BY_CATEGORY[((Category) c[0]).ordinal()] = ((String[]) c[1]).clone();
+        }
+    }
+
+    private ExtensionRegistry() {
+    }
+
+    /**
+     * @return the entry of the extension of the file name (or path), the
+     * text after the last dot of the last path element, null if unknown
+     */
+    public static Entry forFilename(CharSequence filename) {
+        if (filename == null) {
+            return null;
+        }
+        int end = filename.length();
+        for (int i = end - 1; i >= 0 && end - i <= MAX_LENGTH + 1; i--) {
+            char c = filename.charAt(i);
+            if (c == '.') {
+                return forExtension(filename, i + 1, end);
+            }
+            if (c == '/' || c == '\\') {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the entry of the extension (without the dot), null if unknown
+     */
+    public static Entry forExtension(CharSequence ext) {
+        return ext != null ? forExtension(ext, 0, ext.length()) : null;
+    }
+
+    public static Entry forExtension(CharSequence s, int start, int end) {
+        int length = end - start;
+        if (length <= 0 || length > MAX_LENGTH) {
+            return null;
+        }
+        int i = hash(s, start, end) & MASK;
+        String key;
+        while ((key = KEYS[i]) != null) {
+            if (equalsIgnoreCase(key, s, start, length)) {
+                return ENTRIES[i];
+            }
+            i = (i + 1) & MASK;
+        }
+        return null;
+    }
+
+    /**
+     * @return the mime type of the file, {@link MimeDetector#UNKNOWN} if
+     * not known
+     */
+    public static String mimeType(CharSequence filename) {
+        Entry e = forFilename(filename);
+        return e != null && e.mimeType != null ? e.mimeType : MimeDetector.UNKNOWN;
+    }
+
+    public static Category category(CharSequence filename) {
+        Entry e = forFilename(filename);
+        return e != null ? e.category : null;
+    }
+
+    public static boolean isStreamable(CharSequence filename) {
+        Entry e = forFilename(filename);
+        return e != null && e.streamable;
+    }
+
+    /**
+     * @return a new array of the (lowercase) extensions of the category,
+     * with the ones whose {@link #category(CharSequence)} is another, i.e.
+     * {@code rm} is audio and video
+     */
+    public static String[] extensions(Category category) {
+        return EXTENSIONS_BY_CATEGORY[category.ordinal()].clone();
+    }
+
+    private static int hash(CharSequence s, int start, int end) {
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            h = 31 * h + lower(s.charAt(i));
+        }
+        // spread the low bits, the table is a power of two
+        return h ^ (h >>> 16);
+    }
+
+    private static boolean equalsIgnoreCase(String key, CharSequence s, int start, int length) {
+        if (key.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (key.charAt(i) != lower(s.charAt(start + i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static char lower(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+
+    public static final class Entry {
+        private final String extension;
+        private final String mimeType;
+        private final Category category;
+        private final boolean streamable;
+
+        private Entry(String extension, String mimeType, Category category, boolean streamable) {
+            this.extension = extension;
+            this.mimeType = mimeType;
+            this.category = category;
+            this.streamable = streamable;
+        }
+
+        /**
+         * @return the extension, lowercase
+         */
+        public String extension() {
+            return extension;
+        }
+
+        /**
+         * @return the mime type, null if not known
+         */
+        public String mimeType() {
+            return mimeType;
+        }
+
+        /**
+         * @return the category, null if not of any
+         */
+        public Category category() {
+            return category;
+        }
+
+        public boolean isStreamable() {
+            return streamable;
+        }
+
+        @Override
+        public String toString() {
+            return extension + "(" + mimeType + ", " + category + (streamable ? ", streamable" : "") + ")";
+        }
+    }
+}
@@ -18,19 +18,36 @@
 
 package com.frostwire.util;
 
+import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.ConcurrentModificationException;
-import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Concurrent frequency counter. Updates are lock free and can be done
+ * from any thread, also while {@link #reset()} is called.
+ * <p>
+ * Counts can be retracted, a count can go below zero for a while if a
+ * retraction is processed before the update it undoes, keys without a
+ * positive count are not reported.
+ */
 public final class HistoHashMap<K> {
-    private final HashMap<K, Integer> map = new HashMap<>();
-    // creates the comparator as a field to avoid GC pressure every
+    // a counter that reached zero, it's removed from the map and can't be updated anymore
+    private static final int REMOVED = Integer.MIN_VALUE;
+
+    private final ConcurrentHashMap<K, AtomicInteger> map = new ConcurrentHashMap<>();
+    private final AtomicLong total = new AtomicLong();
+    // creates the comparators as a field to avoid GC pressure every
     // time histogram is called, but still not static (no need)
     private final Comparator<Entry<K, Integer>> cmp = (o1, o2) -> o2.getValue().compareTo(o1.getValue());
+    private final Comparator<Entry<K, Integer>> minCmp = (o1, o2) -> o1.getValue().compareTo(o2.getValue());
 
     /**
      * (Cheap operation)
@@ -39,33 +56,94 @@ public final class HistoHashMap<K> {
      * @return the frequency
      */
     public int update(K key) {
-        int r = 1;
-        // This is a problematic operation in light of the heavy concurrency to which
-        // an instance of this class is subject to. The problem is that when the reset()
-        // is called, the following operations are not atomic and can yield a NPE.
-        // Still, there is no need of synchronization, since a simple call to map.getOrDefault
-        // could do the trick, but that method is not in android API 19.
-        if (map.containsKey(key)) {
-            Integer n = map.get(key);
-            if (n == null) {
-                // a reset was called in the middle, this key can't be considered
-                // since this update was called before the reset
-                r = 0;
-            } else {
-                r = 1 + n;
+        return add(key, 1);
+    }
+
+    /**
+     * Undoes a previous {@link #update(Object)} of the key (cheap operation).
+     *
+     * @param key the key
+     * @return the frequency
+     */
+    public int retract(K key) {
+        return add(key, -1);
+    }
+
+    public int add(K key, int delta) {
+        if (delta == 0) {
+            return get(key);
+        }
+        while (true) {
+            AtomicInteger counter = map.get(key);
+            if (counter == null) {
+                if (map.putIfAbsent(key, new AtomicInteger(delta)) == null) {
+                    total.addAndGet(delta);
+                    return delta;
+                }
+                continue;
+            }
+            int n = counter.get();
+            if (n == REMOVED) {
+                // lost the race with the removal, help and try again
+                map.remove(key, counter);
+                continue;
+            }
+            int r = n + delta;
+            if (r == 0) {
+                if (counter.compareAndSet(n, REMOVED)) {
+                    map.remove(key, counter);
+                    total.addAndGet(delta);
+                    return 0;
+                }
+            } else if (counter.compareAndSet(n, r)) {
+                total.addAndGet(delta);
+                return r;
+            }
+        }
+    }
+
+    /**
+     * Adds to the frequency of an existing key, looked up with {@code probe},
+     * any object with the same hash code that is equal to the key, for
+     * instance a reusable view of its content. This avoids creating the key
+     * when it's already in the map.
+     *
+     * @param probe an object equal to the key
+     * @param delta the delta
+     * @return {@code false} if the key is not in the map
+     */
+    public boolean addIfPresent(Object probe, int delta) {
+        while (true) {
+            AtomicInteger counter = map.get(probe);
+            if (counter == null) {
+                return false;
+            }
+            int n = counter.get();
+            if (n == REMOVED || n + delta == 0) {
+                // let add(K, int) deal with the removal
+                return false;
+            }
+            if (counter.compareAndSet(n, n + delta)) {
+                total.addAndGet(delta);
+                return true;
             }
         }
-        map.put(key, r);
-        return r;
     }
 
     public int get(K key) {
-        try {
-            //noinspection ConstantConditions
-            return map.get(key);
-        } catch (NullPointerException npe) {
+        AtomicInteger counter = map.get(key);
+        if (counter == null) {
             return 0;
         }
+        int n = counter.get();
+        return n > 0 ? n : 0;
+    }
+
+    /**
+     * @return the sum of all the frequencies
+     */
+    public long total() {
+        return total.get();
     }
 
     /**
@@ -75,17 +153,43 @@ public final class HistoHashMap<K> {
      * @return the list
      */
     public List<Entry<K, Integer>> histogram() {
-        try {
-            ArrayList<Entry<K, Integer>> list = new ArrayList<>(map.entrySet());
-            Collections.sort(list, cmp);
-            return Collections.unmodifiableList(list);
-        } catch (ConcurrentModificationException e) {
-            // working with no synchronized structures, even with the copies
-            // it's possible that this exception can happens, but the cost
-            // of synchronization is bigger than the lack of accuracy
-            // ignore
+        ArrayList<Entry<K, Integer>> list = new ArrayList<>(map.size());
+        for (Map.Entry<K, AtomicInteger> e : map.entrySet()) {
+            int n = e.getValue().get();
+            if (n > 0) {
+                list.add(new AbstractMap.SimpleImmutableEntry<>(e.getKey(), n));
+            }
+        }
+        Collections.sort(list, cmp);
+        return Collections.unmodifiableList(list);
+    }
+
+    /**
+     * Returns the {@code n} entries with the highest frequencies, sorted.
+     * Only those entries are copied and sorted, the rest are discarded with
+     * a bounded heap.
+     *
+     * @param n the maximum number of entries
+     * @return the list
+     */
+    public List<Entry<K, Integer>> top(int n) {
+        if (n <= 0) {
             return Collections.emptyList();
         }
+        PriorityQueue<Entry<K, Integer>> heap = new PriorityQueue<>(n + 1, minCmp);
+        for (Map.Entry<K, AtomicInteger> e : map.entrySet()) {
+            int count = e.getValue().get();
+            if (count <= 0 || (heap.size() == n && count <= heap.peek().getValue())) {
+                continue;
+            }
+            heap.add(new AbstractMap.SimpleImmutableEntry<>(e.getKey(), count));
+            if (heap.size() > n) {
+                heap.poll();
+            }
+        }
+        ArrayList<Entry<K, Integer>> list = new ArrayList<>(heap);
+        Collections.sort(list, cmp);
+        return Collections.unmodifiableList(list);
     }
 
     public int getKeyCount() {
@@ -94,5 +198,6 @@ public final class HistoHashMap<K> {
 
     public void reset() {
         map.clear();
+        total.set(0);
     }
 }
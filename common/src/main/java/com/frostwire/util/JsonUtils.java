@@ -20,6 +20,14 @@ package com.frostwire.util;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
 
 /**
  * Simple JSON utility class based on google-gson.
@@ -75,4 +83,50 @@ public final class JsonUtils {
     public static <T> T toObject(String json, Class<T> classOfT) {
         return gson.fromJson(json, classOfT);
     }
+
+    /**
+     * A streaming reader of the json, to bind it a piece at a time (with
+     * {@link #toObject(JsonReader, Class)}) without the whole tree.
+     */
+    public static JsonReader newReader(String json) {
+        return new JsonReader(new StringReader(json));
+    }
+
+    /**
+     * A streaming reader of the json in utf-8, decoded as it's read.
+     */
+    public static JsonReader newReader(byte[] json) {
+        return new JsonReader(new InputStreamReader(new ByteArrayInputStream(json), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Deserializes the next value of the reader into an object of the
+     * specified class, the reader is left after it.
+     *
+     * @return the object, or {@code null} if the value is null
+     */
+    public static <T> T toObject(JsonReader reader, Class<T> classOfT) {
+        return gson.fromJson(reader, classOfT);
+    }
+
+    /**
+     * Skips the properties of the object being read until the one with the
+     * given name, the reader is left at its value. The object is started if
+     * the reader is at its beginning.
+     *
+     * @return {@code false} if the object doesn't have it, the reader is
+     * then at the end of the object
+     */
+    public static boolean findProperty(JsonReader reader, String name) throws IOException {
+        if (reader.peek() == JsonToken.BEGIN_OBJECT) {
+            reader.beginObject();
+        }
+        while (reader.hasNext()) {
+            if (name.equals(reader.nextName())) {
+                return true;
+            }
+            reader.skipValue();
+        }
+        return false;
+    }
 }
@@ -27,23 +27,24 @@ import java.util.Map;
  */
 public final class MimeDetector {
     public static final String UNKNOWN = "application/octet-stream";
-    private static Map<String, String> map = null;
 
     private MimeDetector() {
     }
 
+    /**
+     * @param ext the extension, without the dot, case insensitive
+     * @return the mime type, {@link #UNKNOWN} if not known
+     * @see ExtensionRegistry
+     */
     public static String getMimeType(String ext) {
-        ensureMap();
-        return map.containsKey(ext) ? map.get(ext) : UNKNOWN;
+        ExtensionRegistry.Entry e = ExtensionRegistry.forExtension(ext);
+        return e != null && e.mimeType() != null ? e.mimeType() : UNKNOWN;
     }
 
-    private static void ensureMap() {
-        if (map == null) {
-            map = buildMimeTypeMap();
-        }
-    }
-
-    private static Map<String, String> buildMimeTypeMap() {
+    /**
+     * The mime types by extension, read once to build the {@link ExtensionRegistry}.
+     */
+    static Map<String, String> mimeTypes() {
         Map<String, String> map = new HashMap<String, String>();
         map.put("apk", "application/vnd.android.package-archive");
         map.put("fx", "text/plain");
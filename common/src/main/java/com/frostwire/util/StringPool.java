@@ -0,0 +1,69 @@
+/*
+ * Created by Angel Leon (@gubatron), Alden Torres (aldenml)
+ * Copyright (c) 2011-2020, FrostWire(R). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.frostwire.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A bounded, thread safe dictionary of strings, to share one instance of
+ * the values repeated by many objects (the source or the user of thousands
+ * of search results) instead of a copy in each one.
+ * <p>
+ * Unlike {@link String#intern()} the strings are not kept for the life of
+ * the process, when the pool is full it's cleared, the strings already
+ * shared stay shared and the new ones start a new dictionary.
+ *
+ * @author gubatron
+ * @author aldenml
+ */
+public final class StringPool {
+
+    private final ConcurrentHashMap<String, String> map;
+    private final int maxSize;
+
+    public StringPool(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Max size must be > 0");
+        }
+        this.map = new ConcurrentHashMap<>();
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @return the instance in the pool equal to the string, the string
+     * itself if it's the first one, null if null
+     */
+    public String intern(String s) {
+        if (s == null) {
+            return null;
+        }
+        String pooled = map.get(s);
+        if (pooled != null) {
+            return pooled;
+        }
+        if (map.size() >= maxSize) {
+            map.clear();
+        }
+        pooled = map.putIfAbsent(s, s);
+        return pooled != null ? pooled : s;
+    }
+
+    public int size() {
+        return map.size();
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Created by Angel Leon (@gubatron), Alden Torres (aldenml)
+ * Copyright (c) 2011-2020, FrostWire(R). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.frostwire.util;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Opt-in switch for running blocking search work in virtual threads.
+ * <p>
+ * The code is compiled for runtimes without virtual threads (Android, older
+ * desktop JVMs), so the executor is looked up by reflection and everything
+ * falls back to the regular {@link ThreadPool}s when not available.
+ * <p>
+ * Must be enabled before the first use of the search components, they
+ * pick the execution mode once.
+ *
+ * @author gubatron
+ * @author aldenml
+ */
+public final class VirtualThreads {
+    private static final Logger LOG = Logger.getLogger(VirtualThreads.class);
+    private static final Method NEW_EXECUTOR = lookupExecutorFactory();
+    private static volatile boolean enabled = false;
+
+    private VirtualThreads() {
+    }
+
+    public static boolean isSupported() {
+        return NEW_EXECUTOR != null;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return {@code true} if the mode is now enabled, {@code false} if it was
+     * requested but virtual threads are not supported by this runtime
+     */
+    public static boolean setEnabled(boolean enabled) {
+        if (enabled && !isSupported()) {
+            LOG.warn("Virtual threads not supported by this runtime, using thread pools");
+            VirtualThreads.enabled = false;
+            return false;
+        }
+        VirtualThreads.enabled = enabled;
+        return enabled;
+    }
+
+    /**
+     * @return an executor that starts a new virtual thread per task, or
+     * {@code null} if not supported
+     */
+    public static ExecutorService newExecutor() {
+        if (NEW_EXECUTOR == null) {
+            return null;
+        }
+        try {
+            return (ExecutorService) NEW_EXECUTOR.invoke(null);
+        } catch (Throwable e) {
+            LOG.warn("Unable to create virtual thread executor: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static Method lookupExecutorFactory() {
+        try {
+            Method m = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            // on runtimes where it's still a preview feature this fails here
+            ((ExecutorService) m.invoke(null)).shutdown();
+            return m;
+        } catch (Throwable e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Created by Angel Leon (@gubatron), Alden Torres (aldenml)
+ * Copyright (c) 2011-2020, FrostWire(R). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.frostwire.bittorrent;
+
+import com.frostwire.util.Hex;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author gubatron
+ * @author aldenml
+ */
+public class TorrentMetadataTest {
+
+    private static final String MULTI_INFO = "d5:filesl" +
+            "d6:lengthi1000e4:pathl6:Extras9:intro.mkvee" +
+            "d4:attr1:p6:lengthi24e4:pathl4:.pad2:24ee" +
+            "d6:lengthi2000e4:pathl9:Song .mp3e10:path.utf-8l11:Song \u00E9.mp3ee" +
+            "d6:lengthi10e4:pathl26:_____padding_file_0_10.txtee" +
+            "e4:name5:Album12:piece lengthi16384e6:pieces20:01234567890123456789e";
+
+    @Test
+    public void testMultiFile() throws Exception {
+        byte[] data = bytes("d8:announce14:http://tracker4:info" + MULTI_INFO + "7:comment2:hie");
+        TorrentMetadata md = TorrentMetadata.parse(data);
+
+        assertEquals(sha1(MULTI_INFO), md.infoHash());
+        assertEquals("Album", md.name());
+        assertEquals(4, md.numFiles());
+        assertEquals("Album/Extras/intro.mkv", md.filePath(0));
+        assertEquals(1000, md.fileSize(0));
+        assertFalse(md.padFileAt(0));
+        assertTrue(md.padFileAt(1));
+        assertEquals("Album/.pad/24", md.filePath(1));
+        // path.utf-8 over path
+        assertEquals("Album/Song \u00E9.mp3", md.filePath(2));
+        assertFalse(md.padFileAt(2));
+        // padding file by its name, no attr
+        assertTrue(md.padFileAt(3));
+        assertEquals(3034, md.totalSize());
+    }
+
+    @Test
+    public void testSingleFile() throws Exception {
+        String info = "d6:lengthi4242e4:name8:song.mp310:name.utf-89:s\u00F3ng.mp312:piece lengthi16384e6:pieces20:01234567890123456789e";
+        // not at the start of the buffer
+        byte[] data = bytes("xxd4:info" + info + "e");
+        ByteBuffer buf = ByteBuffer.wrap(data);
+        buf.position(2);
+        TorrentMetadata md = TorrentMetadata.parse(buf);
+
+        assertEquals(sha1(info), md.infoHash());
+        assertEquals(1, md.numFiles());
+        assertEquals("s\u00F3ng.mp3", md.name());
+        assertEquals("s\u00F3ng.mp3", md.filePath(0));
+        assertEquals(4242, md.fileSize(0));
+        assertFalse(md.padFileAt(0));
+    }
+
+    @Test
+    public void testSanitize() throws Exception {
+        String info = "d5:filesld6:lengthi1e4:pathl2:..3:a/b3:c\\d3:e\u0001f0:1:.5:x\u202Eyeee" +
+                "4:name2:..12:piece lengthi16384e6:pieces20:01234567890123456789e";
+        TorrentMetadata md = TorrentMetadata.parse(bytes("d4:info" + info + "e"));
+
+        // nothing left of the name
+        assertEquals(sha1(info), md.name());
+        assertEquals(sha1(info) + "/a_b/c_d/e_f/xy", md.filePath(0));
+    }
+
+    @Test
+    public void testInvalid() {
+        assertInvalid("");
+        assertInvalid("d4:infod4:name1:aee");
+        assertInvalid("d4:infod4:name1:a6:lengthi1e");
+        assertInvalid("d4:infod4:name9:a6:lengthi1eee");
+        assertInvalid("d4:infod4:name1:a6:lengthixeee");
+        assertInvalid("d4:infod4:name1:a5:filesleee");
+        assertInvalid("d4:infod4:name1:a5:filesld6:lengthi1e4:pathleeeeee");
+        assertInvalid("d8:announce1:ae");
+    }
+
+    @Test
+    public void testSkipNested() {
+        BencodeReader r = new BencodeReader(bytes("d1:ald1:bli1ei-2eee3:xyze1:ci3ee"));
+        r.beginDictionary();
+        int key = r.readString();
+        assertTrue(r.equalsAscii(key, "a"));
+        r.skip();
+        key = r.readString();
+        assertTrue(r.equalsAscii(key, "c"));
+        assertEquals(BencodeReader.Type.INTEGER, r.peek());
+        assertEquals(3, r.readLong());
+        assertFalse(r.hasNext());
+        r.end();
+    }
+
+    private static void assertInvalid(String s) {
+        try {
+            TorrentMetadata.parse(bytes(s));
+            fail("Parsed invalid torrent: " + s);
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    private static String sha1(String s) throws Exception {
+        return Hex.encode(MessageDigest.getInstance("SHA-1").digest(bytes(s)));
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+}
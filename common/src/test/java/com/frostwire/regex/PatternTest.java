@@ -0,0 +1,114 @@
+/*
+ * Created by Angel Leon (@gubatron), Alden Torres (aldenml)
+ * Copyright (c) 2011-2020, FrostWire(R). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.frostwire.regex;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author gubatron
+ * @author aldenml
+ */
+public class PatternTest {
+
+    private static final String REGEX = "(?is)<a href=\"(?<url>.*?)\">(?<name>.*?)</a>(?: \\((?<seeds>\\d+)\\))?";
+    private static final String INPUT = "<ul><li><a href=\"/1\">One</a> (12)</li><li><a href=\"/2\">Two</a></li></ul>";
+
+    @Test
+    public void testGroupIndex() {
+        Pattern p = Pattern.compile(REGEX);
+        assertEquals(1, p.groupIndex("url"));
+        assertEquals(2, p.groupIndex("name"));
+        assertEquals(3, p.groupIndex("seeds"));
+        // not the same instance as the literal
+        assertEquals(2, p.groupIndex(new String("name")));
+        assertEquals(-1, p.groupIndex("size"));
+        assertEquals(1, p.indexOf("name"));
+        assertEquals(-1, p.indexOf("size"));
+    }
+
+    @Test
+    public void testEnginesMatchTheSame() {
+        for (Pattern.Engine engine : Pattern.Engine.values()) {
+            Pattern p = Pattern.compile(REGEX, engine);
+            assertEquals(engine, p.engine());
+            Matcher m = p.matcher(INPUT);
+            int seeds = m.groupIndex("seeds");
+
+            assertTrue(m.find());
+            assertEquals("/1", m.group("url"));
+            assertEquals("One", m.group(m.groupIndex("name")));
+            assertEquals("12", m.group(seeds));
+            assertEquals(INPUT.indexOf("<a"), m.start());
+
+            assertTrue(m.find());
+            assertEquals("Two", m.group("name"));
+            assertNull(m.group(seeds));
+            assertEquals(-1, m.start(seeds));
+
+            assertFalse(m.find());
+        }
+    }
+
+    @Test
+    public void testRegion() {
+        String page = "<html>" + INPUT + "<footer><a href=\"/3\">Three</a></footer></html>";
+        int start = page.indexOf("<ul>");
+        int end = page.indexOf("</ul>");
+        for (Pattern.Engine engine : Pattern.Engine.values()) {
+            Matcher m = Pattern.compile(REGEX, engine).matcher(page, start, end);
+            int count = 0;
+            while (m.find()) {
+                // indexes in the page, not in the region
+                assertEquals(m.group("name"), page.substring(m.start(2), m.end(2)));
+                count++;
+            }
+            assertEquals(2, count);
+
+            assertTrue(m.find(page.indexOf("<a href=\"/2\"")));
+            assertEquals("Two", m.group("name"));
+
+            m.reset(page, page.indexOf("<footer>"), page.length());
+            assertTrue(m.find());
+            assertEquals("Three", m.group("name"));
+            assertEquals(page.indexOf("Three"), m.start(2));
+        }
+    }
+
+    @Test
+    public void testJdkFallsBackToRe2j() {
+        // exponential backtracking in java.util.regex, linear in re2j
+        String regex = "<b>(?<text>(?:a|aa)+)</b>";
+        StringBuilder sb = new StringBuilder("<b>aa</b><b>");
+        for (int i = 0; i < 64; i++) {
+            sb.append('a');
+        }
+        sb.append("<b>aaa</b>");
+        Matcher m = Pattern.compile(regex, Pattern.Engine.JDK).matcher(sb);
+        assertTrue(m.find());
+        assertEquals("aa", m.group("text"));
+        assertTrue(m.find());
+        assertEquals("aaa", m.group("text"));
+        assertEquals(sb.length() - 10, m.start());
+        assertFalse(m.find());
+    }
+}
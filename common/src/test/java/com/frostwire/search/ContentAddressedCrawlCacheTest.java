@@ -0,0 +1,179 @@
+/*
+ * Created by Angel Leon (@gubatron), Alden Torres (aldenml)
+ * Copyright (c) 2011-2020, FrostWire(R). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.frostwire.search;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author gubatron
+ * @author aldenml
+ */
+public class ContentAddressedCrawlCacheTest {
+
+    @Test
+    public void testSamePayloadStoredOnce() {
+        MapCrawlCache store = new MapCrawlCache();
+        ContentAddressedCrawlCache cache = new ContentAddressedCrawlCache(store, 1024 * 1024);
+
+        byte[] torrent = payload(1, 1000);
+        cache.put("http://a.com/t.torrent", torrent);
+        cache.put("0123456789abcdef0123456789abcdef01234567", torrent);
+        cache.put("http://b.com/t.torrent", torrent.clone());
+
+        assertEquals(1, cache.numEntries());
+        assertEquals(1000, cache.payloadSizeInBytes());
+        assertTrue(store.sizeInBytes() < 2 * 1000);
+        assertArrayEquals(torrent, cache.get("http://b.com/t.torrent"));
+        assertArrayEquals(torrent, cache.get("0123456789abcdef0123456789abcdef01234567"));
+    }
+
+    @Test
+    public void testEvictionByPayloadSize() {
+        MapCrawlCache store = new MapCrawlCache();
+        ContentAddressedCrawlCache cache = new ContentAddressedCrawlCache(store, 3000);
+
+        for (int i = 0; i < 5; i++) {
+            cache.put("url" + i, payload(i, 1000));
+        }
+        assertTrue(cache.payloadSizeInBytes() <= 3000);
+        assertNull(cache.get("url0"));
+        assertArrayEquals(payload(4, 1000), cache.get("url4"));
+    }
+
+    @Test
+    public void testEvictionDropsAliases() {
+        MapCrawlCache store = new MapCrawlCache();
+        ContentAddressedCrawlCache cache = new ContentAddressedCrawlCache(store, 3000);
+
+        cache.put("url0", payload(0, 1000));
+        cache.put("infohash0", payload(0, 1000));
+        for (int i = 1; i < 5; i++) {
+            cache.put("url" + i, payload(i, 1000));
+        }
+        assertFalse(store.map.containsKey("alias:url0"));
+        assertFalse(store.map.containsKey("alias:infohash0"));
+        assertFalse(store.map.containsKey("alias:url1"));
+        assertTrue(store.map.containsKey("alias:url4"));
+    }
+
+    @Test
+    public void testClearKeepsSharedEntries() {
+        MapCrawlCache store = new MapCrawlCache();
+        // an entry of another cache on the same store
+        store.put("query:bunny", payload(9, 500));
+        ContentAddressedCrawlCache cache = new ContentAddressedCrawlCache(store, 1024 * 1024);
+
+        cache.put("url", payload(1, 100));
+        cache.put("infohash", payload(1, 100));
+        cache.put("url2", payload(2, 200));
+        cache.saveIndex();
+        // the payloads and their aliases, not the other entries
+        long size = cache.sizeInBytes();
+        assertTrue(size >= 300 && size < 500);
+
+        cache.clear();
+        assertEquals(0, cache.numEntries());
+        assertEquals(0, cache.sizeInBytes());
+        assertEquals(1, store.map.size());
+        assertArrayEquals(payload(9, 500), store.get("query:bunny"));
+    }
+
+    @Test
+    public void testAliasesSurviveReload() {
+        MapCrawlCache store = new MapCrawlCache();
+        ContentAddressedCrawlCache cache = new ContentAddressedCrawlCache(store, 1024 * 1024);
+        cache.put("url", payload(1, 100));
+        cache.put("infohash", payload(1, 100));
+        cache.saveIndex();
+
+        ContentAddressedCrawlCache reloaded = new ContentAddressedCrawlCache(store, 1024 * 1024);
+        reloaded.clear();
+        assertTrue(store.map.isEmpty());
+    }
+
+    @Test
+    public void testRemoveDropsAllAliases() {
+        MapCrawlCache store = new MapCrawlCache();
+        ContentAddressedCrawlCache cache = new ContentAddressedCrawlCache(store, 1024 * 1024);
+
+        byte[] torrent = payload(7, 100);
+        cache.put("url", torrent);
+        cache.put("infohash", torrent);
+        cache.remove("url");
+
+        assertNull(cache.get("infohash"));
+        assertEquals(0, cache.payloadSizeInBytes());
+        assertEquals(0, cache.sizeInBytes());
+        assertFalse(store.map.containsKey("alias:infohash"));
+    }
+
+    @Test
+    public void testIndexSurvivesReload() {
+        MapCrawlCache store = new MapCrawlCache();
+        ContentAddressedCrawlCache cache = new ContentAddressedCrawlCache(store, 1024 * 1024);
+        for (int i = 0; i < 64; i++) {
+            cache.put("url" + i, payload(i, 10));
+        }
+
+        ContentAddressedCrawlCache reloaded = new ContentAddressedCrawlCache(store, 1024 * 1024);
+        assertEquals(64, reloaded.numEntries());
+        assertArrayEquals(payload(3, 10), reloaded.get("url3"));
+    }
+
+    @Test
+    public void testIndexSavedBeforeInterval() {
+        MapCrawlCache store = new MapCrawlCache();
+        ContentAddressedCrawlCache cache = new ContentAddressedCrawlCache(store, 1024 * 1024);
+        for (int i = 0; i < 3; i++) {
+            cache.put("url" + i, payload(i, 10));
+        }
+        cache.saveIndex();
+
+        ContentAddressedCrawlCache reloaded = new ContentAddressedCrawlCache(store, 1024 * 1024);
+        assertEquals(3, reloaded.numEntries());
+        assertEquals(30, reloaded.payloadSizeInBytes());
+    }
+
+    @Test
+    public void testUnsavedPayloadIndexedOnRead() {
+        MapCrawlCache store = new MapCrawlCache();
+        ContentAddressedCrawlCache cache = new ContentAddressedCrawlCache(store, 1024 * 1024);
+        cache.put("url", payload(1, 10));
+
+        // the process ended before the index was saved
+        ContentAddressedCrawlCache reloaded = new ContentAddressedCrawlCache(store, 1024 * 1024);
+        assertEquals(0, reloaded.numEntries());
+        assertArrayEquals(payload(1, 10), reloaded.get("url"));
+        assertEquals(1, reloaded.numEntries());
+        assertEquals(10, reloaded.payloadSizeInBytes());
+    }
+
+    private static byte[] payload(int seed, int length) {
+        byte[] data = new byte[length];
+        for (int i = 0; i < length; i++) {
+            data[i] = (byte) (seed * 31 + i);
+        }
+        return data;
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Created by Angel Leon (@gubatron), Alden Torres (aldenml)
+ * Copyright (c) 2011-2020, FrostWire(R). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.frostwire.search;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author gubatron
+ * @author aldenml
+ */
+public class CrawlPagedWebSearchPerformerTest {
+
+    private static final String HASH = "0123456789abcdef0123456789abcdef01234567";
+
+    @Test
+    public void testSameUrlDownloadedOnce() throws InterruptedException {
+        String magnet = "magnet:?xt=urn:btih:" + HASH;
+        assertEquals(1, crawlConcurrently(magnet, magnet, magnet, magnet));
+    }
+
+    @Test
+    public void testSameInfohashDownloadedOnce() throws InterruptedException {
+        String magnet = "magnet:?xt=urn:btih:" + HASH;
+        assertEquals(1, crawlConcurrently(magnet + "&tr=a", magnet + "&tr=b", magnet + "&tr=c"));
+    }
+
+    private static int crawlConcurrently(String... urls) throws InterruptedException {
+        AtomicInteger downloads = new AtomicInteger();
+        MagnetDownloader previous = CrawlPagedWebSearchPerformer.getMagnetDownloader();
+        CrawlPagedWebSearchPerformer.setMagnetDownloader((magnet, timeout) -> {
+            downloads.incrementAndGet();
+            try {
+                Thread.sleep(300);
+            } catch (InterruptedException e) {
+                // ignore
+            }
+            return new byte[]{1, 2, 3};
+        });
+        try {
+            AtomicInteger crawled = new AtomicInteger();
+            CountDownLatch start = new CountDownLatch(1);
+            List<Thread> threads = new ArrayList<>();
+            for (String url : urls) {
+                TestPerformer p = new TestPerformer(crawled);
+                TestTorrentResult sr = new TestTorrentResult("test", "test.torrent", HASH, 0, url);
+                Thread t = new Thread(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    p.crawl(sr);
+                });
+                t.start();
+                threads.add(t);
+            }
+            start.countDown();
+            for (Thread t : threads) {
+                t.join();
+            }
+            assertEquals(urls.length, crawled.get());
+        } finally {
+            CrawlPagedWebSearchPerformer.setMagnetDownloader(previous);
+        }
+        return downloads.get();
+    }
+
+    private static final class TestPerformer extends CrawlPagedWebSearchPerformer<TestTorrentResult> {
+        private final AtomicInteger crawled;
+
+        TestPerformer(AtomicInteger crawled) {
+            super("test.com", 1, "test", 1000, 1, 1);
+            this.crawled = crawled;
+            setListener(new SearchListener() {
+                @Override
+                public void onResults(long token, List<? extends SearchResult> results) {
+                }
+
+                @Override
+                public void onError(long token, SearchError error) {
+                }
+
+                @Override
+                public void onStopped(long token) {
+                }
+            });
+        }
+
+        @Override
+        protected String getUrl(int page, String encodedKeywords) {
+            return null;
+        }
+
+        @Override
+        protected List<? extends SearchResult> searchPage(String page) {
+            return Collections.emptyList();
+        }
+
+        @Override
+        protected String getCrawlUrl(TestTorrentResult sr) {
+            return sr.getTorrentUrl();
+        }
+
+        @Override
+        protected List<? extends SearchResult> crawlResult(TestTorrentResult sr, byte[] data) {
+            if (data != null && data.length == 3) {
+                crawled.incrementAndGet();
+            }
+            return Collections.singletonList(sr);
+        }
+    }
+}
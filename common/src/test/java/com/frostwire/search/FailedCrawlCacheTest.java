@@ -0,0 +1,71 @@
+/*
+ * Created by Angel Leon (@gubatron), Alden Torres (aldenml)
+ * Copyright (c) 2011-2020, FrostWire(R). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.frostwire.search;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author gubatron
+ * @author aldenml
+ */
+public class FailedCrawlCacheTest {
+
+    @Test
+    public void testExpiration() throws InterruptedException {
+        FailedCrawlCache cache = new FailedCrawlCache(null, 50, 100);
+        cache.add("http://a");
+        assertTrue(cache.isFailed("http://a"));
+        assertFalse(cache.isFailed("http://b"));
+        Thread.sleep(100);
+        assertFalse(cache.isFailed("http://a"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testBounded() {
+        FailedCrawlCache cache = new FailedCrawlCache(null, 60000, 100);
+        for (int i = 0; i < 1000; i++) {
+            cache.add("http://" + i);
+        }
+        assertTrue(cache.size() <= 100);
+        assertTrue(cache.isFailed("http://999"));
+    }
+
+    @Test
+    public void testPersistence() throws IOException {
+        File file = File.createTempFile("failed_crawls", ".dat");
+        file.deleteOnExit();
+        FailedCrawlCache cache = new FailedCrawlCache(file, 60000, 100);
+        cache.add("http://a");
+        cache.add("http://b");
+        cache.remove("http://b");
+        cache.save();
+
+        FailedCrawlCache loaded = new FailedCrawlCache(file, 60000, 100);
+        assertTrue(loaded.isFailed("http://a"));
+        assertFalse(loaded.isFailed("http://b"));
+        assertEquals(1, loaded.size());
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Created by Angel Leon (@gubatron), Alden Torres (aldenml)
+ * Copyright (c) 2011-2020, FrostWire(R). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.frostwire.search;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author gubatron
+ * @author aldenml
+ */
+public class HostSchedulerTest {
+
+    @Test
+    public void testSlowHostDoesNotStarveOthers() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        HostScheduler scheduler = new HostScheduler(executor);
+        scheduler.setLimits("slow.com", 2, 1000);
+        scheduler.setLimits("fast.com", 2, 1000);
+
+        CountDownLatch slowGate = new CountDownLatch(1);
+        CountDownLatch slowDone = new CountDownLatch(10);
+        CountDownLatch fastDone = new CountDownLatch(10);
+        AtomicInteger slowRunning = new AtomicInteger();
+        AtomicInteger slowMaxRunning = new AtomicInteger();
+
+        for (int i = 0; i < 10; i++) {
+            scheduler.execute(new TestTask(scheduler, "slow.com", i, () -> {
+                slowMaxRunning.accumulateAndGet(slowRunning.incrementAndGet(), Math::max);
+                try {
+                    slowGate.await();
+                } catch (InterruptedException e) {
+                    // ignore
+                }
+                slowRunning.decrementAndGet();
+                slowDone.countDown();
+            }));
+        }
+        for (int i = 0; i < 10; i++) {
+            scheduler.execute(new TestTask(scheduler, "fast.com", i, fastDone::countDown));
+        }
+
+        // the slow host holds only 2 of the 4 workers, the fast one can finish
+        assertTrue(fastDone.await(5, TimeUnit.SECONDS));
+        assertEquals(8, scheduler.queued("slow.com"));
+        slowGate.countDown();
+
+        assertTrue(slowDone.await(5, TimeUnit.SECONDS));
+        executor.shutdown();
+        assertEquals(2, slowMaxRunning.get());
+    }
+
+    @Test
+    public void testRateLimit() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        HostScheduler scheduler = new HostScheduler(executor);
+        scheduler.setLimits("rate.com", 4, 10);
+
+        int n = 15;
+        CountDownLatch done = new CountDownLatch(n);
+        List<Long> starts = new ArrayList<>();
+        long t0 = System.nanoTime();
+        for (int i = 0; i < n; i++) {
+            scheduler.execute(new TestTask(scheduler, "rate.com", i, () -> {
+                synchronized (starts) {
+                    starts.add(System.nanoTime() - t0);
+                }
+                done.countDown();
+            }));
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        executor.shutdown();
+
+        // burst of 10, then 10 per second
+        long last = TimeUnit.NANOSECONDS.toMillis(starts.get(starts.size() - 1));
+        assertTrue("last task started at " + last + "ms", last >= 400);
+    }
+
+    private static final class TestTask implements HostScheduler.Task {
+        private final HostScheduler scheduler;
+        private final String host;
+        private final int ordinal;
+        private final Runnable r;
+
+        TestTask(HostScheduler scheduler, String host, int ordinal, Runnable r) {
+            this.scheduler = scheduler;
+            this.host = host;
+            this.ordinal = ordinal;
+            this.r = r;
+        }
+
+        @Override
+        public String host() {
+            return host;
+        }
+
+        @Override
+        public boolean cancelled() {
+            return false;
+        }
+
+        @Override
+        public int ordinal() {
+            return ordinal;
+        }
+
+        @Override
+        public void run() {
+            try {
+                r.run();
+            } finally {
+                scheduler.release(this);
+            }
+        }
+    }
+}
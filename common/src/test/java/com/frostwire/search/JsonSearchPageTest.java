@@ -0,0 +1,72 @@
+/*
+ * Created by Angel Leon (@gubatron), Alden Torres (aldenml)
+ * Copyright (c) 2011-2020, FrostWire(R). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.frostwire.search;
+
+import com.frostwire.search.archiveorg.ArchiveorgSearchPerformer;
+import com.frostwire.search.soundcloud.SoundcloudSearchPerformer;
+import com.frostwire.search.torrentparadise.TorrentParadiseSearchPerformer;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * The json performers keep the items read before a truncated or malformed
+ * item, the rest of the response is lost, not the page.
+ *
+ * @author gubatron
+ * @author aldenml
+ */
+public class JsonSearchPageTest {
+
+    private static final String ARCHIVEORG_ITEM = "{\"identifier\":\"%s\",\"title\":\"%s\",\"publicdate\":\"2009-12-02T15:41:50Z\"}";
+    private static final String PARADISE_ITEM = "{\"id\":\"0123456789abcdef0123456789abcdef0123456%s\",\"text\":\"%s\",\"len\":1000,\"s\":1,\"l\":1}";
+    private static final String SOUNDCLOUD_ITEM = "{\"id\":%s,\"title\":\"%s\",\"permalink\":\"t\",\"downloadable\":true,\"user\":{\"username\":\"u\"}," +
+            "\"media\":{\"transcodings\":[{\"url\":\"https://api.test.com/stream\",\"format\":{\"protocol\":\"progressive\"}}]}}";
+
+    @Test
+    public void testArchiveorg() {
+        PagedWebSearchPerformer p = new ArchiveorgSearchPerformer("archive.org", 1, "test", 1000);
+        String items = item(ARCHIVEORG_ITEM, "a", "A") + "," + item(ARCHIVEORG_ITEM, "b", "B");
+        assertEquals(2, p.searchPage("{\"response\":{\"docs\":[" + items + "]}}").size());
+        assertEquals(2, p.searchPage("{\"response\":{\"docs\":[" + items + ",{\"identifier\":\"c\",\"tit").size());
+        assertEquals(2, p.searchPage("{\"response\":{\"docs\":[" + items + ",{\"identifier\":{\"x\":1}}]}}").size());
+    }
+
+    @Test
+    public void testTorrentParadise() {
+        PagedWebSearchPerformer p = new TorrentParadiseSearchPerformer(1, "test", 1000);
+        String items = item(PARADISE_ITEM, "0", "a") + "," + item(PARADISE_ITEM, "1", "b");
+        // a result for the magnet and one for the .torrent of each item
+        assertEquals(4, p.searchPage("[" + items + "]").size());
+        assertEquals(4, p.searchPage("[" + items + ",{\"id\":\"01234").size());
+        assertEquals(4, p.searchPage("[" + items + ",{\"id\":\"c\",\"len\":\"many\"}]").size());
+    }
+
+    @Test
+    public void testSoundcloud() {
+        PagedWebSearchPerformer p = new SoundcloudSearchPerformer("soundcloud.com", 1, "test", 1000);
+        String items = item(SOUNDCLOUD_ITEM, "1", "a") + "," + item(SOUNDCLOUD_ITEM, "2", "b");
+        assertEquals(2, p.searchPage("{\"collection\":[" + items + "]}").size());
+        assertEquals(2, p.searchPage("{\"collection\":[" + items + ",{\"id\":3,\"tit").size());
+        assertEquals(2, p.searchPage("{\"collection\":[" + items + ",{\"id\":\"three\"}]}").size());
+    }
+
+    private static String item(String format, String id, String name) {
+        return String.format(format, id, name);
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Created by Angel Leon (@gubatron), Alden Torres (aldenml)
+ * Copyright (c) 2011-2020, FrostWire(R). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.frostwire.search;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+/**
+ * @author gubatron
+ * @author aldenml
+ */
+public class KeywordDetectorTest {
+
+    private final KeywordDetector detector = new KeywordDetector();
+    private final LinkedBlockingQueue<Map<KeywordDetector.Feature, List<Map.Entry<String, Integer>>>> updates = new LinkedBlockingQueue<>();
+
+    @After
+    public void tearDown() {
+        detector.shutdownHistogramUpdateRequestDispatcher();
+    }
+
+    @Test
+    public void testFeedIsIncremental() throws Exception {
+        listen();
+        List<SearchResult> results = results("ubuntu desktop", 10, "mint cinnamon", 5);
+        detector.feedSearchResults(results);
+        // already counted results are not counted twice
+        detector.feedSearchResults(results);
+        detector.requestHistogramsUpdateAsync(null, true);
+        Map<KeywordDetector.Feature, List<Map.Entry<String, Integer>>> h = next();
+        assertEquals(10, count(h, "ubuntu"));
+        assertEquals(5, count(h, "cinnamon"));
+        assertEquals(15, count(h, "test"));
+    }
+
+    @Test
+    public void testFilteredResultsAreRetracted() throws Exception {
+        listen();
+        List<SearchResult> results = results("ubuntu desktop", 10, "mint cinnamon", 5);
+        detector.feedSearchResults(results);
+
+        // a filter leaves only the ubuntu results
+        detector.requestHistogramsUpdateAsync(results.subList(0, 10), true);
+        Map<KeywordDetector.Feature, List<Map.Entry<String, Integer>>> h = next();
+        assertEquals(10, count(h, "ubuntu"));
+        assertEquals(0, count(h, "cinnamon"));
+
+        // and the filter is removed
+        detector.requestHistogramsUpdateAsync(results, true);
+        h = next();
+        assertEquals(10, count(h, "ubuntu"));
+        assertEquals(5, count(h, "cinnamon"));
+
+        detector.retractSearchResults(results.subList(10, 15));
+        detector.requestHistogramsUpdateAsync(null, true);
+        h = next();
+        assertEquals(0, count(h, "cinnamon"));
+    }
+
+    @Test
+    public void testReset() throws Exception {
+        listen();
+        List<SearchResult> results = results("ubuntu desktop", 10, "mint cinnamon", 5);
+        detector.feedSearchResults(results);
+        detector.reset();
+        assertEquals(0, count(next(), "ubuntu"));
+        assertEquals(0, detector.totalHistogramKeys());
+
+        detector.feedSearchResults(results);
+        detector.requestHistogramsUpdateAsync(null, true);
+        assertEquals(10, count(next(), "ubuntu"));
+    }
+
+    private void listen() {
+        detector.setKeywordDetectorListener(new KeywordDetector.KeywordDetectorListener() {
+            @Override
+            public void notifyHistogramsUpdate(Map<KeywordDetector.Feature, List<Map.Entry<String, Integer>>> filteredHistograms) {
+                updates.add(filteredHistograms);
+            }
+
+            @Override
+            public void onKeywordDetectorFinished() {
+            }
+        });
+    }
+
+    private Map<KeywordDetector.Feature, List<Map.Entry<String, Integer>>> next() throws InterruptedException {
+        Map<KeywordDetector.Feature, List<Map.Entry<String, Integer>>> h = updates.poll(10, TimeUnit.SECONDS);
+        assertNotNull(h);
+        return h;
+    }
+
+    private static int count(Map<KeywordDetector.Feature, List<Map.Entry<String, Integer>>> h, String keyword) {
+        for (List<Map.Entry<String, Integer>> entries : h.values()) {
+            for (Map.Entry<String, Integer> e : entries) {
+                if (e.getKey().equals(keyword)) {
+                    return e.getValue();
+                }
+            }
+        }
+        return 0;
+    }
+
+    private static List<SearchResult> results(String name1, int n1, String name2, int n2) {
+        List<SearchResult> results = new ArrayList<>();
+        for (int i = 0; i < n1; i++) {
+            results.add(new TestResult(name1 + " " + i + ".iso"));
+        }
+        for (int i = 0; i < n2; i++) {
+            results.add(new TestResult(name2 + " " + i + ".iso"));
+        }
+        return results;
+    }
+
+    private static final class TestResult extends AbstractFileSearchResult {
+        private final String filename;
+
+        TestResult(String filename) {
+            this.filename = filename;
+        }
+
+        @Override
+        public String getFilename() {
+            return filename;
+        }
+
+        @Override
+        public double getSize() {
+            return 1;
+        }
+
+        @Override
+        public String getDisplayName() {
+            return filename;
+        }
+
+        @Override
+        public String getDetailsUrl() {
+            return "http://test.com/" + filename;
+        }
+
+        @Override
+        public String getSource() {
+            return "Test";
+        }
+    }
+}
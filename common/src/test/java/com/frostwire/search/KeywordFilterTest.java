@@ -53,7 +53,7 @@ public class KeywordFilterTest {
         }
 
         @Override
-        public long getSize() {
+        public double getSize() {
             return 0;
         }
 
@@ -86,11 +86,6 @@ public class KeywordFilterTest {
         public String getThumbnailUrl() {
             return "Let me look back upon thee. O thou wall, That girdlest in those wolves, dive in the earth";
         }
-
-        @Override
-        public int uid() {
-            return 0;
-        }
     };
 
     // Poor man's JUnit, Temporary until we formalize unit tests in Android
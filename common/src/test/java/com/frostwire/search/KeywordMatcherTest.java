@@ -0,0 +1,133 @@
+/*
+ * Created by Angel Leon (@gubatron), Alden Torres (aldenml)
+ * Copyright (c) 2011-2020, FrostWire(R). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.frostwire.search;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author gubatron
+ * @author aldenml
+ */
+public class KeywordMatcherTest {
+
+    @Test
+    public void testMatchAgainstContains() {
+        Random r = new Random(7);
+        String alphabet = "abc ";
+        for (int round = 0; round < 500; round++) {
+            List<String> keywords = new ArrayList<>();
+            for (int i = 0; i < 1 + r.nextInt(8); i++) {
+                keywords.add(random(r, alphabet, 1 + r.nextInt(4)));
+            }
+            KeywordMatcher m = new KeywordMatcher(keywords);
+            String text = random(r, alphabet, r.nextInt(40));
+            long found = m.match(text);
+            for (int i = 0; i < m.size(); i++) {
+                assertEquals(m.keyword(i) + " in " + text, text.contains(m.keyword(i)), (found & (1L << i)) != 0);
+            }
+        }
+    }
+
+    @Test
+    public void testContainsAll() {
+        KeywordMatcher m = new KeywordMatcher(Arrays.asList("she", "he", "hers"));
+        assertTrue(m.containsAll("ushers"));
+        assertFalse(m.containsAll("she"));
+        assertTrue(m.containsAny("he"));
+        assertTrue(new KeywordMatcher(Collections.emptyList()).containsAll("anything"));
+    }
+
+    @Test
+    public void testFold() {
+        assertEquals("cafe nandu", NormalizedText.fold("Caf\u00e9 \u00d1and\u00fa"));
+        assertEquals("plain ascii", NormalizedText.fold("Plain ASCII"));
+    }
+
+    @Test
+    public void testNameHaystackCached() {
+        TestResult sr = new TestResult("Beyonc\u00e9 - <b>Halo</b> (Live)_2009");
+        String haystack = NormalizedText.nameHaystack(sr);
+        assertEquals("beyonce halo live 2009", haystack);
+        assertSame(haystack, NormalizedText.nameHaystack(sr));
+    }
+
+    @Test
+    public void testFilterPipeline() {
+        TestResult sr = new TestResult("Timon of Ath\u00e9ns");
+        List<KeywordFilter> pipeline = new ArrayList<>();
+        pipeline.add(new KeywordFilter(true, "athens", null));
+        pipeline.add(new KeywordFilter(false, "hamlet", null));
+        assertTrue(KeywordFilter.passesFilterPipeline(sr, pipeline));
+        pipeline.add(new KeywordFilter(false, "timon", null));
+        assertFalse(KeywordFilter.passesFilterPipeline(sr, pipeline));
+    }
+
+    @Test
+    public void testFilterPipelineEmptyKeyword() {
+        TestResult sr = new TestResult("Timon of Athens");
+        List<KeywordFilter> pipeline = new ArrayList<>();
+        pipeline.add(new KeywordFilter(true, "", null));
+        assertTrue(KeywordFilter.passesFilterPipeline(sr, pipeline));
+        // an empty keyword is in every haystack, excluding it rejects all
+        pipeline.add(new KeywordFilter(false, "", null));
+        assertFalse(KeywordFilter.passesFilterPipeline(sr, pipeline));
+        assertFalse(KeywordFilter.passesFilterPipeline(new TestResult("zzz"), pipeline));
+    }
+
+    private static String random(Random r, String alphabet, int length) {
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append(alphabet.charAt(r.nextInt(alphabet.length())));
+        }
+        return sb.toString();
+    }
+
+    private static final class TestResult extends AbstractSearchResult {
+        private final String name;
+
+        TestResult(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String getDisplayName() {
+            return name;
+        }
+
+        @Override
+        public String getDetailsUrl() {
+            return "http://test.com/details";
+        }
+
+        @Override
+        public String getSource() {
+            return "test";
+        }
+    }
+}
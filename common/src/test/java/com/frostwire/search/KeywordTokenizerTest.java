@@ -0,0 +1,122 @@
+/*
+ * Created by Angel Leon (@gubatron), Alden Torres (aldenml)
+ * Copyright (c) 2011-2020, FrostWire(R). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.frostwire.search;
+
+import com.frostwire.util.HistoHashMap;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author gubatron
+ * @author aldenml
+ */
+public class KeywordTokenizerTest {
+
+    private static final Set<String> STOP_WORDS = new HashSet<>(Arrays.asList("the", "and", "feat", "feat.", "dont", "de"));
+    private static final Pattern REPLACE_ALL_PATTERN = Pattern.compile("[^\\p{L}0-9 .]|\\.{2,}");
+
+    private static final String[] NAMES = {
+            "Ubuntu 20.04.1 LTS (Focal Fossa) Desktop amd64.iso",
+            "The.Beatles-Abbey.Road-Remastered-2009-[FLAC]",
+            "Daft Punk feat. Pharrell Williams - Get Lucky (Radio Edit).mp3",
+            "Bj\u00F6rk - Homogenic (1997) [320kbps]",
+            "Caf\u00E9_Tacvba--Re...1994__\u00D1and\u00FA",
+            "Ahmad Jamal Trio ... Live at the Pershing",
+            "Sigur R\u00F3s - \u00C1g\u00E6tis byrjun",
+            "Die \u00C4rzte   Jazz ist anders",
+            "\uD834\uDD1E Music \uD834\uDD1E symbols",
+            "AC/DC - Back In Black (Don't Stop)",
+            "\u9ED2\u6FA4\u660E \u4E03\u4EBA\u306E\u4F8D Seven Samurai 1954 1080p",
+            "   leading and trailing   ",
+            "a.b..c...d....e",
+            "supercalifragilisticexpialidocious and more",
+            "",
+    };
+
+    @Test
+    public void testSameTokensAsRegexTokenizer() {
+        KeywordTokenizer tokenizer = new KeywordTokenizer(STOP_WORDS);
+        for (String name : NAMES) {
+            for (int min = 1; min <= 4; min++) {
+                for (int max : new int[]{3, 8, 20}) {
+                    List<String> actual = new ArrayList<>();
+                    tokenizer.reset(name, min, max);
+                    while (tokenizer.next()) {
+                        assertEquals(tokenizer.toString().hashCode(), tokenizer.hashCode());
+                        actual.add(tokenizer.toString());
+                    }
+                    assertEquals(name + " " + min + "-" + max, regexTokens(name, min, max), actual);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testRegion() {
+        KeywordTokenizer tokenizer = new KeywordTokenizer(null);
+        String name = "Some.Movie.2019.1080p.mkv";
+        tokenizer.reset(name, name.lastIndexOf('.') + 1, name.length(), 1, 8);
+        assertTrue(tokenizer.next());
+        assertEquals("mkv", tokenizer.toString());
+        assertFalse(tokenizer.next());
+    }
+
+    @Test
+    public void testLookupWithoutCreatingKeys() {
+        KeywordTokenizer tokenizer = new KeywordTokenizer(null);
+        HistoHashMap<String> histogram = new HistoHashMap<>();
+        HashMap<String, Integer> map = new HashMap<>();
+        map.put("fossa", 1);
+
+        tokenizer.reset("FOSSA Fossa fossa", 1, 20);
+        int created = 0;
+        while (tokenizer.next()) {
+            assertTrue(map.containsKey(tokenizer));
+            if (!histogram.addIfPresent(tokenizer, 1)) {
+                histogram.add(tokenizer.toString(), 1);
+                created++;
+            }
+        }
+        assertEquals(1, created);
+        assertEquals(3, histogram.get("fossa"));
+    }
+
+    private static List<String> regexTokens(String terms, int min, int max) {
+        List<String> tokens = new ArrayList<>();
+        String[] pre_tokens = REPLACE_ALL_PATTERN.matcher(terms).replaceAll("").toLowerCase(Locale.US).split("\\s");
+        for (String token : pre_tokens) {
+            token = token.trim();
+            if (min <= token.length() && token.length() <= max && !STOP_WORDS.contains(token)) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Created by Angel Leon (@gubatron), Alden Torres (aldenml)
+ * Copyright (c) 2011-2020, FrostWire(R). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.frostwire.search;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An in memory {@link CrawlCache} for the tests, the backing store of the
+ * caches under test. The writes can be held with a {@link #gate}, and the
+ * reads with a {@link #readGate}.
+ *
+ * @author gubatron
+ * @author aldenml
+ */
+public final class MapCrawlCache implements CrawlCache {
+    public final Map<String, byte[]> map = new ConcurrentHashMap<>();
+    // if set, the puts and removes wait for it (5 seconds at most)
+    public volatile CountDownLatch gate;
+    // if set, the gets wait for it (5 seconds at most), counting down
+    // readEntered first
+    public volatile CountDownLatch readGate;
+    public volatile CountDownLatch readEntered;
+
+    private void pass() {
+        pass(gate);
+    }
+
+    private static void pass(CountDownLatch g) {
+        if (g != null) {
+            try {
+                g.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                // ignore
+            }
+        }
+    }
+
+    @Override
+    public byte[] get(String key) {
+        byte[] data = map.get(key);
+        CountDownLatch entered = readEntered;
+        if (entered != null) {
+            entered.countDown();
+        }
+        pass(readGate);
+        return data;
+    }
+
+    @Override
+    public void put(String key, byte[] data) {
+        pass();
+        map.put(key, data);
+    }
+
+    @Override
+    public void remove(String key) {
+        pass();
+        map.remove(key);
+    }
+
+    @Override
+    public void clear() {
+        map.clear();
+    }
+
+    @Override
+    public long numEntries() {
+        return map.size();
+    }
+
+    @Override
+    public long sizeInBytes() {
+        long n = 0;
+        for (byte[] data : map.values()) {
+            n += data.length;
+        }
+        return n;
+    }
+}
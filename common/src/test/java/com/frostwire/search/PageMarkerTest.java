@@ -0,0 +1,66 @@
+/*
+ * Created by Angel Leon (@gubatron), Alden Torres (aldenml)
+ * Copyright (c) 2011-2020, FrostWire(R). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.frostwire.search;
+
+import org.junit.Test;
+
+import java.nio.CharBuffer;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author gubatron
+ * @author aldenml
+ */
+public class PageMarkerTest {
+
+    @Test
+    public void testIndexIn() {
+        PageMarker m = new PageMarker("<div class=\"results\">");
+        String page = "<html><div class=\"result\"><div class=\"results\"><div class=\"results\">";
+        assertEquals(page.indexOf(m.marker()), m.indexIn(page));
+        assertEquals(page.lastIndexOf(m.marker()), m.indexIn(page, page.indexOf(m.marker()) + 1, page.length()));
+        // the region ends before the whole marker
+        assertEquals(-1, m.indexIn(page, 0, page.indexOf(m.marker()) + 5));
+        assertEquals(-1, m.indexIn("<div"));
+        assertEquals(0, new PageMarker("a").indexIn("abc"));
+        // on any CharSequence
+        assertEquals(page.indexOf(m.marker()), m.indexIn(CharBuffer.wrap(page)));
+    }
+
+    @Test
+    public void testSameAsIndexOf() {
+        // a small alphabet, with chars of the same low byte, for many partial matches
+        char[] alphabet = {'a', 'b', '<', '\u0161', '\u0261'};
+        Random r = new Random(7);
+        for (int k = 0; k < 2000; k++) {
+            String page = random(r, alphabet, 200);
+            String marker = random(r, alphabet, 1 + r.nextInt(6));
+            assertEquals(page + " " + marker, page.indexOf(marker), new PageMarker(marker).indexIn(page));
+        }
+    }
+
+    private static String random(Random r, char[] alphabet, int length) {
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append(alphabet[r.nextInt(alphabet.length)]);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Created by Angel Leon (@gubatron), Alden Torres (aldenml)
+ * Copyright (c) 2011-2020, FrostWire(R). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.frostwire.search;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Every test uses its own host, the pages go through the host limits of
+ * the shared {@link SearchManager} and a host already hit by another test
+ * would have no tokens left for concurrent pages.
+ *
+ * @author gubatron
+ * @author aldenml
+ */
+public class PagedWebSearchPerformerTest {
+
+    @Test
+    public void testPagesDeliveredInOrder() {
+        // later pages answer faster than the first ones
+        TestPerformer p = new TestPerformer("ordered.com", 6, 3, -1, page -> 50 - page * 8);
+        List<String> received = collect(p);
+
+        assertEquals(6, received.size());
+        for (int i = 0; i < received.size(); i++) {
+            assertEquals("page" + (i + 1), received.get(i));
+        }
+        assertTrue(p.maxConcurrent.get() > 1);
+        assertTrue(p.maxConcurrent.get() <= 3);
+    }
+
+    @Test
+    public void testStopsAtEmptyPage() {
+        TestPerformer p = new TestPerformer("empty.com", 10, 2, 3, page -> 10);
+        List<String> received = collect(p);
+
+        assertEquals(2, received.size());
+        assertTrue("fetched " + p.fetched.get() + " pages", p.fetched.get() <= 4);
+    }
+
+    @Test
+    public void testSequentialWhenNotConcurrent() {
+        TestPerformer p = new TestPerformer("sequential.com", 4, 1, -1, page -> 5);
+        List<String> received = collect(p);
+
+        assertEquals(4, received.size());
+        assertEquals(1, p.maxConcurrent.get());
+    }
+
+    @Test
+    public void testStopPaging() {
+        TestPerformer p = new TestPerformer("stopped.com", 10, 3, -1, page -> 10);
+        p.stopPaging();
+        List<String> received = collect(p);
+
+        assertEquals(1, received.size());
+        assertEquals(1, p.fetched.get());
+    }
+
+    @Test
+    public void testHostLimits() {
+        SearchManager.getInstance().setHostLimits("limited.com", 1, 100);
+        TestPerformer p = new TestPerformer("limited.com", 4, 3, -1, page -> 10);
+        List<String> received = collect(p);
+
+        assertEquals(4, received.size());
+        assertEquals(1, p.maxConcurrent.get());
+    }
+
+    private static List<String> collect(TestPerformer p) {
+        List<String> received = Collections.synchronizedList(new ArrayList<>());
+        p.setListener(new SearchListener() {
+            @Override
+            public void onResults(long token, List<? extends SearchResult> results) {
+                for (SearchResult sr : results) {
+                    received.add(sr.getDisplayName());
+                }
+            }
+
+            @Override
+            public void onError(long token, SearchError error) {
+            }
+
+            @Override
+            public void onStopped(long token) {
+            }
+        });
+        p.perform();
+        return received;
+    }
+
+    private interface Delay {
+        int millis(int page);
+    }
+
+    private static final class TestPerformer extends PagedWebSearchPerformer {
+        private final int maxConcurrentPages;
+        private final int emptyPage;
+        private final Delay delay;
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxConcurrent = new AtomicInteger();
+        final AtomicInteger fetched = new AtomicInteger();
+
+        TestPerformer(String domainName, int pages, int maxConcurrentPages, int emptyPage, Delay delay) {
+            super(domainName, 1, "test", 1000, pages);
+            this.maxConcurrentPages = maxConcurrentPages;
+            this.emptyPage = emptyPage;
+            this.delay = delay;
+        }
+
+        @Override
+        protected int getMaxConcurrentPages() {
+            return maxConcurrentPages;
+        }
+
+        @Override
+        protected String getUrl(int page, String encodedKeywords) {
+            return String.valueOf(page);
+        }
+
+        @Override
+        protected String fetchSearchPage(String url) {
+            maxConcurrent.accumulateAndGet(running.incrementAndGet(), Math::max);
+            fetched.incrementAndGet();
+            try {
+                Thread.sleep(Math.max(delay.millis(Integer.parseInt(url)), 1));
+            } catch (InterruptedException e) {
+                // ignore
+            } finally {
+                running.decrementAndGet();
+            }
+            return url;
+        }
+
+        @Override
+        protected List<? extends SearchResult> searchPage(String page) {
+            if (Integer.parseInt(page) == emptyPage) {
+                return Collections.emptyList();
+            }
+            return Collections.singletonList(new AbstractSearchResult() {
+                @Override
+                public String getDisplayName() {
+                    return "page" + page;
+                }
+
+                @Override
+                public String getDetailsUrl() {
+                    return page;
+                }
+
+                @Override
+                public String getSource() {
+                    return "test";
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ * Created by Angel Leon (@gubatron), Alden Torres (aldenml)
+ * Copyright (c) 2011-2020, FrostWire(R). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.frostwire.search;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author gubatron
+ * @author aldenml
+ */
+public class QueryCacheTest {
+
+    @After
+    public void tearDown() {
+        PagedWebSearchPerformer.setQueryCache(null);
+    }
+
+    @Test
+    public void testNormalizedQuery() {
+        QueryCache cache = new QueryCache(null, 1024 * 1024, 0);
+        cache.put("test.com", "Big  Buck\tBunny ", 1, "page");
+        assertEquals("page", cache.get("test.com", "big buck bunny", 1).text);
+        assertNull(cache.get("test.com", "big buck bunny", 2));
+        assertNull(cache.get("other.com", "big buck bunny", 1));
+        assertNull(cache.get("test.com", "bigbuck bunny", 1));
+    }
+
+    @Test
+    public void testFreshStaleExpired() throws InterruptedException {
+        QueryCache cache = new QueryCache(null, 1024 * 1024, 0, 0, 60000);
+        cache.put("test.com", "test", 1, "page");
+        QueryCache.Page p = cache.get("test.com", "test", 1);
+        assertTrue(p.stale);
+        assertEquals(1, cache.staleHits());
+
+        cache = new QueryCache(null, 1024 * 1024, 0, 60000, 60000);
+        cache.put("test.com", "test", 1, "page");
+        assertFalse(cache.get("test.com", "test", 1).stale);
+        assertEquals(1, cache.hits());
+
+        cache = new QueryCache(null, 1024 * 1024, 0, 0, 5);
+        cache.put("test.com", "test", 1, "page");
+        Thread.sleep(10);
+        assertNull(cache.get("test.com", "test", 1));
+        assertEquals(1, cache.misses());
+        assertEquals(0, cache.memorySizeInBytes());
+    }
+
+    @Test
+    public void testMemoryBudget() {
+        QueryCache cache = new QueryCache(null, 250, 0);
+        for (int i = 1; i <= 4; i++) {
+            cache.put("test.com", "test", i, text(50));
+        }
+        assertTrue(cache.memorySizeInBytes() <= 250);
+        assertNull(cache.get("test.com", "test", 1));
+        assertNull(cache.get("test.com", "test", 2));
+        assertNotNull(cache.get("test.com", "test", 4));
+    }
+
+    @Test
+    public void testDiskBudgetAndReload() {
+        MapCrawlCache store = new MapCrawlCache();
+        store.put("other", new byte[10]);
+        QueryCache cache = new QueryCache(store, 0, 350);
+        for (int i = 1; i <= 20; i++) {
+            cache.put("test.com", "test", i, text(100));
+        }
+        assertTrue(cache.diskSizeInBytes() <= 350);
+        assertNotNull(cache.get("test.com", "test", 20));
+
+        // nothing in memory, all from the backing cache, with an older index
+        QueryCache reloaded = new QueryCache(store, 0, 350);
+        assertEquals(text(100), reloaded.get("test.com", "test", 20).text);
+        assertNull(reloaded.get("test.com", "test", 1));
+        assertTrue(reloaded.diskSizeInBytes() <= 350);
+
+        cache.clear();
+        assertNull(cache.get("test.com", "test", 20));
+        assertEquals(Collections.singleton("other"), store.map.keySet());
+    }
+
+    @Test
+    public void testPagesServedFromCacheAndRefreshed() {
+        PagedWebSearchPerformer.setQueryCache(new QueryCache(null, 1024 * 1024, 0, 0, 60000));
+
+        TestPerformer p = new TestPerformer("a b");
+        assertEquals(Arrays.asList("a", "b"), collect(p));
+        assertEquals(1, p.fetched.get());
+
+        // the first page is stale, served and then fetched again
+        p = new TestPerformer("a b c");
+        assertEquals(Arrays.asList("a", "b", "c"), collect(p));
+        assertEquals(1, p.fetched.get());
+
+        PagedWebSearchPerformer.setQueryCache(new QueryCache(null, 1024 * 1024, 0, 60000, 60000));
+        p = new TestPerformer("a b");
+        collect(p);
+        p = new TestPerformer("a b c");
+        assertEquals(Arrays.asList("a", "b"), collect(p));
+        assertEquals(0, p.fetched.get());
+    }
+
+    @Test
+    public void testRefreshWithinHostLimits() {
+        // a burst of 2 fetches, then one every 500ms
+        SearchManager.getInstance().setHostLimits("refresh.com", 1, 2);
+        PagedWebSearchPerformer.setQueryCache(new QueryCache(null, 1024 * 1024, 0, 0, 60000));
+        collect(new TestPerformer("refresh.com", "a b"));
+
+        // the page (from the cache) takes the last token, the refresh waits for the next one
+        long start = System.currentTimeMillis();
+        TestPerformer p = new TestPerformer("refresh.com", "a b c");
+        assertEquals(Arrays.asList("a", "b", "c"), collect(p));
+        assertEquals(1, p.fetched.get());
+        assertTrue(System.currentTimeMillis() - start >= 300);
+    }
+
+    private static String text(int length) {
+        char[] chars = new char[length];
+        Arrays.fill(chars, 'x');
+        return new String(chars);
+    }
+
+    private static List<String> collect(TestPerformer p) {
+        List<String> received = Collections.synchronizedList(new ArrayList<>());
+        p.setListener(new SearchListener() {
+            @Override
+            public void onResults(long token, List<? extends SearchResult> results) {
+                for (SearchResult sr : results) {
+                    received.add(sr.getDisplayName());
+                }
+            }
+
+            @Override
+            public void onError(long token, SearchError error) {
+            }
+
+            @Override
+            public void onStopped(long token) {
+            }
+        });
+        p.perform();
+        return received;
+    }
+
+    private static final class TestPerformer extends PagedWebSearchPerformer {
+        private final String text;
+        final AtomicInteger fetched = new AtomicInteger();
+
+        TestPerformer(String text) {
+            this("test.com", text);
+        }
+
+        TestPerformer(String domainName, String text) {
+            super(domainName, 1, "test", 1000, 1);
+            this.text = text;
+        }
+
+        @Override
+        protected String getUrl(int page, String encodedKeywords) {
+            return String.valueOf(page);
+        }
+
+        @Override
+        protected String fetchSearchPage(String url) {
+            fetched.incrementAndGet();
+            return text;
+        }
+
+        @Override
+        protected List<? extends SearchResult> searchPage(String page) {
+            List<SearchResult> results = new ArrayList<>();
+            for (final String name : page.split(" ")) {
+                results.add(new AbstractSearchResult() {
+                    @Override
+                    public String getDisplayName() {
+                        return name;
+                    }
+
+                    @Override
+                    public String getDetailsUrl() {
+                        return "http://test.com/" + name;
+                    }
+
+                    @Override
+                    public String getSource() {
+                        return "test";
+                    }
+                });
+            }
+            return results;
+        }
+    }
+}
@@ -0,0 +1,327 @@
+/*
+ * Created by Angel Leon (@gubatron), Alden Torres (aldenml)
+ * Copyright (c) 2011-2020, FrostWire(R). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.frostwire.search;
+
+import com.frostwire.search.torrent.MergedTorrent;
+import com.frostwire.search.torrent.TorrentCrawledFiles;
+import com.frostwire.search.torrent.TorrentCrawledSearchResult;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author gubatron
+ * @author aldenml
+ */
+public class SearchManagerTest {
+
+    private static final String HASH = "0123456789ABCDEF0123456789ABCDEF01234567";
+
+    @Test
+    public void testDuplicateTorrentsMerged() throws InterruptedException {
+        SearchManager manager = SearchManager.getInstance();
+        long token = 3000;
+        List<SearchResult> delivered = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger crawled = new AtomicInteger();
+        manager.setListener(new SearchListener() {
+            @Override
+            public void onResults(long t, List<? extends SearchResult> results) {
+                delivered.addAll(results);
+            }
+
+            @Override
+            public void onError(long t, SearchError error) {
+            }
+
+            @Override
+            public void onStopped(long t) {
+            }
+        });
+
+        try {
+            manager.perform(new TorrentPerformer(token, crawled, new TestTorrentResult("engineA", HASH, 10)));
+            manager.perform(new TorrentPerformer(token, crawled, new TestTorrentResult("engineB", HASH.toLowerCase(), 50)));
+            manager.perform(new TorrentPerformer(token, crawled, new TestTorrentResult("engineC", HASH, 20), new TestTorrentResult("engineC", "ffff", 1)));
+            long deadline = System.currentTimeMillis() + 10000;
+            while ((crawled.get() < 2 || manager.pendingTasks(token) > 0) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+
+            // one result per torrent, delivered and crawled once
+            assertEquals(2, delivered.size());
+            assertEquals(2, crawled.get());
+
+            MergedTorrent m = manager.getMergedTorrent(token, HASH);
+            assertEquals(3, m.size());
+            assertEquals(50, m.getSeeds());
+            assertTrue(m.getSources().containsAll(Arrays.asList("engineA", "engineB", "engineC")));
+        } finally {
+            manager.setListener(null);
+        }
+    }
+
+    @Test
+    public void testBudget() throws InterruptedException {
+        SearchManager manager = SearchManager.getInstance();
+        List<SearchResult> delivered = Collections.synchronizedList(new ArrayList<>());
+        manager.setListener(new CollectingListener(delivered));
+        manager.setBudget(new SearchBudget(3, 2, Long.MAX_VALUE));
+        try {
+            // the first 3 results are sent, then the search is stopped
+            long token = 3001;
+            AtomicInteger crawled = new AtomicInteger();
+            TorrentPerformer p = new TorrentPerformer(token, crawled, results("a", 5));
+            manager.perform(p);
+            await(manager, token, () -> false);
+            assertEquals(3, delivered.size());
+            assertTrue(p.isStopped());
+
+            // only 2 of the crawls are scheduled
+            delivered.clear();
+            crawled.set(0);
+            token = 3002;
+            manager.perform(new TorrentPerformer(token, crawled, results("b", 3)));
+            await(manager, token, () -> false);
+            assertEquals(3, delivered.size());
+            assertEquals(2, crawled.get());
+        } finally {
+            manager.setBudget(SearchBudget.UNLIMITED);
+            manager.setListener(null);
+        }
+    }
+
+    @Test
+    public void testCrawledFilesNotCopied() throws InterruptedException {
+        SearchManager manager = SearchManager.getInstance();
+        List<List<? extends SearchResult>> delivered = Collections.synchronizedList(new ArrayList<>());
+        manager.setListener(new SearchListener() {
+            @Override
+            public void onResults(long t, List<? extends SearchResult> results) {
+                delivered.add(results);
+            }
+
+            @Override
+            public void onError(long t, SearchError error) {
+            }
+
+            @Override
+            public void onStopped(long t) {
+            }
+        });
+        try {
+            // the files are sent as they are
+            long token = 3005;
+            TorrentCrawledFiles files = files(5);
+            manager.perform(new FilesPerformer(token, files));
+            await(manager, token, () -> !delivered.isEmpty());
+            assertEquals(1, delivered.size());
+            assertSame(files, delivered.get(0));
+
+            // cut to the budget, still a view of the same files
+            delivered.clear();
+            manager.setBudget(new SearchBudget(3, 2, Long.MAX_VALUE));
+            token = 3006;
+            manager.perform(new FilesPerformer(token, files(5)));
+            await(manager, token, () -> !delivered.isEmpty());
+            assertEquals(1, delivered.size());
+            List<? extends SearchResult> results = delivered.get(0);
+            assertEquals(3, results.size());
+            assertEquals("Show/Show.S01E03.mkv", ((TorrentCrawledSearchResult) results.get(2)).getFilePath());
+        } finally {
+            manager.setBudget(SearchBudget.UNLIMITED);
+            manager.setListener(null);
+        }
+    }
+
+    @Test
+    public void testBackpressureHoldsCrawls() throws InterruptedException {
+        SearchManager manager = SearchManager.getInstance();
+        long token = 3003;
+        List<SearchResult> delivered = Collections.synchronizedList(new ArrayList<>());
+        manager.setListener(new CollectingListener(delivered));
+        try {
+            AtomicInteger crawled = new AtomicInteger();
+            TorrentPerformer p = new BackpressurePerformer(manager, token, crawled, results("d", 3));
+            manager.perform(p);
+            await(manager, token, () -> delivered.size() == 3);
+            assertEquals(3, delivered.size());
+            assertEquals(0, crawled.get());
+            // the held crawls keep the search going
+            assertEquals(3, manager.pendingTasks(token));
+
+            manager.setBackpressure(token, false);
+            await(manager, token, () -> false);
+            assertEquals(3, crawled.get());
+            assertEquals(0, manager.pendingTasks(token));
+            assertFalse(p.isStopped());
+        } finally {
+            manager.setListener(null);
+        }
+    }
+
+    @Test
+    public void testBackpressureReleased() throws InterruptedException {
+        SearchManager manager = SearchManager.getInstance();
+        List<SearchResult> delivered = Collections.synchronizedList(new ArrayList<>());
+        manager.setListener(new CollectingListener(delivered));
+        manager.setBackpressureTimeout(200);
+        try {
+            // never turned off, the timeout releases the held crawls
+            long token = 3004;
+            AtomicInteger crawled = new AtomicInteger();
+            manager.perform(new BackpressurePerformer(manager, token, crawled, results("e", 2)));
+            await(manager, token, () -> false);
+            assertEquals(2, crawled.get());
+            assertEquals(0, manager.pendingTasks(token));
+
+            // stopped, the held crawls finish without running
+            token = 3005;
+            crawled.set(0);
+            manager.setBackpressureTimeout(60000);
+            BackpressurePerformer p = new BackpressurePerformer(manager, token, crawled, results("f", 2));
+            manager.perform(p);
+            long t = token;
+            await(manager, token, () -> manager.pendingTasks(t) == 2);
+            manager.stop(token);
+            await(manager, token, () -> false);
+            assertEquals(0, crawled.get());
+            assertEquals(0, manager.pendingTasks(token));
+            assertTrue(p.isStopped());
+        } finally {
+            manager.setBackpressureTimeout(30000);
+            manager.setListener(null);
+        }
+    }
+
+    private interface Condition {
+        boolean met();
+    }
+
+    // until the condition is met or the search is over
+    private static void await(SearchManager manager, long token, Condition condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (!condition.met() && manager.pendingTasks(token) > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static SearchResult[] results(String source, int n) {
+        SearchResult[] arr = new SearchResult[n];
+        for (int i = 0; i < n; i++) {
+            arr[i] = new TestTorrentResult(source, source + i, 1);
+        }
+        return arr;
+    }
+
+    private static TorrentCrawledFiles files(int n) {
+        StringBuilder sb = new StringBuilder("d4:infod5:filesl");
+        for (int i = 1; i <= n; i++) {
+            sb.append("d6:lengthi").append(i * 1000).append("e4:pathl15:Show.S01E0").append(i).append(".mkvee");
+        }
+        sb.append("e4:name4:Show12:piece lengthi16384e6:pieces20:01234567890123456789ee");
+        TestTorrentResult parent = new TestTorrentResult("test", "show.torrent", HASH, 1, "http://test.com/show.torrent");
+        return TorrentCrawledFiles.of(parent, sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static final class CollectingListener implements SearchListener {
+        private final List<SearchResult> delivered;
+
+        CollectingListener(List<SearchResult> delivered) {
+            this.delivered = delivered;
+        }
+
+        @Override
+        public void onResults(long token, List<? extends SearchResult> results) {
+            delivered.addAll(results);
+        }
+
+        @Override
+        public void onError(long token, SearchError error) {
+        }
+
+        @Override
+        public void onStopped(long token) {
+        }
+    }
+
+    // the listener is behind before the results arrive
+    private static final class BackpressurePerformer extends TorrentPerformer {
+        private final SearchManager manager;
+
+        BackpressurePerformer(SearchManager manager, long token, AtomicInteger crawled, SearchResult... results) {
+            super(token, crawled, results);
+            this.manager = manager;
+        }
+
+        @Override
+        public void perform() {
+            manager.setBackpressure(getToken(), true);
+            super.perform();
+        }
+    }
+
+    // the results of a crawled torrent
+    private static final class FilesPerformer extends AbstractSearchPerformer {
+        private final TorrentCrawledFiles files;
+
+        FilesPerformer(long token, TorrentCrawledFiles files) {
+            super(token);
+            this.files = files;
+        }
+
+        @Override
+        public void perform() {
+            onResults(files);
+        }
+
+        @Override
+        public void crawl(CrawlableSearchResult sr) {
+        }
+    }
+
+    private static class TorrentPerformer extends AbstractSearchPerformer {
+        private final AtomicInteger crawled;
+        private final List<SearchResult> results;
+
+        TorrentPerformer(long token, AtomicInteger crawled, SearchResult... results) {
+            super(token);
+            this.crawled = crawled;
+            this.results = Arrays.asList(results);
+        }
+
+        @Override
+        public void perform() {
+            onResults(results);
+        }
+
+        @Override
+        public void crawl(CrawlableSearchResult sr) {
+            crawled.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Created by Angel Leon (@gubatron), Alden Torres (aldenml)
+ * Copyright (c) 2011-2020, FrostWire(R). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.frostwire.search;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author gubatron
+ * @author aldenml
+ */
+public class SearchMetricsTest {
+
+    private static final long MS = 1000000;
+
+    @Test
+    public void testHistogram() {
+        SearchMetrics.Histogram h = SearchMetrics.getInstance().engine("histogram.test").fetchLatency();
+        for (int i = 0; i < 8; i++) {
+            h.record(20 * MS);
+        }
+        h.record(700 * MS);
+        h.record(45000 * MS);
+
+        assertEquals(10, h.count());
+        long[] counts = h.counts();
+        assertEquals(h.bounds().length + 1, counts.length);
+        assertEquals(8, counts[0]);
+        assertEquals(1, counts[4]);
+        assertEquals(1, counts[counts.length - 1]);
+        // the bound of the bucket, the max seen for the last one
+        assertEquals(50, h.percentileMillis(0.5));
+        assertEquals(1000, h.percentileMillis(0.9));
+        assertEquals(45000, h.percentileMillis(1));
+        assertEquals(45000, h.maxMillis());
+        assertEquals((8 * 20 + 700 + 45000) / 10, h.meanMillis());
+
+        h.reset();
+        assertEquals(0, h.count());
+        assertEquals(0, h.percentileMillis(0.5));
+    }
+
+    @Test
+    public void testPagesCounted() {
+        SearchMetrics metrics = SearchMetrics.getInstance();
+        SearchMetrics.Engine e = metrics.engine("paged.test");
+        e.reset();
+        TestPerformer p = new TestPerformer(new int[]{3, 2, 0});
+        assertSame(e, p.metrics());
+        p.perform();
+
+        assertEquals(3, e.pages());
+        assertEquals(1, e.emptyPages());
+        assertEquals(5, e.results());
+        assertEquals(5 / 3.0, e.resultsPerPage(), 0.001);
+        assertTrue(e.parseNanos() > 0);
+        assertEquals(0, e.errors());
+
+        // a page that doesn't parse is an error, not a parsed page
+        new TestPerformer(new int[]{-1}).perform();
+        assertEquals(3, e.pages());
+        assertEquals(1, e.errors());
+
+        assertTrue(metrics.report().contains("paged.test"));
+        metrics.reset();
+        assertEquals(0, e.pages());
+        assertEquals(0, e.errors());
+    }
+
+    private static final class TestPerformer extends PagedWebSearchPerformer {
+        private final int[] results;
+
+        TestPerformer(int[] results) {
+            super("paged.test", 1, "test", 1000, results.length);
+            this.results = results;
+        }
+
+        @Override
+        protected int getMaxConcurrentPages() {
+            return 1;
+        }
+
+        @Override
+        protected String getUrl(int page, String encodedKeywords) {
+            return String.valueOf(page);
+        }
+
+        @Override
+        protected String fetchSearchPage(String url) {
+            return url;
+        }
+
+        @Override
+        protected List<? extends SearchResult> searchPage(String page) {
+            int count = results[Integer.parseInt(page) - 1];
+            if (count < 0) {
+                throw new IllegalStateException("layout changed");
+            }
+            List<SearchResult> list = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                list.add(new AbstractSearchResult() {
+                    @Override
+                    public String getDisplayName() {
+                        return "result";
+                    }
+
+                    @Override
+                    public String getDetailsUrl() {
+                        return "details";
+                    }
+
+                    @Override
+                    public String getSource() {
+                        return "test";
+                    }
+                });
+            }
+            return list;
+        }
+    }
+}
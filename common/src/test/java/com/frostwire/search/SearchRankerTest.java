@@ -0,0 +1,116 @@
+/*
+ * Created by Angel Leon (@gubatron), Alden Torres (aldenml)
+ * Copyright (c) 2011-2020, FrostWire(R). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.frostwire.search;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author gubatron
+ * @author aldenml
+ */
+public class SearchRankerTest {
+
+    @Test
+    public void testTextScore() {
+        SearchRanker ranker = new SearchRanker("big buck bunny");
+        float exact = ranker.textScore(new TestTorrentResult("Test", "Big_Buck_Bunny_1080p.mp4", null, 10, null));
+        float apart = ranker.textScore(new TestTorrentResult("Test", "Bunny and the big old buck.mp4", null, 10, null));
+        float partial = ranker.textScore(new TestTorrentResult("Test", "Big Hero 6.mp4", null, 10, null));
+        float none = ranker.textScore(new TestTorrentResult("Test", "Sintel.mkv", null, 10, null));
+        assertTrue(exact > apart);
+        assertTrue(apart > partial);
+        assertTrue(partial > none);
+        assertEquals(0, none, 0);
+    }
+
+    @Test
+    public void testSeedsAndSourceBreakTies() {
+        SearchRanker ranker = new SearchRanker("sintel");
+        TestTorrentResult few = new TestTorrentResult("Test", "Sintel.mkv", null, 2, null);
+        TestTorrentResult many = new TestTorrentResult("Test", "Sintel.mkv", null, 2000, null);
+        assertTrue(ranker.score(many) > ranker.score(few));
+
+        TestTorrentResult other = new TestTorrentResult("Other", "Sintel.mkv", null, 2, null);
+        ranker.setSourceReputation("Other", 1);
+        assertTrue(ranker.score(other) > ranker.score(few));
+    }
+
+    @Test
+    public void testTopIsIncremental() {
+        SearchRanker ranker = new SearchRanker("sintel", null, 10);
+        List<TestTorrentResult> results = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            results.add(new TestTorrentResult("Test", "Sintel " + i + ".mkv", null, i, null));
+        }
+        List<TestTorrentResult> shuffled = new ArrayList<>(results);
+        Collections.shuffle(shuffled, new Random(7));
+        for (int i = 0; i < shuffled.size(); i += 50) {
+            ranker.add(shuffled.subList(i, i + 50));
+            List<SearchResult> top = ranker.top();
+            assertSame(top, ranker.top()); // no changes, no sorting
+            for (int j = 1; j < top.size(); j++) {
+                assertTrue(ranker.score(top.get(j - 1)) >= ranker.score(top.get(j)));
+            }
+        }
+        assertEquals(500, ranker.count());
+        List<SearchResult> top = ranker.top();
+        assertEquals(10, top.size());
+        for (int i = 0; i < 10; i++) {
+            assertSame(results.get(499 - i), top.get(i));
+        }
+    }
+
+    @Test
+    public void testTiesKeepArrivalOrder() {
+        SearchRanker ranker = new SearchRanker("sintel", null, 2);
+        TestTorrentResult a = new TestTorrentResult("Test", "Sintel.mkv", null, 5, null);
+        TestTorrentResult b = new TestTorrentResult("Test", "Sintel.mkv", null, 5, null);
+        TestTorrentResult c = new TestTorrentResult("Test", "Sintel.mkv", null, 5, null);
+        ranker.add(Arrays.asList(a, b, c));
+        assertEquals(Arrays.<SearchResult>asList(a, b), ranker.top());
+    }
+
+    @Test
+    public void testRankAndBestFirst() {
+        SearchRanker ranker = new SearchRanker("sintel", null, 2);
+        TestTorrentResult few = new TestTorrentResult("Test", "Sintel.mkv", null, 1, null);
+        TestTorrentResult none = new TestTorrentResult("Test", "Tears of Steel.mkv", null, 1000, null);
+        TestTorrentResult many = new TestTorrentResult("Test", "Sintel.mkv", null, 1000, null);
+        TestTorrentResult some = new TestTorrentResult("Test", "Sintel.mkv", null, 10, null);
+        ranker.add(Arrays.asList(few, none, many, some));
+
+        assertEquals(1, ranker.rank(many));
+        assertEquals(2, ranker.rank(some));
+        assertEquals(0, ranker.rank(few));
+        assertEquals(0, ranker.rank(none));
+        // the top first, the rest as they were
+        assertEquals(Arrays.<SearchResult>asList(many, some, few, none), ranker.bestFirst(Arrays.asList(few, none, many, some)));
+        // only the results given, a filtered out top result is not added
+        assertEquals(Arrays.<SearchResult>asList(some, none, few), ranker.bestFirst(Arrays.asList(none, some, few)));
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Created by Angel Leon (@gubatron), Alden Torres (aldenml)
+ * Copyright (c) 2011-2020, FrostWire(R). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.frostwire.search;
+
+import com.frostwire.search.torrent.AbstractTorrentSearchResult;
+
+/**
+ * A torrent result for the tests, crawlable, the file name is the display
+ * name too.
+ *
+ * @author gubatron
+ * @author aldenml
+ */
+public final class TestTorrentResult extends AbstractTorrentSearchResult {
+    private final String source;
+    private final String filename;
+    private final String hash;
+    private final int seeds;
+    private final String torrentUrl;
+
+    public TestTorrentResult(String source, String filename, String hash, int seeds, String torrentUrl) {
+        this.source = source;
+        this.filename = filename;
+        this.hash = hash;
+        this.seeds = seeds;
+        this.torrentUrl = torrentUrl;
+    }
+
+    /**
+     * A {@code test.torrent} with the magnet of the hash.
+     */
+    public TestTorrentResult(String source, String hash, int seeds) {
+        this(source, "test.torrent", hash, seeds, "magnet:?xt=urn:btih:" + hash);
+    }
+
+    @Override
+    public String getTorrentUrl() {
+        return torrentUrl;
+    }
+
+    @Override
+    public int getSeeds() {
+        return seeds;
+    }
+
+    @Override
+    public String getHash() {
+        return hash;
+    }
+
+    @Override
+    public String getFilename() {
+        return filename;
+    }
+
+    @Override
+    public double getSize() {
+        return 1;
+    }
+
+    @Override
+    public String getDisplayName() {
+        return filename;
+    }
+
+    @Override
+    public String getDetailsUrl() {
+        return "http://" + source + "/" + (hash != null ? hash : filename);
+    }
+
+    @Override
+    public String getSource() {
+        return source;
+    }
+}
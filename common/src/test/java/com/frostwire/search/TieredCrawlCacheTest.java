@@ -0,0 +1,117 @@
+/*
+ * Created by Angel Leon (@gubatron), Alden Torres (aldenml)
+ * Copyright (c) 2011-2020, FrostWire(R). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.frostwire.search;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author gubatron
+ * @author aldenml
+ */
+public class TieredCrawlCacheTest {
+
+    @Test
+    public void testWriteBackAndHits() throws InterruptedException {
+        MapCrawlCache persistent = new MapCrawlCache();
+        TieredCrawlCache cache = new TieredCrawlCache(persistent, 1024 * 1024);
+
+        byte[] data = {1, 2, 3};
+        cache.put("a", data);
+        assertArrayEquals(data, cache.get("a"));
+        assertEquals(1, cache.memoryHits());
+
+        await(() -> persistent.map.containsKey("a"));
+        assertArrayEquals(data, persistent.map.get("a"));
+
+        assertNull(cache.get("b"));
+        assertEquals(1, cache.misses());
+
+        persistent.map.put("c", data);
+        assertArrayEquals(data, cache.get("c"));
+        assertEquals(1, cache.persistentHits());
+        assertArrayEquals(data, cache.get("c"));
+        assertEquals(2, cache.memoryHits());
+    }
+
+    @Test
+    public void testRemoveHidesPersistentWhilePending() throws InterruptedException {
+        MapCrawlCache persistent = new MapCrawlCache();
+        persistent.map.put("a", new byte[]{1});
+        TieredCrawlCache cache = new TieredCrawlCache(persistent, 1024 * 1024);
+
+        CountDownLatch gate = new CountDownLatch(1);
+        persistent.gate = gate;
+        cache.remove("a");
+        // the writer is blocked, the stale persistent value must not be visible
+        assertNull(cache.get("a"));
+        gate.countDown();
+
+        await(() -> !persistent.map.containsKey("a"));
+        assertFalse(persistent.map.containsKey("a"));
+    }
+
+    @Test
+    public void testRemoveDuringPersistentRead() throws InterruptedException {
+        MapCrawlCache persistent = new MapCrawlCache();
+        persistent.map.put("a", new byte[]{1});
+        TieredCrawlCache cache = new TieredCrawlCache(persistent, 1024 * 1024);
+
+        persistent.readEntered = new CountDownLatch(1);
+        CountDownLatch gate = new CountDownLatch(1);
+        persistent.readGate = gate;
+        Thread reader = new Thread(() -> cache.get("a"));
+        reader.start();
+        persistent.readEntered.await();
+        // removed while the reader holds the old value
+        persistent.readGate = null;
+        persistent.readEntered = null;
+        cache.remove("a");
+        await(() -> !persistent.map.containsKey("a"));
+        gate.countDown();
+        reader.join();
+
+        // the old value was not put back in memory
+        assertNull(cache.get("a"));
+    }
+
+    @Test
+    public void testMemoryBound() {
+        MapCrawlCache persistent = new MapCrawlCache();
+        TieredCrawlCache cache = new TieredCrawlCache(persistent, 16 * 1024);
+        for (int i = 0; i < 100; i++) {
+            cache.put("key" + i, new byte[512]);
+        }
+        assertTrue(cache.memorySizeInBytes() <= 16 * 1024);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+}
@@ -17,14 +17,20 @@
 
 package com.frostwire.search.filter;
 
+import com.frostwire.search.AbstractSearchResult;
 import com.frostwire.search.SearchResult;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.SortedMap;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -33,6 +39,8 @@ import static org.junit.Assert.assertTrue;
  */
 public class SearchTableTest {
 
+    private static final String[] SOURCES = {"a", "b", "c", "d"};
+
     @Test
     public void testAddSingle() {
         SearchTable t = new SearchTable(0);
@@ -81,4 +89,152 @@ public class SearchTableTest {
         t.clear();
         assertTrue(b2.get());
     }
+
+    @Test
+    public void testIncrementalGroups() {
+        SearchTable table = new SearchTable(1);
+        SearchView view = table.view(sourceFilter());
+        table.add(results(0, 100));
+        table.add(results(100, 100));
+
+        SortedMap<FilterKey, SearchGroup> groups = view.groups();
+        assertEquals(SOURCES.length, groups.size());
+        int total = 0;
+        for (SearchGroup g : groups.values()) {
+            total += g.size();
+            assertEquals(g.size(), g.data().size());
+        }
+        assertEquals(200, total);
+        assertEquals(200, table.size());
+    }
+
+    @Test
+    public void testFilterToggle() {
+        SearchTable table = new SearchTable(1);
+        SearchFilter all = sourceFilter();
+        SearchFilter even = new EvenFilter();
+        SearchView view = table.view(all);
+        table.add(results(0, 20000));
+
+        view.filter(even);
+        assertEquals(10000, view.size());
+        view.filter(all);
+        assertEquals(20000, view.size());
+        table.add(results(20000, 10));
+        view.filter(even);
+        assertEquals(10005, view.size());
+    }
+
+    @Test
+    public void testConcurrentAddAndRead() throws InterruptedException {
+        SearchTable table = new SearchTable(1);
+        SearchView view = table.view(sourceFilter());
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(4);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int base = t * 5000;
+            threads.add(new Thread(() -> {
+                try {
+                    for (int i = 0; i < 50; i++) {
+                        table.add(results(base + i * 100, 100));
+                    }
+                } finally {
+                    done.countDown();
+                }
+            }));
+        }
+        Thread reader = new Thread(() -> {
+            try {
+                while (done.getCount() > 0) {
+                    for (SearchGroup g : view.groups().values()) {
+                        g.data().size();
+                    }
+                    for (SearchResult sr : table.data()) {
+                        sr.getSource();
+                    }
+                }
+            } catch (Throwable e) {
+                error.set(e);
+            }
+        });
+        reader.start();
+        for (Thread t : threads) {
+            t.start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        reader.join();
+
+        assertNull(error.get());
+        assertEquals(20000, table.size());
+        assertEquals(20000, view.size());
+    }
+
+    @Test
+    public void testEqualResultsNotDropped() {
+        SearchTable table = new SearchTable(1);
+        SearchView view = table.view(SearchFilter.NONE);
+        table.add(results(0, 50));
+        SearchGroup g = view.groups().values().iterator().next();
+        assertEquals(50, g.data().size());
+        assertTrue(g.data().get(0).getDisplayName().equals("r0"));
+    }
+
+    private static SearchFilter sourceFilter() {
+        SourceKey[] keys = new SourceKey[SOURCES.length];
+        for (int i = 0; i < SOURCES.length; i++) {
+            keys[i] = new SourceKey(SOURCES[i], i);
+        }
+        return new SourceFilter(keys);
+    }
+
+    private static List<SearchResult> results(int from, int n) {
+        List<SearchResult> list = new ArrayList<>(n);
+        for (int i = from; i < from + n; i++) {
+            list.add(new TestResult(i));
+        }
+        return list;
+    }
+
+    private static final class EvenFilter implements SearchFilter {
+        @Override
+        public FilterKey key(SearchResult sr) {
+            return FilterKey.NULL;
+        }
+
+        @Override
+        public boolean accept(SearchResult sr) {
+            return ((TestResult) sr).n % 2 == 0;
+        }
+
+        @Override
+        public Comparator<SearchResult> comparator() {
+            return (o1, o2) -> 0;
+        }
+    }
+
+    private static final class TestResult extends AbstractSearchResult {
+        final int n;
+
+        TestResult(int n) {
+            this.n = n;
+        }
+
+        @Override
+        public String getDisplayName() {
+            return "r" + n;
+        }
+
+        @Override
+        public String getDetailsUrl() {
+            return "http://test/" + n;
+        }
+
+        @Override
+        public String getSource() {
+            return SOURCES[n % SOURCES.length];
+        }
+    }
 }
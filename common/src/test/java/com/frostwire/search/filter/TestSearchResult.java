@@ -71,11 +71,6 @@ class TestSearchResult implements SearchResult, Cloneable {
         return "http://" + id + ".com/thumbnail";
     }
 
-    @Override
-    public int uid() {
-        return 0;
-    }
-
     @Override
     public TestSearchResult clone() {
         TestSearchResult sr = new TestSearchResult(id);
@@ -0,0 +1,113 @@
+/*
+ * Created by Angel Leon (@gubatron), Alden Torres (aldenml)
+ * Copyright (c) 2011-2020, FrostWire(R). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.frostwire.search.torrent;
+
+import com.frostwire.jlibtorrent.TorrentInfo;
+import com.frostwire.search.AlbumCluster;
+import com.frostwire.search.TestTorrentResult;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author gubatron
+ * @author aldenml
+ */
+public class TorrentCrawledFilesTest {
+
+    @Test
+    public void testViewsReadOnFirstUse() {
+        TestFiles files = new TestFiles(new int[]{0, 2, 3});
+        assertEquals(3, files.size());
+        assertEquals(0, files.reads);
+
+        TorrentCrawledSearchResult sr = files.get(1);
+        assertEquals(2, sr.getFileIndex());
+        assertSame(files.getParent(), sr.getParent());
+        assertNull(sr.getTorrentInfo());
+        assertEquals(0, files.reads);
+
+        assertEquals("Show.S01E03", sr.getDisplayName());
+        assertEquals("Show.S01E03.mkv", sr.getFilename());
+        assertEquals("Show/Show.S01E03.mkv", sr.getFilePath());
+        assertEquals(3000.0, sr.getSize(), 0);
+        assertEquals(3000.0, sr.getSize(), 0);
+        // the path and the size, once
+        assertEquals(2, files.reads);
+        assertEquals(parent().getHash(), sr.getHash());
+    }
+
+    @Test
+    public void testAlbumDetectionReadsOnlyPaths() {
+        TestFiles files = new TestFiles(new int[]{0, 1, 2, 3, 4});
+        assertTrue(new AlbumCluster().detect(files.getParent(), files).isEmpty());
+        // the path of each file, no size and no view
+        assertEquals(5, files.reads);
+    }
+
+    @Test
+    public void testJavaDecoded() {
+        byte[] data = ("d4:infod5:filesl" +
+                "d6:lengthi1000e4:pathl15:Show.S01E01.mkvee" +
+                "d4:attr1:p6:lengthi24e4:pathl4:.pad2:24ee" +
+                "d6:lengthi2000e4:pathl15:Show.S01E02.mkvee" +
+                "e4:name4:Show12:piece lengthi16384e6:pieces20:01234567890123456789ee").getBytes(StandardCharsets.UTF_8);
+        TorrentCrawledFiles files = TorrentCrawledFiles.of(parent(), data);
+        // the pad file is not in the list, the indexes are those of the torrent
+        assertEquals(2, files.size());
+        TorrentCrawledSearchResult sr = files.get(1);
+        assertEquals(2, sr.getFileIndex());
+        assertEquals("Show/Show.S01E02.mkv", sr.getFilePath());
+        assertEquals("Show.S01E02", sr.getDisplayName());
+        assertEquals(2000.0, sr.getSize(), 0);
+    }
+
+    private static TorrentCrawlableSearchResult parent() {
+        return new TestTorrentResult("test", "show.torrent", "0123456789abcdef0123456789abcdef01234567", 1, "http://test.com/show.torrent");
+    }
+
+    private static final class TestFiles extends TorrentCrawledFiles {
+        int reads;
+
+        TestFiles(int[] indexes) {
+            super(parent(), indexes);
+        }
+
+        @Override
+        public TorrentInfo getTorrentInfo() {
+            return null;
+        }
+
+        @Override
+        String filePath(int fileIndex) {
+            reads++;
+            return "Show/Show.S01E0" + (fileIndex + 1) + ".mkv";
+        }
+
+        @Override
+        long fileSize(int fileIndex) {
+            reads++;
+            return (fileIndex + 1) * 1000L;
+        }
+    }
+}
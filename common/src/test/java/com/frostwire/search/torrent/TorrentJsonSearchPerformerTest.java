@@ -0,0 +1,104 @@
+/*
+ * Created by Angel Leon (@gubatron), Alden Torres (aldenml)
+ * Copyright (c) 2011-2020, FrostWire(R). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.frostwire.search.torrent;
+
+import com.frostwire.search.SearchResult;
+import com.frostwire.search.TestTorrentResult;
+import com.frostwire.util.JsonUtils;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author gubatron
+ * @author aldenml
+ */
+public class TorrentJsonSearchPerformerTest {
+
+    private static final String ITEMS = "{\"hash\":\"aaaa\",\"seeds\":1},{\"hash\":\"bbbb\",\"seeds\":2}";
+
+    @Test
+    public void testItemsSortedBySeeds() {
+        List<? extends SearchResult> results = searchPage("{\"items\":[" + ITEMS + "]}");
+        assertEquals(2, results.size());
+        assertEquals("bbbb", ((TestTorrentResult) results.get(0)).getHash());
+    }
+
+    @Test
+    public void testTruncatedOrMalformed() {
+        // the items read before the error are kept
+        assertEquals(2, searchPage("{\"items\":[" + ITEMS + ",{\"hash\":\"cc").size());
+        assertEquals(2, searchPage("{\"items\":[" + ITEMS + ",{\"hash\":\"cccc\",\"seeds\":\"many\"}]}").size());
+        assertEquals(0, searchPage("{\"items\":").size());
+    }
+
+    private static List<? extends SearchResult> searchPage(String page) {
+        return new TestPerformer().read(page);
+    }
+
+    private static final class Item implements ComparableTorrentJsonItem {
+        String hash;
+        int seeds;
+
+        @Override
+        public int getSeeds() {
+            return seeds;
+        }
+    }
+
+    private static final class TestPerformer extends TorrentJsonSearchPerformer<Item, TestTorrentResult> {
+
+        TestPerformer() {
+            super("test.com", 1, "test", 1000, 1);
+        }
+
+        // visible to the test
+        List<? extends SearchResult> read(String page) {
+            return searchPage(page);
+        }
+
+        @Override
+        protected String getUrl(int page, String encodedKeywords) {
+            return "https://test.com/?q=" + encodedKeywords;
+        }
+
+        @Override
+        boolean beginItems(JsonReader reader) throws IOException {
+            if (JsonUtils.findProperty(reader, "items") && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                reader.beginArray();
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        Item readItem(JsonReader reader) {
+            return JsonUtils.toObject(reader, Item.class);
+        }
+
+        @Override
+        TestTorrentResult fromItem(Item item) {
+            return new TestTorrentResult("test", item.hash, item.seeds);
+        }
+    }
+}
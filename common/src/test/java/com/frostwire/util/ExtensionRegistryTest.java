@@ -0,0 +1,105 @@
+/*
+ * Created by Angel Leon (@gubatron), Alden Torres (aldenml)
+ * Copyright (c) 2011-2020, FrostWire(R). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.frostwire.util;
+
+import com.frostwire.util.ExtensionRegistry.Category;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author gubatron
+ * @author aldenml
+ */
+public class ExtensionRegistryTest {
+
+    @Test
+    public void testFilename() {
+        ExtensionRegistry.Entry e = ExtensionRegistry.forFilename("Music/Artist - Song.MP3");
+        assertEquals("mp3", e.extension());
+        assertEquals("audio/mpeg", e.mimeType());
+        assertEquals(Category.AUDIO, e.category());
+        assertTrue(e.isStreamable());
+        assertSame(e, ExtensionRegistry.forExtension("mp3"));
+        // in place, a region of a larger text
+        assertSame(e, ExtensionRegistry.forExtension("file.mp3 (1)", 5, 8));
+
+        assertEquals(Category.VIDEO, ExtensionRegistry.category("movie.Mkv"));
+        assertTrue(ExtensionRegistry.isStreamable(new StringBuilder("clip.webm")));
+        assertFalse(ExtensionRegistry.isStreamable("movie.mkv"));
+        assertEquals("application/zip", ExtensionRegistry.mimeType("a.tar/file.zip"));
+    }
+
+    @Test
+    public void testUnknown() {
+        assertNull(ExtensionRegistry.forFilename(null));
+        assertNull(ExtensionRegistry.forFilename(""));
+        assertNull(ExtensionRegistry.forFilename("README"));
+        assertNull(ExtensionRegistry.forFilename("file."));
+        assertNull(ExtensionRegistry.forFilename("dir.mp3/file"));
+        assertNull(ExtensionRegistry.forFilename("dir.mp3\\file"));
+        assertNull(ExtensionRegistry.forFilename("file.verylongunknownextension"));
+        assertNull(ExtensionRegistry.forFilename("file.xyz1"));
+        assertNull(ExtensionRegistry.forExtension(null));
+        assertEquals(MimeDetector.UNKNOWN, ExtensionRegistry.mimeType("file.xyz1"));
+        assertEquals(MimeDetector.UNKNOWN, MimeDetector.getMimeType(null));
+        // a category but no mime type
+        assertEquals(MimeDetector.UNKNOWN, ExtensionRegistry.mimeType("book.mobi"));
+        assertEquals(Category.DOCUMENT, ExtensionRegistry.category("book.mobi"));
+    }
+
+    @Test
+    public void testPrecedence() {
+        // in the audio and video lists
+        assertEquals(Category.VIDEO, ExtensionRegistry.category("a.mp2"));
+        assertEquals(Category.VIDEO, ExtensionRegistry.category("a.rm"));
+        // in the document and image lists
+        assertEquals(Category.IMAGE, ExtensionRegistry.category("a.eps"));
+        assertEquals(Category.ANDROID_PACKAGE, ExtensionRegistry.category("app.apk"));
+        assertEquals(Category.ARCHIVE, ExtensionRegistry.category("a.7z"));
+        assertEquals(Category.PROGRAM, ExtensionRegistry.category("setup.exe"));
+    }
+
+    @Test
+    public void testExtensionsOfSeveralCategories() {
+        // the media types are built from these, rm is still in audio
+        for (String ext : new String[]{"mp2", "ra", "rm", "ram"}) {
+            assertTrue(ext, Arrays.asList(ExtensionRegistry.extensions(Category.AUDIO)).contains(ext));
+        }
+        assertTrue(Arrays.asList(ExtensionRegistry.extensions(Category.VIDEO)).containsAll(Arrays.asList("mp2", "rm", "ram")));
+        assertTrue(Arrays.asList(ExtensionRegistry.extensions(Category.DOCUMENT)).contains("eps"));
+        assertTrue(Arrays.asList(ExtensionRegistry.extensions(Category.IMAGE)).contains("eps"));
+        assertFalse(Arrays.asList(ExtensionRegistry.extensions(Category.AUDIO)).contains("mp4"));
+    }
+
+    @Test
+    public void testMimeTypes() {
+        for (Map.Entry<String, String> e : MimeDetector.mimeTypes().entrySet()) {
+            assertEquals(e.getKey(), e.getValue(), MimeDetector.getMimeType(e.getKey()));
+            assertEquals(e.getKey(), e.getValue(), MimeDetector.getMimeType(e.getKey().toUpperCase()));
+        }
+        assertTrue(Arrays.asList(ExtensionRegistry.extensions(Category.AUDIO)).contains("aac"));
+    }
+}
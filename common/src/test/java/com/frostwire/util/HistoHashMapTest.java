@@ -0,0 +1,110 @@
+/*
+ * Created by Angel Leon (@gubatron), Alden Torres (aldenml)
+ * Copyright (c) 2011-2020, FrostWire(R). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.frostwire.util;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author gubatron
+ * @author aldenml
+ */
+public class HistoHashMapTest {
+
+    @Test
+    public void testTopIsSortedAndBounded() {
+        HistoHashMap<String> map = new HistoHashMap<>();
+        for (int i = 1; i <= 50; i++) {
+            for (int j = 0; j < i; j++) {
+                map.update("k" + i);
+            }
+        }
+        List<Map.Entry<String, Integer>> top = map.top(5);
+        assertEquals(5, top.size());
+        for (int i = 0; i < 5; i++) {
+            assertEquals("k" + (50 - i), top.get(i).getKey());
+            assertEquals(50 - i, (int) top.get(i).getValue());
+        }
+        assertEquals(50, map.histogram().size());
+        assertEquals(50 * 51 / 2, map.total());
+    }
+
+    @Test
+    public void testRetract() {
+        HistoHashMap<String> map = new HistoHashMap<>();
+        map.update("a");
+        map.update("a");
+        map.update("b");
+        assertEquals(1, map.retract("a"));
+        assertEquals(0, map.retract("b"));
+        assertEquals(0, map.get("b"));
+        assertEquals(1, map.getKeyCount());
+        assertEquals(1, map.total());
+
+        // a retraction processed before its update
+        map.retract("c");
+        assertEquals(0, map.get("c"));
+        assertTrue(map.top(10).size() == 1);
+        map.update("c");
+        assertEquals(0, map.get("c"));
+        assertEquals(1, map.getKeyCount());
+    }
+
+    @Test
+    public void testConcurrentUpdates() throws Exception {
+        final HistoHashMap<String> map = new HistoHashMap<>();
+        final int threads = 8;
+        final int updates = 20000;
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final boolean retracting = t % 2 == 1;
+            workers[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < updates; i++) {
+                    String key = "k" + (i % 16);
+                    map.update(key);
+                    if (retracting) {
+                        map.retract(key);
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        start.countDown();
+        for (Thread w : workers) {
+            w.join();
+        }
+        int sum = 0;
+        for (int i = 0; i < 16; i++) {
+            sum += map.get("k" + i);
+        }
+        assertEquals(threads / 2 * updates, sum);
+        assertEquals(sum, map.total());
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Created by Angel Leon (@gubatron), Alden Torres (aldenml)
+ * Copyright (c) 2011-2020, FrostWire(R). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.frostwire.util;
+
+import com.google.gson.stream.JsonReader;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author gubatron
+ * @author aldenml
+ */
+public class JsonUtilsTest {
+
+    private static final String JSON = "{\"header\":{\"items\":[1,2]},\"response\":{\"total\":2,\"items\":[{\"name\":\"a\",\"size\":1},null,{\"name\":\"b\",\"size\":2}]}}";
+
+    @Test
+    public void testStreamItems() throws IOException {
+        JsonReader reader = JsonUtils.newReader(JSON.getBytes(StandardCharsets.UTF_8));
+        // the items of the header are skipped, not found
+        assertTrue(JsonUtils.findProperty(reader, "response"));
+        assertTrue(JsonUtils.findProperty(reader, "items"));
+        reader.beginArray();
+        assertEquals("a", JsonUtils.toObject(reader, Item.class).name);
+        assertNull(JsonUtils.toObject(reader, Item.class));
+        Item b = JsonUtils.toObject(reader, Item.class);
+        assertEquals("b", b.name);
+        assertEquals(2, b.size);
+        assertFalse(reader.hasNext());
+    }
+
+    @Test
+    public void testPropertyNotFound() throws IOException {
+        JsonReader reader = JsonUtils.newReader(JSON);
+        assertTrue(JsonUtils.findProperty(reader, "header"));
+        assertFalse(JsonUtils.findProperty(reader, "response"));
+        // at the end of the header
+        reader.endObject();
+        assertTrue(JsonUtils.findProperty(reader, "response"));
+    }
+
+    private static final class Item {
+        String name;
+        int size;
+    }
+}
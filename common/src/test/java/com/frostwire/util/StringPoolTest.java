@@ -0,0 +1,70 @@
+/*
+ * Created by Angel Leon (@gubatron), Alden Torres (aldenml)
+ * Copyright (c) 2011-2020, FrostWire(R). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.frostwire.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author gubatron
+ * @author aldenml
+ */
+public class StringPoolTest {
+
+    @Test
+    public void testIntern() {
+        StringPool pool = new StringPool(10);
+        String a = new String("Soundcloud - user");
+        String b = new String("Soundcloud - user");
+        assertNotSame(a, b);
+        assertSame(a, pool.intern(a));
+        assertSame(a, pool.intern(b));
+        assertNull(pool.intern(null));
+        assertEquals(1, pool.size());
+    }
+
+    @Test
+    public void testBounded() {
+        StringPool pool = new StringPool(3);
+        String first = pool.intern(new String("0"));
+        for (int i = 1; i < 100; i++) {
+            pool.intern(String.valueOf(i));
+            assertTrue(pool.size() <= 3);
+        }
+        // cleared, a new instance is the shared one now
+        String again = new String("0");
+        assertSame(again, pool.intern(again));
+        assertNotSame(first, pool.intern("0"));
+    }
+
+    @Test
+    public void testInvalidSize() {
+        try {
+            new StringPool(0);
+            fail("Created a pool of size 0");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
@@ -126,20 +126,73 @@ public class SQLiteDatabase {
      */
     public long insert(String table, String nullColumnHack, ContentValues values) {
         verifyDbIsOpen();
+        Object[] bindArgs = bindArgs(values);
+        return executeSql(insertSql(table, nullColumnHack, values), bindArgs);
+    }
+
+    /**
+     * Deletes the rows that match the where clause and inserts a new one,
+     * in a single transaction, other readers see the old rows or the new
+     * one, never none or both.
+     *
+     * @param table       the table to replace the rows in
+     * @param values      the column values of the new row
+     * @param whereClause the WHERE clause of the rows to replace
+     * @return the number of rows inserted, or -1 if an error occurred (and
+     * nothing was changed)
+     */
+    public int replace(String table, ContentValues values, String whereClause, String[] whereArgs) {
+        verifyDbIsOpen();
+        if (values == null || values.size() == 0) {
+            throw new IllegalArgumentException("Empty values");
+        }
+        String deleteSql = "DELETE FROM " + table + " WHERE " + whereClause;
+        String insertSql = insertSql(table, null, values);
+        Object[] bindArgs = bindArgs(values);
+        PreparedStatement delete = null;
+        PreparedStatement insert = null;
+        synchronized (connection) {
+            boolean autoCommit = true;
+            try {
+                autoCommit = connection.getAutoCommit();
+                connection.setAutoCommit(false);
+                delete = prepareStatement(connection, deleteSql, (Object[]) whereArgs);
+                delete.executeUpdate();
+                insert = prepareStatement(connection, insertSql, bindArgs);
+                int n = insert.executeUpdate();
+                connection.commit();
+                return n;
+            } catch (Throwable e) {
+                LOG.warn("Error replacing rows in: " + table, e);
+                try {
+                    connection.rollback();
+                } catch (Throwable ignored) {
+                }
+                return -1;
+            } finally {
+                close(delete);
+                close(insert);
+                try {
+                    connection.setAutoCommit(autoCommit);
+                } catch (Throwable ignored) {
+                }
+            }
+        }
+    }
+
+    private static String insertSql(String table, String nullColumnHack, ContentValues values) {
         StringBuilder sql = new StringBuilder();
         sql.append("INSERT");
         sql.append(" INTO ");
         sql.append(table);
         sql.append(" (");
-        Object[] bindArgs = null;
         int size = (values != null && values.size() > 0) ? values.size() : 0;
         if (size > 0) {
-            bindArgs = new Object[size];
             int i = 0;
             for (String colName : values.keySet()) {
                 sql.append((i > 0) ? "," : "");
                 sql.append(colName);
-                bindArgs[i++] = values.get(colName);
+                i++;
             }
             sql.append(')');
             sql.append(" VALUES (");
@@ -150,7 +203,20 @@ public class SQLiteDatabase {
             sql.append(nullColumnHack).append(") VALUES (NULL");
         }
         sql.append(')');
-        return executeSql(sql.toString(), bindArgs);
+        return sql.toString();
+    }
+
+    // in the order of the columns of insertSql
+    private static Object[] bindArgs(ContentValues values) {
+        if (values == null || values.size() == 0) {
+            return null;
+        }
+        Object[] bindArgs = new Object[values.size()];
+        int i = 0;
+        for (String colName : values.keySet()) {
+            bindArgs[i++] = values.get(colName);
+        }
+        return bindArgs;
     }
 
     /**
@@ -241,11 +307,15 @@ public class SQLiteDatabase {
             LOG.warn("Error performing SQL statement: " + sql, e);
             return -1;
         } finally {
-            if (statement != null) {
-                try {
-                    statement.close();
-                } catch (Throwable ignored) {
-                }
+            close(statement);
+        }
+    }
+
+    private static void close(Statement statement) {
+        if (statement != null) {
+            try {
+                statement.close();
+            } catch (Throwable ignored) {
             }
         }
     }
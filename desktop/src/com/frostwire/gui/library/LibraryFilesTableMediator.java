@@ -493,7 +493,7 @@ final class LibraryFilesTableMediator extends AbstractLibraryTableMediator<Libra
         boolean stopAudio = false;
         for (int i = 0; i < rows.length; i++) {
             try {
-                MediaType mt = MediaType.getMediaTypeForExtension(FilenameUtils.getExtension(DATA_MODEL.getFile(rows[i]).getName()));
+                MediaType mt = MediaType.getMediaTypeForFilename(DATA_MODEL.getFile(rows[i]).getName());
                 if (mt != null && mt.equals(MediaType.getVideoMediaType())) {
                     stopAudio = true;
                 }
@@ -218,9 +218,9 @@ public abstract class MediaPlayer implements RefreshListener, MPlayerUIEventList
 
             MediaType mt = null; // = MediaType.getMediaTypeForExtension();
             if (source.isFile()) {
-                mt = MediaType.getMediaTypeForExtension(FilenameUtils.getExtension(source.getFile().getName()));
+                mt = MediaType.getMediaTypeForFilename(source.getFile().getName());
             } else if (source.isPlaylistItem()) {
-                mt = MediaType.getMediaTypeForExtension(FilenameUtils.getExtension(source.getPlaylistItem().getFileName()));
+                mt = MediaType.getMediaTypeForFilename(source.getPlaylistItem().getFileName());
             } else if (source.isURL()) {
                 GUIMediator.instance().playInOS(source);
                 return;
@@ -77,6 +77,20 @@ public final class CrawlCacheDB {
     }
 
     public long insert(ContentValues initialValues) {
+        SQLiteDatabase db = databaseHelper.getWritableDatabase();
+        return db.insert(TABLE_NAME, "", withDateAdded(initialValues));
+    }
+
+    /**
+     * Replaces the rows that match the where clause with a new one,
+     * atomically.
+     */
+    int replace(ContentValues initialValues, String where, String[] whereArgs) {
+        SQLiteDatabase db = databaseHelper.getWritableDatabase();
+        return db.replace(TABLE_NAME, withDateAdded(initialValues), where, whereArgs);
+    }
+
+    private static ContentValues withDateAdded(ContentValues initialValues) {
         ContentValues values;
         if (initialValues != null) {
             values = new ContentValues(initialValues);
@@ -87,8 +101,7 @@ public final class CrawlCacheDB {
         if (!values.containsKey(Columns.DATE_ADDED)) {
             values.put(Columns.DATE_ADDED, now);
         }
-        SQLiteDatabase db = databaseHelper.getWritableDatabase();
-        return db.insert(TABLE_NAME, "", values);
+        return values;
     }
 
     public int delete(String where, String[] whereArgs) {
@@ -61,10 +61,12 @@ public class DatabaseCrawlCache implements CrawlCache {
     public void put(String key, byte[] data) {
         if (SearchSettings.SMART_SEARCH_ENABLED.getValue()) {
             try {
+                // insert alone would leave the old rows of the key behind, a
+                // delete and an insert apart would let a reader see no row
                 ContentValues values = new ContentValues();
                 values.put(Columns.KEY, key);
                 values.put(Columns.DATA, data);
-                db.insert(values);
+                db.replace(values, Columns.KEY + " = ?", new String[]{key});
             } catch (Throwable e) {
                 LOG.warn("Error putting value to crawl cache: " + e.getMessage());
             }
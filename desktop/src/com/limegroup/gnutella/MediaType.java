@@ -1,5 +1,7 @@
 package com.limegroup.gnutella;
 
+import com.frostwire.util.ExtensionRegistry;
+import com.frostwire.util.ExtensionRegistry.Category;
 import com.limegroup.gnutella.gui.I18n;
 import org.limewire.collection.Comparators;
 import org.limewire.util.FileUtils;
@@ -55,111 +57,37 @@ public class MediaType implements Serializable {
      */
     private static final MediaType TYPE_DOCUMENTS =
             new MediaType(SCHEMA_DOCUMENTS, DOCUMENTS,
-                    new String[]{
-                            "html", "htm", "xhtml", "mht", "mhtml", "xml",
-                            "txt", "ans", "asc", "diz", "eml",
-                            "pdf", "ps", "eps", "epsf", "dvi",
-                            "rtf", "wri", "doc", "mcw", "wps",
-                            "xls", "wk1", "dif", "csv", "ppt", "tsv",
-                            "hlp", "chm", "lit",
-                            "tex", "texi", "latex", "info", "man",
-                            "wp", "wpd", "wp5", "wk3", "wk4", "shw",
-                            "sdd", "sdw", "sdp", "sdc",
-                            "sxd", "sxw", "sxp", "sxc",
-                            "abw", "kwd", "mobi", "azw", "aeh", "lrf", "lrx",
-                            "cbr", "cbz", "cb7", "chm", "dnl", "djvu",
-                            "epub", "pdb", "fb2", "xeb", "ceb", "prc", "pkg",
-                            "opf", "pdg", "pdb", "tr2", "tr3", "cbr", "cbz", "cb7",
-                            "cbt", "cba", "docx"
-                    });
+                    extensions(Category.DOCUMENT));
     /**
-     * Type for linux/osx programs, used for Aggregator.
-     */
-    private static final MediaType TYPE_LINUX_OSX_PROGRAMS =
-            new MediaType(SCHEMA_PROGRAMS, PROGRAMS,
-                    new String[]{
-                            "bin", "mdb", "sh", "csh", "awk", "pl",
-                            "rpm", "deb", "gz", "gzip", "z", "bz2", "zoo", "tar", "tgz",
-                            "taz", "shar", "hqx", "sit", "dmg", "7z", "jar", "zip", "nrg",
-                            "cue", "iso", "jnlp", "rar", "sh", "apk"
-                    });
-    /**
-     * Type for windows programs, used for Aggregator.
-     */
-    private static final MediaType TYPE_WINDOWS_PROGRAMS =
-            new MediaType(SCHEMA_PROGRAMS, PROGRAMS,
-                    new String[]{
-                            "exe", "zip", "jar", "cab", "msi", "msp",
-                            "arj", "rar", "ace", "lzh", "lha", "bin", "nrg", "cue",
-                            "iso", "jnlp", "apk"
-                    });
-    /**
-     * Type for 'programs'
+     * Type for 'programs', linux, osx, windows and android, and archives
      */
     private static final MediaType TYPE_PROGRAMS =
             new MediaType(SCHEMA_PROGRAMS, PROGRAMS,
-                    makeArray(TYPE_LINUX_OSX_PROGRAMS.exts,
-                            TYPE_WINDOWS_PROGRAMS.exts)
-            );
+                    extensions(Category.PROGRAM, Category.ARCHIVE, Category.SCRIPT, Category.ANDROID_PACKAGE));
     /**
      * Type for 'audio'
      */
     private static final MediaType TYPE_AUDIO =
             new MediaType(SCHEMA_AUDIO, AUDIO,
-                    new String[]{
-                            "mp3", "mpa", "mp1", "mpga", "mp2",
-                            "ra", "rm", "ram", "rmj",
-                            "wma", "wav", "m4a", "m4p",
-                            "lqt", "ogg", "med",
-                            "aif", "aiff", "aifc",
-                            "au", "snd", "s3m", "aud",
-                            "mid", "midi", "rmi", "mod", "kar",
-                            "ac3", "shn", "fla", "flac", "cda",
-                            "mka", "aac"
-                    });
+                    extensions(Category.AUDIO));
     /**
      * Type for 'video'
      */
     private static final MediaType TYPE_VIDEO =
             new MediaType(SCHEMA_VIDEO, VIDEO,
-                    new String[]{
-                            "mpg", "mpeg", "mpe", "mng", "mpv", "m1v",
-                            "vob", "mp2", "mpv2", "mp2v", "m2p", "m2v", "mpgv",
-                            "vcd", "mp4", "dv", "dvd", "div", "divx", "dvx",
-                            "smi", "smil", "rm", "ram", "rv", "rmm", "rmvb",
-                            "avi", "asf", "asx", "wmv", "qt", "mov",
-                            "fli", "flc", "flx", "flv",
-                            "wml", "vrml", "swf", "dcr", "jve", "nsv",
-                            "mkv", "ogm",
-                            "cdg", "srt", "sub", "idx",
-                            "webm", "3gp", "m4v"
-                    });
+                    extensions(Category.VIDEO));
     /**
      * Type for 'images'
      */
     private static final MediaType TYPE_IMAGES =
             new MediaType(SCHEMA_IMAGES, IMAGES,
-                    new String[]{
-                            "gif", "png",
-                            "jpg", "jpeg", "jpe", "jif", "jiff", "jfif",
-                            "tif", "tiff", "iff", "lbm", "ilbm", "eps",
-                            "mac", "drw", "pct", "img",
-                            "bmp", "dib", "rle", "ico", "ani", "icl", "cur",
-                            "emf", "wmf", "pcx",
-                            "pcd", "tga", "pic", "fig",
-                            "psd", "wpg", "dcx", "cpt", "mic",
-                            "pbm", "pnm", "ppm", "xbm", "xpm", "xwd",
-                            "sgi", "fax", "rgb", "ras",
-                            "webm"
-                    });
+                    extensions(Category.IMAGE));
     /**
      * Type for 'torrents'
      */
     private static final MediaType TYPE_TORRENTS =
             new MediaType(SCHEMA_TORRENTS, TORRENTS,
-                    new String[]{
-                            "torrent"
-                    });
+                    extensions(Category.TORRENT));
     /**
      * All media types.
      */
@@ -228,10 +156,42 @@ public class MediaType implements Serializable {
      * Retrieves the media type for the specified extension.
      */
     public static MediaType getMediaTypeForExtension(String ext) {
-        for (int i = ALL_MEDIA_TYPES.length; --i >= 0; )
-            if (ALL_MEDIA_TYPES[i].exts.contains(ext))
-                return ALL_MEDIA_TYPES[i];
-        return null;
+        ExtensionRegistry.Entry e = ExtensionRegistry.forExtension(ext);
+        return e != null ? forCategory(e.category()) : null;
+    }
+
+    /**
+     * Retrieves the media type for the extension of the file name, read in
+     * place.
+     */
+    public static MediaType getMediaTypeForFilename(CharSequence filename) {
+        ExtensionRegistry.Entry e = ExtensionRegistry.forFilename(filename);
+        return e != null ? forCategory(e.category()) : null;
+    }
+
+    private static MediaType forCategory(Category category) {
+        if (category == null) {
+            return null;
+        }
+        switch (category) {
+            case AUDIO:
+                return TYPE_AUDIO;
+            case VIDEO:
+                return TYPE_VIDEO;
+            case IMAGE:
+                return TYPE_IMAGES;
+            case DOCUMENT:
+                return TYPE_DOCUMENTS;
+            case TORRENT:
+                return TYPE_TORRENTS;
+            case PROGRAM:
+            case ARCHIVE:
+            case SCRIPT:
+            case ANDROID_PACKAGE:
+                return TYPE_PROGRAMS;
+            default:
+                return null;
+        }
     }
 
     /**
@@ -284,11 +244,13 @@ public class MediaType implements Serializable {
     }
 
     /**
-     * Utility that makes an array out of two sets.
+     * Utility that makes an array of the extensions of the categories.
      */
-    private static String[] makeArray(Set<String> one, Set<String> two) {
-        Set<String> all = new HashSet<>(one);
-        all.addAll(two);
+    private static String[] extensions(Category... categories) {
+        List<String> all = new ArrayList<>();
+        for (Category c : categories) {
+            all.addAll(Arrays.asList(ExtensionRegistry.extensions(c)));
+        }
         return all.toArray(new String[0]);
     }
 
@@ -19,7 +19,10 @@ package com.limegroup.gnutella.gui;
 
 import com.frostwire.bittorrent.BTContext;
 import com.frostwire.bittorrent.BTEngine;
+import com.frostwire.search.PerformersHelper;
+import com.frostwire.search.SearchMetrics;
 import com.frostwire.util.UserAgentGenerator;
+import com.frostwire.util.VirtualThreads;
 import com.limegroup.gnutella.ExternalControl;
 import com.limegroup.gnutella.LimeCoreGlue;
 import com.limegroup.gnutella.LimeCoreGlue.InstallFailedException;
@@ -29,6 +32,7 @@ import com.limegroup.gnutella.gui.init.SetupManager;
 import com.limegroup.gnutella.gui.notify.NotifyUserProxy;
 import com.limegroup.gnutella.settings.ApplicationSettings;
 import com.limegroup.gnutella.settings.ConnectionSettings;
+import com.limegroup.gnutella.settings.SearchSettings;
 import com.limegroup.gnutella.settings.SharingSettings;
 import com.limegroup.gnutella.settings.StartupSettings;
 import com.limegroup.gnutella.util.FrostWireUtils;
@@ -66,6 +70,13 @@ final class Initializer {
     void initialize(String[] args, Frame awtSplash) {
         // ** THE VERY BEGINNING -- DO NOT ADD THINGS BEFORE THIS **
         preinit();
+        // Search execution mode, before any search or http client is created
+        VirtualThreads.setEnabled(SearchSettings.VIRTUAL_THREADS_ENABLED.getValue());
+        PerformersHelper.setTorrentDecoder(SearchSettings.JAVA_TORRENT_DECODER_ENABLED.getValue() ?
+                PerformersHelper.TorrentDecoder.JAVA : PerformersHelper.TorrentDecoder.LIBTORRENT);
+        if (SearchSettings.SEARCH_METRICS_LOG_INTERVAL.getValue() > 0) {
+            SearchMetrics.getInstance().startLogDump(SearchSettings.SEARCH_METRICS_LOG_INTERVAL.getValue() * 1000L);
+        }
         // Various startup tasks...
         //System.out.println("Initializer.initialize() setup callbacks and listeners");
         setupCallbacksAndListeners();
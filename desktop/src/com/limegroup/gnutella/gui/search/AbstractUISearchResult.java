@@ -23,6 +23,8 @@ import com.frostwire.search.FileSearchResult;
 import com.frostwire.search.SearchResult;
 import com.frostwire.search.StreamableSearchResult;
 import com.frostwire.search.soundcloud.SoundcloudSearchResult;
+import com.frostwire.util.ExtensionRegistry;
+import com.frostwire.util.StringPool;
 import com.limegroup.gnutella.MediaType;
 import com.limegroup.gnutella.gui.GUIMediator;
 import com.limegroup.gnutella.gui.util.BackgroundExecutorService;
@@ -36,6 +38,9 @@ import javax.swing.*;
  * @author aldenml
  */
 public abstract class AbstractUISearchResult implements UISearchResult {
+    // the extensions not in the registry (or not in lowercase), shared too
+    private static final StringPool EXTENSION_POOL = new StringPool(1024);
+
     private final FileSearchResult sr;
     private final SearchEngine se;
     private final String query;
@@ -45,7 +50,15 @@ public abstract class AbstractUISearchResult implements UISearchResult {
         this.sr = sr;
         this.se = se;
         this.query = query;
-        this.extension = FilenameUtils.getExtension(sr.getFilename());
+        this.extension = extension(sr.getFilename());
+    }
+
+    private static String extension(String filename) {
+        ExtensionRegistry.Entry e = ExtensionRegistry.forFilename(filename);
+        if (e != null && filename.endsWith(e.extension())) {
+            return e.extension();
+        }
+        return EXTENSION_POOL.intern(FilenameUtils.getExtension(filename));
     }
 
     @Override
@@ -15,6 +15,7 @@
 
 package com.limegroup.gnutella.gui.search;
 
+import com.frostwire.search.SearchRanker;
 import com.limegroup.gnutella.gui.tables.AbstractTableMediator;
 import com.limegroup.gnutella.gui.tables.BasicDataLineModel;
 import com.limegroup.gnutella.gui.tables.LimeTableColumn;
@@ -43,6 +44,10 @@ class ResultPanelModel extends BasicDataLineModel<SearchResultDataLine, UISearch
      */
     private final Map<String, Integer> _indexes = new HashMap<>();
     private int _numResults;
+    /**
+     * Ranks the results of the search, for the rank column of the lines.
+     */
+    private SearchRanker ranker;
 
     /**
      * Constructs a new ResultPanelModel with the given MetadataModel.
@@ -58,11 +63,15 @@ class ResultPanelModel extends BasicDataLineModel<SearchResultDataLine, UISearch
         return COLUMNS;
     }
 
+    void setRanker(SearchRanker ranker) {
+        this.ranker = ranker;
+    }
+
     /**
      * Creates a new TableLine.
      */
     public SearchResultDataLine createDataLine() {
-        return new SearchResultDataLine(COLUMNS);
+        return new SearchResultDataLine(COLUMNS, ranker);
     }
 
     /**
@@ -82,6 +91,8 @@ class ResultPanelModel extends BasicDataLineModel<SearchResultDataLine, UISearch
         //since the Type column returns an Icon, we compare by hand using the file extension.
         if (_activeColumn == SearchTableColumns.TYPE_IDX) {
             return AbstractTableMediator.compare(ta.getExtension(), tb.getExtension()) * _ascending;
+        } else if (_activeColumn == SearchTableColumns.RANK_IDX) {
+            return compareRank(ta, tb);
         } else if (!isSorted() || _activeColumn != SearchTableColumns.COUNT_IDX) {
             return super.compare(ta, tb);
         } else {
@@ -89,6 +100,18 @@ class ResultPanelModel extends BasicDataLineModel<SearchResultDataLine, UISearch
         }
     }
 
+    /**
+     * Compares the ranks, the results without a rank go last in both orders.
+     */
+    private int compareRank(SearchResultDataLine ta, SearchResultDataLine tb) {
+        int ra = ta.getRank();
+        int rb = tb.getRank();
+        if (ra == 0 || rb == 0) {
+            return Boolean.compare(ra == 0, rb == 0);
+        }
+        return Integer.compare(ra, rb) * _ascending;
+    }
+
     /**
      * Overrides the default remove to remove the index from the HashMap.
      *
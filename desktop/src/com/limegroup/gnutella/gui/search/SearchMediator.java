@@ -31,12 +31,15 @@ import com.limegroup.gnutella.gui.ApplicationHeader;
 import com.limegroup.gnutella.gui.GUIMediator;
 import com.limegroup.gnutella.gui.I18n;
 import com.limegroup.gnutella.settings.SearchSettings;
+import org.limewire.util.CommonUtils;
 import org.limewire.util.I18NConvert;
 import org.limewire.util.StringUtils;
 
 import javax.swing.*;
-import java.text.Normalizer;
+import java.io.File;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * This class acts as a mediator between the various search components --
@@ -86,7 +89,17 @@ public final class SearchMediator {
     private static SearchResultDisplayer RESULT_DISPLAYER;
     private static SearchFilterFactory SEARCH_FILTER_FACTORY;
     private final long MAX_CRAWLCACHE_SIZE = 250 * 1000 * 1024;
+    private static final long CRAWLCACHE_MEMORY_SIZE = 16 * 1024 * 1024;
+    private static final long QUERYCACHE_MEMORY_SIZE = 8 * 1024 * 1024;
+    private static final long QUERYCACHE_DISK_SIZE = 20 * 1000 * 1024; // part of MAX_CRAWLCACHE_SIZE
+    /**
+     * Result batches waiting for the event thread, over this their searches
+     * are told to hold on until the event thread catches up.
+     */
+    private static final int MAX_WAITING_RESULT_BATCHES = 4;
     private final SearchManager manager;
+    private final AtomicInteger waitingResultBatches = new AtomicInteger();
+    private final Set<Long> backpressured = Collections.newSetFromMap(new ConcurrentHashMap<>());
 
     /**
      * Constructs the UI components of the search result display area of the
@@ -113,7 +126,9 @@ public final class SearchMediator {
                     databaseCrawlCache = new DatabaseCrawlCache();
                     LOG.info("SearchMediator() - crawl cache reset successful");
                 }
-                CrawlPagedWebSearchPerformer.setCache(databaseCrawlCache);
+                CrawlPagedWebSearchPerformer.setCache(new TieredCrawlCache(new ContentAddressedCrawlCache(databaseCrawlCache, MAX_CRAWLCACHE_SIZE - QUERYCACHE_DISK_SIZE), CRAWLCACHE_MEMORY_SIZE));
+                PagedWebSearchPerformer.setQueryCache(new QueryCache(databaseCrawlCache, QUERYCACHE_MEMORY_SIZE, QUERYCACHE_DISK_SIZE));
+                CrawlPagedWebSearchPerformer.setFailedCache(new FailedCrawlCache(new File(CommonUtils.getUserSettingsDir(), "failed_crawls.dat")));
             } catch (Throwable t) {
                 LOG.error("could not set database crawl cache", t);
             }
@@ -121,6 +136,7 @@ public final class SearchMediator {
                 "CrawlPagedWebSearchPerformer-initializer").start();
         CrawlPagedWebSearchPerformer.setMagnetDownloader(new LibTorrentMagnetDownloader());
         this.manager = SearchManager.getInstance();
+        this.manager.setBudget(SearchBudget.DEFAULT);
         this.manager.setListener(new SearchListener() {
             @Override
             public void onResults(long token, List<? extends SearchResult> results) {
@@ -198,14 +214,15 @@ public final class SearchMediator {
         });
     }
 
-    private static List<UISearchResult> convertResults(List<? extends SearchResult> results, SearchEngine engine, String query) {
+    private static List<UISearchResult> convertResults(long token, List<? extends SearchResult> results, SearchEngine engine, String query) {
         List<UISearchResult> result = new ArrayList<>();
         for (SearchResult sr : results) {
             UISearchResult ui = null;
             if (sr instanceof SoundcloudSearchResult) {
                 ui = new SoundcloudUISearchResult((SoundcloudSearchResult) sr, engine, query);
             } else if (sr instanceof TorrentSearchResult) {
-                ui = new TorrentUISearchResult((TorrentSearchResult) sr, engine, query);
+                TorrentSearchResult tsr = (TorrentSearchResult) sr;
+                ui = new TorrentUISearchResult(tsr, engine, query, SearchManager.getInstance().getMergedTorrent(token, tsr.getHash()));
             } else if (sr instanceof ArchiveorgCrawledSearchResult) {
                 ui = new ArchiveorgUISearchResult((ArchiveorgCrawledSearchResult) sr, engine, query);
             }
@@ -400,10 +417,11 @@ public final class SearchMediator {
     private List<SearchResult> filter2(List<? extends SearchResult> results, List<String> searchTokens) {
         List<SearchResult> list = new LinkedList<>();
         try {
+            KeywordMatcher matcher = newMatcher(searchTokens);
             for (SearchResult sr : results) {
                 if (sr instanceof CrawledSearchResult) {
                     // special case for youtube
-                    if (filter(new LinkedList<>(searchTokens), sr)) {
+                    if (filter(matcher, searchTokens, sr)) {
                         list.add(sr);
                     }
                 } else {
@@ -417,25 +435,21 @@ public final class SearchMediator {
         return list;
     }
 
-    private boolean filter(List<String> tokens, SearchResult sr) {
-        StringBuilder sb = new StringBuilder();
-        sb.append(sr.getDisplayName());
-        if (sr instanceof CrawledSearchResult) {
-            sb.append(((CrawledSearchResult) sr).getParent().getDisplayName());
+    private boolean filter(KeywordMatcher matcher, List<String> tokens, SearchResult sr) {
+        String str = NormalizedText.nameHaystack(sr);
+        if (matcher != null) {
+            return matcher.containsAll(str);
         }
-        if (sr instanceof FileSearchResult) {
-            sb.append(((FileSearchResult) sr).getFilename());
-        }
-        String str = sanitize(sb.toString());
-        str = normalize(str);
-        Iterator<String> it = tokens.iterator();
-        while (it.hasNext()) {
-            String token = it.next();
-            if (str.contains(token)) {
-                it.remove();
+        for (String token : tokens) {
+            if (!str.contains(token)) {
+                return false;
             }
         }
-        return tokens.isEmpty();
+        return true;
+    }
+
+    private static KeywordMatcher newMatcher(List<String> tokens) {
+        return tokens.size() <= KeywordMatcher.MAX_KEYWORDS ? new KeywordMatcher(tokens) : null;
     }
 
     private String sanitize(String str) {
@@ -461,10 +475,7 @@ public final class SearchMediator {
     }
 
     private String normalize(String token) {
-        String norm = Normalizer.normalize(token, Normalizer.Form.NFKD);
-        norm = norm.replaceAll("\\p{InCombiningDiacriticalMarks}+", "");
-        norm = norm.toLowerCase(Locale.US);
-        return norm;
+        return NormalizedText.fold(token);
     }
 
     void stopSearch(long token) {
@@ -485,20 +496,37 @@ public final class SearchMediator {
                 if (se == null) {
                     return;
                 }
-                final List<UISearchResult> uiResults = convertResults(filtered, se, rp.getQuery());
-                GUIMediator.safeInvokeAndWait(() -> {
-                    try {
-                        SearchFilter filter = getSearchFilterFactory().createFilter();
-                        SearchResultDisplayer searchResultDisplayer = getSearchResultDisplayer();
-                        for (UISearchResult sr : uiResults) {
-                            if (filter.allow(sr)) {
-                                searchResultDisplayer.addQueryResult(token, sr, rp);
+                final List<UISearchResult> uiResults = convertResults(token, filtered, se, rp.getQuery());
+                if (waitingResultBatches.incrementAndGet() >= MAX_WAITING_RESULT_BATCHES && backpressured.add(token)) {
+                    manager.setBackpressure(token, true);
+                }
+                try {
+                    GUIMediator.safeInvokeAndWait(() -> {
+                        try {
+                            SearchFilter filter = getSearchFilterFactory().createFilter();
+                            SearchResultDisplayer searchResultDisplayer = getSearchResultDisplayer();
+                            for (UISearchResult sr : uiResults) {
+                                if (filter.allow(sr)) {
+                                    searchResultDisplayer.addQueryResult(token, sr, rp);
+                                }
                             }
+                        } catch (Exception e) {
+                            LOG.error("Error adding search result to UI", e);
                         }
-                    } catch (Exception e) {
-                        LOG.error("Error adding search result to UI", e);
-                    }
-                });
+                    });
+                } finally {
+                    onResultBatchAdded();
+                }
+            }
+        }
+    }
+
+    private void onResultBatchAdded() {
+        if (waitingResultBatches.decrementAndGet() == 0) {
+            for (Long token : backpressured) {
+                if (backpressured.remove(token)) {
+                    manager.setBackpressure(token, false);
+                }
             }
         }
     }
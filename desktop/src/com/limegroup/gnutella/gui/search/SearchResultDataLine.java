@@ -16,6 +16,8 @@
 package com.limegroup.gnutella.gui.search;
 
 import com.frostwire.gui.bittorrent.BTDownloadMediator;
+import com.frostwire.search.SearchRanker;
+import com.frostwire.util.StringPool;
 import com.limegroup.gnutella.gui.GUIMediator;
 import com.limegroup.gnutella.gui.IconManager;
 import com.limegroup.gnutella.gui.tables.AbstractDataLine;
@@ -30,10 +32,16 @@ import java.util.Date;
  * A single line of a search result.
  */
 public final class SearchResultDataLine extends AbstractDataLine<UISearchResult> {
+    // the same few numbers for many results
+    private static final StringPool SEEDS_POOL = new StringPool(1024);
     /**
      * The SearchTableColumns.
      */
     private final SearchTableColumns COLUMNS;
+    /**
+     * The ranker of the search, for the rank of the result.
+     */
+    private final SearchRanker ranker;
     /**
      * The SearchResult that created this particular line.
      */
@@ -49,12 +57,19 @@ public final class SearchResultDataLine extends AbstractDataLine<UISearchResult>
     private SearchResultActionsHolder actionsHolder;
     private SearchResultNameHolder name;
     private String seeds;
+    // the seeds of the seeds text, the result can get more (a torrent found in other engines)
+    private int shownSeeds;
     private Icon icon;
     private SizeHolder size;
     private SourceHolder source;
 
     public SearchResultDataLine(SearchTableColumns stc) {
+        this(stc, null);
+    }
+
+    SearchResultDataLine(SearchTableColumns stc, SearchRanker ranker) {
         COLUMNS = stc;
+        this.ranker = ranker;
     }
 
     /**
@@ -67,12 +82,21 @@ public final class SearchResultDataLine extends AbstractDataLine<UISearchResult>
         addedOn = sr.getCreationTime() > 0 ? new Date(sr.getCreationTime()) : null;
         actionsHolder = new SearchResultActionsHolder(sr);
         name = new SearchResultNameHolder(sr);
-        seeds = RESULT.getSeeds() <= 0 || !(RESULT instanceof TorrentUISearchResult) ? "" : String.valueOf(RESULT.getSeeds());
+        shownSeeds = RESULT.getSeeds();
+        seeds = seeds(RESULT);
         icon = getIcon();
         size = new SizeHolder(getSize());
         source = new SourceHolder(RESULT);
     }
 
+    /**
+     * The text of the seeds column, shared by the results with the same
+     * number of seeds.
+     */
+    static String seeds(UISearchResult sr) {
+        return sr.getSeeds() <= 0 || !(sr instanceof TorrentUISearchResult) ? "" : SEEDS_POOL.intern(String.valueOf(sr.getSeeds()));
+    }
+
     /**
      * Updates cached data about this line.
      */
@@ -153,7 +177,8 @@ public final class SearchResultDataLine extends AbstractDataLine<UISearchResult>
      * Determines if the column is dynamic.
      */
     public boolean isDynamic(int idx) {
-        return false;
+        // the rank changes as better results arrive
+        return idx == SearchTableColumns.RANK_IDX;
     }
 
     /**
@@ -163,6 +188,7 @@ public final class SearchResultDataLine extends AbstractDataLine<UISearchResult>
         switch (idx) {
             case SearchTableColumns.COUNT_IDX:
             case SearchTableColumns.TYPE_IDX:
+            case SearchTableColumns.RANK_IDX:
                 return false;
             default:
                 return true;
@@ -181,6 +207,10 @@ public final class SearchResultDataLine extends AbstractDataLine<UISearchResult>
             case SearchTableColumns.ACTIONS_IDX:
                 return actionsHolder;
             case SearchTableColumns.COUNT_IDX:
+                if (shownSeeds != RESULT.getSeeds()) {
+                    shownSeeds = RESULT.getSeeds();
+                    seeds = seeds(RESULT);
+                }
                 return seeds;
             case SearchTableColumns.TYPE_IDX:
                 return icon;
@@ -189,11 +219,17 @@ public final class SearchResultDataLine extends AbstractDataLine<UISearchResult>
             case SearchTableColumns.SIZE_IDX:
                 return size;
             case SearchTableColumns.SOURCE_IDX:
+                if (!source.getSourceName().equals(RESULT.getSource())) {
+                    source = new SourceHolder(RESULT);
+                }
                 return source;
             case SearchTableColumns.ADDED_IDX:
                 return addedOn;
             case SearchTableColumns.EXTENSION_IDX:
                 return getExtension();
+            case SearchTableColumns.RANK_IDX:
+                int rank = getRank();
+                return rank > 0 ? rank : null;
             default:
                 return null;
         }
@@ -226,6 +262,14 @@ public final class SearchResultDataLine extends AbstractDataLine<UISearchResult>
         return RESULT.getSeeds();
     }
 
+    /**
+     * @return the position of the result in the most relevant ones of the
+     * search, from 1, or 0 if it is not one of them
+     */
+    int getRank() {
+        return ranker != null ? ranker.rank(RESULT.getSearchResult()) : 0;
+    }
+
     public String getHash() {
         return RESULT.getHash();
     }
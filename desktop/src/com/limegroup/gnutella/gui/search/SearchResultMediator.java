@@ -24,6 +24,7 @@ import com.frostwire.gui.theme.SkinMenu;
 import com.frostwire.gui.theme.SkinMenuItem;
 import com.frostwire.gui.theme.SkinPopupMenu;
 import com.frostwire.gui.theme.ThemeMediator;
+import com.frostwire.search.SearchRanker;
 import com.frostwire.search.SearchResult;
 import com.frostwire.search.torrent.TorrentSearchResult;
 import com.frostwire.util.UrlUtils;
@@ -70,6 +71,11 @@ public final class SearchResultMediator extends AbstractTableMediator<TableRowFi
      */
     private final SearchInformation SEARCH_INFO;
     private final List<String> searchTokens;
+    /**
+     * The most relevant results of the search, for the rank column, fed
+     * with all the results, filtered or not.
+     */
+    private final SearchRanker ranker;
     /**
      * The download listener.
      */
@@ -107,6 +113,7 @@ public final class SearchResultMediator extends AbstractTableMediator<TableRowFi
         FILTER = null;
         this.token = 0;
         this.searchTokens = null;
+        this.ranker = null;
         setButtonEnabled(SearchButtons.TORRENT_DETAILS_BUTTON_INDEX, false);
         // disable dnd for overlay panel
         TABLE.setDragEnabled(false);
@@ -125,6 +132,8 @@ public final class SearchResultMediator extends AbstractTableMediator<TableRowFi
         SEARCH_INFO = info;
         this.token = token;
         this.searchTokens = searchTokens;
+        this.ranker = new SearchRanker(info.getQuery());
+        DATA_MODEL.setRanker(ranker);
         setupRealTable();
         resetFilters();
     }
@@ -687,6 +696,10 @@ public final class SearchResultMediator extends AbstractTableMediator<TableRowFi
 
     @Override
     public void add(UISearchResult o, int index) {
+        // ranked before its line is made, for its rank
+        if (ranker != null) {
+            ranker.add(o.getSearchResult());
+        }
         super.add(o, index);
         schemaBox.updateCounters(o);
     }
@@ -36,10 +36,11 @@ final class SearchTableColumns {
     static final int SOURCE_IDX = 5;
     static final int ADDED_IDX = 6;
     static final int EXTENSION_IDX = 7;
+    static final int RANK_IDX = 8;
     /**
      * The number of default columns.
      */
-    static final int COLUMN_COUNT = 8;
+    static final int COLUMN_COUNT = 9;
     private final LimeTableColumn ACTIONS_COLUMN = new SearchColumn(ACTIONS_IDX, "RESULT_PANEL_ACTIONS", I18n.tr("Actions"), 63, true, SearchResultActionsHolder.class);
     private final LimeTableColumn COUNT_COLUMN = new SearchColumn(COUNT_IDX, "RESULT_PANEL_COUNT", I18n.tr("Seeds"), 24, true, Integer.class);
     private final LimeTableColumn TYPE_COLUMN = new SearchColumn(TYPE_IDX, "RESULT_PANEL_ICON", I18n.tr("Type"), 18, true, Icon.class);
@@ -48,6 +49,7 @@ final class SearchTableColumns {
     private final LimeTableColumn SOURCE_COLUMN = new SearchColumn(SOURCE_IDX, "RESULT_PANEL_SOURCE", I18n.tr("Source"), 220, true, SourceHolder.class);
     private final LimeTableColumn ADDED_COLUMN = new SearchColumn(ADDED_IDX, "RESULT_PANEL_ADDED", I18n.tr("Created"), 55, true, Date.class);
     private final LimeTableColumn EXTENSION_COLUMN = new SearchColumn(EXTENSION_IDX, "RESULT_PANEL_EXTENSION", I18n.tr("Extension"), 55, true, String.class);
+    private final LimeTableColumn RANK_COLUMN = new SearchColumn(RANK_IDX, "RESULT_PANEL_RANK", I18n.tr("Rank"), 36, true, Integer.class);
 
     /**
      * Gets the column for the specified index.
@@ -70,6 +72,8 @@ final class SearchTableColumns {
                 return ADDED_COLUMN;
             case EXTENSION_IDX:
                 return EXTENSION_COLUMN;
+            case RANK_IDX:
+                return RANK_COLUMN;
             default:
                 return null;
         }
@@ -17,6 +17,7 @@
 
 package com.limegroup.gnutella.gui.search;
 
+import com.frostwire.util.StringPool;
 import com.limegroup.gnutella.gui.tables.AbstractTableMediator;
 
 /**
@@ -25,16 +26,17 @@ import com.limegroup.gnutella.gui.tables.AbstractTableMediator;
  * @author gubatron
  */
 public class SourceHolder implements Comparable<SourceHolder> {
+    // one html per source, not per result
+    private static final StringPool HTML_POOL = new StringPool(256);
+
     private final UISearchResult uiSearchResult;
     private final String sourceNameHTML;
     private final String sourceName;
-    private final String sourceURL;
 
     SourceHolder(UISearchResult uiSearchResult) {
         this.uiSearchResult = uiSearchResult;
         this.sourceName = uiSearchResult.getSource();
-        this.sourceNameHTML = "<html><div width=\"1000000px\"><nobr><a href=\"#\">" + sourceName + "</a></nobr></div></html>";
-        this.sourceURL = uiSearchResult.getSearchResult().getDetailsUrl();
+        this.sourceNameHTML = HTML_POOL.intern("<html><div width=\"1000000px\"><nobr><a href=\"#\">" + sourceName + "</a></nobr></div></html>");
     }
 
     @Override
@@ -56,6 +58,6 @@ public class SourceHolder implements Comparable<SourceHolder> {
 
     @Override
     public String toString() {
-        return sourceName + " [" + sourceURL + "]";
+        return sourceName + " [" + uiSearchResult.getSearchResult().getDetailsUrl() + "]";
     }
 }
\ No newline at end of file
@@ -18,6 +18,7 @@
 
 package com.limegroup.gnutella.gui.search;
 
+import com.frostwire.search.torrent.MergedTorrent;
 import com.frostwire.search.torrent.TorrentSearchResult;
 import com.limegroup.gnutella.gui.GUIMediator;
 import com.limegroup.gnutella.gui.util.PopupUtils;
@@ -30,10 +31,22 @@ import javax.swing.*;
  */
 public class TorrentUISearchResult extends AbstractUISearchResult {
     private final TorrentSearchResult sr;
+    /**
+     * The copies of the torrent found in other engines, not shown.
+     */
+    private final MergedTorrent merged;
+    // the source with the number of other engines, made again when it grows
+    private String source;
+    private int others;
 
     TorrentUISearchResult(TorrentSearchResult sr, SearchEngine se, String query) {
+        this(sr, se, query, null);
+    }
+
+    TorrentUISearchResult(TorrentSearchResult sr, SearchEngine se, String query, MergedTorrent merged) {
         super(sr, se, query);
         this.sr = sr;
+        this.merged = merged;
     }
 
     public String getTorrentUrl() {
@@ -60,8 +73,28 @@ public class TorrentUISearchResult extends AbstractUISearchResult {
         return popupMenu;
     }
 
+    /**
+     * The highest seeds of all the engines with this torrent.
+     */
     @Override
     public int getSeeds() {
-        return sr.getSeeds();
+        return merged != null ? Math.max(merged.getSeeds(), sr.getSeeds()) : sr.getSeeds();
+    }
+
+    /**
+     * The engine of this result and the number of other engines with the
+     * same torrent, i.e. "TPB +2".
+     */
+    @Override
+    public String getSource() {
+        int n = merged != null ? merged.getSourceCount() - 1 : 0;
+        if (n <= 0) {
+            return sr.getSource();
+        }
+        if (n != others || source == null) {
+            source = sr.getSource() + " +" + n;
+            others = n;
+        }
+        return source;
     }
 }
@@ -49,6 +49,21 @@ public final class SearchSettings extends LimeProps {
     public static final StringSetting LAST_MEDIA_TYPE_USED = FACTORY.createStringSetting("LAST_MEDIA_TYPE_USED", MediaType.getAudioMediaType().getMimeType());
     public static final BooleanSetting SMART_SEARCH_ENABLED = FACTORY.createBooleanSetting("SMART_SEARCH_ENABLED", true);
     public static final BooleanSetting SHOW_DETAIL_PAGE_AFTER_DOWNLOAD_START = FACTORY.createBooleanSetting("SHOW_DETAIL_PAGE_AFTER_DOWNLOAD_START", false);
+    /**
+     * Run search tasks and search http requests in virtual threads, only
+     * takes effect on restart and if the JVM supports them.
+     */
+    public static final BooleanSetting VIRTUAL_THREADS_ENABLED = FACTORY.createBooleanSetting("VIRTUAL_THREADS_ENABLED", false);
+    /**
+     * Read the files of the crawled .torrents in java instead of making a
+     * libtorrent TorrentInfo of each, only takes effect on restart.
+     */
+    public static final BooleanSetting JAVA_TORRENT_DECODER_ENABLED = FACTORY.createBooleanSetting("JAVA_TORRENT_DECODER_ENABLED", false);
+    /**
+     * Write the search metrics of every engine to the log every so many
+     * seconds, 0 to never write them, only takes effect on restart.
+     */
+    public static final IntSetting SEARCH_METRICS_LOG_INTERVAL = FACTORY.createIntSetting("SEARCH_METRICS_LOG_INTERVAL", 0);
     /**
      * Constant for the characters that are banned from search
      * strings.
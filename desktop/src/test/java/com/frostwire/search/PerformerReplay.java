@@ -0,0 +1,42 @@
+/*
+ * Created by Angel Leon (@gubatron), Alden Torres (aldenml)
+ * Copyright (c) 2011-2020, FrostWire(R). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.frostwire.search;
+
+import java.util.List;
+
+/**
+ * Access for the tests to the parsing steps of the performers, to replay
+ * stored pages through them without the network.
+ *
+ * @author gubatron
+ * @author aldenml
+ */
+public final class PerformerReplay {
+
+    private PerformerReplay() {
+    }
+
+    public static List<? extends SearchResult> searchPage(PagedWebSearchPerformer performer, String page) {
+        return performer.searchPage(page);
+    }
+
+    @SuppressWarnings("unchecked")
+    public static List<? extends SearchResult> crawlResult(CrawlPagedWebSearchPerformer<?> performer, CrawlableSearchResult sr, byte[] data) throws Exception {
+        return ((CrawlPagedWebSearchPerformer<CrawlableSearchResult>) performer).crawlResult(sr, data);
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Created by Angel Leon (@gubatron), Alden Torres (aldenml)
+ * Copyright (c) 2011-2020, FrostWire(R). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.frostwire.tests;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * The measures, fixtures and reports the benchmarks of this package share.
+ * <p>
+ * The benchmarks are tagged {@value #TAG}, they take long and report numbers
+ * instead of checking behavior, and only run when asked for, with
+ * {@code gradle test -Pbenchmarks}.
+ *
+ * @author gubatron
+ * @author aldenml
+ */
+final class Benchmarks {
+
+    static final String TAG = "benchmark";
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private Benchmarks() {
+    }
+
+    /**
+     * @return the bytes allocated by the current thread so far, -1 if the
+     * JVM doesn't support it
+     */
+    static long allocatedBytes() {
+        if (THREADS instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) THREADS).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    /**
+     * @return the bytes (a difference of {@link #allocatedBytes()}) to
+     * report, in KB from 10KB on
+     */
+    static String allocation(long bytes) {
+        if (!(THREADS instanceof com.sun.management.ThreadMXBean)) {
+            return "(allocation n/a)";
+        }
+        return bytes < 10 * 1024 ? bytes + "B" : bytes / 1024 + "KB";
+    }
+
+    /**
+     * @return the bytes of the heap in use after a few collections, what is
+     * still referenced
+     */
+    static long retained() {
+        Runtime r = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return r.totalMemory() - r.freeMemory();
+    }
+
+    /**
+     * @return the stored search page of the engine, in the fixtures folder
+     */
+    static String searchPage(String engine) throws IOException {
+        return new String(fixture(engine + "-search" + extension(engine)), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return the stored details page of the first result of the engine
+     */
+    static byte[] detailsPage(String engine) throws IOException {
+        return fixture(engine + "-details" + extension(engine));
+    }
+
+    static byte[] fixture(String name) throws IOException {
+        try (InputStream in = Benchmarks.class.getResourceAsStream("fixtures/" + name)) {
+            assertNotNull(in, "missing fixture " + name);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                out.write(buffer, 0, n);
+            }
+            byte[] data = out.toByteArray();
+            assertFalse(data.length == 0, "empty fixture " + name);
+            return data;
+        }
+    }
+
+    /**
+     * Prints a line of results, prefixed by the name of the benchmark.
+     */
+    static void report(Class<?> benchmark, String line) {
+        System.out.println(benchmark.getSimpleName() + ": " + line);
+    }
+
+    private static String extension(String engine) {
+        return engine.equals("torrentparadise") || engine.equals("soundcloud") || engine.equals("archiveorg") ? ".json" : ".html";
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Created by Angel Leon (@gubatron), Alden Torres (aldenml)
+ * Copyright (c) 2011-2020, FrostWire(R). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.frostwire.tests;
+
+import com.frostwire.util.ExtensionRegistry;
+import com.frostwire.util.MimeDetector;
+import org.apache.commons.io.FilenameUtils;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Classifies file names (mime type, media type and if streamable) the way
+ * it was done before, {@code FilenameUtils.getExtension} then a lookup in
+ * the mime {@code HashMap}, in the case insensitive {@code TreeSet} of every
+ * media type and a scan of the streamable extensions, and with a single
+ * lookup in the {@link ExtensionRegistry}. Reports the time and the bytes
+ * allocated per name of each one.
+ *
+ * @author gubatron
+ * @author aldenml
+ */
+public class ExtensionLookupBenchmarkTest {
+
+    private static final int ROUNDS = 5;
+    private static final int ITERATIONS = 20000;
+
+    private static final String[] STREAMABLE = {"mp3", "ogg", "wma", "wmv", "m4a", "aac", "flac", "mp4", "flv", "mov", "mpg", "mpeg", "3gp", "m4v", "webm"};
+    private static final Map<String, String> MIME_TYPES = new HashMap<>();
+    private static final List<Set<String>> MEDIA_TYPES = new ArrayList<>();
+
+    private static final String[] CORPUS = {
+            "ubuntu-20.04.1-desktop-amd64.iso",
+            "Sintel.2010.1080p.BluRay.x264-OFT.mkv",
+            "Elephants Dream (2006) 1080p H.264 AAC.mp4",
+            "big_buck_bunny_720p_surround.AVI",
+            "Kevin MacLeod - Monkeys Spinning Monkeys.mp3",
+            "Brian Eno - Music for Airports/01 - 1-1.flac",
+            "Bj\u00F6rk - Homogenic (1997) [320kbps] {Remaster}",
+            "Eloquent_JavaScript_3rd_Edition.epub",
+            "Pro Git 2nd Edition - Scott Chacon, Ben Straub.pdf",
+            "LibreOffice_7.0.2_Win_x64.msi",
+            "Blender-2.90.1-linux64.tar.xz",
+            "VLC media player 3.0.11 (x64) portable.zip",
+            "frostwire-6.8.8.amd64.deb",
+            "cover.JPG",
+            "Wikipedia_en_all_maxi_2020-10.zim",
+            "Season 01\\Show.S01E01.720p.webm",
+    };
+
+    static {
+        for (String ext : CORPUS) {
+            String e = FilenameUtils.getExtension(ext).toLowerCase();
+            MIME_TYPES.put(e, MimeDetector.getMimeType(e));
+        }
+        for (ExtensionRegistry.Category c : ExtensionRegistry.Category.values()) {
+            Set<String> set = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+            set.addAll(Arrays.asList(ExtensionRegistry.extensions(c)));
+            MEDIA_TYPES.add(set);
+        }
+    }
+
+    @Test
+    @Tag(Benchmarks.TAG)
+    public void benchmarkLookups() {
+        assertEquals(oldRound(), registryRound());
+
+        for (int round = 0; round < ROUNDS; round++) {
+            long allocated = Benchmarks.allocatedBytes();
+            long start = System.nanoTime();
+            long sink = 0;
+            for (int i = 0; i < ITERATIONS; i++) {
+                sink += oldRound();
+            }
+            long oldNs = System.nanoTime() - start;
+            long oldBytes = Benchmarks.allocatedBytes() - allocated;
+
+            allocated = Benchmarks.allocatedBytes();
+            start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++) {
+                sink -= registryRound();
+            }
+            long registryNs = System.nanoTime() - start;
+            long registryBytes = Benchmarks.allocatedBytes() - allocated;
+
+            long names = (long) ITERATIONS * CORPUS.length;
+            Benchmarks.report(ExtensionLookupBenchmarkTest.class, "round " + round +
+                    ", before: " + oldNs / names + "ns " + Benchmarks.allocation(oldBytes / names) + " per name" +
+                    ", registry: " + registryNs / names + "ns " + Benchmarks.allocation(registryBytes / names) + " per name" +
+                    " (" + sink + ")");
+        }
+    }
+
+    // a checksum of what was found, not to have the lookups optimized away
+    private static int oldRound() {
+        int found = 0;
+        for (String name : CORPUS) {
+            String ext = FilenameUtils.getExtension(name);
+            String mime = MIME_TYPES.get(ext.toLowerCase());
+            if (mime != null && !MimeDetector.UNKNOWN.equals(mime)) {
+                found += mime.length();
+            }
+            for (int i = MEDIA_TYPES.size(); --i >= 0; ) {
+                if (MEDIA_TYPES.get(i).contains(ext)) {
+                    found += i + 1;
+                    break;
+                }
+            }
+            for (String s : STREAMABLE) {
+                if (s.equalsIgnoreCase(ext)) {
+                    found += 100;
+                    break;
+                }
+            }
+        }
+        return found;
+    }
+
+    private static int registryRound() {
+        int found = 0;
+        for (String name : CORPUS) {
+            ExtensionRegistry.Entry e = ExtensionRegistry.forFilename(name);
+            if (e == null) {
+                continue;
+            }
+            if (e.mimeType() != null) {
+                found += e.mimeType().length();
+            }
+            if (e.category() != null) {
+                found += e.category().ordinal() + 1;
+            }
+            if (e.isStreamable()) {
+                found += 100;
+            }
+        }
+        return found;
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Created by Angel Leon (@gubatron), Alden Torres (aldenml)
+ * Copyright (c) 2011-2020, FrostWire(R). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.frostwire.tests;
+
+import com.frostwire.regex.Pattern;
+import com.frostwire.search.KeywordDetector;
+import com.frostwire.search.KeywordTokenizer;
+import com.frostwire.util.HistoHashMap;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares the old regex based tokenization of the {@link KeywordDetector}
+ * (replaceAll, toLowerCase, split and trim) with the {@link KeywordTokenizer}
+ * over a corpus of file names as returned by the search engines, counting
+ * the tokens in a {@link HistoHashMap} as the detector does. Reports the
+ * time and the bytes allocated per file name of each one.
+ *
+ * @author gubatron
+ * @author aldenml
+ */
+public class KeywordTokenizerBenchmarkTest {
+
+    private static final int ROUNDS = 5;
+    private static final int ITERATIONS = 2000;
+    private static final KeywordDetector.Feature FEATURE = KeywordDetector.Feature.FILE_NAME;
+    private static final Pattern REPLACE_ALL_PATTERN = Pattern.compile("[^\\p{L}0-9 .]|\\.{2,}");
+    private static final Set<String> STOP_WORDS = new HashSet<>(Arrays.asList(
+            "an", "and", "are", "as", "at", "be", "by", "for", "with", "from", "the", "to", "this",
+            "ft", "ft.", "feat", "feat.", "no", "me", "el", "de", "en", "los", "para", "le", "il"));
+    private static final KeywordTokenizer TOKENIZER = new KeywordTokenizer(STOP_WORDS);
+
+    private static final String[] CORPUS = {
+            "ubuntu-20.04.1-desktop-amd64.iso",
+            "debian-10.6.0-amd64-netinst.iso",
+            "Fedora-Workstation-Live-x86_64-33-1.2.iso",
+            "archlinux-2020.10.01-x86_64.iso",
+            "linuxmint-20-cinnamon-64bit.iso",
+            "Big Buck Bunny (2008) [1080p] [BluRay] [5.1] [YTS.MX]",
+            "big_buck_bunny_720p_surround.avi",
+            "Sintel.2010.1080p.BluRay.x264-OFT.mkv",
+            "Tears.of.Steel.2012.720p.WEB-DL.AAC2.0.H.264.mkv",
+            "Elephants Dream (2006) 1080p H.264 AAC.mp4",
+            "Cosmos.Laundromat.2015.1080p.WEBRip.x264.mp4",
+            "Night of the Living Dead (1968) [BluRay] [720p] [YTS.AM]",
+            "Nosferatu.1922.RESTORED.720p.BluRay.x264-GECKOS",
+            "The.General.1926.1080p.BluRay.x264-CiNEFiLE",
+            "Metropolis (1927) Restored Full Version 1080p",
+            "Charlie Chaplin - The Kid (1921) DVDRip XviD.avi",
+            "Brian Eno - Music for Airports (1978) [FLAC]",
+            "Kevin MacLeod - Monkeys Spinning Monkeys.mp3",
+            "Josh Woodward - Already There (Acoustic Version).mp3",
+            "Jahzzar - Siesta (feat. Comfort Fit) [Free Music Archive].mp3",
+            "Chris Zabriskie - Candlepower - 01 - Prelude No. 14.mp3",
+            "Broke For Free - Layers - 05 - Night Owl.mp3",
+            "Podington Bear - Soft Rain.mp3",
+            "Bj\u00F6rk - Homogenic (1997) [320kbps] {Remaster}",
+            "Sigur R\u00F3s - \u00C1g\u00E6tis byrjun (1999) [FLAC 24-96]",
+            "Caf\u00E9 Tacvba - Re (1994) [MP3 V0]",
+            "Los Fabulosos Cadillacs - Vasos Vac\u00EDos (1993) 320kbps",
+            "Die \u00C4rzte - Jazz ist anders (2007) [FLAC]",
+            "Stromae - Racine carr\u00E9e (Deluxe Edition) 2013 MP3@320",
+            "\u5742\u672C\u9F8D\u4E00 - async (2017) [FLAC]",
+            "Cowboy Bebop - Complete Series [BD 1080p HEVC 10bit Dual Audio]",
+            "[HorribleSubs] One Piece - 947 [1080p].mkv",
+            "[SubsPlease] Jujutsu Kaisen - 01 (1080p) [8AD9D4F1].mkv",
+            "Python.Crash.Course.2nd.Edition.2019.PDF",
+            "Eloquent_JavaScript_3rd_Edition.epub",
+            "Pro Git 2nd Edition - Scott Chacon, Ben Straub.pdf",
+            "The Art of Computer Programming Vol 1-4A (Knuth) [PDF]",
+            "Alice's Adventures in Wonderland - Lewis Carroll.epub",
+            "Project Gutenberg - Moby Dick; Or, The Whale - Herman Melville.txt",
+            "LibreOffice_7.0.2_Win_x64.msi",
+            "GIMP 2.10.22 Setup (64-bit).exe",
+            "Blender-2.90.1-linux64.tar.xz",
+            "VLC media player 3.0.11 (x64) portable.zip",
+            "Inkscape-1.0.1-x64.7z",
+            "Audacity 2.4.2 Portable.zip",
+            "0 A.D. Alpha 24 X\u0161enogenesis (Win64).exe",
+            "SuperTuxKart-1.2-linux-x86_64.tar.xz",
+            "The.Battle.for.Wesnoth.1.14.14.dmg",
+            "Minetest 5.3.0 win64.zip",
+            "NASA - Apollo 11 Restored EVA Footage (1969) 1080p",
+            "NASA_Earth_at_Night_2016_4K_UHD.mp4",
+            "Creative.Commons.Documentary.-.Everything.is.a.Remix.Part.1-4.mkv",
+            "Steal This Film (2006) [DivX] [ENG].avi",
+            "RiP! A Remix Manifesto (2008) 720p x264 AAC [ENG+FRE]",
+            "TED Talks - Sir Ken Robinson - Do schools kill creativity (2006).mp4",
+            "Lecture 01 - Introduction to Algorithms - MIT 6.006 Fall 2011.mp4",
+            "FrostWire 6.8.8 Installer (Windows).exe",
+            "frostwire-6.8.8.amd64.deb",
+            "Wikipedia_en_all_maxi_2020-10.zim",
+            "Free.Software.Free.Society.Selected.Essays.of.Richard.Stallman.3rd.Edition.pdf",
+    };
+
+    @Test
+    @Tag(Benchmarks.TAG)
+    public void benchmarkTokenizers() {
+        long expected = regexRound();
+        assertEquals(expected, tokenizerRound());
+
+        for (int round = 0; round < ROUNDS; round++) {
+            long allocated = Benchmarks.allocatedBytes();
+            long start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++) {
+                regexRound();
+            }
+            long regexNs = System.nanoTime() - start;
+            long regexBytes = Benchmarks.allocatedBytes() - allocated;
+
+            allocated = Benchmarks.allocatedBytes();
+            start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++) {
+                tokenizerRound();
+            }
+            long tokenizerNs = System.nanoTime() - start;
+            long tokenizerBytes = Benchmarks.allocatedBytes() - allocated;
+
+            long names = (long) ITERATIONS * CORPUS.length;
+            Benchmarks.report(KeywordTokenizerBenchmarkTest.class, "round " + round +
+                    ", regex: " + regexNs / names + "ns " + Benchmarks.allocation(regexBytes / names) + " per name" +
+                    ", tokenizer: " + tokenizerNs / names + "ns " + Benchmarks.allocation(tokenizerBytes / names) + " per name");
+        }
+    }
+
+    // the histogram is created once per round, its keys are created the first
+    // time they are found, as in a real search
+    private static long regexRound() {
+        HistoHashMap<String> histogram = new HistoHashMap<>();
+        for (String name : CORPUS) {
+            String[] pre_tokens = REPLACE_ALL_PATTERN.matcher(name).replaceAll("").toLowerCase().split("\\s");
+            for (String token : pre_tokens) {
+                token = token.trim();
+                if (FEATURE.minimumTokenLength <= token.length() && token.length() <= FEATURE.maximumTokenLength && !STOP_WORDS.contains(token)) {
+                    histogram.update(token);
+                }
+            }
+        }
+        return histogram.total();
+    }
+
+    private static long tokenizerRound() {
+        HistoHashMap<String> histogram = new HistoHashMap<>();
+        for (String name : CORPUS) {
+            TOKENIZER.reset(name, FEATURE.minimumTokenLength, FEATURE.maximumTokenLength);
+            while (TOKENIZER.next()) {
+                if (!histogram.addIfPresent(TOKENIZER, 1)) {
+                    histogram.add(TOKENIZER.toString(), 1);
+                }
+            }
+        }
+        return histogram.total();
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * Created by Angel Leon (@gubatron), Alden Torres (aldenml)
+ * Copyright (c) 2011-2020, FrostWire(R). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.frostwire.tests;
+
+import com.frostwire.regex.Pattern;
+import com.frostwire.search.PagedWebSearchPerformer;
+import com.frostwire.search.PerformerReplay;
+import com.frostwire.search.idope.IdopeSearchPerformer;
+import com.frostwire.search.limetorrents.LimeTorrentsSearchPerformer;
+import com.frostwire.search.magnetdl.MagnetDLSearchPerformer;
+import com.frostwire.search.nyaa.NyaaSearchPerformer;
+import com.frostwire.search.torrentz2.Torrentz2SearchPerformer;
+import com.frostwire.search.tpb.TPBSearchPerformer;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs the regex performers ({@code searchPage(String)}, their pattern and
+ * the making of the results) over synthetic result pages shaped like the
+ * real ones, and reports the time per page. The pages are run complete,
+ * with the last row truncated, and broken (the end of every row changed,
+ * as when the site changes its layout, nothing matches), the cases where
+ * java.util.regex backtracks the most, without bound if not for the
+ * fallback to re2j of the matcher.
+ * <p>
+ * Every performer is run with its pattern compiled with
+ * {@link Pattern.Engine#JDK} and with {@link Pattern.Engine#RE2J}, the
+ * times of both are reported side by side. The JDK one, used in the
+ * searches, should be clearly faster in the first two cases, and not much
+ * slower in the last one.
+ *
+ * @author gubatron
+ * @author aldenml
+ */
+public class RegexEngineBenchmarkTest {
+
+    private static final int ROUNDS = 5;
+    private static final int ITERATIONS = 50;
+    private static final String KEYWORDS = "bunny";
+    private static final int TIMEOUT = 5000;
+    private static final String HASH = "0123456789abcdef0123456789abcdef01234567";
+
+    private interface Row {
+        String html(int i);
+    }
+
+    private interface Performer {
+        PagedWebSearchPerformer create(Pattern.Engine engine);
+    }
+
+    @Test
+    @Tag(Benchmarks.TAG)
+    public void benchmarkEngines() {
+        benchmark("tpb", engine -> new TPBSearchPerformer("thepiratebay.org", 1, KEYWORDS, TIMEOUT, engine), 19, "", "", i ->
+                "<tr>\n<td class=\"vertTh\">\n<center>\n<a href=\"/browse/200\" title=\"More from this category\">Video</a><br />\n" +
+                        "(<a href=\"/browse/207\" title=\"More from this category\">HD - Movies</a>)\n</center>\n</td>\n" +
+                        "<td>\n<div class=\"detName\"><a href=\"/torrent/" + i + "/Big_Buck_Bunny_" + i + "\" class=\"detLink\" title=\"Details for Big Buck Bunny " + i + "\">Big Buck Bunny " + i + "</a>\n</div>\n" +
+                        "<a href=\"magnet:?xt=urn:btih:" + HASH + "&dn=Big+Buck+Bunny+" + i + "\" title=\"Download this torrent using magnet\"><img src=\"/static/img/icon-magnet.gif\" alt=\"Magnet link\" /></a>\n" +
+                        "<font class=\"detDesc\">Uploaded 03-14&nbsp;2019, Size 1.2&nbsp;GiB, ULed by <a class=\"detDesc\" href=\"/user/frostwire/\" title=\"Browse frostwire\">frostwire</a></font>\n</td>\n" +
+                        "<td align=\"right\">" + (i + 10) + "</td>\n<td align=\"right\">" + i + "</td>\n</tr>\n");
+        benchmark("torrentz2", engine -> new Torrentz2SearchPerformer(1, KEYWORDS, TIMEOUT, engine), 50, "", "", i ->
+                "<dl><dt><a href='" + HASH + "'>Big Buck Bunny " + i + " 1080p</a> &#187; video movie hd</dt>" +
+                        "<dd><span class='v' style='color:#fff;background-color:#80c000'>" + i + "</span>" +
+                        "<span class='a'><span title='1577836800'>" + i + " days</span></span>" +
+                        "<span class='s'>1.2 GB</span> <span class='u'>" + (i + 10) + "</span><span class='d'>" + i + "</span></dd></dl>\n");
+        benchmark("nyaa", engine -> new NyaaSearchPerformer("nyaa.si", 1, KEYWORDS, TIMEOUT, engine), 50, "<thead></thead>", "", i ->
+                "<tr class=\"default\">\n<td>\n<a href=\"/?c=1_2\" title=\"Anime - English-translated\">\n" +
+                        "<img src=\"/static/img/icons/nyaa/1_2.png\" alt=\"Anime - English-translated\" class=\"category-icon\">\n</a>\n</td>\n" +
+                        "<td colspan=\"2\">\n<a href=\"/view/" + i + "#comments\" class=\"comments\" title=\"3 comments\">\n<i class=\"fa fa-comments-o\"></i>3</a>\n" +
+                        "<a href=\"/view/" + i + "\" title=\"[Sub] Big Buck Bunny - " + i + " [1080p].mkv\">[Sub] Big Buck Bunny - " + i + " [1080p].mkv</a>\n</td>\n" +
+                        "<td class=\"text-center\">\n<a href=\"/download/" + i + ".torrent\"><i class=\"fa fa-fw fa-download\"></i></a>\n" +
+                        "<a href=\"magnet:?xt=urn:btih:" + HASH + "&amp;dn=Big+Buck+Bunny\"><i class=\"fa fa-fw fa-magnet\"></i></a>\n</td>\n" +
+                        "<td class=\"text-center\">1.2 GiB</td>\n<td class=\"text-center\" data-timestamp=\"" + (1577836800 + i) + "\">2020-01-01 00:00</td>\n" +
+                        "<td class=\"text-center\">" + (i + 10) + "</td>\n<td class=\"text-center\">" + i + "</td>\n<td class=\"text-center\">100</td>\n</tr>\n");
+        benchmark("idope", engine -> new IdopeSearchPerformer(1, KEYWORDS, TIMEOUT, engine), 9, "<div id=\"div2child\">", "<div id=\"rightdiv\">", i ->
+                "<div class=\"resultdiv\"><div class=\"resultdivtop\"><img class=\"resultdivtopimg\" src=\"/static/img/video.png\">" +
+                        "<a href=\"/torrent/big-buck-bunny/" + HASH + "/\"><div  class=\"resultdivtopname\" >\n        Big Buck Bunny " + i + " 1080p</div></a></div>" +
+                        "<div class=\"resultdivbotton\"><div class=\"resultdivbottontime\">" + i + " days</div>" +
+                        "<div class=\"resultdivbottonlength\">1.2 GB</div><div class=\"resultdivbottonseed\">" + (i + 10) + "</div></div></div>\n");
+        benchmark("magnetdl", engine -> new MagnetDLSearchPerformer(1, KEYWORDS, TIMEOUT, engine), 50, "<tbody>", "<td id=\"pages\">", i ->
+                "<tr><td class=\"m\"><a href=\"magnet:?xt=urn:btih:" + HASH + "&amp;dn=Big+Buck+Bunny\" title=\"Direct Download\" rel=\"nofollow\"><img src=\"/img/m.gif\" alt=\"Magnet Link\" /></a></td>" +
+                        "<td class=\"n\"><a href=\"/file/" + i + "/big-buck-bunny-" + i + "/\" title=\"Big Buck Bunny " + i + " 1080p\"><b>Big</b> <b>Buck</b> <b>Bunny</b> " + i + " 1080p</a></td>" +
+                        "<td>" + i + " days</td><td class=\"t1\">Movie</td><td>1</td><td>1.2 GB</td>" +
+                        "<td class=\"s\">" + (i + 10) + "</td><td class=\"l\">" + i + "</td></tr><tr><td class=\"d\" colspan=\"8\"></td></tr>\n");
+        benchmark("limetorrents", engine -> new LimeTorrentsSearchPerformer("www.limetorrents.info", 1, KEYWORDS, TIMEOUT, engine), 50, "<th>Health</th>", "<a>Next page</a>", i ->
+                "<tr bgcolor=\"#F4F4F4\"><td class=\"tdleft\"><div class=\"tt-name\"><a href=\"http://itorrents.org/torrent/" + HASH.toUpperCase() + ".torrent?title=Big-Buck-Bunny-" + i + "\" rel=\"nofollow\" class=\"csprite_dl14\"></a>" +
+                        "<a href=\"/Big-Buck-Bunny-" + i + "-torrent-" + i + ".html\">Big Buck Bunny " + i + "</a></div><div class=\"tt-options\"></div></td>" +
+                        "<td class=\"tdnormal\">" + i + " days ago - in <a href=\"/browse-torrents/Movies/\">Movies</a></td>" +
+                        "<td class=\"tdnormal\">1.2 GB</td><td class=\"tdseed\">" + (i + 10) + "</td><td class=\"tdleech\">" + i + "</td><td class=\"tdright\"><div id=\"popup\"></div></td></tr>\n");
+    }
+
+    /**
+     * @param rows the rows before the last one, fewer than the results the
+     *             performer takes from a page
+     * @param head what the performer looks for before the results
+     * @param tail what the performer looks for after the results
+     */
+    private static void benchmark(String name, Performer performers, int rows, String head, String tail, Row row) {
+        String start = "<html><head><title>results</title></head><body>" + head + "<table>\n";
+        String end = "</table>" + tail + "</body></html>";
+        StringBuilder sb = new StringBuilder(start);
+        for (int i = 0; i < rows; i++) {
+            sb.append(row.html(i));
+        }
+        String lastRow = row.html(rows);
+        String complete = sb + lastRow + end;
+        // the last row is cut in the middle, the pattern fails at the end of the page
+        String truncated = sb + lastRow.substring(0, lastRow.length() * 2 / 3) + end;
+        StringBuilder broken = new StringBuilder(start);
+        for (int i = 0; i <= rows; i++) {
+            String html = row.html(i);
+            int cut = html.length() * 3 / 4;
+            broken.append(html, 0, cut).append("<span>").append(html.substring(cut).replace("</", "</x"));
+        }
+        broken.append(end);
+
+        PagedWebSearchPerformer jdk = performers.create(Pattern.Engine.JDK);
+        PagedWebSearchPerformer re2j = performers.create(Pattern.Engine.RE2J);
+        for (PagedWebSearchPerformer performer : new PagedWebSearchPerformer[]{jdk, re2j}) {
+            assertEquals(rows + 1, search(performer, complete), name);
+            assertEquals(rows, search(performer, truncated), name);
+        }
+        int jdkBroken = search(jdk, broken.toString());
+        int re2jBroken = search(re2j, broken.toString());
+
+        for (int round = 0; round < ROUNDS; round++) {
+            Benchmarks.report(RegexEngineBenchmarkTest.class, name + ", round " + round +
+                    ", complete page: " + times(jdk, re2j, complete) +
+                    ", truncated page: " + times(jdk, re2j, truncated) +
+                    ", broken page: " + times(jdk, re2j, broken.toString()) +
+                    " (" + results(jdkBroken) + " / " + results(re2jBroken) + ")");
+        }
+    }
+
+    /**
+     * @return the time per page of the JDK pattern and of the re2j one
+     */
+    private static String times(PagedWebSearchPerformer jdk, PagedWebSearchPerformer re2j, String page) {
+        return "jdk " + time(jdk, page) / 1000 + "us, re2j " + time(re2j, page) / 1000 + "us";
+    }
+
+    private static String results(int results) {
+        return results == -1 ? "failed" : results + " results";
+    }
+
+    private static long time(PagedWebSearchPerformer performer, String page) {
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            search(performer, page);
+        }
+        return (System.nanoTime() - start) / ITERATIONS;
+    }
+
+    /**
+     * @return the number of results, -1 if the performer failed, the page
+     * is lost as in a real search
+     */
+    private static int search(PagedWebSearchPerformer performer, String page) {
+        try {
+            return PerformerReplay.searchPage(performer, page).size();
+        } catch (RuntimeException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Created by Angel Leon (@gubatron), Alden Torres (aldenml)
+ * Copyright (c) 2011-2020, FrostWire(R). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.frostwire.tests;
+
+import com.frostwire.search.AbstractSearchResult;
+import com.frostwire.search.PagedWebSearchPerformer;
+import com.frostwire.search.SearchError;
+import com.frostwire.search.SearchListener;
+import com.frostwire.search.SearchResult;
+import com.frostwire.util.ThreadPool;
+import com.frostwire.util.VirtualThreads;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs N stub engines against a local http server with a fixed latency,
+ * once in the regular pools (8 threads for the engines, 16 for their pages,
+ * as {@link com.frostwire.search.SearchManager} and
+ * {@link PagedWebSearchPerformer} make them) and once in virtual threads
+ * (when the JVM supports them), and reports the throughput of each mode as
+ * the number of engines grows.
+ * <p>
+ * The pages are fetched in the executor set with
+ * {@link PagedWebSearchPerformer#setFetchExecutor(ExecutorService)}, where
+ * the engines wait for them.
+ *
+ * @author gubatron
+ * @author aldenml
+ */
+public class SearchExecutionBenchmarkTest {
+
+    private static final int LATENCY_MS = 200;
+    private static final int PAGES = 2;
+    private static final int[] ENGINES = {4, 8, 16, 32, 64};
+    private static final AtomicInteger RUNS = new AtomicInteger();
+
+    @Test
+    @Tag(Benchmarks.TAG)
+    public void benchmarkExecutionModes() throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/search", exchange -> {
+            try {
+                Thread.sleep(LATENCY_MS);
+            } catch (InterruptedException e) {
+                // ignore
+            }
+            byte[] body = "<html>r1 r2 r3 r4 r5</html>".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(body);
+            }
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        String baseUrl = "http://127.0.0.1:" + server.getAddress().getPort() + "/search";
+
+        try {
+            for (int engines : ENGINES) {
+                ExecutorService pool = new ThreadPool("benchmark", 8, new LinkedBlockingQueue<>(), true);
+                ExecutorService pagesPool = new ThreadPool("benchmark-pages", 16, new LinkedBlockingQueue<>(), true);
+                report("thread pool", engines, run(pool, pagesPool, baseUrl, engines));
+                pool.shutdown();
+                pagesPool.shutdown();
+
+                if (VirtualThreads.isSupported()) {
+                    ExecutorService virtual = VirtualThreads.newExecutor();
+                    report("virtual", engines, run(virtual, virtual, baseUrl, engines));
+                    virtual.shutdown();
+                }
+            }
+            if (!VirtualThreads.isSupported()) {
+                Benchmarks.report(SearchExecutionBenchmarkTest.class, "virtual threads not supported by this JVM, skipped");
+            }
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    private static long run(ExecutorService executor, ExecutorService pagesExecutor, String baseUrl, int engines) throws InterruptedException {
+        PagedWebSearchPerformer.setFetchExecutor(pagesExecutor);
+        try {
+            return run(executor, baseUrl, engines);
+        } finally {
+            PagedWebSearchPerformer.setFetchExecutor(null);
+        }
+    }
+
+    private static long run(ExecutorService executor, String baseUrl, int engines) throws InterruptedException {
+        // new hosts every run, not to start with the tokens of the previous one spent
+        int run = RUNS.incrementAndGet();
+        CountDownLatch done = new CountDownLatch(engines);
+        AtomicInteger results = new AtomicInteger();
+        long start = System.nanoTime();
+        for (int i = 0; i < engines; i++) {
+            StubPerformer performer = new StubPerformer("engine" + i + ".run" + run + ".local", baseUrl);
+            performer.setListener(new SearchListener() {
+                @Override
+                public void onResults(long token, List<? extends SearchResult> list) {
+                    results.addAndGet(list.size());
+                }
+
+                @Override
+                public void onError(long token, SearchError error) {
+                }
+
+                @Override
+                public void onStopped(long token) {
+                }
+            });
+            executor.execute(() -> {
+                try {
+                    performer.perform();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        assertTrue(done.await(120, TimeUnit.SECONDS));
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertEquals(engines * PAGES * 5, results.get());
+        return elapsed;
+    }
+
+    private static void report(String mode, int engines, long elapsedMs) {
+        double pagesPerSecond = engines * PAGES * 1000.0 / Math.max(elapsedMs, 1);
+        Benchmarks.report(SearchExecutionBenchmarkTest.class, mode + ", engines=" + engines + ", time=" + elapsedMs + "ms, pages/s=" + String.format("%.1f", pagesPerSecond));
+    }
+
+    private static final class StubPerformer extends PagedWebSearchPerformer {
+        private final String baseUrl;
+
+        StubPerformer(String domainName, String baseUrl) {
+            super(domainName, 1, "benchmark", 10000, PAGES);
+            this.baseUrl = baseUrl;
+        }
+
+        @Override
+        protected String getUrl(int page, String encodedKeywords) {
+            return baseUrl + "?q=" + encodedKeywords + "&page=" + page;
+        }
+
+        @Override
+        protected List<? extends SearchResult> searchPage(String page) {
+            List<SearchResult> list = new ArrayList<>();
+            for (String token : page.split("[<> ]")) {
+                if (token.startsWith("r")) {
+                    list.add(new StubResult(token));
+                }
+            }
+            return list;
+        }
+    }
+
+    private static final class StubResult extends AbstractSearchResult {
+        private final String name;
+
+        StubResult(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String getDisplayName() {
+            return name;
+        }
+
+        @Override
+        public String getDetailsUrl() {
+            return "http://localhost/" + name;
+        }
+
+        @Override
+        public String getSource() {
+            return "stub";
+        }
+    }
+}
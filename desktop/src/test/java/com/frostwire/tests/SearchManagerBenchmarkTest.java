@@ -0,0 +1,205 @@
+/*
+ * Created by Angel Leon (@gubatron), Alden Torres (aldenml)
+ * Copyright (c) 2011-2020, FrostWire(R). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.frostwire.tests;
+
+import com.frostwire.search.AbstractSearchPerformer;
+import com.frostwire.search.AbstractSearchResult;
+import com.frostwire.search.CrawlableSearchResult;
+import com.frostwire.search.SearchError;
+import com.frostwire.search.SearchListener;
+import com.frostwire.search.SearchManager;
+import com.frostwire.search.SearchResult;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Simulates many engines each scheduling thousands of (instant) crawl tasks
+ * through {@link SearchManager}, to measure the cost of the task book keeping
+ * alone, no network involved.
+ *
+ * @author gubatron
+ * @author aldenml
+ */
+public class SearchManagerBenchmarkTest {
+
+    private static final int ENGINES = 16;
+    private static final int CRAWLS_PER_ENGINE = 500;
+    private static final int ROUNDS = 5;
+
+    @Test
+    @Tag(Benchmarks.TAG)
+    public void benchmarkCrawlTaskBookKeeping() throws InterruptedException {
+        SearchManager manager = SearchManager.getInstance();
+        for (int round = 0; round < ROUNDS; round++) {
+            long token = 1000 + round;
+            AtomicInteger crawled = new AtomicInteger();
+            CountDownLatch done = new CountDownLatch(1);
+            int expected = ENGINES * CRAWLS_PER_ENGINE;
+
+            manager.setListener(new SearchListener() {
+                @Override
+                public void onResults(long t, List<? extends SearchResult> results) {
+                }
+
+                @Override
+                public void onError(long t, SearchError error) {
+                }
+
+                @Override
+                public void onStopped(long t) {
+                    if (t == token && crawled.get() == expected && manager.pendingTasks(token) == 0) {
+                        done.countDown();
+                    }
+                }
+            });
+
+            long start = System.nanoTime();
+            for (int i = 0; i < ENGINES; i++) {
+                manager.perform(new CrawlStormPerformer(token, CRAWLS_PER_ENGINE, crawled));
+            }
+            assertTrue(done.await(60, TimeUnit.SECONDS), "search did not finish, crawled=" + crawled.get());
+            long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            assertEquals(expected, crawled.get());
+            assertEquals(0, manager.pendingTasks(token));
+            Benchmarks.report(SearchManagerBenchmarkTest.class, "round " + round + ", " + expected + " crawl tasks in " + elapsedMs + "ms");
+        }
+        manager.setListener(null);
+    }
+
+    @Test
+    public void stopTokenStopsAllPerformers() throws InterruptedException {
+        SearchManager manager = SearchManager.getInstance();
+        long token = 2000;
+        CountDownLatch stopped = new CountDownLatch(1);
+        manager.setListener(new SearchListener() {
+            @Override
+            public void onResults(long t, List<? extends SearchResult> results) {
+            }
+
+            @Override
+            public void onError(long t, SearchError error) {
+            }
+
+            @Override
+            public void onStopped(long t) {
+                if (t == token) {
+                    stopped.countDown();
+                }
+            }
+        });
+
+        List<SlowPerformer> performers = new ArrayList<>();
+        for (int i = 0; i < ENGINES; i++) {
+            SlowPerformer p = new SlowPerformer(token);
+            performers.add(p);
+            manager.perform(p);
+        }
+        manager.stop(token);
+
+        assertTrue(stopped.await(60, TimeUnit.SECONDS));
+        for (SlowPerformer p : performers) {
+            assertTrue(p.isStopped());
+        }
+        manager.setListener(null);
+    }
+
+    private static final class CrawlStormPerformer extends AbstractSearchPerformer {
+        private final int crawls;
+        private final AtomicInteger crawled;
+
+        CrawlStormPerformer(long token, int crawls, AtomicInteger crawled) {
+            super(token);
+            this.crawls = crawls;
+            this.crawled = crawled;
+        }
+
+        @Override
+        public void perform() {
+            List<SearchResult> results = new ArrayList<>(crawls);
+            for (int i = 0; i < crawls; i++) {
+                results.add(new StubCrawlableResult(i));
+            }
+            onResults(results);
+        }
+
+        @Override
+        public void crawl(CrawlableSearchResult sr) {
+            crawled.incrementAndGet();
+        }
+    }
+
+    private static final class SlowPerformer extends AbstractSearchPerformer {
+        SlowPerformer(long token) {
+            super(token);
+        }
+
+        @Override
+        public void perform() {
+            long deadline = System.currentTimeMillis() + 10000;
+            while (!isStopped() && System.currentTimeMillis() < deadline) {
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public void crawl(CrawlableSearchResult sr) {
+        }
+    }
+
+    private static final class StubCrawlableResult extends AbstractSearchResult implements CrawlableSearchResult {
+        private final int n;
+
+        StubCrawlableResult(int n) {
+            this.n = n;
+        }
+
+        @Override
+        public boolean isComplete() {
+            return false;
+        }
+
+        @Override
+        public String getDisplayName() {
+            return "result-" + n;
+        }
+
+        @Override
+        public String getDetailsUrl() {
+            return "http://localhost/" + n;
+        }
+
+        @Override
+        public String getSource() {
+            return "stub";
+        }
+    }
+}
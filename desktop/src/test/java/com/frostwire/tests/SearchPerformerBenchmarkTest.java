@@ -0,0 +1,138 @@
+/*
+ * Created by Angel Leon (@gubatron), Alden Torres (aldenml)
+ * Copyright (c) 2011-2020, FrostWire(R). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.frostwire.tests;
+
+import com.frostwire.search.CrawlPagedWebSearchPerformer;
+import com.frostwire.search.CrawlableSearchResult;
+import com.frostwire.search.PagedWebSearchPerformer;
+import com.frostwire.search.PerformerReplay;
+import com.frostwire.search.SearchResult;
+import com.frostwire.search.archiveorg.ArchiveorgSearchPerformer;
+import com.frostwire.search.eztv.EztvSearchPerformer;
+import com.frostwire.search.idope.IdopeSearchPerformer;
+import com.frostwire.search.limetorrents.LimeTorrentsSearchPerformer;
+import com.frostwire.search.magnetdl.MagnetDLSearchPerformer;
+import com.frostwire.search.nyaa.NyaaSearchPerformer;
+import com.frostwire.search.one337x.One337xSearchPerformer;
+import com.frostwire.search.soundcloud.SoundcloudSearchPerformer;
+import com.frostwire.search.torlock.TorLockSearchPerformer;
+import com.frostwire.search.torrentdownloads.TorrentDownloadsSearchPerformer;
+import com.frostwire.search.torrentparadise.TorrentParadiseSearchPerformer;
+import com.frostwire.search.torrentz2.Torrentz2SearchPerformer;
+import com.frostwire.search.tpb.TPBSearchPerformer;
+import com.frostwire.search.yify.YifySearchPerformer;
+import com.frostwire.search.zooqle.ZooqleSearchPerformer;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Replays stored search and details pages (in the fixtures folder next to
+ * this class, shaped like the real ones) through the parsing of every
+ * performer, {@code searchPage(String)} and {@code crawlResult}, without
+ * the network, and reports the time, the pages per second and the bytes
+ * allocated per page of each one. The number of results of every page is
+ * checked, a change in a parser that breaks it fails here too.
+ * <p>
+ * To see the effect of a change in a parser (a regex, a json reader), run
+ * it before and after.
+ *
+ * @author gubatron
+ * @author aldenml
+ */
+public class SearchPerformerBenchmarkTest {
+
+    private static final int ROUNDS = 5;
+    private static final int ITERATIONS = 100;
+    private static final String KEYWORDS = "bunny";
+    private static final int TIMEOUT = 5000;
+
+    @Test
+    @Tag(Benchmarks.TAG)
+    public void benchmarkPerformers() throws Exception {
+        benchmark("tpb", new TPBSearchPerformer("thepiratebay.org", 1, KEYWORDS, TIMEOUT), 20, null);
+        benchmark("nyaa", new NyaaSearchPerformer("nyaa.si", 1, KEYWORDS, TIMEOUT), 30, null);
+        benchmark("idope", new IdopeSearchPerformer(1, KEYWORDS, TIMEOUT), 10, null);
+        benchmark("magnetdl", new MagnetDLSearchPerformer(1, KEYWORDS, TIMEOUT), 30, null);
+        benchmark("limetorrents", new LimeTorrentsSearchPerformer("www.limetorrents.info", 1, KEYWORDS, TIMEOUT), 30, null);
+        benchmark("torrentz2", new Torrentz2SearchPerformer(1, KEYWORDS, TIMEOUT), 30, null);
+        benchmark("one337x", new One337xSearchPerformer("www.1337x.to", 1, KEYWORDS, TIMEOUT), 20, 1);
+        benchmark("zooqle", new ZooqleSearchPerformer("zooqle.com", 1, KEYWORDS, TIMEOUT), 30, 1);
+        benchmark("torlock", new TorLockSearchPerformer("www.torlock.com", 1, KEYWORDS, TIMEOUT), 15, 1);
+        benchmark("yify", new YifySearchPerformer("www.yify-torrent.org", 1, KEYWORDS, TIMEOUT), 21, 1);
+        benchmark("eztv", new EztvSearchPerformer("eztv.re", 1, KEYWORDS, TIMEOUT), 20, 1);
+        benchmark("torrentdownloads", new TorrentDownloadsSearchPerformer("www.torrentdownloads.me", 1, KEYWORDS, TIMEOUT), 20, 1);
+        benchmark("torrentparadise", new TorrentParadiseSearchPerformer(1, KEYWORDS, TIMEOUT), 60, null);
+        benchmark("soundcloud", new SoundcloudSearchPerformer("soundcloud.com", 1, KEYWORDS, TIMEOUT), 24, null);
+        benchmark("archiveorg", new ArchiveorgSearchPerformer("archive.org", 1, KEYWORDS, TIMEOUT), 30, 121);
+    }
+
+    /**
+     * @param searchResults the results of the search page
+     * @param crawlResults  the results of the crawl of the details page of the
+     *                      first one, {@code null} if the performer doesn't crawl
+     */
+    private static void benchmark(String name, PagedWebSearchPerformer performer, int searchResults, Integer crawlResults) throws Exception {
+        String page = Benchmarks.searchPage(name);
+        List<? extends SearchResult> results = PerformerReplay.searchPage(performer, page);
+        assertEquals(searchResults, results.size(), name + " search page");
+
+        CrawlableSearchResult sr = null;
+        byte[] details = null;
+        if (crawlResults != null) {
+            sr = (CrawlableSearchResult) results.get(0);
+            details = Benchmarks.detailsPage(name);
+            assertEquals((int) crawlResults, crawl(performer, sr, details).size(), name + " details page");
+        }
+
+        for (int round = 0; round < ROUNDS; round++) {
+            long allocated = Benchmarks.allocatedBytes();
+            long start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++) {
+                PerformerReplay.searchPage(performer, page);
+            }
+            long searchNs = (System.nanoTime() - start) / ITERATIONS;
+            long searchBytes = (Benchmarks.allocatedBytes() - allocated) / ITERATIONS;
+            String report = name + ", round " + round +
+                    ", search page (" + page.length() / 1024 + "K chars): " + report(searchNs, searchBytes);
+
+            if (details != null) {
+                allocated = Benchmarks.allocatedBytes();
+                start = System.nanoTime();
+                for (int i = 0; i < ITERATIONS; i++) {
+                    crawl(performer, sr, details);
+                }
+                long crawlNs = (System.nanoTime() - start) / ITERATIONS;
+                long crawlBytes = (Benchmarks.allocatedBytes() - allocated) / ITERATIONS;
+                report += ", details page (" + details.length / 1024 + "K bytes): " + report(crawlNs, crawlBytes);
+            }
+            Benchmarks.report(SearchPerformerBenchmarkTest.class, report);
+        }
+    }
+
+    private static List<? extends SearchResult> crawl(PagedWebSearchPerformer performer, CrawlableSearchResult sr, byte[] data) throws Exception {
+        return PerformerReplay.crawlResult((CrawlPagedWebSearchPerformer<?>) performer, sr, data);
+    }
+
+    private static String report(long ns, long bytes) {
+        return ns / 1000 + "us " + (ns > 0 ? 1000000000L / ns : 0) + " pages/s " + Benchmarks.allocation(bytes) + " per page";
+    }
+}
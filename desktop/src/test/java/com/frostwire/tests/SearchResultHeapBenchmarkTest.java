@@ -0,0 +1,182 @@
+/*
+ * Created by Angel Leon (@gubatron), Alden Torres (aldenml)
+ * Copyright (c) 2011-2020, FrostWire(R). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.frostwire.tests;
+
+import com.frostwire.search.CrawlPagedWebSearchPerformer;
+import com.frostwire.search.CrawlableSearchResult;
+import com.frostwire.search.HttpSearchResult;
+import com.frostwire.search.PagedWebSearchPerformer;
+import com.frostwire.search.PerformerReplay;
+import com.frostwire.search.SearchResult;
+import com.frostwire.search.archiveorg.ArchiveorgSearchPerformer;
+import com.frostwire.search.idope.IdopeSearchPerformer;
+import com.frostwire.search.limetorrents.LimeTorrentsSearchPerformer;
+import com.frostwire.search.magnetdl.MagnetDLSearchPerformer;
+import com.frostwire.search.nyaa.NyaaSearchPerformer;
+import com.frostwire.search.soundcloud.SoundcloudSearchPerformer;
+import com.frostwire.search.soundcloud.SoundcloudSearchResult;
+import com.frostwire.search.torrent.TorrentSearchResult;
+import com.frostwire.search.torrentparadise.TorrentParadiseSearchPerformer;
+import com.frostwire.search.torrentz2.Torrentz2SearchPerformer;
+import com.frostwire.search.tpb.TPBSearchPerformer;
+import com.limegroup.gnutella.gui.search.UISearchResult;
+import com.limegroup.gnutella.gui.search.UISearchResultReplay;
+import org.apache.commons.io.FilenameUtils;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Loads {@link #RESULTS} results of every engine (replaying the stored
+ * search pages, the ones of {@link SearchPerformerBenchmarkTest}) and
+ * reports the bytes retained per result.
+ * <p>
+ * The before is emulated: the same results plus a copy of each value they
+ * kept before and now derive when asked (the magnet with the trackers, the
+ * details and download urls of archive.org) or share (the source and user
+ * of soundcloud), that is, what every result used to hold on its own.
+ * The engines shown by the desktop ui are also measured with their ui
+ * result and the values of their results table line, the before with a
+ * copy of the extension, seeds text and source html they made on their own.
+ * The before numbers are estimates, not measures of the old code.
+ *
+ * @author gubatron
+ * @author aldenml
+ */
+public class SearchResultHeapBenchmarkTest {
+
+    private static final int ROUNDS = 3;
+    private static final int RESULTS = 50000;
+    private static final String KEYWORDS = "bunny";
+    private static final int TIMEOUT = 5000;
+
+    @Test
+    @Tag(Benchmarks.TAG)
+    public void benchmarkRetainedBytes() throws Exception {
+        benchmark("tpb", new TPBSearchPerformer("thepiratebay.org", 1, KEYWORDS, TIMEOUT), false);
+        benchmark("nyaa", new NyaaSearchPerformer("nyaa.si", 1, KEYWORDS, TIMEOUT), false);
+        benchmark("idope", new IdopeSearchPerformer(1, KEYWORDS, TIMEOUT), false);
+        benchmark("magnetdl", new MagnetDLSearchPerformer(1, KEYWORDS, TIMEOUT), false);
+        benchmark("limetorrents", new LimeTorrentsSearchPerformer("www.limetorrents.info", 1, KEYWORDS, TIMEOUT), false);
+        benchmark("torrentz2", new Torrentz2SearchPerformer(1, KEYWORDS, TIMEOUT), false);
+        benchmark("torrentparadise", new TorrentParadiseSearchPerformer(1, KEYWORDS, TIMEOUT), false);
+        benchmark("soundcloud", new SoundcloudSearchPerformer("soundcloud.com", 1, KEYWORDS, TIMEOUT), false);
+        benchmark("archiveorg", new ArchiveorgSearchPerformer("archive.org", 1, KEYWORDS, TIMEOUT), false);
+        benchmark("archiveorg", new ArchiveorgSearchPerformer("archive.org", 1, KEYWORDS, TIMEOUT), true);
+    }
+
+    /**
+     * @param crawled the results of the details page of the first result
+     *                instead of the ones of the search page
+     */
+    private static void benchmark(String name, PagedWebSearchPerformer performer, boolean crawled) throws Exception {
+        String page = Benchmarks.searchPage(name);
+        byte[] details = crawled ? Benchmarks.detailsPage(name) : null;
+        assertFalse(load(performer, page, details).isEmpty(), name);
+
+        // the ui wraps only the results it shows, not the not crawled ones of archive.org
+        boolean ui = UISearchResultReplay.wrap(load(performer, page, details).get(0), KEYWORDS) != null;
+        for (int round = 0; round < ROUNDS; round++) {
+            String line = name + (crawled ? " (crawled)" : "") + ", round " + round + ", " + RESULTS + " results" +
+                    ", before (estimated): " + retained(performer, page, details, true, false) + "B per result" +
+                    ", after: " + retained(performer, page, details, false, false) + "B per result";
+            if (ui) {
+                line += ", with the ui, before (estimated): " + retained(performer, page, details, true, true) + "B per result" +
+                        ", after: " + retained(performer, page, details, false, true) + "B per result";
+            }
+            Benchmarks.report(SearchResultHeapBenchmarkTest.class, line);
+        }
+    }
+
+    /**
+     * @param eager also hold a copy of the values kept before
+     * @param ui    also hold the ui result and the values of its line
+     * @return the bytes retained per result
+     */
+    private static long retained(PagedWebSearchPerformer performer, String page, byte[] details, boolean eager, boolean ui) throws Exception {
+        long used = Benchmarks.retained();
+        // the same holders for the before and the after, only the values held differ
+        List<Object> held = new ArrayList<>(5 * RESULTS);
+        for (SearchResult sr : results(performer, page, details)) {
+            held.add(sr);
+            held.add(eager ? eager(sr) : new Object[3]);
+            if (ui) {
+                UISearchResult uisr = UISearchResultReplay.wrap(sr, KEYWORDS);
+                held.add(uisr);
+                held.add(UISearchResultReplay.lineValues(uisr));
+                held.add(eager ? eager(uisr) : new Object[3]);
+            }
+        }
+        long retained = Benchmarks.retained() - used;
+        // also keeps the results reachable until measured
+        assertEquals((ui ? 5 : 2) * RESULTS, held.size());
+        return retained / RESULTS;
+    }
+
+    private static List<SearchResult> results(PagedWebSearchPerformer performer, String page, byte[] details) throws Exception {
+        List<SearchResult> results = new ArrayList<>(RESULTS);
+        while (results.size() < RESULTS) {
+            for (SearchResult sr : load(performer, page, details)) {
+                if (results.size() < RESULTS) {
+                    results.add(sr);
+                }
+            }
+        }
+        assertEquals(RESULTS, results.size());
+        return results;
+    }
+
+    private static List<? extends SearchResult> load(PagedWebSearchPerformer performer, String page, byte[] details) throws Exception {
+        List<? extends SearchResult> results = PerformerReplay.searchPage(performer, page);
+        if (details == null) {
+            return results;
+        }
+        CrawlableSearchResult sr = (CrawlableSearchResult) results.get(0);
+        return PerformerReplay.crawlResult((CrawlPagedWebSearchPerformer<?>) performer, sr, details);
+    }
+
+    // a copy of the values a result kept before, the ones still kept as
+    // fields are the same instance and add nothing
+    private static Object[] eager(SearchResult sr) {
+        if (sr instanceof SoundcloudSearchResult) {
+            SoundcloudSearchResult s = (SoundcloudSearchResult) sr;
+            return new Object[]{new String(s.getSource()), new String(s.getUsername()), null};
+        }
+        return new Object[]{
+                sr.getDetailsUrl(),
+                sr instanceof TorrentSearchResult ? ((TorrentSearchResult) sr).getTorrentUrl() : null,
+                sr instanceof HttpSearchResult ? ((HttpSearchResult) sr).getDownloadUrl() : null
+        };
+    }
+
+    // a copy of the values the ui result and its line made on their own
+    // before, the extension, the seeds text and the html of the source,
+    // the details url of the source is the one of the result
+    private static Object[] eager(UISearchResult sr) {
+        return new Object[]{
+                FilenameUtils.getExtension(sr.getFilename()),
+                sr.getSeeds() > 0 && sr.getSearchResult() instanceof TorrentSearchResult ? String.valueOf(sr.getSeeds()) : "",
+                "<html><div width=\"1000000px\"><nobr><a href=\"#\">" + sr.getSource() + "</a></nobr></div></html>"
+        };
+    }
+}
@@ -0,0 +1,274 @@
+/*
+ * Created by Angel Leon (@gubatron), Alden Torres (aldenml)
+ * Copyright (c) 2011-2020, FrostWire(R). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.frostwire.tests;
+
+import com.frostwire.jlibtorrent.FileStorage;
+import com.frostwire.jlibtorrent.TorrentInfo;
+import com.frostwire.search.AbstractSearchPerformer;
+import com.frostwire.search.CrawlableSearchResult;
+import com.frostwire.search.PerformersHelper;
+import com.frostwire.search.SearchResult;
+import com.frostwire.search.torrent.AbstractTorrentSearchResult;
+import com.frostwire.search.torrent.TorrentCrawledSearchResult;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Crawls a synthetic torrent of 10k files (a season pack, with a pad file
+ * every few files) the way {@link PerformersHelper#crawlTorrent} did
+ * before, a {@link TorrentCrawledSearchResult} with its strings for every
+ * file, and the way it does now, views of a shared index of the files, and
+ * reports the time, the bytes allocated and the bytes retained by the
+ * results of each one, and the cost of reading the names and sizes of all
+ * the views afterwards (as a filter of the results does).
+ * <p>
+ * It needs the jlibtorrent native library, it's skipped without it, but
+ * for the crawl with the pure java decoder
+ * ({@link PerformersHelper.TorrentDecoder#JAVA}), compared to libtorrent
+ * when the native library is there.
+ *
+ * @author gubatron
+ * @author aldenml
+ */
+public class TorrentCrawlMemoryBenchmarkTest {
+
+    private static final int FILES = 10000;
+    private static final int PAD_EVERY = 10;
+    private static final long FILE_SIZE = 350 * 1024 * 1024 + 12345;
+    private static final int PIECE_LENGTH = 16 * 1024 * 1024;
+    private static final int ROUNDS = 5;
+
+    @Test
+    @Tag(Benchmarks.TAG)
+    public void benchmarkCrawl() {
+        byte[] data = torrent(FILES);
+        assumeTrue(nativeAvailable(data), "jlibtorrent native library not available");
+        TestResult sr = new TestResult();
+        TestPerformer performer = new TestPerformer();
+        int expected = FILES - FILES / PAD_EVERY;
+        assertEquals(expected, eager(sr, data).size());
+        List<? extends SearchResult> lazy = PerformersHelper.crawlTorrent(performer, sr, data);
+        assertEquals(expected, lazy.size());
+        TorrentCrawledSearchResult first = (TorrentCrawledSearchResult) lazy.get(0);
+        assertEquals("Show.S01E00001.1080p", first.getDisplayName());
+        assertEquals((double) FILE_SIZE, first.getSize(), 0);
+
+        for (int round = 0; round < ROUNDS; round++) {
+            long used = Benchmarks.retained();
+            long allocated = Benchmarks.allocatedBytes();
+            long start = System.nanoTime();
+            List<TorrentCrawledSearchResult> eager = eager(sr, data);
+            long eagerNs = System.nanoTime() - start;
+            long eagerAllocated = Benchmarks.allocatedBytes() - allocated;
+            long eagerRetained = Benchmarks.retained() - used;
+
+            used = Benchmarks.retained();
+            allocated = Benchmarks.allocatedBytes();
+            start = System.nanoTime();
+            lazy = PerformersHelper.crawlTorrent(performer, sr, data);
+            long lazyNs = System.nanoTime() - start;
+            long lazyAllocated = Benchmarks.allocatedBytes() - allocated;
+            long lazyRetained = Benchmarks.retained() - used;
+
+            allocated = Benchmarks.allocatedBytes();
+            start = System.nanoTime();
+            double total = 0;
+            for (SearchResult r : lazy) {
+                TorrentCrawledSearchResult tr = (TorrentCrawledSearchResult) r;
+                tr.getDisplayName();
+                total += tr.getSize();
+            }
+            long readNs = System.nanoTime() - start;
+            long readAllocated = Benchmarks.allocatedBytes() - allocated;
+
+            Benchmarks.report(TorrentCrawlMemoryBenchmarkTest.class, "round " + round + ", " + FILES + " files" +
+                    ", eager: " + eagerNs / 1000000 + "ms, " + eagerAllocated / 1024 + "KB allocated, " + eagerRetained / 1024 + "KB retained" +
+                    ", lazy: " + lazyNs / 1000000 + "ms, " + lazyAllocated / 1024 + "KB allocated, " + lazyRetained / 1024 + "KB retained" +
+                    ", lazy read all: " + readNs / 1000000 + "ms, " + readAllocated / 1024 + "KB allocated" +
+                    " (" + eager.size() + "/" + lazy.size() + ", " + (long) (total / 1024 / 1024 / 1024) + "GB)");
+        }
+    }
+
+    @Test
+    @Tag(Benchmarks.TAG)
+    public void benchmarkJavaDecoder() {
+        byte[] data = torrent(FILES);
+        boolean nativeAvailable = nativeAvailable(data);
+        TestResult sr = new TestResult();
+        TestPerformer performer = new TestPerformer();
+        int expected = FILES - FILES / PAD_EVERY;
+        List<? extends SearchResult> java = PerformersHelper.crawlTorrent(performer, sr, data, false, PerformersHelper.TorrentDecoder.JAVA);
+        assertEquals(expected, java.size());
+        TorrentCrawledSearchResult first = (TorrentCrawledSearchResult) java.get(0);
+        assertEquals("Show.S01.1080p/Season 01/Show.S01E00001.1080p.mkv", first.getFilePath());
+        assertEquals((double) FILE_SIZE, first.getSize(), 0);
+        if (nativeAvailable) {
+            TorrentCrawledSearchResult lt = (TorrentCrawledSearchResult) PerformersHelper.crawlTorrent(performer, sr, data, false, PerformersHelper.TorrentDecoder.LIBTORRENT).get(0);
+            assertEquals(lt.getFilePath(), first.getFilePath());
+        }
+
+        for (int round = 0; round < ROUNDS; round++) {
+            // not to count the list of the previous round as retained
+            java = null;
+            long used = Benchmarks.retained();
+            long allocated = Benchmarks.allocatedBytes();
+            long start = System.nanoTime();
+            java = PerformersHelper.crawlTorrent(performer, sr, data, false, PerformersHelper.TorrentDecoder.JAVA);
+            long javaNs = System.nanoTime() - start;
+            long javaAllocated = Benchmarks.allocatedBytes() - allocated;
+            long javaRetained = Benchmarks.retained() - used;
+
+            String libtorrent = "";
+            if (nativeAvailable) {
+                used = Benchmarks.retained();
+                allocated = Benchmarks.allocatedBytes();
+                start = System.nanoTime();
+                List<? extends SearchResult> lt = PerformersHelper.crawlTorrent(performer, sr, data, false, PerformersHelper.TorrentDecoder.LIBTORRENT);
+                long ltNs = System.nanoTime() - start;
+                long ltAllocated = Benchmarks.allocatedBytes() - allocated;
+                long ltRetained = Benchmarks.retained() - used;
+                libtorrent = ", libtorrent: " + ltNs / 1000 + "us, " + ltAllocated / 1024 + "KB allocated, " + ltRetained / 1024 + "KB java heap retained (" + lt.size() + ")";
+            }
+
+            Benchmarks.report(TorrentCrawlMemoryBenchmarkTest.class, "round " + round + ", " + FILES + " files, " + data.length / 1024 + "KB torrent" +
+                    ", java: " + javaNs / 1000 + "us, " + javaAllocated / 1024 + "KB allocated, " + javaRetained / 1024 + "KB retained (" + java.size() + ")" +
+                    libtorrent);
+        }
+    }
+
+    // as PerformersHelper.crawlTorrent did, every result with its strings
+    private static List<TorrentCrawledSearchResult> eager(TestResult sr, byte[] data) {
+        TorrentInfo ti = TorrentInfo.bdecode(data);
+        FileStorage fs = ti.files();
+        List<TorrentCrawledSearchResult> list = new LinkedList<>();
+        for (int i = 0; i < fs.numFiles(); i++) {
+            if (!fs.padFileAt(i)) {
+                list.add(new TorrentCrawledSearchResult(sr, ti, i, fs.filePath(i), fs.fileSize(i)));
+            }
+        }
+        return list;
+    }
+
+    private static boolean nativeAvailable(byte[] data) {
+        try {
+            TorrentInfo.bdecode(data);
+            return true;
+        } catch (LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * A bencoded multi file torrent, every {@link #PAD_EVERY} file is a pad
+     * file. The piece hashes are zeros, only the metadata is read.
+     */
+    static byte[] torrent(int numFiles) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long total = 0;
+        write(out, "d4:infod5:filesl");
+        for (int i = 0; i < numFiles; i++) {
+            if (i % PAD_EVERY == PAD_EVERY - 1) {
+                long padSize = 4096;
+                write(out, "d4:attr1:p6:lengthi" + padSize + "e4:pathl4:.pad" + string(String.valueOf(padSize)) + "ee");
+                total += padSize;
+            } else {
+                String name = String.format("Show.S01E%05d.1080p.mkv", i + 1);
+                write(out, "d6:lengthi" + FILE_SIZE + "e4:pathl" + string("Season 01") + string(name) + "ee");
+                total += FILE_SIZE;
+            }
+        }
+        long pieces = (total + PIECE_LENGTH - 1) / PIECE_LENGTH;
+        write(out, "e4:name" + string("Show.S01.1080p") + "12:piece lengthi" + PIECE_LENGTH + "e6:pieces" + pieces * 20 + ":");
+        out.write(new byte[(int) pieces * 20], 0, (int) pieces * 20);
+        write(out, "ee");
+        return out.toByteArray();
+    }
+
+    private static String string(String s) {
+        return s.getBytes(StandardCharsets.UTF_8).length + ":" + s;
+    }
+
+    private static void write(ByteArrayOutputStream out, String s) {
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        out.write(b, 0, b.length);
+    }
+
+    private static final class TestPerformer extends AbstractSearchPerformer {
+        TestPerformer() {
+            super(1);
+        }
+
+        @Override
+        public void perform() {
+        }
+
+        @Override
+        public void crawl(CrawlableSearchResult sr) {
+        }
+    }
+
+    private static final class TestResult extends AbstractTorrentSearchResult {
+        @Override
+        public String getTorrentUrl() {
+            return "http://test.com/show.torrent";
+        }
+
+        @Override
+        public int getSeeds() {
+            return 100;
+        }
+
+        @Override
+        public String getHash() {
+            return "0123456789abcdef0123456789abcdef01234567";
+        }
+
+        @Override
+        public String getFilename() {
+            return "show.torrent";
+        }
+
+        @Override
+        public double getSize() {
+            return 0;
+        }
+
+        @Override
+        public String getDisplayName() {
+            return "Show.S01.1080p";
+        }
+
+        @Override
+        public String getDetailsUrl() {
+            return "http://test.com/show";
+        }
+
+        @Override
+        public String getSource() {
+            return "test";
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Created by Angel Leon (@gubatron), Alden Torres (aldenml)
+ * Copyright (c) 2011-2020, FrostWire(R). All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.limegroup.gnutella.gui.search;
+
+import com.frostwire.search.SearchResult;
+import com.frostwire.search.archiveorg.ArchiveorgCrawledSearchResult;
+import com.frostwire.search.soundcloud.SoundcloudSearchResult;
+import com.frostwire.search.torrent.TorrentSearchResult;
+
+/**
+ * Access for the tests to the desktop wrappers of the search results, to
+ * make them as a search does without the GUI.
+ *
+ * @author gubatron
+ * @author aldenml
+ */
+public final class UISearchResultReplay {
+
+    private UISearchResultReplay() {
+    }
+
+    /**
+     * @return the wrapper {@link SearchMediator} makes of the result (with
+     * no engine), {@code null} if the result is not shown
+     */
+    public static UISearchResult wrap(SearchResult sr, String query) {
+        if (sr instanceof SoundcloudSearchResult) {
+            return new SoundcloudUISearchResult((SoundcloudSearchResult) sr, null, query);
+        } else if (sr instanceof TorrentSearchResult) {
+            return new TorrentUISearchResult((TorrentSearchResult) sr, null, query);
+        } else if (sr instanceof ArchiveorgCrawledSearchResult) {
+            return new ArchiveorgUISearchResult((ArchiveorgCrawledSearchResult) sr, null, query);
+        }
+        return null;
+    }
+
+    /**
+     * @return the values a {@link SearchResultDataLine} keeps of the result
+     * that are not the same for all, but the icon and the download state,
+     * they need the GUI
+     */
+    public static Object[] lineValues(UISearchResult sr) {
+        return new Object[]{SearchResultDataLine.seeds(sr), new SourceHolder(sr)};
+    }
+}